@@ -32,8 +32,7 @@ import ch.cyberduck.core.io.Checksum;
 import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.threading.BackgroundExceptionCallable;
-import ch.cyberduck.core.threading.ThreadPool;
-import ch.cyberduck.core.threading.ThreadPoolFactory;
+import ch.cyberduck.core.threading.SegmentScheduler;
 import ch.cyberduck.core.transfer.SegmentRetryCallable;
 import ch.cyberduck.core.transfer.TransferStatus;
 import ch.cyberduck.core.worker.DefaultExceptionMappingService;
@@ -98,7 +97,7 @@ public class B2LargeUploadService extends HttpUploadFeature<BaseB2Response, Mess
                                  final StreamListener listener,
                                  final TransferStatus status,
                                  final ConnectionCallback callback) throws BackgroundException {
-        final ThreadPool pool = ThreadPoolFactory.get("largeupload", concurrency);
+        final SegmentScheduler.SegmentThreadPool pool = SegmentScheduler.pool(session.getHost(), concurrency);
         try {
             // Get the results of the uploads in the order they were submitted
             // this is important for building the manifest, and is not a problem in terms of performance
@@ -215,7 +214,7 @@ public class B2LargeUploadService extends HttpUploadFeature<BaseB2Response, Mess
         }
     }
 
-    private Future<B2UploadPartResponse> submit(final ThreadPool pool, final Path file, final Local local,
+    private Future<B2UploadPartResponse> submit(final SegmentScheduler.SegmentThreadPool pool, final Path file, final Local local,
                                                 final BandwidthThrottle throttle, final StreamListener listener,
                                                 final TransferStatus overall,
                                                 final String fileId, final int partNumber,
@@ -224,7 +223,7 @@ public class B2LargeUploadService extends HttpUploadFeature<BaseB2Response, Mess
             log.info(String.format("Submit part %d of %s to queue with offset %d and length %d", partNumber, file, offset, length));
         }
         final BytecountStreamListener counter = new BytecountStreamListener(listener);
-        return pool.execute(new SegmentRetryCallable<>(session.getHost(), new BackgroundExceptionCallable<B2UploadPartResponse>() {
+        return pool.execute(new SegmentRetryCallable<>(session.getHost(), pool.getScheduler().measure(length, new BackgroundExceptionCallable<B2UploadPartResponse>() {
             @Override
             public B2UploadPartResponse call() throws BackgroundException {
                 overall.validate();
@@ -241,7 +240,7 @@ public class B2LargeUploadService extends HttpUploadFeature<BaseB2Response, Mess
                 status.setPart(partNumber);
                 return (B2UploadPartResponse) B2LargeUploadService.super.upload(file, local, throttle, counter, status, overall, status, callback);
             }
-        }, overall, counter));
+        }), overall, counter));
     }
 
     @Override
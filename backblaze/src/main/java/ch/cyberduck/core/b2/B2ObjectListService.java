@@ -105,6 +105,7 @@ public class B2ObjectListService implements ListService {
             if(!hasDirectoryPlaceholder && objects.isEmpty()) {
                 throw new NotfoundException(directory.getAbsolute());
             }
+            fileid.cache(objects);
             return objects;
         }
         catch(B2ApiException e) {
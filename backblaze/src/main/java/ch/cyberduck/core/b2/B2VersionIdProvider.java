@@ -15,21 +15,21 @@ package ch.cyberduck.core.b2;
  * GNU General Public License for more details.
  */
 
+import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.DefaultIOExceptionMappingService;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathContainerService;
-import ch.cyberduck.core.SimplePathPredicate;
-import ch.cyberduck.core.cache.LRUCache;
+import ch.cyberduck.core.cache.PathIdIndex;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.features.VersionIdProvider;
-import ch.cyberduck.core.preferences.PreferencesFactory;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Logger;
 
 import java.io.IOException;
+import java.util.function.Function;
 
 import synapticloop.b2.exception.B2ApiException;
 import synapticloop.b2.response.B2BucketResponse;
@@ -41,10 +41,11 @@ public class B2VersionIdProvider implements VersionIdProvider {
 
     private final PathContainerService containerService = new B2PathContainerService();
     private final B2Session session;
-    private final LRUCache<SimplePathPredicate, String> cache = LRUCache.build(PreferencesFactory.get().getLong("fileid.cache.size"));
+    private final PathIdIndex cache;
 
     public B2VersionIdProvider(final B2Session session) {
         this.session = session;
+        this.cache = new PathIdIndex(session.getHost());
     }
 
     @Override
@@ -55,8 +56,8 @@ public class B2VersionIdProvider implements VersionIdProvider {
             }
             return file.attributes().getVersionId();
         }
-        if(cache.contains(new SimplePathPredicate(file))) {
-            final String cached = cache.get(new SimplePathPredicate(file));
+        final String cached = cache.get(file);
+        if(null != cached) {
             if(log.isDebugEnabled()) {
                 log.debug(String.format("Return cached node %s for file %s", cached, file));
             }
@@ -95,16 +96,42 @@ public class B2VersionIdProvider implements VersionIdProvider {
             log.debug(String.format("Cache %s for file %s", id, file));
         }
         if(null == id) {
-            cache.remove(new SimplePathPredicate(file));
+            // Remove any descendants of moved or deleted folder
+            cache.remove(file);
             file.attributes().setVersionId(null);
         }
         else {
-            cache.put(new SimplePathPredicate(file), id);
+            cache.put(file, id);
             file.attributes().setVersionId(id);
         }
         return id;
     }
 
+    /**
+     * Add identifiers of files in directory listing
+     */
+    public void cache(final AttributedList<Path> list) {
+        cache.put(list, new Function<Path, String>() {
+            @Override
+            public String apply(final Path file) {
+                if(file.attributes().isDuplicate()) {
+                    // Ignore trashed files and previous versions
+                    return null;
+                }
+                return file.attributes().getVersionId();
+            }
+        });
+    }
+
+    /**
+     * Remove identifiers of file and its parents saved in a previous session
+     *
+     * @return True if lookup should be retried
+     */
+    public boolean invalidate(final Path file) {
+        return cache.invalidate(file);
+    }
+
     @Override
     public void clear() {
         cache.clear();
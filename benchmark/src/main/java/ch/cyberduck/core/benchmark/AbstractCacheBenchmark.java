@@ -0,0 +1,102 @@
+package ch.cyberduck.core.benchmark;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.DefaultPathPredicate;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathCache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.EnumSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup of children by reference in a populated path cache
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8G")
+public class AbstractCacheBenchmark {
+
+    @Param({"10000"})
+    public int folders;
+
+    @Param({"1000"})
+    public int entries;
+
+    private PathCache cache;
+    private DefaultPathPredicate[] references;
+    private DefaultPathPredicate missing;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        cache = new PathCache(folders);
+        references = new DefaultPathPredicate[folders];
+        for(int i = 0; i < folders; i++) {
+            final Path directory = new Path(String.format("/d%d", i), EnumSet.of(Path.Type.directory));
+            final AttributedList<Path> children = new AttributedList<>();
+            for(int k = 0; k < entries; k++) {
+                children.add(new Path(directory, String.format("f%d", k), EnumSet.of(Path.Type.file)));
+            }
+            cache.put(directory, children);
+            references[i] = new DefaultPathPredicate(children.get(entries / 2));
+        }
+        missing = new DefaultPathPredicate(new Path("/missing/f", EnumSet.of(Path.Type.file)));
+    }
+
+    @Benchmark
+    public Path lookup() {
+        return cache.lookup(references[ThreadLocalRandom.current().nextInt(folders)]);
+    }
+
+    @Benchmark
+    public Path lookupMissing() {
+        return cache.lookup(missing);
+    }
+
+    /**
+     * Previous implementation iterating over all cached directory listings
+     */
+    @Benchmark
+    @Measurement(iterations = 3, time = 5)
+    public Path scan() {
+        final DefaultPathPredicate reference = references[ThreadLocalRandom.current().nextInt(folders)];
+        for(AttributedList<Path> list : cache.asMap().values()) {
+            final Path f = list.find(reference);
+            if(null != f) {
+                return f;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,101 @@
+package ch.cyberduck.core.benchmark;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.filter.DownloadRegexFilter;
+import ch.cyberduck.ui.browser.SearchFilter;
+import ch.cyberduck.ui.comparator.FilenameComparator;
+import ch.cyberduck.ui.comparator.SizeComparator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Sorting and filtering of directory listing as done for every browser reload and transfer prepare
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2G")
+public class AttributedListFilterBenchmark {
+
+    /**
+     * Number of entries in listing
+     */
+    @Param({"100000"})
+    public int entries;
+
+    private AttributedList<Path> list;
+    private FilenameComparator filename;
+    private SizeComparator size;
+    private SearchFilter search;
+    private DownloadRegexFilter regex;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        list = new AttributedList<>();
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        for(int i = 0; i < entries; i++) {
+            // Unsorted names with every tenth file hidden
+            final Path file = new Path(directory, String.format(i % 10 == 0 ? ".f%d.txt" : "f%d.txt", (i * 7919) % entries),
+                EnumSet.of(Path.Type.file));
+            file.attributes().setSize(i);
+            list.add(file);
+        }
+        filename = new FilenameComparator(true);
+        size = new SizeComparator(false);
+        search = new SearchFilter("f1");
+        regex = new DownloadRegexFilter(Pattern.compile("\\..*"));
+    }
+
+    @Benchmark
+    public AttributedList<Path> sortFilename() {
+        return list.filter(filename);
+    }
+
+    @Benchmark
+    public AttributedList<Path> sortSize() {
+        return list.filter(size);
+    }
+
+    @Benchmark
+    public AttributedList<Path> search() {
+        return list.filter(filename, search);
+    }
+
+    @Benchmark
+    public AttributedList<Path> hidden() {
+        return list.filter(regex);
+    }
+}
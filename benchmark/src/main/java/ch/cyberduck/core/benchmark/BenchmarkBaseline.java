@@ -0,0 +1,118 @@
+package ch.cyberduck.core.benchmark;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Compare JMH results written with <code>-rf json</code> against a baseline from a previous release. Exits with
+ * non zero status if the score of any benchmark present in both files regressed by more than the threshold.
+ * <p>
+ * Usage: <code>BenchmarkBaseline &lt;results.json&gt; &lt;baseline.json&gt; [threshold percent]</code>
+ */
+public final class BenchmarkBaseline {
+
+    private BenchmarkBaseline() {
+        //
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if(args.length < 2) {
+            System.err.println("Usage: BenchmarkBaseline <results.json> <baseline.json> [threshold percent]");
+            System.exit(2);
+        }
+        final Map<String, Result> results = read(args[0]);
+        final Map<String, Result> baseline = read(args[1]);
+        final double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10d;
+        int regressions = 0;
+        for(Map.Entry<String, Result> entry : results.entrySet()) {
+            final Result previous = baseline.get(entry.getKey());
+            if(null == previous) {
+                System.out.printf("%-80s %14.3f %s (new)%n", entry.getKey(), entry.getValue().score, entry.getValue().unit);
+                continue;
+            }
+            final double change = entry.getValue().change(previous);
+            final boolean regression = change > threshold;
+            if(regression) {
+                regressions++;
+            }
+            System.out.printf("%-80s %14.3f %s %+8.1f%%%s%n", entry.getKey(), entry.getValue().score, entry.getValue().unit,
+                change, regression ? " REGRESSION" : "");
+        }
+        if(regressions > 0) {
+            System.err.printf("%d benchmarks regressed by more than %.1f%%%n", regressions, threshold);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return Primary metric by benchmark name and parameters
+     */
+    private static Map<String, Result> read(final String file) throws IOException {
+        final Map<String, Result> results = new LinkedHashMap<>();
+        try(Reader reader = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+            final JsonArray array = JsonParser.parseReader(reader).getAsJsonArray();
+            for(JsonElement element : array) {
+                final JsonObject run = element.getAsJsonObject();
+                final StringBuilder key = new StringBuilder(run.get("benchmark").getAsString());
+                if(run.has("params")) {
+                    for(Map.Entry<String, JsonElement> param : run.getAsJsonObject("params").entrySet()) {
+                        key.append(':').append(param.getKey()).append('=').append(param.getValue().getAsString());
+                    }
+                }
+                final JsonObject metric = run.getAsJsonObject("primaryMetric");
+                results.put(key.toString(), new Result(run.get("mode").getAsString(),
+                    metric.get("score").getAsDouble(), metric.get("scoreUnit").getAsString()));
+            }
+        }
+        return results;
+    }
+
+    private static final class Result {
+        private final String mode;
+        private final double score;
+        private final String unit;
+
+        public Result(final String mode, final double score, final String unit) {
+            this.mode = mode;
+            this.score = score;
+            this.unit = unit;
+        }
+
+        /**
+         * @return Percent by which this result is worse than previous. Negative for improvements.
+         */
+        public double change(final Result previous) {
+            if(previous.score == 0d) {
+                return 0d;
+            }
+            final double change = (score - previous.score) / previous.score * 100d;
+            // Higher score is better for throughput
+            return "thrpt".equals(mode) ? -change : change;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package ch.cyberduck.core.benchmark;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.io.Checksum;
+import ch.cyberduck.core.io.ChecksumComputeFactory;
+import ch.cyberduck.core.io.HashAlgorithm;
+import ch.cyberduck.core.io.ParallelChecksumService;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.RandomUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checksum of local file computed from buffered stream compared to positional reads, memory mapped file regions and
+ * parallel segment digests for composite hashes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2G")
+public class ChecksumComputeBenchmark {
+
+    @Param({"md5", "sha1", "sha256", "sha512"})
+    public HashAlgorithm algorithm;
+
+    /**
+     * File size in megabytes
+     */
+    @Param({"256"})
+    public int size;
+
+    /**
+     * Segment size in megabytes for composite hashes
+     */
+    @Param({"8"})
+    public int segment;
+
+    private Local file;
+    private RandomAccessFile random;
+    private FileChannel channel;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, AccessDeniedException {
+        file = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        try (OutputStream out = file.getOutputStream(false)) {
+            final byte[] chunk = RandomUtils.nextBytes(1024 * 1024);
+            for(int i = 0; i < size; i++) {
+                IOUtils.write(chunk, out);
+            }
+        }
+        random = new RandomAccessFile(file.getAbsolute(), "r");
+        channel = random.getChannel();
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws IOException, BackgroundException {
+        random.close();
+        file.delete();
+    }
+
+    /**
+     * Digest read from stream with heap buffer
+     */
+    @Benchmark
+    public Checksum stream() throws BackgroundException {
+        return ChecksumComputeFactory.get(algorithm).compute(new BufferedInputStream(file.getInputStream()), new TransferStatus());
+    }
+
+    /**
+     * Digest read with positional reads from file channel
+     */
+    @Benchmark
+    public List<Checksum> channel() throws BackgroundException {
+        return new ParallelChecksumService(ForkJoinPool.commonPool(), 64L * 1024L * 1024L, false)
+            .segments(algorithm, channel, size * 1024L * 1024L, size * 1024L * 1024L);
+    }
+
+    /**
+     * Digest read from memory mapped file regions
+     */
+    @Benchmark
+    public List<Checksum> mapped() throws BackgroundException {
+        return new ParallelChecksumService(ForkJoinPool.commonPool(), 64L * 1024L * 1024L, true)
+            .segments(algorithm, channel, size * 1024L * 1024L, size * 1024L * 1024L);
+    }
+
+    /**
+     * Digest of segments computed in parallel as used for S3 multipart ETag, B2 large file parts and Dropbox content hash
+     */
+    @Benchmark
+    public List<Checksum> segments() throws BackgroundException {
+        return new ParallelChecksumService().segments(algorithm, channel, size * 1024L * 1024L, segment * 1024L * 1024L);
+    }
+}
@@ -0,0 +1,120 @@
+package ch.cyberduck.core.benchmark;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.cryptomator.CryptoInputStream;
+import ch.cyberduck.core.cryptomator.CryptoOutputStream;
+import ch.cyberduck.core.cryptomator.random.FastSecureRandomProvider;
+import ch.cyberduck.core.cryptomator.random.RandomNonceGenerator;
+import ch.cyberduck.core.io.StatusOutputStream;
+import ch.cyberduck.core.io.VoidStatusOutputStream;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.ByteArrayOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
+import org.cryptomator.cryptolib.Cryptors;
+import org.cryptomator.cryptolib.api.Cryptor;
+import org.cryptomator.cryptolib.api.FileHeader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encryption and decryption of file content in vault with chunks processed in parallel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2G")
+public class CryptoStreamBenchmark {
+
+    /**
+     * Cleartext size in bytes
+     */
+    @Param({"16777216"})
+    public int size;
+
+    /**
+     * Number of chunks encrypted or decrypted ahead in parallel. Sequential with 1
+     */
+    @Param({"1", "8"})
+    public int concurrency;
+
+    private Cryptor cryptor;
+    private FileHeader header;
+    private byte[] cleartext;
+    private byte[] ciphertext;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        PreferencesFactory.get().setProperty("cryptomator.chunk.concurrency", concurrency);
+        cryptor = Cryptors.version1(FastSecureRandomProvider.get().provide()).createNew();
+        header = cryptor.fileHeaderCryptor().create();
+        cleartext = new byte[size];
+        new Random().nextBytes(cleartext);
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try(CryptoOutputStream<Void> out = this.encrypt(new VoidStatusOutputStream(buffer))) {
+            out.write(cleartext);
+        }
+        ciphertext = buffer.toByteArray();
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private CryptoOutputStream<Void> encrypt(final StatusOutputStream<Void> proxy) {
+        return new CryptoOutputStream<>(proxy, cryptor.fileContentCryptor(), header, new RandomNonceGenerator(), 0);
+    }
+
+    @Benchmark
+    public long encrypt() throws IOException {
+        try(CryptoOutputStream<Void> out = this.encrypt(new VoidStatusOutputStream(NullOutputStream.NULL_OUTPUT_STREAM))) {
+            out.write(cleartext);
+        }
+        return cleartext.length;
+    }
+
+    @Benchmark
+    public long decrypt() throws IOException {
+        try(CryptoInputStream in = new CryptoInputStream(new ByteArrayInputStream(ciphertext), cryptor.fileContentCryptor(),
+            header, 0, pool, concurrency)) {
+            return IOUtils.copyLarge(in, NullOutputStream.NULL_OUTPUT_STREAM);
+        }
+    }
+}
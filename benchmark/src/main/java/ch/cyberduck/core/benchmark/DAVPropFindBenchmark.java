@@ -0,0 +1,117 @@
+package ch.cyberduck.core.benchmark;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.dav.SaxPropFindResponseHandler;
+
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import com.github.sardine.DavResource;
+import com.github.sardine.impl.handler.MultiStatusResponseHandler;
+import com.github.sardine.model.Multistatus;
+import com.github.sardine.model.Response;
+
+/**
+ * Parsing of synthetic PROPFIND multistatus responses
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2G")
+public class DAVPropFindBenchmark {
+
+    /**
+     * Number of response elements in multistatus
+     */
+    @Param({"1000", "10000"})
+    public int entries;
+
+    private byte[] xml;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final StringBuilder b = new StringBuilder("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n<D:multistatus xmlns:D=\"DAV:\">\n");
+        for(int i = 0; i < entries; i++) {
+            b.append("<D:response><D:href>/d/").append(i % 10 == 0 ? "c" : "f").append(i).append("</D:href>")
+                .append("<D:propstat><D:prop>")
+                .append("<D:getlastmodified>Mon, 04 Jan 2021 10:00:00 GMT</D:getlastmodified>")
+                .append("<D:creationdate>2021-01-04T10:00:00Z</D:creationdate>")
+                .append("<D:getcontentlength>").append(i * 1024L).append("</D:getcontentlength>")
+                .append("<D:getetag>\"").append(Integer.toHexString(i)).append("\"</D:getetag>")
+                .append("<D:getcontenttype>application/octet-stream</D:getcontenttype>")
+                .append(i % 10 == 0 ? "<D:resourcetype><D:collection/></D:resourcetype>" : "<D:resourcetype/>")
+                .append("</D:prop><D:status>HTTP/1.1 200 OK</D:status></D:propstat></D:response>\n");
+        }
+        xml = b.append("</D:multistatus>").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private BasicHttpResponse response() {
+        final BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_MULTI_STATUS, "Multi-Status");
+        response.setEntity(new ByteArrayEntity(xml));
+        return response;
+    }
+
+    /**
+     * Resources created while parsing without collecting multistatus
+     */
+    @Benchmark
+    public void sax(final Blackhole blackhole) throws IOException {
+        new SaxPropFindResponseHandler(new SaxPropFindResponseHandler.ResponseCallback() {
+            @Override
+            public void response(final Response response) {
+                try {
+                    blackhole.consume(new DavResource(response));
+                }
+                catch(Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }).handleResponse(this.response());
+    }
+
+    /**
+     * Previous implementation unmarshalling complete multistatus with JAXB
+     */
+    @Benchmark
+    public void jaxb(final Blackhole blackhole) throws Exception {
+        final Multistatus multistatus = new MultiStatusResponseHandler().handleResponse(this.response());
+        for(Response response : multistatus.getResponse()) {
+            blackhole.consume(new DavResource(response));
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package ch.cyberduck.core.benchmark;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.DisabledListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.date.InvalidDateException;
+import ch.cyberduck.core.date.MDTMSecondsDateFormatter;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.ftp.FTPParserSelector;
+import ch.cyberduck.core.ftp.list.FTPListResponseReader;
+import ch.cyberduck.core.ftp.list.FTPMlsdListResponseReader;
+import ch.cyberduck.core.ftp.parser.CompositeFileEntryParser;
+import ch.cyberduck.core.ftp.parser.LaxUnixFTPEntryParser;
+
+import org.apache.commons.lang3.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parsing of synthetic directory listings in Unix, EPLF and MLSD format
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2G")
+public class FTPListParserBenchmark {
+
+    /**
+     * Number of lines in listing
+     */
+    @Param({"50000"})
+    public int lines;
+
+    private final Path directory = new Path("/home/user", EnumSet.of(Path.Type.directory));
+
+    private List<String> unix;
+    private List<String> eplf;
+    private List<String> mlsd;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final String[] months = new String[]{"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+        unix = new ArrayList<>(lines);
+        eplf = new ArrayList<>(lines);
+        mlsd = new ArrayList<>(lines);
+        for(int i = 0; i < lines; i++) {
+            final String month = months[i % months.length];
+            final int day = i % 28 + 1;
+            switch(i % 4) {
+                case 0:
+                    unix.add(String.format("drwxr-xr-x   2 user     staff        4096 %s %2d  2019 folder %d", month, day, i));
+                    break;
+                case 1:
+                    unix.add(String.format("lrwxrwxrwx   1 user     staff          12 %s %2d  2020 link%d -> target%d", month, day, i, i));
+                    break;
+                default:
+                    unix.add(String.format("-rw-r--r--   1 user     staff    %8d %s %2d %02d:%02d file%d.txt", i * 31, month, day, i % 24, i % 60, i));
+            }
+            eplf.add(String.format("+i8388621.%d,m%d,%s,s%d,up644,\tfile%d.txt", i, 1200000000 + i, i % 4 == 0 ? "/" : "r", i * 31, i));
+            mlsd.add(String.format("type=%s;size=%d;modify=2021%02d%02d%02d%02d%02d;perm=%s;unix.mode=0644;unix.owner=user;unix.group=staff; file%d.txt",
+                i % 4 == 0 ? "dir" : "file", i * 31, i % 12 + 1, day, i % 24, i % 60, i % 60, i % 4 == 0 ? "flcdmpe" : "adfrw", i));
+        }
+    }
+
+    @Benchmark
+    public AttributedList<Path> unix() throws BackgroundException {
+        return new FTPListResponseReader(new FTPParserSelector().getParser("UNIX"))
+            .read(directory, unix.iterator(), new DisabledListProgressListener());
+    }
+
+    /**
+     * Previous parser matching every line with regular expression
+     */
+    @Benchmark
+    public AttributedList<Path> unixRegex() throws BackgroundException {
+        final CompositeFileEntryParser parser = new CompositeFileEntryParser(Collections.singletonList(new LaxUnixFTPEntryParser()));
+        parser.configure(null);
+        return new FTPListResponseReader(parser)
+            .read(directory, unix, new DisabledListProgressListener());
+    }
+
+    /**
+     * Previous implementation was replaced in place and is not available for comparison
+     */
+    @Benchmark
+    public AttributedList<Path> eplf() throws BackgroundException {
+        return new FTPListResponseReader(new FTPParserSelector().getParser("UNIX"))
+            .read(directory, eplf.iterator(), new DisabledListProgressListener());
+    }
+
+    @Benchmark
+    public AttributedList<Path> mlsd() throws BackgroundException {
+        return new FTPMlsdListResponseReader()
+            .read(directory, mlsd.iterator(), new DisabledListProgressListener());
+    }
+
+    /**
+     * Previous parser matching facts with regular expression and timestamps with date format
+     */
+    @Benchmark
+    public AttributedList<Path> mlsdRegex() throws BackgroundException {
+        return new FTPMlsdListResponseReader() {
+            @Override
+            protected long parseTimestamp(final String timestamp) {
+                try {
+                    return new MDTMSecondsDateFormatter().parse(timestamp).getTime();
+                }
+                catch(InvalidDateException e) {
+                    return -1;
+                }
+            }
+
+            @Override
+            protected Map<String, Map<String, String>> parseFacts(final String line) {
+                final Pattern p = Pattern.compile("\\s?(\\S+\\=\\S+;)*\\s(.*)");
+                final Matcher result = p.matcher(line);
+                final Map<String, Map<String, String>> file = new HashMap<String, Map<String, String>>();
+                if(result.matches()) {
+                    final String filename = result.group(2);
+                    final Map<String, String> facts = new HashMap<String, String>();
+                    for(String fact : result.group(1).split(";")) {
+                        String key = StringUtils.substringBefore(fact, "=");
+                        if(StringUtils.isBlank(key)) {
+                            continue;
+                        }
+                        String value = StringUtils.substringAfter(fact, "=");
+                        if(StringUtils.isBlank(value)) {
+                            continue;
+                        }
+                        facts.put(key.toLowerCase(Locale.ROOT), value);
+                    }
+                    file.put(filename, facts);
+                    return file;
+                }
+                return null;
+            }
+        }.read(directory, mlsd, new DisabledListProgressListener());
+    }
+}
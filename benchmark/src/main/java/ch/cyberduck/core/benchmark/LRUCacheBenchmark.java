@@ -0,0 +1,106 @@
+package ch.cyberduck.core.benchmark;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.cache.LRUCache;
+import ch.cyberduck.core.cache.PathIdIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.EnumSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup and insertion in bounded least recently used cache and the path to identifier index built on it
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2G")
+public class LRUCacheBenchmark {
+
+    /**
+     * Maximum number of entries in cache
+     */
+    @Param({"10000"})
+    public int size;
+
+    private String[] keys;
+    private Path[] files;
+    private LRUCache<String, String> cache;
+    private PathIdIndex index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // Twice as many keys as fit in cache to evict on insertion
+        keys = new String[size * 2];
+        files = new Path[size];
+        cache = LRUCache.build(size);
+        index = new PathIdIndex((Local) null, size);
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        for(int i = 0; i < keys.length; i++) {
+            keys[i] = String.format("k%d", i);
+        }
+        for(int i = 0; i < size; i++) {
+            cache.put(keys[i], keys[i]);
+            files[i] = new Path(directory, String.format("f%d", i), EnumSet.of(Path.Type.file));
+            index.put(files[i], keys[i]);
+        }
+    }
+
+    @Benchmark
+    public String get() {
+        return cache.get(keys[ThreadLocalRandom.current().nextInt(size)]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String getConcurrent() {
+        return cache.get(keys[ThreadLocalRandom.current().nextInt(size)]);
+    }
+
+    @Benchmark
+    public String put() {
+        final String key = keys[ThreadLocalRandom.current().nextInt(keys.length)];
+        cache.put(key, key);
+        return key;
+    }
+
+    /**
+     * Lookup by normalized path and type
+     */
+    @Benchmark
+    public String index() {
+        return index.get(files[ThreadLocalRandom.current().nextInt(size)]);
+    }
+}
@@ -0,0 +1,157 @@
+package ch.cyberduck.core.benchmark;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.PathNormalizer;
+import ch.cyberduck.core.URIEncoder;
+import ch.cyberduck.core.s3.S3AttributesFinderFeature;
+import ch.cyberduck.core.s3.S3ObjectsChunkParser;
+import ch.cyberduck.core.s3.S3Protocol;
+import ch.cyberduck.core.s3.S3Session;
+
+import org.jets3t.service.StorageObjectsChunk;
+import org.jets3t.service.model.S3Object;
+import org.jets3t.service.model.StorageObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion of synthetic object listing chunks to paths
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2G")
+public class S3ObjectListBenchmark {
+
+    /**
+     * Number of keys in listing
+     */
+    @Param({"100000"})
+    public int keys;
+
+    /**
+     * Keys per chunk
+     */
+    @Param({"1000"})
+    public int chunksize;
+
+    /**
+     * Delimiter or empty for recursive listing
+     */
+    @Param({"/", ""})
+    public String delimiter;
+
+    private Path bucket;
+    private Path directory;
+    private StorageObjectsChunk[] chunks;
+    private S3AttributesFinderFeature attributes;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        bucket = new Path("/bucket", EnumSet.of(Path.Type.directory, Path.Type.volume));
+        bucket.attributes().setRegion("us-east-1");
+        directory = new Path(bucket, "prefix", EnumSet.of(Path.Type.directory));
+        attributes = new S3AttributesFinderFeature(new S3Session(new Host(new S3Protocol())));
+        final Date modified = new Date();
+        chunks = new StorageObjectsChunk[keys / chunksize];
+        for(int i = 0; i < chunks.length; i++) {
+            final StorageObject[] objects = new StorageObject[chunksize];
+            for(int k = 0; k < chunksize; k++) {
+                final S3Object object = this.isRecursive()
+                    ? new S3Object(String.format("prefix/d%d/f%%20%d", i, k))
+                    : new S3Object(String.format("prefix/f%%20%d-%d", i, k));
+                object.setContentLength(k);
+                object.setLastModifiedDate(modified);
+                object.setETag("d41d8cd98f00b204e9800998ecf8427e");
+                object.setStorageClass("STANDARD");
+                objects[k] = object;
+            }
+            chunks[i] = new StorageObjectsChunk("prefix/", this.isRecursive() ? null : delimiter, objects,
+                this.isRecursive() ? new String[0] : new String[]{String.format("prefix/d%d/", i)}, null);
+        }
+    }
+
+    private boolean isRecursive() {
+        return delimiter.isEmpty();
+    }
+
+    @Benchmark
+    public AttributedList<Path> parse() {
+        final AttributedList<Path> children = new AttributedList<>();
+        final S3ObjectsChunkParser parser = new S3ObjectsChunkParser(bucket, directory, this.isRecursive() ? null : delimiter, attributes);
+        for(StorageObjectsChunk chunk : chunks) {
+            parser.parse(chunk, children);
+        }
+        return children;
+    }
+
+    /**
+     * Previous implementation creating a path for every key to compare with the listed directory
+     */
+    @Benchmark
+    public AttributedList<Path> previous() {
+        final AttributedList<Path> children = new AttributedList<>();
+        for(StorageObjectsChunk chunk : chunks) {
+            for(StorageObject object : chunk.getObjects()) {
+                final String key = PathNormalizer.normalize(URIEncoder.decode(object.getKey()));
+                if(new Path(bucket, key, EnumSet.of(Path.Type.directory)).equals(directory)) {
+                    continue;
+                }
+                final EnumSet<Path.Type> types = object.getKey().endsWith(String.valueOf(Path.DELIMITER))
+                    ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file);
+                final PathAttributes attr = attributes.toAttributes(object);
+                attr.setRegion(bucket.attributes().getRegion());
+                if(this.isRecursive()) {
+                    children.add(new Path(String.format("%s%s", bucket.getAbsolute(), key), types, attr));
+                }
+                else {
+                    children.add(new Path(directory, PathNormalizer.name(key), types, attr));
+                }
+            }
+            for(String common : chunk.getCommonPrefixes()) {
+                final String key = PathNormalizer.normalize(URIEncoder.decode(common));
+                if(new Path(bucket, key, EnumSet.of(Path.Type.directory)).equals(directory)) {
+                    continue;
+                }
+                final PathAttributes attr = new PathAttributes();
+                attr.setRegion(bucket.attributes().getRegion());
+                children.add(new Path(directory, PathNormalizer.name(key), EnumSet.of(Path.Type.directory, Path.Type.placeholder), attr));
+            }
+        }
+        return children;
+    }
+}
@@ -0,0 +1,124 @@
+package ch.cyberduck.core.benchmark;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.io.BandwidthThrottle;
+import ch.cyberduck.core.io.StreamCopier;
+import ch.cyberduck.core.io.ThrottledOutputStream;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.commons.lang3.RandomUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copy with stream copier from memory and between local files using file channels compared to copying through a heap
+ * buffer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2G")
+public class StreamCopierBenchmark {
+
+    /**
+     * Content size in megabytes
+     */
+    @Param({"64"})
+    public int size;
+
+    private byte[] content;
+    private Local source;
+    private Local target;
+    private BandwidthThrottle throttle;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, AccessDeniedException {
+        content = RandomUtils.nextBytes(size * 1024 * 1024);
+        source = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        try (OutputStream out = source.getOutputStream(false)) {
+            IOUtils.write(content, out);
+        }
+        target = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        throttle = new BandwidthThrottle(BandwidthThrottle.UNLIMITED);
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws BackgroundException {
+        source.delete();
+        if(target.exists()) {
+            target.delete();
+        }
+    }
+
+    /**
+     * Copy from memory as for uploads of generated content
+     */
+    @Benchmark
+    public TransferStatus memory() throws BackgroundException {
+        final TransferStatus status = new TransferStatus().withLength(content.length);
+        new StreamCopier(status, status).withLimit(status.getLength())
+            .transfer(new ByteArrayInputStream(content), new ThrottledOutputStream(NullOutputStream.NULL_OUTPUT_STREAM, throttle));
+        return status;
+    }
+
+    /**
+     * Copy between local files with channel transfer
+     */
+    @Benchmark
+    public TransferStatus channel() throws BackgroundException {
+        final TransferStatus status = new TransferStatus().withLength(content.length);
+        new StreamCopier(status, status).withLimit(status.getLength())
+            .transfer(source.getInputStream(), new ThrottledOutputStream(target.getOutputStream(false), throttle));
+        return status;
+    }
+
+    /**
+     * Copy between local files through heap buffer
+     */
+    @Benchmark
+    public TransferStatus stream() throws BackgroundException {
+        final TransferStatus status = new TransferStatus().withLength(content.length);
+        new StreamCopier(status, status).withLimit(status.getLength())
+            .transfer(new BufferedInputStream(source.getInputStream()), new ThrottledOutputStream(target.getOutputStream(false), throttle));
+        return status;
+    }
+}
@@ -23,11 +23,19 @@ import ch.cyberduck.core.cache.LRUCache;
 import org.apache.log4j.Logger;
 
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
 
 public abstract class AbstractCache<T extends Referenceable> implements Cache<T> {
     private static final Logger log = Logger.getLogger(AbstractCache.class);
 
     private final LRUCache<T, AttributedList<T>> impl;
+    /**
+     * Index of children in cached directory listings by reference
+     */
+    private final Map<CacheReference<?>, T> index = new ConcurrentHashMap<>();
 
     public AbstractCache(int size) {
         if(size == Integer.MAX_VALUE) {
@@ -36,21 +44,49 @@ public abstract class AbstractCache<T extends Referenceable> implements Cache<T>
         }
         else {
             // Will inflate to the given size
-            impl = LRUCache.build(size);
+            impl = LRUCache.build(new RemovalListener<T, AttributedList<T>>() {
+                @Override
+                public void onRemoval(final RemovalNotification<T, AttributedList<T>> notification) {
+                    if(notification.wasEvicted()) {
+                        evicted(notification.getKey(), notification.getValue());
+                    }
+                }
+            }, size);
+        }
+    }
+
+    /**
+     * Callback when a directory listing is removed from the cache because the maximum size is exceeded
+     *
+     * @param reference Reference to the path in cache
+     * @param children  Evicted directory listing
+     */
+    protected void evicted(final T reference, final AttributedList<T> children) {
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Evicted %s from cache", reference));
+        }
+        this.unindex(children);
+    }
+
+    private void index(final AttributedList<T> children) {
+        for(T f : children) {
+            index.put(this.reference(f), f);
+        }
+    }
+
+    private void unindex(final AttributedList<T> children) {
+        for(T f : children) {
+            index.remove(this.reference(f));
         }
     }
 
     @Override
     public T lookup(final CacheReference<T> reference) {
-        for(AttributedList<T> entry : impl.asMap().values()) {
-            final T f = entry.find(reference);
-            if(null == f) {
-                continue;
-            }
-            return f;
+        final T f = index.get(reference);
+        if(null == f) {
+            log.warn(String.format("Lookup failed for %s in cache", reference));
         }
-        log.warn(String.format("Lookup failed for %s in cache", reference));
-        return null;
+        return f;
     }
 
     @Override
@@ -89,6 +125,7 @@ public abstract class AbstractCache<T extends Referenceable> implements Cache<T>
             // Not previously in cache
             return AttributedList.emptyList();
         }
+        this.unindex(removed);
         return removed;
     }
 
@@ -122,6 +159,10 @@ public abstract class AbstractCache<T extends Referenceable> implements Cache<T>
             log.debug(String.format("Caching %s", reference));
         }
         final AttributedList<T> replaced = impl.get(reference);
+        if(null != replaced) {
+            this.unindex(replaced);
+        }
+        this.index(children);
         impl.put(reference, children);
         if(null == replaced) {
             // Not previously in cache
@@ -169,6 +210,7 @@ public abstract class AbstractCache<T extends Referenceable> implements Cache<T>
             log.info(String.format("Clear cache %s", this));
         }
         impl.clear();
+        index.clear();
     }
 
     @Override
@@ -20,6 +20,7 @@ package ch.cyberduck.core;
 
 import org.apache.log4j.Logger;
 
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
@@ -99,6 +100,11 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
     }
 
     public boolean addAll(final Iterable<? extends E> c) {
+        if(c instanceof Collection) {
+            // Copy backing array once
+            impl.addAll((Collection<? extends E>) c);
+            return true;
+        }
         for(E file : c) {
             this.add(file);
         }
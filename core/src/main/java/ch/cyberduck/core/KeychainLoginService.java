@@ -175,6 +175,8 @@ public class KeychainLoginService implements LoginService {
             if(log.isDebugEnabled()) {
                 log.debug(String.format("Login successful for session %s", session));
             }
+            // Features may depend on configuration retrieved with login
+            session.invalidate();
             listener.message(LocaleFactory.localizedString("Login successful", "Credentials"));
             if(credentials.isSaved()) {
                 // Write credentials to keychain
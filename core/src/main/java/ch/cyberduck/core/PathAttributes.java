@@ -260,6 +260,30 @@ public class PathAttributes extends Attributes implements Serializable {
         if(!custom.isEmpty()) {
             dict.setMapForKey(custom, "Custom");
         }
+        if(!metadata.isEmpty()) {
+            dict.setMapForKey(metadata, "Metadata");
+        }
+        if(encryption != Encryption.Algorithm.NONE) {
+            dict.setStringForKey(encryption.toString(), "Encryption");
+        }
+        if(created != -1) {
+            dict.setStringForKey(String.valueOf(created), "Created");
+        }
+        if(accessed != -1) {
+            dict.setStringForKey(String.valueOf(accessed), "Accessed");
+        }
+        if(StringUtils.isNotBlank(owner)) {
+            dict.setStringForKey(owner, "Owner");
+        }
+        if(StringUtils.isNotBlank(group)) {
+            dict.setStringForKey(group, "Group");
+        }
+        if(StringUtils.isNotBlank(displayname)) {
+            dict.setStringForKey(displayname, "Display Name");
+        }
+        if(StringUtils.isNotBlank(directoryId)) {
+            dict.setStringForKey(directoryId, "Directory Id");
+        }
         return dict.getSerialized();
     }
 
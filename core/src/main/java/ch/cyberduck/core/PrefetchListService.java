@@ -0,0 +1,91 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.exception.BackgroundException;
+
+import org.apache.log4j.Logger;
+
+import java.util.Map;
+
+/**
+ * Serve listings of directories from a recursive listing obtained when listing the first directory. Listings are
+ * removed when returned to free memory while the tree is traversed.
+ */
+public class PrefetchListService implements ListService {
+    private static final Logger log = Logger.getLogger(PrefetchListService.class);
+
+    private final ListService proxy;
+    private final RecursiveListService recursive;
+    /**
+     * Listings not yet returned
+     */
+    private final Map<Path, AttributedList<Path>> prefetched;
+
+    /**
+     * @param session    Connection
+     * @param prefetched Listings shared between connections
+     */
+    public PrefetchListService(final Session<?> session, final Map<Path, AttributedList<Path>> prefetched) {
+        this(session.getFeature(ListService.class), session.getFeature(RecursiveListService.class), prefetched);
+    }
+
+    /**
+     * @param proxy      Listing of single directory
+     * @param recursive  Recursive listing or null if not supported
+     * @param prefetched Listings shared between connections
+     */
+    public PrefetchListService(final ListService proxy, final RecursiveListService recursive, final Map<Path, AttributedList<Path>> prefetched) {
+        this.proxy = proxy;
+        this.recursive = recursive;
+        this.prefetched = prefetched;
+    }
+
+    @Override
+    public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        final AttributedList<Path> cached = prefetched.remove(directory);
+        if(cached != null) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Return prefetched listing for %s", directory));
+            }
+            listener.chunk(directory, cached);
+            return cached;
+        }
+        if(recursive != null) {
+            final Map<Path, AttributedList<Path>> listing = recursive.list(directory, listener);
+            if(listing != null) {
+                final AttributedList<Path> list = listing.remove(directory);
+                if(list != null) {
+                    if(log.isInfoEnabled()) {
+                        log.info(String.format("Prefetched listing of %d directories below %s", listing.size(), directory));
+                    }
+                    prefetched.putAll(listing);
+                    return list;
+                }
+            }
+        }
+        return proxy.list(directory, listener);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("PrefetchListService{");
+        sb.append("proxy=").append(proxy);
+        sb.append(", recursive=").append(recursive);
+        sb.append('}');
+        return sb.toString();
+    }
+}
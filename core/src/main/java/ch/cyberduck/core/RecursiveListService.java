@@ -0,0 +1,34 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.exception.BackgroundException;
+
+import java.util.Map;
+
+/**
+ * List all files below a directory with a single paginated listing instead of a listing for every directory
+ */
+public interface RecursiveListService {
+
+    /**
+     * @param directory Directory to list recursively
+     * @param listener  Notified with chunks of the listing for the directory
+     * @return Listing of the directory and every directory below keyed by parent or null if not supported for
+     * directory
+     */
+    Map<Path, AttributedList<Path>> list(Path directory, ListProgressListener listener) throws BackgroundException;
+}
@@ -19,17 +19,25 @@ package ch.cyberduck.core;
  */
 
 import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.features.AclPermission;
 import ch.cyberduck.core.features.AttributesFinder;
 import ch.cyberduck.core.features.Bulk;
 import ch.cyberduck.core.features.Copy;
+import ch.cyberduck.core.features.Delete;
 import ch.cyberduck.core.features.Download;
+import ch.cyberduck.core.features.Encryption;
 import ch.cyberduck.core.features.Find;
+import ch.cyberduck.core.features.Headers;
+import ch.cyberduck.core.features.Metadata;
 import ch.cyberduck.core.features.Move;
+import ch.cyberduck.core.features.MultipartWrite;
 import ch.cyberduck.core.features.PromptUrlProvider;
 import ch.cyberduck.core.features.Quota;
 import ch.cyberduck.core.features.Read;
+import ch.cyberduck.core.features.Redundancy;
 import ch.cyberduck.core.features.Search;
 import ch.cyberduck.core.features.Upload;
+import ch.cyberduck.core.features.Versioning;
 import ch.cyberduck.core.features.Write;
 import ch.cyberduck.core.preferences.Preferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
@@ -49,7 +57,10 @@ import ch.cyberduck.core.vault.VaultRegistry;
 
 import org.apache.log4j.Logger;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -61,6 +72,21 @@ public abstract class Session<C> implements TranscriptListener {
      */
     private static final TranscriptListener transcript = new LoggingTranscriptListener();
 
+    /**
+     * Feature types without mutable configuration shared for all callers until invalidated. Excludes timestamp and
+     * permission features remembering a previous failure to skip further attempts.
+     */
+    static final Set<Class<?>> CACHEABLE = new HashSet<>(Arrays.asList(
+        ListService.class, Read.class, Write.class, MultipartWrite.class, Find.class, AttributesFinder.class,
+        Delete.class, AclPermission.class, Headers.class, Metadata.class,
+        Redundancy.class, Encryption.class, Versioning.class, PathContainerService.class, UrlProvider.class
+    ));
+
+    /**
+     * Placeholder for unsupported features
+     */
+    private static final Object UNSUPPORTED = new Object();
+
     /**
      * Encapsulating all the information of the remote host
      */
@@ -76,6 +102,11 @@ public abstract class Session<C> implements TranscriptListener {
 
     private final Set<TranscriptListener> listeners = Collections.newSetFromMap(new ConcurrentHashMap<>());
 
+    /**
+     * Features by type wrapped with vault registry
+     */
+    private final Map<Class<?>, Object> features = new ConcurrentHashMap<>();
+
     /**
      * Connection attempt being made.
      */
@@ -111,6 +142,7 @@ public abstract class Session<C> implements TranscriptListener {
 
     public Session<?> withRegistry(final VaultRegistry registry) {
         this.registry = registry;
+        this.invalidate();
         return this;
     }
 
@@ -155,6 +187,8 @@ public abstract class Session<C> implements TranscriptListener {
         // Update status flag
         state = State.opening;
         client = this.connect(proxy, key, login, cancel);
+        // Features may depend on client configuration
+        this.invalidate();
         if(log.isDebugEnabled()) {
             log.debug(String.format("Connection did open to %s", host));
         }
@@ -221,6 +255,18 @@ public abstract class Session<C> implements TranscriptListener {
         state = State.closed;
         listeners.clear();
         client = null;
+        this.invalidate();
+    }
+
+    /**
+     * Discard cached feature implementations. Must be called when the configuration of the connection changes, such as
+     * after login or unlocking a vault.
+     */
+    public void invalidate() {
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Invalidate %d cached features for %s", features.size(), this));
+        }
+        features.clear();
     }
 
     /**
@@ -276,7 +322,17 @@ public abstract class Session<C> implements TranscriptListener {
     @SuppressWarnings("unchecked")
     public <T> T getFeature(final Class<T> type) {
         metrics.increment(type);
-        return this.getFeature(type, this._getFeature(type));
+        if(!CACHEABLE.contains(type)) {
+            return this.getFeature(type, this._getFeature(type));
+        }
+        final Object cached = features.get(type);
+        if(null != cached) {
+            return UNSUPPORTED == cached ? null : (T) cached;
+        }
+        // Do not use computeIfAbsent as features may be looked up recursively
+        final T feature = this.getFeature(type, this._getFeature(type));
+        features.putIfAbsent(type, null == feature ? UNSUPPORTED : feature);
+        return feature;
     }
 
     /**
@@ -36,6 +36,17 @@ public class SimplePathPredicate implements CacheReference<Path> {
         this.path = normalizer.normalize(path).toString();
     }
 
+    public Path.Type getType() {
+        return type;
+    }
+
+    /**
+     * @return Normalized absolute path
+     */
+    public String getPath() {
+        return path;
+    }
+
     @Override
     public boolean equals(final Object o) {
         if(null == o) {
@@ -0,0 +1,165 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.local.TemporaryFileServiceFactory;
+import ch.cyberduck.core.serializer.impl.dd.PlistWriter;
+import ch.cyberduck.core.serializer.impl.dd.TransferItemPlistReader;
+import ch.cyberduck.core.transfer.TransferItem;
+
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Transfer item cache keeping a limited number of directory listings in memory. Listings evicted from memory are
+ * written to temporary files and read back when requested. Access is synchronized to make eviction from memory and
+ * writing to disk atomic for readers.
+ */
+public class SwapTransferItemCache extends TransferItemCache {
+    private static final Logger log = Logger.getLogger(SwapTransferItemCache.class);
+
+    /**
+     * Directory listings swapped to disk
+     */
+    private final Map<TransferItem, Local> swap = new HashMap<>();
+    /**
+     * Directory listings evicted from memory that failed to be written to disk
+     */
+    private final Map<TransferItem, AttributedList<TransferItem>> overflow = new HashMap<>();
+
+    /**
+     * @param size Maximum number of directory listings kept in memory
+     */
+    public SwapTransferItemCache(final int size) {
+        super(size);
+    }
+
+    @Override
+    protected synchronized void evicted(final TransferItem reference, final AttributedList<TransferItem> children) {
+        super.evicted(reference, children);
+        final Local file = TemporaryFileServiceFactory.get().create(new AlphanumericRandomStringService().random());
+        try {
+            file.getParent().mkdir();
+            new PlistWriter<TransferItem>().write(children.toList(), file);
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Swapped %d items for %s to %s", children.size(), reference, file));
+            }
+            swap.put(reference, file);
+        }
+        catch(AccessDeniedException e) {
+            log.warn(String.format("Failure swapping listing for %s to %s. %s", reference, file, e));
+            overflow.put(reference, children);
+        }
+    }
+
+    @Override
+    public synchronized boolean containsKey(final TransferItem key) {
+        if(null == key) {
+            return super.containsKey(null);
+        }
+        return super.containsKey(key) || swap.containsKey(key) || overflow.containsKey(key);
+    }
+
+    @Override
+    public synchronized AttributedList<TransferItem> get(final TransferItem key) {
+        if(null == key || super.containsKey(key)) {
+            return super.get(key);
+        }
+        if(overflow.containsKey(key)) {
+            return overflow.get(key);
+        }
+        final Local file = swap.get(key);
+        if(null == file) {
+            return super.get(key);
+        }
+        try {
+            final AttributedList<TransferItem> children = new AttributedList<>(new TransferItemPlistReader().readCollection(file));
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Read %d items for %s from %s", children.size(), key, file));
+            }
+            return children;
+        }
+        catch(AccessDeniedException e) {
+            log.error(String.format("Failure reading swapped listing for %s from %s. %s", key, file, e));
+            return AttributedList.emptyList();
+        }
+    }
+
+    @Override
+    public synchronized AttributedList<TransferItem> put(final TransferItem key, final AttributedList<TransferItem> children) {
+        this.delete(key);
+        return super.put(key, children);
+    }
+
+    @Override
+    public synchronized AttributedList<TransferItem> remove(final TransferItem key) {
+        final AttributedList<TransferItem> removed = this.get(key);
+        this.delete(key);
+        super.remove(key);
+        return removed;
+    }
+
+    @Override
+    public synchronized long size() {
+        return super.size() + swap.size() + overflow.size();
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return super.isEmpty() && swap.isEmpty() && overflow.isEmpty();
+    }
+
+    @Override
+    public synchronized void clear() {
+        for(TransferItem key : new ArrayList<>(swap.keySet())) {
+            this.delete(key);
+        }
+        overflow.clear();
+        super.clear();
+    }
+
+    private void delete(final TransferItem key) {
+        if(null == key) {
+            return;
+        }
+        overflow.remove(key);
+        final Local file = swap.remove(key);
+        if(null == file) {
+            return;
+        }
+        try {
+            file.delete();
+            file.getParent().delete();
+        }
+        catch(AccessDeniedException | NotfoundException e) {
+            log.warn(String.format("Failure deleting swap file %s. %s", file, e));
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("SwapTransferItemCache{");
+        sb.append("size=").append(super.size());
+        sb.append(", swap=").append(swap.size());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -19,6 +19,8 @@ import org.apache.log4j.Logger;
 
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
@@ -114,6 +116,18 @@ public class LRUCache<Key, Value> {
         return delegate.getIfPresent(key);
     }
 
+    /**
+     * Get value or load and store value if not present. Concurrent callers for the same key wait for a single load.
+     *
+     * @param key    Key
+     * @param loader Loads value for key
+     * @return Cached or loaded value
+     * @throws ExecutionException Failure in loader
+     */
+    public Value get(final Key key, final Callable<? extends Value> loader) throws ExecutionException {
+        return delegate.get(key, loader);
+    }
+
     public Map<Key, Value> asMap() {
         return Collections.unmodifiableMap(delegate.asMap());
     }
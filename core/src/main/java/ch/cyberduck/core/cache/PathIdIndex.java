@@ -0,0 +1,237 @@
+package ch.cyberduck.core.cache;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalFactory;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.SimplePathPredicate;
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.io.TabSeparatedFile;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.preferences.SupportDirectoryFinderFactory;
+
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Maps paths to identifiers for services where API calls take IDs rather than file paths. Removing a path also
+ * removes all its descendants. Optionally saved per bookmark in the support directory to reuse identifiers in
+ * later sessions. Identifiers read from a previous session are not trusted when a lookup fails as the file may have
+ * been deleted and recreated by another client meanwhile.
+ */
+public class PathIdIndex {
+    private static final Logger log = Logger.getLogger(PathIdIndex.class);
+
+    private final LRUCache<SimplePathPredicate, String> cache;
+
+    /**
+     * File to save identifiers or null
+     */
+    private final TabSeparatedFile file;
+
+    /**
+     * Entries read from file not confirmed in this session
+     */
+    private final Set<SimplePathPredicate> persisted = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean loaded;
+
+    public PathIdIndex() {
+        this((Local) null);
+    }
+
+    /**
+     * @param bookmark Saved with identifiers of bookmark when persistence is enabled
+     */
+    public PathIdIndex(final Host bookmark) {
+        this(PreferencesFactory.get().getBoolean("fileid.cache.persistent") ?
+            LocalFactory.get(LocalFactory.get(SupportDirectoryFinderFactory.get().find(), "Identifiers"),
+                String.format("%s.ids", bookmark.getUuid())) : null);
+    }
+
+    /**
+     * @param file File to save identifiers or null
+     */
+    public PathIdIndex(final Local file) {
+        this(file, PreferencesFactory.get().getLong("fileid.cache.size"));
+    }
+
+    public PathIdIndex(final Local file, final long size) {
+        this.cache = LRUCache.build(size);
+        this.file = null == file ? null : new TabSeparatedFile(file);
+        this.loaded = null == file;
+    }
+
+    /**
+     * @return Identifier or null if not cached
+     */
+    public String get(final Path file) {
+        this.load();
+        return cache.get(new SimplePathPredicate(file));
+    }
+
+    /**
+     * @param id Identifier or null to remove file and all its descendants
+     */
+    public void put(final Path file, final String id) {
+        this.load();
+        if(null == id) {
+            this.remove(file);
+        }
+        else {
+            final SimplePathPredicate key = new SimplePathPredicate(file);
+            cache.put(key, id);
+            persisted.remove(key);
+        }
+    }
+
+    /**
+     * Add identifiers of files in directory listing
+     *
+     * @param files Listed files
+     * @param id    Identifier of file or null to skip
+     */
+    public void put(final Iterable<Path> files, final Function<Path, String> id) {
+        this.load();
+        for(Path file : files) {
+            final String value = id.apply(file);
+            if(null == value) {
+                continue;
+            }
+            final SimplePathPredicate key = new SimplePathPredicate(file);
+            cache.put(key, value);
+            persisted.remove(key);
+        }
+    }
+
+    /**
+     * Remove identifiers of file and its parents read from a previous session. Must be called when a lookup fails
+     * with a cached identifier.
+     *
+     * @return True if any identifier was removed and the lookup should be retried with a listing
+     */
+    public boolean invalidate(final Path file) {
+        this.load();
+        boolean removed = false;
+        for(Path f = file; !f.isRoot(); f = f.getParent()) {
+            if(persisted.contains(new SimplePathPredicate(f))) {
+                log.warn(String.format("Remove saved identifier for %s", f));
+                this.remove(f);
+                removed = true;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Remove file and all its descendants. Must be called for moved, renamed or deleted files.
+     */
+    public void remove(final Path file) {
+        this.load();
+        cache.remove(new SimplePathPredicate(file));
+        persisted.remove(new SimplePathPredicate(file));
+        if(file.isFile()) {
+            return;
+        }
+        final String prefix = new SimplePathPredicate(file).getPath();
+        for(SimplePathPredicate key : cache.asMap().keySet()) {
+            if(this.isDescendant(prefix, key.getPath())) {
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Remove %s in %s", key, file));
+                }
+                cache.remove(key);
+                persisted.remove(key);
+            }
+        }
+    }
+
+    private boolean isDescendant(final String parent, final String path) {
+        if(String.valueOf(Path.DELIMITER).equals(parent)) {
+            return !parent.equals(path);
+        }
+        return path.length() > parent.length() && path.startsWith(parent) && path.charAt(parent.length()) == Path.DELIMITER;
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * Save identifiers when persistent and discard all entries
+     */
+    public void clear() {
+        if(null != file && loaded) {
+            this.save();
+        }
+        cache.clear();
+        persisted.clear();
+        loaded = null == file;
+    }
+
+    private void load() {
+        if(loaded) {
+            return;
+        }
+        synchronized(this) {
+            if(loaded) {
+                return;
+            }
+            try {
+                for(String[] entry : file.read(3)) {
+                    try {
+                        final SimplePathPredicate key = new SimplePathPredicate(Path.Type.valueOf(entry[1]), entry[2]);
+                        cache.put(key, entry[0]);
+                        persisted.add(key);
+                    }
+                    catch(IllegalArgumentException e) {
+                        log.warn(String.format("Ignore invalid type %s in %s", entry[1], file));
+                    }
+                }
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Loaded %d identifiers from %s", cache.size(), file));
+                }
+            }
+            catch(AccessDeniedException e) {
+                log.warn(String.format("Failure reading identifiers from %s. %s", file, e.getMessage()));
+            }
+            loaded = true;
+        }
+    }
+
+    private synchronized void save() {
+        final List<String[]> rows = new ArrayList<>();
+        for(Map.Entry<SimplePathPredicate, String> entry : cache.asMap().entrySet()) {
+            rows.add(new String[]{entry.getValue(), entry.getKey().getType().name(), entry.getKey().getPath()});
+        }
+        try {
+            file.write(rows);
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Saved %d identifiers to %s", rows.size(), file));
+            }
+        }
+        catch(AccessDeniedException e) {
+            log.warn(String.format("Failure writing identifiers to %s. %s", file, e.getMessage()));
+        }
+    }
+}
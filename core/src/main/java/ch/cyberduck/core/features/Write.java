@@ -58,6 +58,14 @@ public interface Write<Reply> {
         return false;
     }
 
+    /**
+     * @param file File
+     * @return True if segments of file can be written concurrently at their offset using multiple connections
+     */
+    default boolean segmented(final Path file) {
+        return false;
+    }
+
     /**
      * @return True if supporting to set timestamp on upload
      */
@@ -0,0 +1,205 @@
+package ch.cyberduck.core.http;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.io.BandwidthThrottle;
+import ch.cyberduck.core.io.DefaultStreamCloser;
+import ch.cyberduck.core.io.StreamCopier;
+import ch.cyberduck.core.transfer.TransferStatus;
+import ch.cyberduck.core.worker.DefaultExceptionMappingService;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Response stream for a request that is not sent until either content is written to the stream or the entity is
+ * read from a source with {@link #upload(InputStream, StreamCopier, BandwidthThrottle)}. Writing to the stream runs
+ * the request on a thread of {@link HttpUploadExecutor}. Reading from a source sends the request on the calling
+ * thread.
+ */
+public class DeferredHttpResponseOutputStream<T> extends HttpResponseOutputStream<T> {
+    private static final Logger log = Logger.getLogger(DeferredHttpResponseOutputStream.class);
+
+    private final TransferStatus status;
+    private final DelayedHttpEntityCallable<T> command;
+    private final DelayedHttpEntity entity;
+
+    /**
+     * Signal when response has been received
+     */
+    private final CountDownLatch exit = new CountDownLatch(1);
+
+    private boolean started = false;
+
+    private Exception exception;
+    private T response;
+
+    /**
+     * @param status  Transfer status validated before sending request
+     * @param command Callable sending request with entity
+     * @param entity  Entity with content written to this stream
+     */
+    public DeferredHttpResponseOutputStream(final TransferStatus status, final DelayedHttpEntityCallable<T> command,
+                                            final DelayedHttpEntity entity) {
+        super(NullOutputStream.NULL_OUTPUT_STREAM);
+        this.status = status;
+        this.command = command;
+        this.entity = entity;
+    }
+
+    /**
+     * Send request with entity on shared thread and wait for the output stream to become available
+     */
+    public void start() throws BackgroundException {
+        if(started) {
+            return;
+        }
+        started = true;
+        // Signal on enter streaming
+        final CountDownLatch entry = entity.getEntry();
+        final Future<Void> future = HttpUploadExecutor.execute(new Callable<Void>() {
+            @Override
+            public Void call() {
+                try {
+                    status.validate();
+                    response = command.call(entity);
+                }
+                catch(Exception e) {
+                    exception = e;
+                }
+                finally {
+                    // For zero byte files #writeTo is never called and the entry latch not triggered
+                    entry.countDown();
+                    // Continue reading the response
+                    exit.countDown();
+                }
+                return null;
+            }
+        });
+        // Wait for output stream to become available. Request is queued when all threads are busy
+        while(!Uninterruptibles.awaitUninterruptibly(entry, 1L, TimeUnit.SECONDS)) {
+            try {
+                status.validate();
+            }
+            catch(ConnectionCanceledException e) {
+                if(future.cancel(false)) {
+                    if(log.isDebugEnabled()) {
+                        log.debug(String.format("Cancelled queued request for %s", entity));
+                    }
+                    exception = e;
+                    entry.countDown();
+                    exit.countDown();
+                }
+                // Otherwise request is running and will signal entry after validating status
+            }
+        }
+        this.failure();
+        out = entity.getStream();
+    }
+
+    /**
+     * Send request on the calling thread with the entity read from the input. Must not be used after writing to
+     * this stream.
+     *
+     * @param in       Source to read from. Closed when returning.
+     * @param copier   Copier with offset, limit and listener for transfer status
+     * @param throttle Bandwidth limit
+     * @return Response from server for upload
+     */
+    public T upload(final InputStream in, final StreamCopier copier, final BandwidthThrottle throttle) throws BackgroundException {
+        if(started) {
+            throw new IllegalStateException(String.format("Request for %s already started", entity));
+        }
+        started = true;
+        final UploadHttpEntity source = new UploadHttpEntity(in, command.getContentLength(), copier, throttle);
+        source.setContentType(entity.getContentType());
+        try {
+            status.validate();
+            response = command.call(source);
+        }
+        catch(Exception e) {
+            // Prefer failure reading from source over mapped failure of request
+            exception = null == source.getFailure() ? e : source.getFailure();
+        }
+        finally {
+            if(source.isStreaming()) {
+                // Entity not written
+                new DefaultStreamCloser().close(in);
+            }
+            exit.countDown();
+        }
+        this.failure();
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Received response %s for entity %s", response, source));
+        }
+        return response;
+    }
+
+    @Override
+    protected void beforeWrite(final int n) throws IOException {
+        if(!started) {
+            try {
+                this.start();
+            }
+            catch(BackgroundException e) {
+                throw new IOException(e.getDetail(), e);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Send request with no content written
+        this.beforeWrite(0);
+        super.close();
+    }
+
+    /**
+     * Only available after this stream is closed.
+     *
+     * @return Response from server for upload
+     */
+    @Override
+    public T getStatus() throws BackgroundException {
+        status.validate();
+        this.start();
+        // Block the calling thread until after the full response from the server
+        // has been consumed.
+        Uninterruptibles.awaitUninterruptibly(exit);
+        this.failure();
+        return response;
+    }
+
+    private void failure() throws BackgroundException {
+        if(null != exception) {
+            if(exception instanceof BackgroundException) {
+                throw (BackgroundException) exception;
+            }
+            throw new DefaultExceptionMappingService().map(exception);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package ch.cyberduck.core.http;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.threading.DefaultThreadPool;
+import ch.cyberduck.core.threading.LoggingUncaughtExceptionHandler;
+import ch.cyberduck.core.threading.ThreadPool;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Threads shared by all uploads sending a request while the entity content is written to a stream by the caller.
+ * Requests are queued when the maximum number of threads is reached. Threads time out when idle.
+ */
+public final class HttpUploadExecutor {
+
+    private static final ThreadPoolExecutor executor;
+
+    static {
+        executor = DefaultThreadPool.createExecutor("http", PreferencesFactory.get().getInteger("http.upload.pool.size.max"),
+            ThreadPool.Priority.norm, new LinkedBlockingQueue<>(), new LoggingUncaughtExceptionHandler());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    private HttpUploadExecutor() {
+        //
+    }
+
+    /**
+     * @param command Request to send
+     * @return Future response
+     */
+    public static <T> Future<T> execute(final Callable<T> command) {
+        return executor.submit(command);
+    }
+}
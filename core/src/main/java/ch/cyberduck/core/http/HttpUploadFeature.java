@@ -68,17 +68,34 @@ public class HttpUploadFeature<Reply, Digest> implements Upload<Reply> {
     public Reply upload(final Path file, final Local local, final BandwidthThrottle throttle,
                         final StreamListener listener, final TransferStatus status,
                         final StreamCancelation cancel, final StreamProgress progress, final ConnectionCallback callback) throws BackgroundException {
+        return this.upload(file, local.getInputStream(), status.getOffset(), throttle, listener, status, cancel, progress, callback);
+    }
+
+    /**
+     * @param source Input to read from
+     * @param offset Number of bytes to skip in input
+     */
+    public Reply upload(final Path file, final InputStream source, final long offset, final BandwidthThrottle throttle,
+                        final StreamListener listener, final TransferStatus status,
+                        final StreamCancelation cancel, final StreamProgress progress, final ConnectionCallback callback) throws BackgroundException {
         try {
             final Digest digest = this.digest();
             // Wrap with digest stream if available
-            final InputStream in = this.decorate(local.getInputStream(), digest);
+            final InputStream in = this.decorate(source, digest);
             final StatusOutputStream<Reply> out = writer.write(file, status, callback);
-            new StreamCopier(cancel, progress)
-                .withOffset(status.getOffset())
+            final StreamCopier copier = new StreamCopier(cancel, progress)
+                .withOffset(offset)
                 .withLimit(status.getLength())
-                .withListener(listener)
-                .transfer(in, new ThrottledOutputStream(out, throttle));
-            final Reply response = out.getStatus();
+                .withListener(listener);
+            final Reply response;
+            if(out instanceof DeferredHttpResponseOutputStream) {
+                // Read entity from input when sending request on this thread
+                response = ((DeferredHttpResponseOutputStream<Reply>) out).upload(in, copier, throttle);
+            }
+            else {
+                copier.transfer(in, new ThrottledOutputStream(out, throttle));
+                response = out.getStatus();
+            }
             this.post(file, digest, response);
             return response;
         }
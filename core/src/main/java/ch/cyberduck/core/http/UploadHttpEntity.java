@@ -0,0 +1,103 @@
+package ch.cyberduck.core.http;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.io.BandwidthThrottle;
+import ch.cyberduck.core.io.StreamCopier;
+import ch.cyberduck.core.io.ThrottledOutputStream;
+
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.apache.http.entity.AbstractHttpEntity;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Entity reading from the local source when the request is written by the HTTP client on the calling thread. Progress
+ * and checksums are reported by the stream copier and the decorated input.
+ */
+public class UploadHttpEntity extends AbstractHttpEntity {
+
+    private final InputStream in;
+    private final long length;
+    private final StreamCopier copier;
+    private final BandwidthThrottle throttle;
+
+    /**
+     * Failure reading from source or cancelation while writing entity
+     */
+    private BackgroundException failure;
+
+    private boolean consumed = false;
+
+    /**
+     * @param in       Source to read from
+     * @param length   Content length or -1 for chunked transfer
+     * @param copier   Copier with offset, limit and listener for transfer status
+     * @param throttle Bandwidth limit
+     */
+    public UploadHttpEntity(final InputStream in, final long length, final StreamCopier copier, final BandwidthThrottle throttle) {
+        this.in = in;
+        this.length = length;
+        this.copier = copier;
+        this.throttle = throttle;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return false;
+    }
+
+    @Override
+    public long getContentLength() {
+        return length;
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        throw new IOException(new UnsupportedOperationException("No content here"));
+    }
+
+    @Override
+    public void writeTo(final OutputStream out) throws IOException {
+        if(consumed) {
+            throw new IOException("Entity content already consumed");
+        }
+        consumed = true;
+        try {
+            // Keep connection open when closing stream after copying
+            copier.transfer(in, new ThrottledOutputStream(new CloseShieldOutputStream(out), throttle));
+        }
+        catch(BackgroundException e) {
+            failure = e;
+            throw new IOException(e.getDetail(), e);
+        }
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return !consumed;
+    }
+
+    /**
+     * @return Failure writing entity or null
+     */
+    public BackgroundException getFailure() {
+        return failure;
+    }
+}
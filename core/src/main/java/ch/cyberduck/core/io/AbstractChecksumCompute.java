@@ -21,6 +21,7 @@ package ch.cyberduck.core.io;
 import ch.cyberduck.core.LocaleFactory;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ChecksumException;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.transfer.TransferStatus;
 
 import org.apache.commons.codec.DecoderException;
@@ -31,6 +32,7 @@ import org.apache.commons.io.input.BoundedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
@@ -46,6 +48,37 @@ public abstract class AbstractChecksumCompute implements ChecksumCompute {
         }
     }
 
+    /**
+     * Compute digest of range in status. Large local files are read through memory mapped regions when enabled.
+     *
+     * @param algorithm Digest algorithm name
+     * @param in        Stream that will be closed when the digest is computed
+     * @param status    Offset and length
+     */
+    protected byte[] digest(final String algorithm, final InputStream in, final TransferStatus status) throws ChecksumException {
+        if(in instanceof FileChannelInputStream && PreferencesFactory.get().getBoolean("checksum.mapped.enable")) {
+            final FileChannel channel = ((FileChannelInputStream) in).getChannel();
+            try {
+                final long offset = channel.position() + status.getOffset();
+                final long remaining = Math.max(0L, channel.size() - offset);
+                final long length = status.getLength() > 0 ? Math.min(status.getLength(), remaining) : remaining;
+                if(length >= PreferencesFactory.get().getLong("checksum.mapped.threshold")) {
+                    try {
+                        return new ParallelChecksumService().digest(algorithm, channel, offset, length);
+                    }
+                    finally {
+                        IOUtils.closeQuietly(in);
+                    }
+                }
+            }
+            catch(IOException e) {
+                IOUtils.closeQuietly(in);
+                throw new ChecksumException(LocaleFactory.localizedString("Checksum failure", "Error"), e.getMessage(), e);
+            }
+        }
+        return this.digest(algorithm, this.normalize(in, status));
+    }
+
     protected byte[] digest(final String algorithm, final InputStream in) throws ChecksumException {
         final MessageDigest md;
         try {
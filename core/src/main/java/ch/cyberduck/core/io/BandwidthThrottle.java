@@ -3,16 +3,17 @@ package ch.cyberduck.core.io;
 import org.apache.log4j.Logger;
 
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.google.common.util.concurrent.Uninterruptibles;
 
 /**
- * Limits throughput of a stream to at most N bytes per T seconds.  Mutable and thread-safe.<p>
+ * Limits throughput of a stream to at most N bytes per second.  Mutable and thread-safe.<p>
  * <p/>
  * In the following example, <tt>throttle</tt> is used to send the contents of
- * <tt>buf</tt> to <tt>out</tt> at no more than <tt>N/T</tt> bytes per second:
+ * <tt>buf</tt> to <tt>out</tt> at no more than <tt>N</tt> bytes per second:
  * <pre>
- *      BandwidthThrottle throttle=new BandwidthThrottle(N, T);
+ *      BandwidthThrottle throttle=new BandwidthThrottle(N);
  *      OutputStream out=...;
  *      byte[] buf=...;
  *      for (int i=0; i<buf.length; ) {
@@ -22,16 +23,13 @@ import com.google.common.util.concurrent.Uninterruptibles;
  *      }
  * </pre>
  * <p/>
- * This class works by allowing exactly N bytes to be sent every T seconds.  If the number of bytes for a given window
- * have been exceeded, subsequent calls to request(..) will block.  The default value of T is 100 milliseconds. Smaller
- * window values T allow fairer bandwidth sharing and less noticeable pauses but may decrease efficiency slightly.<p>
+ * This class is a token bucket implemented as a virtual scheduling clock that is advanced with a compare and set
+ * operation for every request. A request reserves the time required to send the granted bytes at the configured rate
+ * and blocks until the reservation is due. Requests are limited to the bytes allowed per tick of 100 milliseconds so
+ * that concurrent streams sharing a throttle are served in turn. An idle throttle allows a burst of one tick.<p>
  * <p/>
- * Note that throttles are <i>not</i> cumulative.  In the future, this may allow enable fancier control.  Also,
- * BandwidthThrottle may be able delegate to other throttles.  This would allow, for example, a 15 KB/s Gnutella
- * messaging throttle, with no more than 10 KB/s devoted to uploads.<p>
- * <p/>
- * This implementation is based on the <a href="http://cvs.sourceforge.net/cgi-bin/viewcvs.cgi/freenet/freenet/src/freenet/support/io/Bandwidth.java">Bandwidth</a>
- * class from the Freenet project.  It has been simplified and better documented.<p>
+ * Throttles can be nested with a parent limiting the sum of all its children. This allows, for example, a global
+ * limit for all transfers with a limit for each transfer and each connection of a transfer.<p>
  */
 public final class BandwidthThrottle {
     private static final Logger log = Logger.getLogger(BandwidthThrottle.class);
@@ -40,72 +38,56 @@ public final class BandwidthThrottle {
      * The number of windows per second.
      */
     private static final int TICKS_PER_SECOND = 10;
-    /**
-     * The value of T, in milliseconds.
-     */
-    private static final int MILLIS_PER_TICK = 1000 / TICKS_PER_SECOND;
+
+    private static final long NANOS_PER_TICK = TimeUnit.SECONDS.toNanos(1) / TICKS_PER_SECOND;
 
     /**
-     * The bytes to send per tick.  Modified by setThrottle.
+     * No throttling
      */
-    private volatile int bytesPerTick;
+    public static final int UNLIMITED = -1;
 
     /**
-     * Whether or not we're only allowing bandwidth to be used every other second.
+     * Limits the sum of this and all other children. May be null.
      */
-    private volatile boolean switching = false;
+    private final BandwidthThrottle parent;
 
     /**
-     * The number of bytes remaining in this window.
+     * Bytes per second allowed
      */
-    private int availableBytes;
+    private volatile float rate = UNLIMITED;
+
     /**
-     * The system time when the window is reset so more bytes can be sent.
+     * Virtual time in nanoseconds when all bytes granted so far have been sent at the configured rate
      */
-    private long nextTickTime;
+    private final AtomicLong clock = new AtomicLong(System.nanoTime());
 
     /**
-     * Creates a new bandwidth throttle at the given throttle rate. The default windows size T is used.  The bytes per
-     * windows N is calculated from bytesPerSecond.
+     * Creates a new bandwidth throttle at the given throttle rate.
      *
      * @param bytesPerSecond the limits in bytes (not bits!) per second (not milliseconds!)
      */
-    public BandwidthThrottle(float bytesPerSecond) {
-        this.setRate(bytesPerSecond);
+    public BandwidthThrottle(final float bytesPerSecond) {
+        this(null, bytesPerSecond);
     }
 
     /**
-     * Creates a new bandwidth throttle at the given throttle rate, only allowing bandwidth to be used every other
-     * second if switching is true. The default windows size T is used.  The bytes per windows N is calculated from
-     * bytesPerSecond.
+     * Creates a new bandwidth throttle at the given throttle rate nested in a parent throttle.
      *
+     * @param parent         Throttle limiting the sum of all its children or null
      * @param bytesPerSecond the limits in bytes (not bits!) per second (not milliseconds!)
-     * @param switching      true if we should only allow bandwidth to be used every other second.
      */
-    public BandwidthThrottle(float bytesPerSecond, boolean switching) {
+    public BandwidthThrottle(final BandwidthThrottle parent, final float bytesPerSecond) {
+        this.parent = parent;
         this.setRate(bytesPerSecond);
-        this.setSwitching(switching);
-
     }
 
     /**
-     * No throttling
-     */
-    public static final int UNLIMITED = -1;
-
-    /**
-     * Bytes per second allowed
-     */
-    private float rate = UNLIMITED;
-
-    /**
-     * Sets the throttle to the given throttle rate.  The default windows size T is used.  The bytes per windows N is
-     * calculated from bytesPerSecond.
+     * Sets the throttle to the given throttle rate.
      *
      * @param bytesPerSecond the limits in bytes (not bits!) per second (not milliseconds!)
      */
-    public void setRate(float bytesPerSecond) {
-        if(bytesPerSecond < 0) {
+    public void setRate(final float bytesPerSecond) {
+        if(bytesPerSecond <= 0) {
             rate = UNLIMITED;
         }
         else {
@@ -113,10 +95,6 @@ public final class BandwidthThrottle {
                 log.debug(String.format("Set rate to %s bytes per second", bytesPerSecond));
             }
             rate = bytesPerSecond;
-            bytesPerTick = (int) (bytesPerSecond / TICKS_PER_SECOND);
-        }
-        if(switching) {
-            this.fixBytesPerTick(true);
         }
     }
 
@@ -128,85 +106,58 @@ public final class BandwidthThrottle {
     }
 
     /**
-     * Sets whether or not this throttle is switching bandwidth on/off.
+     * @return Parent throttle or null
      */
-    public void setSwitching(boolean switching) {
-        log.debug("setSwitching:" + switching);
-        if(this.switching != switching) {
-            fixBytesPerTick(switching);
-        }
-        this.switching = switching;
+    public BandwidthThrottle getParent() {
+        return parent;
     }
 
     /**
-     * Modifies bytesPerTick to either be double or half of what it was. This is necessary because of the 'switching',
-     * which can effectively reduce or raise the amount of data transferred.
-     */
-    private void fixBytesPerTick(boolean raise) {
-        int newBytesPerTick = bytesPerTick;
-        if(raise) {
-            newBytesPerTick *= 2;
-        }
-        else {
-            newBytesPerTick /= 2;
-        }
-        if(newBytesPerTick < 0) // overflowed?
-        {
-            newBytesPerTick = Integer.MAX_VALUE;
-        }
-        bytesPerTick = newBytesPerTick;
-    }
-
-    /**
-     * Blocks until the caller can send at least one byte without violating bandwidth constraints.  Records the number
-     * of byte sent.
+     * Blocks until the caller can send at least one byte without violating bandwidth constraints of this throttle and
+     * all its parents. Records the number of byte sent.
      *
      * @param desired the number of bytes the caller would like to send
      * @return the number of bytes the sender is expected to send, which is always greater than one and less than or
      * equal to desired
      */
-    public synchronized int request(int desired) {
-        if(UNLIMITED == rate) {
-            return desired;
-        }
-        waitForBandwidth();
-        int result = Math.min(desired, availableBytes);
-        availableBytes -= result;
-        return result;
-    }
-
-    /**
-     * Waits until data is _availableBytes.
-     */
-    private void waitForBandwidth() {
-        while(true) {
-            long now = System.currentTimeMillis();
-            updateWindow(now);
-            if(availableBytes != 0) {
-                break;
+    public int request(final int desired) {
+        int granted = desired;
+        for(BandwidthThrottle t = this; t != null; t = t.parent) {
+            final float r = t.rate;
+            if(UNLIMITED != r) {
+                granted = Math.min(granted, Math.max(1, (int) (r / TICKS_PER_SECOND)));
             }
-            if(log.isInfoEnabled()) {
-                log.info(String.format("Throttling bandwidth for %d milliseconds", nextTickTime - now));
+        }
+        long delay = 0L;
+        for(BandwidthThrottle t = this; t != null; t = t.parent) {
+            delay = Math.max(delay, t.reserve(granted));
+        }
+        if(delay > 0L) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Throttling bandwidth for %d milliseconds", TimeUnit.NANOSECONDS.toMillis(delay)));
             }
-            Uninterruptibles.sleepUninterruptibly(nextTickTime - now, TimeUnit.MILLISECONDS);
+            Uninterruptibles.sleepUninterruptibly(delay, TimeUnit.NANOSECONDS);
         }
+        return granted;
     }
 
     /**
-     * Updates _availableBytes and _nextTickTime if possible.
+     * @param bytes Number of bytes to send
+     * @return Nanoseconds to wait until bytes can be sent
      */
-    private void updateWindow(long now) {
-        if(now >= nextTickTime) {
-            if(!switching || ((now / 1000) % 2) == 0) {
-                availableBytes = bytesPerTick;
-                nextTickTime = now + MILLIS_PER_TICK;
-            }
-            else {
-                availableBytes = 0;
-                // the next tick time is the time we'll hit
-                // the next second.
-                long diff = 1000 - (now % 1000);
-                nextTickTime = now + diff;
+    private long reserve(final int bytes) {
+        final float r = rate;
+        if(UNLIMITED == r) {
+            return 0L;
+        }
+        final long interval = (long) (bytes * (TimeUnit.SECONDS.toNanos(1) / (double) r));
+        while(true) {
+            final long now = System.nanoTime();
+            final long current = clock.get();
+            // Allow burst of one tick when idle
+            final long start = Math.max(current, now - NANOS_PER_TICK);
+            if(clock.compareAndSet(current, start + interval)) {
+                return Math.max(0L, start - now);
             }
         }
     }
@@ -0,0 +1,60 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded pool of byte arrays grouped by size to avoid allocating a new buffer for every copy.
+ */
+final class ByteArrayPool {
+
+    private final Map<Integer, Queue<byte[]>> pool = new ConcurrentHashMap<>();
+
+    /**
+     * Maximum number of idle buffers retained per size
+     */
+    private final int capacity;
+
+    public ByteArrayPool(final int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * @param size Buffer length
+     * @return Pooled buffer or newly allocated buffer if none is available
+     */
+    public byte[] acquire(final int size) {
+        final Queue<byte[]> buffers = pool.get(size);
+        if(null != buffers) {
+            final byte[] buffer = buffers.poll();
+            if(null != buffer) {
+                return buffer;
+            }
+        }
+        return new byte[size];
+    }
+
+    /**
+     * @param buffer Buffer no longer in use. Dropped if the pool for its size is full.
+     */
+    public void release(final byte[] buffer) {
+        pool.computeIfAbsent(buffer.length, size -> new ArrayBlockingQueue<>(capacity)).offer(buffer);
+    }
+}
@@ -0,0 +1,282 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalFactory;
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.exception.ChecksumException;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.preferences.SupportDirectoryFinderFactory;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Persistent cache of checksums computed for local files keyed by absolute path, size and modification date. Records
+ * are kept in a fixed size hash table in a memory mapped file per algorithm. Lookup of unchanged files only requires
+ * reading file attributes with no read of file contents. Access to the cache file is guarded by a file lock to allow
+ * sharing the file with other processes.
+ */
+public class ChecksumCache {
+    private static final Logger log = Logger.getLogger(ChecksumCache.class);
+
+    private static final Map<HashAlgorithm, ChecksumCache> caches = new EnumMap<>(HashAlgorithm.class);
+
+    private static final int MAGIC = 0x43484b32;
+    private static final int HEADER = 16;
+    /**
+     * Hash of key, size, modification date, length of hash, hexadecimal hash of at most 128 characters, length of key
+     * and key
+     */
+    private static final int RECORD = 1024;
+    private static final int KEY = 155;
+    /**
+     * Maximum length of key in bytes
+     */
+    private static final int MAXIMUM_KEY = RECORD - KEY;
+    /**
+     * Number of slots to probe for a key
+     */
+    private static final int PROBE = 8;
+
+    private final HashAlgorithm algorithm;
+    private final ChecksumCompute compute;
+    private final int slots;
+
+    /**
+     * Null if cache file is not available
+     */
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    public static synchronized ChecksumCache get(final HashAlgorithm algorithm) {
+        ChecksumCache cache = caches.get(algorithm);
+        if(null == cache) {
+            final Local folder = LocalFactory.get(SupportDirectoryFinderFactory.get().find(), "Checksums");
+            cache = new ChecksumCache(algorithm, LocalFactory.get(folder, String.format("%s.cache", algorithm.name())),
+                PreferencesFactory.get().getInteger("checksum.cache.slots"));
+            caches.put(algorithm, cache);
+        }
+        return cache;
+    }
+
+    public ChecksumCache(final HashAlgorithm algorithm, final Local file, final int slots) {
+        this.algorithm = algorithm;
+        this.compute = ChecksumComputeFactory.get(algorithm);
+        this.slots = slots;
+        try {
+            final Local parent = file.getParent();
+            if(!parent.exists()) {
+                parent.mkdir();
+            }
+            final RandomAccessFile f = new RandomAccessFile(file.getAbsolute(), "rw");
+            channel = f.getChannel();
+            final long size = HEADER + (long) slots * RECORD;
+            try (FileLock lock = channel.lock()) {
+                final boolean initialized = f.length() == size;
+                if(!initialized) {
+                    f.setLength(0L);
+                    f.setLength(size);
+                }
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0L, size);
+                if(buffer.getInt(0) != MAGIC || buffer.getInt(4) != slots) {
+                    if(log.isInfoEnabled()) {
+                        log.info(String.format("Initialize checksum cache %s with %d slots", file, slots));
+                    }
+                    if(initialized) {
+                        // Discard records of incompatible file
+                        for(int i = 0; i < size; i++) {
+                            buffer.put(i, (byte) 0);
+                        }
+                    }
+                    buffer.putInt(0, MAGIC);
+                    buffer.putInt(4, slots);
+                }
+            }
+        }
+        catch(IOException | AccessDeniedException e) {
+            log.warn(String.format("Failure opening checksum cache %s. %s", file, e.getMessage()));
+            this.close();
+        }
+    }
+
+    /**
+     * Lookup checksum of unchanged file in cache or compute and save checksum of file
+     *
+     * @param file Local file
+     * @return Checksum of file contents
+     */
+    public Checksum compute(final Local file) throws ChecksumException {
+        final long size = file.attributes().getSize();
+        final long modified = file.attributes().getModificationDate();
+        if(-1L == size || -1L == modified) {
+            return this.digest(file);
+        }
+        final String key = file.getAbsolute();
+        final Checksum cached = this.find(key, size, modified);
+        if(cached != null) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Return cached checksum %s for %s", cached, file));
+            }
+            return cached;
+        }
+        final Checksum checksum = this.digest(file);
+        this.put(key, size, modified, checksum);
+        return checksum;
+    }
+
+    private Checksum digest(final Local file) throws ChecksumException {
+        try {
+            return compute.compute(file.getInputStream(), new TransferStatus());
+        }
+        catch(AccessDeniedException e) {
+            throw new ChecksumException(e.getMessage(), e.getDetail(), e);
+        }
+    }
+
+    /**
+     * @return Null if not found or file has changed
+     */
+    protected synchronized Checksum find(final String key, final long size, final long modified) {
+        if(null == buffer) {
+            return null;
+        }
+        final byte[] name = key.getBytes(StandardCharsets.UTF_8);
+        final long hash = this.hash(name);
+        try (FileLock lock = channel.lock(0L, Long.MAX_VALUE, true)) {
+            for(int i = 0; i < PROBE; i++) {
+                final int offset = this.offset(hash, i);
+                final long h = buffer.getLong(offset);
+                if(0L == h) {
+                    return null;
+                }
+                if(h == hash && this.matches(offset, name)) {
+                    if(buffer.getLong(offset + 8) != size || buffer.getLong(offset + 16) != modified) {
+                        return null;
+                    }
+                    final byte[] value = new byte[buffer.get(offset + 24) & 0xFF];
+                    for(int j = 0; j < value.length; j++) {
+                        value[j] = buffer.get(offset + 25 + j);
+                    }
+                    return new Checksum(algorithm, new String(value, StandardCharsets.US_ASCII));
+                }
+            }
+            return null;
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure locking checksum cache. %s", e.getMessage()));
+            return null;
+        }
+    }
+
+    protected synchronized void put(final String key, final long size, final long modified, final Checksum checksum) {
+        if(null == buffer) {
+            return;
+        }
+        if(Checksum.NONE == checksum || checksum.hash.length() > 128) {
+            return;
+        }
+        final byte[] name = key.getBytes(StandardCharsets.UTF_8);
+        if(name.length > MAXIMUM_KEY) {
+            log.warn(String.format("Skip caching checksum for %s exceeding maximum length", key));
+            return;
+        }
+        final long hash = this.hash(name);
+        try (FileLock lock = channel.lock()) {
+            // Replace home slot if no matching or free slot is found
+            int offset = this.offset(hash, 0);
+            for(int i = 0; i < PROBE; i++) {
+                final long h = buffer.getLong(this.offset(hash, i));
+                if(0L == h || h == hash && this.matches(this.offset(hash, i), name)) {
+                    offset = this.offset(hash, i);
+                    break;
+                }
+            }
+            // Mark slot free while writing record
+            buffer.putLong(offset, 0L);
+            final byte[] value = checksum.hash.getBytes(StandardCharsets.US_ASCII);
+            buffer.putLong(offset + 8, size);
+            buffer.putLong(offset + 16, modified);
+            buffer.put(offset + 24, (byte) value.length);
+            for(int j = 0; j < value.length; j++) {
+                buffer.put(offset + 25 + j, value[j]);
+            }
+            buffer.putShort(offset + KEY - 2, (short) name.length);
+            for(int j = 0; j < name.length; j++) {
+                buffer.put(offset + KEY + j, name[j]);
+            }
+            buffer.putLong(offset, hash);
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure locking checksum cache. %s", e.getMessage()));
+        }
+    }
+
+    /**
+     * @return True if key saved in record equals key
+     */
+    private boolean matches(final int offset, final byte[] name) {
+        if((buffer.getShort(offset + KEY - 2) & 0xFFFF) != name.length) {
+            return false;
+        }
+        final byte[] saved = new byte[name.length];
+        for(int j = 0; j < saved.length; j++) {
+            saved[j] = buffer.get(offset + KEY + j);
+        }
+        return Arrays.equals(saved, name);
+    }
+
+    private int offset(final long hash, final int probe) {
+        return HEADER + (int) (((hash >>> 1) % slots + probe) % slots) * RECORD;
+    }
+
+    /**
+     * @return FNV-1a hash of key to find slot
+     */
+    private long hash(final byte[] key) {
+        long hash = 0xcbf29ce484222325L;
+        for(byte b : key) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        // Zero marks free slot
+        return 0L == hash ? 1L : hash;
+    }
+
+    private void close() {
+        buffer = null;
+        if(channel != null) {
+            try {
+                channel.close();
+            }
+            catch(IOException e) {
+                log.warn(String.format("Failure closing checksum cache. %s", e.getMessage()));
+            }
+            channel = null;
+        }
+    }
+}
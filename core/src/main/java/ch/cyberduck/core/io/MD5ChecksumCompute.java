@@ -29,7 +29,6 @@ public class MD5ChecksumCompute extends AbstractChecksumCompute {
 
     @Override
     public Checksum compute(final InputStream in, final TransferStatus status) throws ChecksumException {
-        return new Checksum(HashAlgorithm.md5, Hex.encodeHexString(this.digest("MD5",
-            this.normalize(in, status))));
+        return new Checksum(HashAlgorithm.md5, Hex.encodeHexString(this.digest("MD5", in, status)));
     }
 }
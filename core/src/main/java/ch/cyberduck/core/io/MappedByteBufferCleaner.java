@@ -0,0 +1,94 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.apache.log4j.Logger;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.MappedByteBuffer;
+
+/**
+ * Unmap memory mapped regions without waiting for garbage collection. A file with a live mapping cannot be deleted,
+ * renamed or truncated on Windows.
+ */
+public final class MappedByteBufferCleaner {
+    private static final Logger log = Logger.getLogger(MappedByteBufferCleaner.class);
+
+    private static final Object unsafe;
+    private static final Method invokeCleaner;
+
+    static {
+        Object instance = null;
+        Method method = null;
+        try {
+            // Java 9 and later
+            final Class<?> type = Class.forName("sun.misc.Unsafe");
+            method = type.getMethod("invokeCleaner", java.nio.ByteBuffer.class);
+            final Field field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            instance = field.get(null);
+        }
+        catch(ReflectiveOperationException | RuntimeException e) {
+            method = null;
+        }
+        unsafe = instance;
+        invokeCleaner = method;
+    }
+
+    private MappedByteBufferCleaner() {
+        //
+    }
+
+    /**
+     * @return False if mapped regions are only released when garbage collected
+     */
+    public static boolean isSupported() {
+        if(null != invokeCleaner) {
+            return true;
+        }
+        try {
+            // Java 8
+            Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+            return true;
+        }
+        catch(ReflectiveOperationException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Release mapping. The buffer must not be accessed afterwards.
+     *
+     * @param buffer Mapped region
+     */
+    public static void clean(final MappedByteBuffer buffer) {
+        try {
+            if(null != invokeCleaner) {
+                invokeCleaner.invoke(unsafe, buffer);
+                return;
+            }
+            final Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+            final Object c = cleaner.invoke(buffer);
+            if(null != c) {
+                c.getClass().getMethod("clean").invoke(c);
+            }
+        }
+        catch(ReflectiveOperationException | RuntimeException e) {
+            log.warn(String.format("Failure unmapping buffer. %s", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.LocaleFactory;
+import ch.cyberduck.core.exception.ChecksumException;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.log4j.Logger;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Compute digests of local files read with positional reads from a file channel. Composite hashes made of digests of
+ * fixed size segments compute the segment digests in parallel on a shared fork join pool. Regions are read through
+ * memory mappings instead when enabled and the mapping can be released after use.
+ */
+public class ParallelChecksumService {
+    private static final Logger log = Logger.getLogger(ParallelChecksumService.class);
+
+    /**
+     * Block size for Dropbox content hash
+     */
+    public static final long DROPBOX_BLOCK_SIZE = 4L * 1024L * 1024L;
+
+    /**
+     * Size of heap buffer for positional reads
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final ForkJoinPool pool = new ForkJoinPool(
+        Math.max(1, PreferencesFactory.get().getInteger("checksum.parallel.threads")));
+
+    private final ForkJoinPool executor;
+
+    /**
+     * Maximum size of region mapped at once
+     */
+    private final long region;
+
+    /**
+     * Read through memory mapped regions
+     */
+    private final boolean mapped;
+
+    public ParallelChecksumService() {
+        this(pool, PreferencesFactory.get().getLong("checksum.mapped.region"),
+            PreferencesFactory.get().getBoolean("checksum.mapped.enable"));
+    }
+
+    public ParallelChecksumService(final ForkJoinPool executor, final long region, final boolean mapped) {
+        this.executor = executor;
+        this.region = region;
+        this.mapped = mapped && MappedByteBufferCleaner.isSupported();
+    }
+
+    /**
+     * Sequential digest of file region
+     *
+     * @param algorithm Digest algorithm name
+     * @param channel   File channel
+     * @param offset    Position in file
+     * @param length    Number of bytes
+     * @return Digest
+     */
+    public byte[] digest(final String algorithm, final FileChannel channel, final long offset, final long length) throws ChecksumException {
+        final MessageDigest md = this.instance(algorithm);
+        try {
+            if(mapped) {
+                for(long position = offset; position < offset + length; position += region) {
+                    final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(region, offset + length - position));
+                    try {
+                        md.update(buffer);
+                    }
+                    finally {
+                        MappedByteBufferCleaner.clean(buffer);
+                    }
+                }
+            }
+            else {
+                // Positional reads do not change the position of the channel and can be used concurrently
+                final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                long position = offset;
+                while(position < offset + length) {
+                    buffer.clear();
+                    buffer.limit((int) Math.min(BUFFER_SIZE, offset + length - position));
+                    final int read = channel.read(buffer, position);
+                    if(-1 == read) {
+                        throw new EOFException(String.format("Unexpected end of file at position %d", position));
+                    }
+                    buffer.flip();
+                    md.update(buffer);
+                    position += read;
+                }
+            }
+        }
+        catch(IOException e) {
+            throw new ChecksumException(LocaleFactory.localizedString("Checksum failure", "Error"), e.getMessage(), e);
+        }
+        return md.digest();
+    }
+
+    /**
+     * Compute digests of segments in parallel
+     *
+     * @param algorithm Digest algorithm name
+     * @param channel   File channel
+     * @param length    Number of bytes from start of file
+     * @param segment   Segment size
+     * @return Digest for each segment in order
+     */
+    public List<byte[]> parallel(final String algorithm, final FileChannel channel, final long length, final long segment) throws ChecksumException {
+        final int segments = (int) Math.max(1L, (length + segment - 1) / segment);
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Compute %s digest of %d segments with size %d", algorithm, segments, segment));
+        }
+        // Fail early for unknown algorithm
+        this.instance(algorithm);
+        try {
+            return Arrays.asList(executor.invoke(new SegmentDigestTask(algorithm, channel, length, segment, 0, segments)));
+        }
+        catch(SegmentDigestFailure e) {
+            throw e.getCause();
+        }
+        catch(RuntimeException e) {
+            // Exception rethrown by fork join pool may wrap the original failure
+            for(Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if(cause instanceof SegmentDigestFailure) {
+                    throw ((SegmentDigestFailure) cause).getCause();
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @param algorithm Checksum algorithm
+     * @param channel   File channel
+     * @param length    Number of bytes from start of file
+     * @param segment   Segment size
+     * @return Checksum for each segment in order
+     */
+    public List<Checksum> segments(final HashAlgorithm algorithm, final FileChannel channel, final long length, final long segment) throws ChecksumException {
+        final List<Checksum> checksums = new ArrayList<>();
+        for(byte[] digest : this.parallel(this.name(algorithm), channel, length, segment)) {
+            checksums.add(new Checksum(algorithm, Hex.encodeHexString(digest)));
+        }
+        return checksums;
+    }
+
+    /**
+     * S3 multipart upload ETag computed as MD5 of the concatenated binary MD5 of all parts followed by the number of
+     * parts.
+     *
+     * @param channel  File channel
+     * @param length   Number of bytes from start of file
+     * @param partsize Part size used for multipart upload
+     * @return Composite ETag with suffix of number of parts
+     */
+    public Checksum etag(final FileChannel channel, final long length, final long partsize) throws ChecksumException {
+        final List<byte[]> parts = this.parallel("MD5", channel, length, partsize);
+        return new Checksum(HashAlgorithm.md5, String.format("%s-%d",
+            Hex.encodeHexString(this.composite("MD5", parts)), parts.size()));
+    }
+
+    /**
+     * Dropbox content hash computed as SHA-256 of the concatenated binary SHA-256 of all 4MB blocks.
+     *
+     * @param channel File channel
+     * @param length  Number of bytes from start of file
+     * @return Content hash
+     */
+    public Checksum content(final FileChannel channel, final long length) throws ChecksumException {
+        return new Checksum(HashAlgorithm.sha256, Hex.encodeHexString(this.composite("SHA-256",
+            0L == length ? new ArrayList<>() : this.parallel("SHA-256", channel, length, DROPBOX_BLOCK_SIZE))));
+    }
+
+    private byte[] composite(final String algorithm, final List<byte[]> digests) throws ChecksumException {
+        final MessageDigest md = this.instance(algorithm);
+        for(byte[] digest : digests) {
+            md.update(digest);
+        }
+        return md.digest();
+    }
+
+    private MessageDigest instance(final String algorithm) throws ChecksumException {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        }
+        catch(NoSuchAlgorithmException e) {
+            throw new ChecksumException(LocaleFactory.localizedString("Checksum failure", "Error"), e.getMessage(), e);
+        }
+    }
+
+    private String name(final HashAlgorithm algorithm) throws ChecksumException {
+        switch(algorithm) {
+            case md5:
+                return "MD5";
+            case sha1:
+                return "SHA-1";
+            case sha256:
+                return "SHA-256";
+            case sha512:
+                return "SHA-512";
+            default:
+                throw new ChecksumException(LocaleFactory.localizedString("Checksum failure", "Error"),
+                    String.format("Unsupported algorithm %s", algorithm));
+        }
+    }
+
+    /**
+     * Splits range of segments until a single segment is left to digest
+     */
+    private final class SegmentDigestTask extends RecursiveTask<byte[][]> {
+        private final String algorithm;
+        private final FileChannel channel;
+        private final long length;
+        private final long segment;
+        private final int from;
+        private final int to;
+
+        public SegmentDigestTask(final String algorithm, final FileChannel channel, final long length, final long segment,
+                                 final int from, final int to) {
+            this.algorithm = algorithm;
+            this.channel = channel;
+            this.length = length;
+            this.segment = segment;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected byte[][] compute() {
+            if(to - from == 1) {
+                final long offset = from * segment;
+                try {
+                    return new byte[][]{digest(algorithm, channel, offset, Math.max(0L, Math.min(segment, length - offset)))};
+                }
+                catch(ChecksumException e) {
+                    throw new SegmentDigestFailure(e);
+                }
+            }
+            final int middle = (from + to) >>> 1;
+            final SegmentDigestTask left = new SegmentDigestTask(algorithm, channel, length, segment, from, middle);
+            final SegmentDigestTask right = new SegmentDigestTask(algorithm, channel, length, segment, middle, to);
+            left.fork();
+            final byte[][] r = right.compute();
+            final byte[][] l = left.join();
+            final byte[][] digests = Arrays.copyOf(l, l.length + r.length);
+            System.arraycopy(r, 0, digests, l.length, r.length);
+            return digests;
+        }
+    }
+
+    private static final class SegmentDigestFailure extends RuntimeException {
+        public SegmentDigestFailure(final ChecksumException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized ChecksumException getCause() {
+            return (ChecksumException) super.getCause();
+        }
+    }
+}
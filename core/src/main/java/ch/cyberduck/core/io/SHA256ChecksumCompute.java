@@ -29,7 +29,6 @@ public class SHA256ChecksumCompute extends AbstractChecksumCompute {
 
     @Override
     public Checksum compute(final InputStream in, final TransferStatus status) throws ChecksumException {
-        return new Checksum(HashAlgorithm.sha256, Hex.encodeHexString(this.digest("SHA-256",
-            this.normalize(in, status))));
+        return new Checksum(HashAlgorithm.sha256, Hex.encodeHexString(this.digest("SHA-256", in, status)));
     }
 }
@@ -0,0 +1,281 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalFactory;
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.exception.LocalAccessDeniedException;
+import ch.cyberduck.core.exception.NotfoundException;
+
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * File written in place by concurrent segments at their offset through a shared file channel. The position after the
+ * last byte written by each segment is recorded in a state file next to the target to resume interrupted transfers.
+ * The state file is not memory mapped to allow deleting it on completion. Positions are only recorded after the data written is forced to disk.
+ */
+public final class SegmentedFileChannel {
+    private static final Logger log = Logger.getLogger(SegmentedFileChannel.class);
+
+    private static final Map<String, SegmentedFileChannel> open = new HashMap<>();
+
+    private static final int MAGIC = 0x53454731;
+    /**
+     * Magic and number of segments
+     */
+    private static final int HEADER = 8;
+    /**
+     * Bytes written by segment before data is forced to disk and position is recorded
+     */
+    private static final long CHECKPOINT = 8L * 1024L * 1024L;
+
+    private final Local file;
+    private final RandomAccessFile target;
+    private final RandomAccessFile state;
+    private final int segments;
+
+    private int references = 0;
+
+    /**
+     * @param file Target file
+     * @return File next to target with progress of segments. Distinct from folder with segment files.
+     */
+    public static Local state(final Local file) {
+        return LocalFactory.get(file.getParent(), String.format("%s.cyberduckstate", file.getName()));
+    }
+
+    /**
+     * Create state for segments unless already present for the same number of segments and set the length of the
+     * target file.
+     *
+     * @param file     Target file
+     * @param segments Number of segments
+     * @param length   Total length of file
+     */
+    public static void allocate(final Local file, final int segments, final long length) throws AccessDeniedException {
+        final Local state = state(file);
+        final long[] existing = progress(file);
+        try {
+            if(null == existing || existing.length != segments) {
+                if(log.isInfoEnabled()) {
+                    log.info(String.format("Create state %s for %d segments", state, segments));
+                }
+                try (RandomAccessFile f = new RandomAccessFile(state.getAbsolute(), "rw")) {
+                    f.setLength(0L);
+                    f.writeInt(MAGIC);
+                    f.writeInt(segments);
+                    f.setLength(HEADER + segments * 8L);
+                }
+            }
+            try (RandomAccessFile f = new RandomAccessFile(file.getAbsolute(), "rw")) {
+                if(f.length() != length) {
+                    if(log.isInfoEnabled()) {
+                        log.info(String.format("Preallocate %d bytes for %s", length, file));
+                    }
+                    f.setLength(length);
+                }
+            }
+        }
+        catch(IOException e) {
+            throw new LocalAccessDeniedException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @param file Target file
+     * @return Position after last byte written for each segment or null if no state is found
+     */
+    public static long[] progress(final Local file) {
+        final Local state = state(file);
+        if(!state.exists() || state.isDirectory()) {
+            return null;
+        }
+        try (RandomAccessFile f = new RandomAccessFile(state.getAbsolute(), "r")) {
+            if(f.length() < HEADER || f.readInt() != MAGIC) {
+                log.warn(String.format("Ignore invalid state %s", state));
+                return null;
+            }
+            final long[] positions = new long[f.readInt()];
+            if(f.length() != HEADER + positions.length * 8L) {
+                log.warn(String.format("Ignore truncated state %s", state));
+                return null;
+            }
+            for(int i = 0; i < positions.length; i++) {
+                positions[i] = f.readLong();
+            }
+            return positions;
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure reading state %s. %s", state, e.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * Remove state of completed file
+     *
+     * @param file Target file
+     */
+    public static void complete(final Local file) throws AccessDeniedException, NotfoundException {
+        final Local state = state(file);
+        if(state.exists() && !state.isDirectory()) {
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Delete state %s", state));
+            }
+            state.delete();
+        }
+    }
+
+    /**
+     * Obtain shared channel for target. Must be released by closing all streams obtained.
+     *
+     * @param file Target file with state previously allocated
+     */
+    public static synchronized SegmentedFileChannel open(final Local file) throws AccessDeniedException {
+        SegmentedFileChannel channel = open.get(file.getAbsolute());
+        if(null == channel) {
+            try {
+                channel = new SegmentedFileChannel(file);
+            }
+            catch(IOException e) {
+                throw new LocalAccessDeniedException(e.getMessage(), e);
+            }
+            open.put(file.getAbsolute(), channel);
+        }
+        channel.references++;
+        return channel;
+    }
+
+    private SegmentedFileChannel(final Local file) throws IOException {
+        this.file = file;
+        final Local s = state(file);
+        final long[] positions = progress(file);
+        if(null == positions) {
+            throw new IOException(String.format("Missing state %s", s));
+        }
+        this.segments = positions.length;
+        this.target = new RandomAccessFile(file.getAbsolute(), "rw");
+        try {
+            this.state = new RandomAccessFile(s.getAbsolute(), "rw");
+        }
+        catch(IOException e) {
+            target.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @param segment  Segment number starting with 1
+     * @param position Offset in file to start writing
+     * @return Stream writing at position and recording progress of segment
+     */
+    public OutputStream getOutputStream(final int segment, final long position) {
+        if(segment < 1 || segment > segments) {
+            throw new IllegalArgumentException(String.format("Invalid segment number %d for %d segments", segment, segments));
+        }
+        return new SegmentOutputStream(segment, position);
+    }
+
+    private void release() throws IOException {
+        synchronized(SegmentedFileChannel.class) {
+            if(--references > 0) {
+                return;
+            }
+            open.remove(file.getAbsolute());
+        }
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Close shared channel for %s", file));
+        }
+        try {
+            state.close();
+        }
+        finally {
+            target.close();
+        }
+    }
+
+    private final class SegmentOutputStream extends OutputStream {
+        private final int segment;
+        private long position;
+        /**
+         * Position recorded in state
+         */
+        private long recorded;
+        private boolean closed;
+
+        public SegmentOutputStream(final int segment, final long position) {
+            this.segment = segment;
+            this.position = position;
+            this.recorded = position;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            this.write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            final ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+            while(buffer.hasRemaining()) {
+                position += target.getChannel().write(buffer, position);
+            }
+            if(position - recorded >= CHECKPOINT) {
+                this.checkpoint();
+            }
+        }
+
+        /**
+         * Force written data to disk before recording position to not claim data lost in a crash
+         */
+        private void checkpoint() throws IOException {
+            if(position == recorded) {
+                return;
+            }
+            target.getChannel().force(false);
+            final ByteBuffer buffer = ByteBuffer.allocate(8).putLong(0, position);
+            final FileChannel channel = state.getChannel();
+            while(buffer.hasRemaining()) {
+                channel.write(buffer, HEADER + (segment - 1) * 8L + buffer.position());
+            }
+            channel.force(false);
+            recorded = position;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if(closed) {
+                return;
+            }
+            closed = true;
+            try {
+                this.checkpoint();
+            }
+            finally {
+                release();
+            }
+        }
+    }
+}
@@ -24,13 +24,28 @@ import ch.cyberduck.core.preferences.PreferencesFactory;
 
 import org.apache.log4j.Logger;
 
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
 
 public final class StreamCopier {
     private static final Logger log = Logger.getLogger(StreamCopier.class);
 
+    /**
+     * Maximum number of bytes to transfer between file channels before checking for cancelation and notifying listener
+     */
+    private static final long TRANSFER_CHUNKSIZE = 8 * 1024 * 1024;
+
+    /**
+     * Reuse buffers between copies with an upper bound of idle buffers retained
+     */
+    private static final ByteArrayPool buffers = new ByteArrayPool(16);
+
     private final StreamCancelation cancel;
     private final StreamProgress progress;
 
@@ -83,42 +98,14 @@ public final class StreamCopier {
     public void transfer(final InputStream in, final OutputStream out) throws BackgroundException {
         try {
             try {
-                if(offset > 0) {
-                    skip(in, offset);
-                }
-                final byte[] buffer = new byte[chunksize];
-                long total = 0;
-                int len = chunksize;
-                if(limit > 0 && limit < chunksize) {
-                    // Cast will work because chunk size is int
-                    len = limit.intValue();
+                final List<BandwidthThrottle> throttles = new ArrayList<>();
+                final FileChannel source = channel(in, throttles);
+                final FileChannel target = null == source ? null : channel(out, throttles);
+                if(null != source && null != target) {
+                    this.transfer(in, out, source, target, throttles);
                 }
-                while(len > 0) {
-                    cancel.validate();
-                    final int read = in.read(buffer, 0, len);
-                    if(-1 == read) {
-                        if(log.isDebugEnabled()) {
-                            log.debug(String.format("End of file reached with %d bytes read from stream", total));
-                        }
-                        progress.setComplete();
-                        break;
-                    }
-                    else {
-                        listener.recv(read);
-                        out.write(buffer, 0, read);
-                        listener.sent(read);
-                        total += read;
-                    }
-                    if(limit > 0) {
-                        // Only adjust if not reading to the end of the stream. Cast will work because chunk size is int
-                        len = (int) Math.min(limit - total, chunksize);
-                    }
-                    if(limit == total) {
-                        if(log.isDebugEnabled()) {
-                            log.debug(String.format("Limit %d reached reading from stream", limit));
-                        }
-                        progress.setComplete();
-                    }
+                else {
+                    this.copy(in, out, offset, limit);
                 }
                 final StreamCloser c = new DefaultStreamCloser();
                 c.close(out);
@@ -137,6 +124,146 @@ public final class StreamCopier {
         cancel.validate();
     }
 
+    /**
+     * Copy using buffer
+     *
+     * @param offset Number of bytes to skip in input
+     * @param limit  Maximum number of bytes to copy or -1 to read to end of stream
+     */
+    private void copy(final InputStream in, final OutputStream out, final long offset, final long limit) throws IOException, BackgroundException {
+        if(offset > 0) {
+            skip(in, offset);
+        }
+        final byte[] buffer = buffers.acquire(chunksize);
+        try {
+            long total = 0;
+            int len = chunksize;
+            if(limit > 0 && limit < chunksize) {
+                // Cast will work because chunk size is int
+                len = (int) limit;
+            }
+            while(len > 0) {
+                cancel.validate();
+                final int read = in.read(buffer, 0, len);
+                if(-1 == read) {
+                    if(log.isDebugEnabled()) {
+                        log.debug(String.format("End of file reached with %d bytes read from stream", total));
+                    }
+                    progress.setComplete();
+                    break;
+                }
+                else {
+                    listener.recv(read);
+                    out.write(buffer, 0, read);
+                    listener.sent(read);
+                    total += read;
+                }
+                if(limit > 0) {
+                    // Only adjust if not reading to the end of the stream. Cast will work because chunk size is int
+                    len = (int) Math.min(limit - total, chunksize);
+                }
+                if(limit == total) {
+                    if(log.isDebugEnabled()) {
+                        log.debug(String.format("Limit %d reached reading from stream", limit));
+                    }
+                    progress.setComplete();
+                }
+            }
+        }
+        finally {
+            buffers.release(buffer);
+        }
+    }
+
+    /**
+     * Copy between file channels without copying to user space where supported by the operating system. Continues
+     * with buffered copy from streams when no bytes could be transferred.
+     *
+     * @param source    Input stream backed by channel
+     * @param target    Output stream backed by channel
+     * @param in        Channel to read from starting at its current position plus offset
+     * @param out       Channel to write to at its current position
+     * @param throttles Bandwidth limits of unwrapped streams
+     */
+    private void transfer(final InputStream source, final OutputStream target,
+                          final FileChannel in, final FileChannel out, final List<BandwidthThrottle> throttles) throws IOException, BackgroundException {
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Transfer from %s to %s using file channels", in, out));
+        }
+        long position = in.position() + offset;
+        long total = 0;
+        while(true) {
+            cancel.validate();
+            long len = limit > 0 ? Math.min(limit - total, TRANSFER_CHUNKSIZE) : TRANSFER_CHUNKSIZE;
+            for(BandwidthThrottle throttle : throttles) {
+                len = throttle.request((int) len);
+            }
+            final long transferred = in.transferTo(position, len, out);
+            if(transferred <= 0) {
+                if(position >= in.size()) {
+                    if(log.isDebugEnabled()) {
+                        log.debug(String.format("End of file reached with %d bytes read from channel", total));
+                    }
+                    progress.setComplete();
+                    break;
+                }
+                // Bandwidth already requested for bytes not transferred. Channel may not support transfer
+                log.warn(String.format("No bytes transferred from %s at position %d. Continue with buffered copy", in, position));
+                in.position(position);
+                this.copy(source, target, 0L, limit > 0 ? limit - total : -1L);
+                return;
+            }
+            listener.recv(transferred);
+            listener.sent(transferred);
+            position += transferred;
+            total += transferred;
+            if(limit == total) {
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Limit %d reached reading from channel", limit));
+                }
+                progress.setComplete();
+                break;
+            }
+        }
+        in.position(position);
+    }
+
+    /**
+     * @param throttles Bandwidth limits found when unwrapping the stream
+     * @return Underlying file channel or null if stream is not backed by a file or wrapped with a stream altering
+     * content
+     */
+    private static FileChannel channel(final InputStream in, final List<BandwidthThrottle> throttles) {
+        if(in instanceof FileChannelInputStream) {
+            return ((FileChannelInputStream) in).getChannel();
+        }
+        if(in instanceof FileInputStream) {
+            return ((FileInputStream) in).getChannel();
+        }
+        if(in instanceof ThrottledInputStream) {
+            throttles.add(((ThrottledInputStream) in).getThrottle());
+            return channel(((ThrottledInputStream) in).getDelegate(), throttles);
+        }
+        return null;
+    }
+
+    private static FileChannel channel(final OutputStream out, final List<BandwidthThrottle> throttles) {
+        if(out instanceof FileChannelOutputStream) {
+            return ((FileChannelOutputStream) out).getChannel();
+        }
+        if(out instanceof FileOutputStream) {
+            return ((FileOutputStream) out).getChannel();
+        }
+        if(out instanceof ThrottledOutputStream) {
+            throttles.add(((ThrottledOutputStream) out).getThrottle());
+            return channel(((ThrottledOutputStream) out).getDelegate(), throttles);
+        }
+        if(out.getClass() == VoidStatusOutputStream.class) {
+            return channel(((VoidStatusOutputStream) out).getProxy(), throttles);
+        }
+        return null;
+    }
+
     public static InputStream skip(final InputStream in, final long offset) throws BackgroundException {
         try {
             long skipped = in.skip(offset);
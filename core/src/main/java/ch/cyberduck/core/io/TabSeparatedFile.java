@@ -0,0 +1,183 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalFactory;
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.exception.LocalAccessDeniedException;
+import ch.cyberduck.core.exception.NotfoundException;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rows of tab separated values in a file of the support directory. Rows with a value containing a tab or line break
+ * are skipped. The file is replaced when written to not interfere with concurrent readers and writers.
+ */
+public class TabSeparatedFile {
+    private static final Logger log = Logger.getLogger(TabSeparatedFile.class);
+
+    private final Local file;
+
+    public TabSeparatedFile(final Local file) {
+        this.file = file;
+    }
+
+    /**
+     * @param columns Number of values in row
+     * @return Rows with number of values or empty if file is missing
+     */
+    public List<String[]> read(final int columns) throws AccessDeniedException {
+        final List<String[]> rows = new ArrayList<>();
+        if(!file.exists()) {
+            return rows;
+        }
+        try (InputStream in = new FileInputStream(file.getAbsolute());
+             BufferedReader reader = new BufferedReader(new InputStreamReader(this.decode(in), StandardCharsets.UTF_8))) {
+            String line;
+            while((line = reader.readLine()) != null) {
+                if(StringUtils.isEmpty(line)) {
+                    continue;
+                }
+                final String[] row = StringUtils.splitPreserveAllTokens(line, '\t');
+                if(row.length != columns) {
+                    log.warn(String.format("Ignore invalid line in %s", file));
+                    continue;
+                }
+                rows.add(row);
+            }
+        }
+        catch(IOException e) {
+            throw new LocalAccessDeniedException(e.getMessage(), e);
+        }
+        return rows;
+    }
+
+    /**
+     * Replace file with rows
+     *
+     * @param rows Values of rows
+     */
+    public void write(final Iterable<String[]> rows) throws AccessDeniedException {
+        this.mkdir();
+        final Local temporary = LocalFactory.get(file.getParent(), String.format("%s.%s", file.getName(), new AlphanumericRandomStringService().random()));
+        try {
+            try (OutputStream out = new FileOutputStream(temporary.getAbsolute());
+                 Writer writer = new BufferedWriter(new OutputStreamWriter(this.encode(out), StandardCharsets.UTF_8))) {
+                for(String[] row : rows) {
+                    this.write(writer, row);
+                }
+            }
+            catch(IOException e) {
+                throw new LocalAccessDeniedException(e.getMessage(), e);
+            }
+            temporary.rename(file);
+        }
+        catch(AccessDeniedException e) {
+            this.delete(temporary);
+            throw e;
+        }
+    }
+
+    /**
+     * Add row to end of file. Not supported when encoding output.
+     *
+     * @param row Values of row
+     */
+    public void append(final String[] row) throws AccessDeniedException {
+        this.mkdir();
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file.getAbsolute(), true), StandardCharsets.UTF_8))) {
+            this.write(writer, row);
+        }
+        catch(IOException e) {
+            throw new LocalAccessDeniedException(e.getMessage(), e);
+        }
+    }
+
+    private void write(final Writer writer, final String[] row) throws IOException {
+        for(String value : row) {
+            if(StringUtils.containsAny(value, '\t', '\r', '\n')) {
+                return;
+            }
+        }
+        writer.write(StringUtils.join(row, '\t'));
+        writer.write('\n');
+    }
+
+    public void delete() throws AccessDeniedException {
+        if(file.exists()) {
+            try {
+                file.delete();
+            }
+            catch(NotfoundException e) {
+                // Removed concurrently
+            }
+        }
+    }
+
+    private void delete(final Local temporary) {
+        try {
+            temporary.delete();
+        }
+        catch(AccessDeniedException | NotfoundException e) {
+            log.warn(String.format("Failure deleting %s. %s", temporary, e.getMessage()));
+        }
+    }
+
+    private void mkdir() throws AccessDeniedException {
+        final Local directory = file.getParent();
+        if(!directory.exists()) {
+            directory.mkdir();
+        }
+    }
+
+    /**
+     * @param in File input
+     * @return Stream to read rows from
+     */
+    protected InputStream decode(final InputStream in) throws IOException {
+        return in;
+    }
+
+    /**
+     * @param out File output
+     * @return Stream to write rows to
+     */
+    protected OutputStream encode(final OutputStream out) throws IOException {
+        return out;
+    }
+
+    @Override
+    public String toString() {
+        return file.toString();
+    }
+}
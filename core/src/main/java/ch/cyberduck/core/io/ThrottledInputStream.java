@@ -18,6 +18,8 @@ package ch.cyberduck.core.io;
  *  dkocher@cyberduck.ch
  */
 
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
 import org.apache.commons.io.input.ProxyInputStream;
 
 import java.io.IOException;
@@ -36,9 +38,25 @@ public class ThrottledInputStream extends ProxyInputStream {
     private final BandwidthThrottle throttle;
 
     public ThrottledInputStream(final InputStream delegate, final BandwidthThrottle throttle) {
+        this(delegate, throttle, PreferencesFactory.get().getFloat("queue.connection.bandwidth.bytes"));
+    }
+
+    /**
+     * @param throttle Limit shared with other streams
+     * @param rate     Limit for this stream in bytes per second
+     */
+    public ThrottledInputStream(final InputStream delegate, final BandwidthThrottle throttle, final float rate) {
         super(delegate);
         this.delegate = delegate;
-        this.throttle = throttle;
+        this.throttle = rate > 0 ? new BandwidthThrottle(throttle, rate) : throttle;
+    }
+
+    public InputStream getDelegate() {
+        return delegate;
+    }
+
+    public BandwidthThrottle getThrottle() {
+        return throttle;
     }
 
     /**
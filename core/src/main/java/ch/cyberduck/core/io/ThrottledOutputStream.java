@@ -17,6 +17,8 @@ package ch.cyberduck.core.io;
  * Bug fixes, suggestions and comments should be sent to feedback@cyberduck.ch
  */
 
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
 import org.apache.commons.io.output.ProxyOutputStream;
 
 import java.io.IOException;
@@ -40,9 +42,26 @@ public class ThrottledOutputStream extends ProxyOutputStream {
      * @param throttle limits throughput.  May be shared with other streams.
      */
     public ThrottledOutputStream(final OutputStream delegate, final BandwidthThrottle throttle) {
+        this(delegate, throttle, PreferencesFactory.get().getFloat("queue.connection.bandwidth.bytes"));
+    }
+
+    /**
+     * @param delegate the underlying stream for all IO
+     * @param throttle limits throughput.  May be shared with other streams.
+     * @param rate     limit for this stream in bytes per second
+     */
+    public ThrottledOutputStream(final OutputStream delegate, final BandwidthThrottle throttle, final float rate) {
         super(delegate);
         this.delegate = delegate;
-        this.throttle = throttle;
+        this.throttle = rate > 0 ? new BandwidthThrottle(throttle, rate) : throttle;
+    }
+
+    public OutputStream getDelegate() {
+        return delegate;
+    }
+
+    public BandwidthThrottle getThrottle() {
+        return throttle;
     }
 
     /**
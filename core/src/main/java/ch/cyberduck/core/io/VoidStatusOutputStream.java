@@ -18,8 +18,16 @@ package ch.cyberduck.core.io;
 import java.io.OutputStream;
 
 public class VoidStatusOutputStream extends StatusOutputStream<Void> {
+
+    private final OutputStream proxy;
+
     public VoidStatusOutputStream(final OutputStream proxy) {
         super(proxy);
+        this.proxy = proxy;
+    }
+
+    public OutputStream getProxy() {
+        return proxy;
     }
 
     @Override
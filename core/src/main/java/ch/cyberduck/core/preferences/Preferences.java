@@ -325,7 +325,11 @@ public abstract class Preferences implements Locales {
         this.setDefault("transfer.cache.size", String.valueOf(100));
         this.setDefault("icon.cache.size", String.valueOf(200));
         this.setDefault("preferences.cache.size", String.valueOf(1000));
-        this.setDefault("fileid.cache.size", String.valueOf(1000));
+        this.setDefault("fileid.cache.size", String.valueOf(10000));
+        /*
+          Save identifiers of files per bookmark for services where API calls take IDs rather than file paths
+         */
+        this.setDefault("fileid.cache.persistent", String.valueOf(false));
 
         /*
           Caching NS* proxy instances.
@@ -401,6 +405,23 @@ public abstract class Preferences implements Locales {
          */
         this.setDefault("browser.move.confirm", String.valueOf(true));
         this.setDefault("browser.copy.confirm", String.valueOf(false));
+        /*
+          Number of files and folders passed to delete feature at once while listing recursively
+         */
+        this.setDefault("browser.delete.batch.size", String.valueOf(1000));
+        /*
+          Number of threads listing and deleting concurrently for stateless protocols
+         */
+        this.setDefault("browser.delete.concurrency", String.valueOf(5));
+        /*
+          Number of connections searching folders concurrently for protocols without recursive search
+         */
+        this.setDefault("browser.search.concurrency", String.valueOf(5));
+        /*
+          Stop recursive search after number of matches or below folder depth
+         */
+        this.setDefault("browser.search.limit", String.valueOf(10000));
+        this.setDefault("browser.search.depth", String.valueOf(64));
 
 
         this.setDefault("browser.transcript.open", String.valueOf(false));
@@ -445,6 +466,17 @@ public abstract class Preferences implements Locales {
         ));
         this.setDefault("queue.transfer.type", Host.TransferType.concurrent.name());
         this.setDefault("queue.transfer.operationbatcher.size", String.valueOf(100));
+        /*
+          Transfer files while the remaining tree is still being prepared. Bulk features are invoked once for
+          the files of a directory listing in chunks of the given size.
+         */
+        this.setDefault("queue.transfer.pipeline", String.valueOf(false));
+        this.setDefault("queue.transfer.pipeline.batch", String.valueOf(100));
+        /*
+          Limit number of directory listings and completed transfer status entries kept in memory and swap to disk
+         */
+        this.setDefault("queue.transfer.swap", String.valueOf(false));
+        this.setDefault("queue.transfer.swap.size", String.valueOf(10000));
 
         /*
           Warning when number of transfers in queue exceeds limit
@@ -485,6 +517,13 @@ public abstract class Preferences implements Locales {
 
         this.setDefault("queue.upload.checksum.calculate", String.valueOf(false));
 
+        /*
+         * Split upload into segments written concurrently at their offset if supported by protocol
+         */
+        this.setDefault("queue.upload.segments", String.valueOf(false));
+        this.setDefault("queue.upload.segments.threshold", String.valueOf(10L * 1024L * 1024L));
+        this.setDefault("queue.upload.segments.size", String.valueOf(128L * 1024L * 1024L));
+
         this.setDefault("queue.upload.skip.enable", String.valueOf(true));
         this.setDefault("queue.upload.skip.regex.default",
             ".*~\\..*|\\.DS_Store|\\.svn|CVS|\\.git|\\.gitignore|\\.gitattributes|\\.bzr|\\.bzrignore|\\.bzrtags|\\.hg|\\.hgignore|\\.hgtags");
@@ -533,6 +572,8 @@ public abstract class Preferences implements Locales {
         this.setDefault("queue.download.segments.threshold", String.valueOf(10L * 1024L * 1024L));
         this.setDefault("queue.download.segments.size", String.valueOf(128L * 1024L * 1024L));
         this.setDefault("queue.download.segments.count", String.valueOf(128));
+        // Write segments at their offset in target file instead of concatenating segment files
+        this.setDefault("queue.download.segments.inplace", String.valueOf(true));
 
         /*
           Open completed downloads
@@ -574,6 +615,15 @@ public abstract class Preferences implements Locales {
           Bandwidth throttle download stream
          */
         this.setDefault("queue.download.bandwidth.bytes", String.valueOf(-1));
+        /*
+          Bandwidth throttle for sum of all uploads and downloads
+         */
+        this.setDefault("queue.upload.bandwidth.global.bytes", String.valueOf(-1));
+        this.setDefault("queue.download.bandwidth.global.bytes", String.valueOf(-1));
+        /*
+          Bandwidth throttle for each connection of a transfer
+         */
+        this.setDefault("queue.connection.bandwidth.bytes", String.valueOf(-1));
 
         /*
          * Concurrent connections for single transfer and maximum number of concurrent transfers in transfer list
@@ -581,6 +631,27 @@ public abstract class Preferences implements Locales {
         this.setDefault("queue.connections.limit", String.valueOf(TransferConnectionLimiter.AUTO));
         this.setDefault("queue.connections.limit.default", String.valueOf(5));
         this.setDefault("queue.connections.limit.ftp", String.valueOf(1));
+        /*
+         * Adjust number of concurrent segments and segment size of multipart uploads from measured throughput
+         */
+        this.setDefault("queue.segments.adaptive", String.valueOf(false));
+        // Measurement window in milliseconds
+        this.setDefault("queue.segments.adaptive.window", String.valueOf(5000L));
+        /*
+         * Local files larger than threshold are memory mapped to compute checksums when enabled. Mapped regions are
+         * released after use
+         */
+        this.setDefault("checksum.mapped.enable", String.valueOf(false));
+        this.setDefault("checksum.mapped.threshold", String.valueOf(1024L * 1024L));
+        this.setDefault("checksum.mapped.region", String.valueOf(64L * 1024L * 1024L));
+        // Number of threads to compute digests of segments in parallel
+        this.setDefault("checksum.parallel.threads", String.valueOf(Runtime.getRuntime().availableProcessors()));
+        /*
+         * Persist checksums of local files for unchanged size and modification date
+         */
+        this.setDefault("checksum.cache.enable", String.valueOf(false));
+        // Number of files per algorithm
+        this.setDefault("checksum.cache.slots", String.valueOf(16384));
 
         {
             final StringBuilder options = new StringBuilder();
@@ -632,6 +703,10 @@ public abstract class Preferences implements Locales {
         this.setDefault("http.socket.buffer", String.valueOf(8192));
         this.setDefault("http.credentials.charset", "UTF-8");
         this.setDefault("http.request.uri.normalize", String.valueOf(false));
+        /*
+          Maximum number of threads sending requests for uploads with content written to a stream
+         */
+        this.setDefault("http.upload.pool.size.max", String.valueOf(50));
 
         /*
           Enable or disable verification that the remote host taking part
@@ -644,6 +719,10 @@ public abstract class Preferences implements Locales {
         this.setDefault("ftp.parser.multiline.strict", String.valueOf(false));
         this.setDefault("ftp.parser.reply.strict", String.valueOf(false));
         this.setDefault("ftp.parser.mlsd.perm.enable", String.valueOf(false));
+        /*
+          Number of parsed entries to notify listener with while reading directory listing
+         */
+        this.setDefault("ftp.listing.chunksize", String.valueOf(1000));
 
         /*
           Send LIST -a
@@ -706,6 +785,11 @@ public abstract class Preferences implements Locales {
 
         this.setDefault("s3.listing.chunksize", String.valueOf(1000));
         this.setDefault("s3.listing.concurrency", String.valueOf(25));
+        /*
+          List all keys below a directory without delimiter for recursive transfers. Holds listings of the whole
+          tree in memory until traversed
+         */
+        this.setDefault("s3.listing.recursive", String.valueOf(false));
 
         this.setDefault("s3.upload.multipart", String.valueOf(true));
         this.setDefault("s3.upload.multipart.concurrency", String.valueOf(10));
@@ -718,6 +802,12 @@ public abstract class Preferences implements Locales {
         // Maximum number of parts is 10'000. With 10MB segements this gives a maximum object size of 100GB
         // Must be a multiple of org.cryptomator.cryptolib.v1.Constants.PAYLOAD_SIZE when using Cryptomator Vaults
         this.setDefault("s3.upload.multipart.size", String.valueOf(10L * 1024L * 1024L)); // 10MB
+        // Parts up to this size are read once into memory to compute the payload checksum with AWS4 signatures
+        this.setDefault("s3.upload.multipart.buffer.threshold", String.valueOf(32L * 1024L * 1024L)); // 32MB
+        // Maximum memory for parts read into buffers by all concurrent uploads. Parts exceeding are read twice instead
+        this.setDefault("s3.upload.multipart.buffer.total", String.valueOf(128L * 1024L * 1024L)); // 128MB
+        // Send UNSIGNED-PAYLOAD instead of SHA-256 checksum for parts uploaded over TLS
+        this.setDefault("s3.upload.multipart.payload.unsigned", String.valueOf(false));
         this.setDefault("s3.copy.multipart.size", String.valueOf(100L * 1024L * 1024L)); // 100MB
 
         this.setDefault("s3.upload.expect-continue", String.valueOf(true));
@@ -897,6 +987,10 @@ public abstract class Preferences implements Locales {
         this.setDefault("webdav.microsoftiis.header.translate", String.valueOf(true));
 
         this.setDefault("webdav.list.handler.sax", String.valueOf(true));
+        /*
+          PROPFIND with Depth infinity for recursive transfers
+         */
+        this.setDefault("webdav.listing.infinity", String.valueOf(false));
 
         /*
          * Session pool
@@ -1072,6 +1166,10 @@ public abstract class Preferences implements Locales {
         this.setDefault("sftp.read.maxunconfirmed", String.valueOf(64));
         this.setDefault("sftp.write.maxunconfirmed", String.valueOf(64));
         this.setDefault("sftp.write.chunksize", String.valueOf(32768));
+        // Outstanding requests to resolve symbolic links in directory listing
+        this.setDefault("sftp.listing.symlink.maxunconfirmed", String.valueOf(64));
+        // Upload segments of file with multiple connections
+        this.setDefault("sftp.upload.segments", String.valueOf(false));
         this.setDefault("sftp.permissions.server.blacklist", "OpenSSH_for_Windows");
 
         this.setDefault("archive.default", "tar.gz");
@@ -1119,7 +1217,21 @@ public abstract class Preferences implements Locales {
         this.setDefault("cryptomator.vault.autodetect", String.valueOf(true));
         this.setDefault("cryptomator.vault.masterkey.filename", "masterkey.cryptomator");
         this.setDefault("cryptomator.vault.pepper", "");
-        this.setDefault("cryptomator.cache.size", String.valueOf(1000));
+        this.setDefault("cryptomator.cache.size", String.valueOf(10000));
+        this.setDefault("cryptomator.cache.hash.size", String.valueOf(10000));
+        this.setDefault("cryptomator.cache.filename.size", String.valueOf(50000));
+        /*
+          Save directory IDs of vault encrypted in support directory
+         */
+        this.setDefault("cryptomator.cache.persistent", String.valueOf(false));
+        /*
+          Number of threads shared by vault streams to encrypt and decrypt chunks
+         */
+        this.setDefault("cryptomator.chunk.threads", String.valueOf(Runtime.getRuntime().availableProcessors()));
+        /*
+          Maximum number of chunks in flight per stream. Disable parallel processing with 1
+         */
+        this.setDefault("cryptomator.chunk.concurrency", String.valueOf(8));
     }
 
     /**
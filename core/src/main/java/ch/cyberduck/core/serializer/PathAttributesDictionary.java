@@ -23,6 +23,7 @@ import ch.cyberduck.core.DescriptiveUrl;
 import ch.cyberduck.core.DeserializerFactory;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.features.Encryption;
 import ch.cyberduck.core.io.Checksum;
 import ch.cyberduck.core.io.HashAlgorithm;
 
@@ -104,7 +105,8 @@ public class PathAttributesDictionary {
         if(hiddenObj != null) {
             attributes.setHidden(Boolean.parseBoolean(hiddenObj));
         }
-        attributes.setMetadata(Collections.emptyMap());
+        final Map<String, String> metadataObj = dict.mapForKey("Metadata");
+        attributes.setMetadata(null == metadataObj ? Collections.emptyMap() : metadataObj);
         attributes.setRegion(dict.stringForKey("Region"));
         attributes.setStorageClass(dict.stringForKey("Storage Class"));
         final Object vaultObj = dict.objectForKey("Vault");
@@ -115,6 +117,22 @@ public class PathAttributesDictionary {
         if(customObj != null) {
             attributes.setCustom(customObj);
         }
+        final String encryptionObj = dict.stringForKey("Encryption");
+        if(encryptionObj != null) {
+            attributes.setEncryption(Encryption.Algorithm.fromString(encryptionObj));
+        }
+        final String createdObj = dict.stringForKey("Created");
+        if(createdObj != null) {
+            attributes.setCreationDate(Long.parseLong(createdObj));
+        }
+        final String accessedObj = dict.stringForKey("Accessed");
+        if(accessedObj != null) {
+            attributes.setAccessedDate(Long.parseLong(accessedObj));
+        }
+        attributes.setOwner(dict.stringForKey("Owner"));
+        attributes.setGroup(dict.stringForKey("Group"));
+        attributes.setDisplayname(dict.stringForKey("Display Name"));
+        attributes.setDirectoryId(dict.stringForKey("Directory Id"));
         return attributes;
     }
 }
@@ -0,0 +1,40 @@
+package ch.cyberduck.core.serializer.impl.dd;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.DeserializerFactory;
+import ch.cyberduck.core.serializer.TransferItemDictionary;
+import ch.cyberduck.core.transfer.TransferItem;
+
+import com.dd.plist.NSDictionary;
+
+public class TransferItemPlistReader extends PlistReader<TransferItem> {
+
+    private final DeserializerFactory deserializer;
+
+    public TransferItemPlistReader() {
+        this(new DeserializerFactory());
+    }
+
+    public TransferItemPlistReader(final DeserializerFactory deserializer) {
+        this.deserializer = deserializer;
+    }
+
+    @Override
+    public TransferItem deserialize(final NSDictionary dict) {
+        return new TransferItemDictionary(deserializer).deserialize(dict);
+    }
+}
@@ -24,6 +24,7 @@ import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.features.Download;
 import ch.cyberduck.core.features.Read;
 import ch.cyberduck.core.io.BandwidthThrottle;
+import ch.cyberduck.core.io.SegmentedFileChannel;
 import ch.cyberduck.core.io.StreamCopier;
 import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.io.ThrottledInputStream;
@@ -44,7 +45,14 @@ public class DefaultDownloadFeature implements Download {
     public void download(final Path file, final Local local, final BandwidthThrottle throttle, final StreamListener listener,
                          final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
         final InputStream in = reader.read(file, status, callback);
-        final OutputStream out = local.getOutputStream(!status.isSegment() && status.isAppend());
+        final OutputStream out;
+        if(status.isSegment() && null == status.getRename().local) {
+            // Write segment at offset in target file shared with other segments
+            out = SegmentedFileChannel.open(local).getOutputStream(status.getPart(), status.getOffset());
+        }
+        else {
+            out = local.getOutputStream(!status.isSegment() && status.isAppend());
+        }
         new StreamCopier(status, status)
                 .withOffset(0L)
                 .withLimit(status.getLength())
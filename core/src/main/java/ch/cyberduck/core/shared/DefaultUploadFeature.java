@@ -24,6 +24,7 @@ import ch.cyberduck.core.Path;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.features.Upload;
 import ch.cyberduck.core.features.Write;
+import ch.cyberduck.core.http.DeferredHttpResponseOutputStream;
 import ch.cyberduck.core.io.BandwidthThrottle;
 import ch.cyberduck.core.io.StatusOutputStream;
 import ch.cyberduck.core.io.StreamCopier;
@@ -47,11 +48,15 @@ public class DefaultUploadFeature<Reply> implements Upload<Reply> {
                         final ConnectionCallback callback) throws BackgroundException {
         final InputStream in = local.getInputStream();
         final StatusOutputStream<Reply> out = writer.write(file, status, callback);
-        new StreamCopier(status, status)
+        final StreamCopier copier = new StreamCopier(status, status)
             .withOffset(status.getOffset())
             .withLimit(status.getLength())
-            .withListener(listener)
-            .transfer(in, new ThrottledOutputStream(out, throttle));
+            .withListener(listener);
+        if(out instanceof DeferredHttpResponseOutputStream) {
+            // Read entity from input when sending request on this thread
+            return ((DeferredHttpResponseOutputStream<Reply>) out).upload(in, copier, throttle);
+        }
+        copier.transfer(in, new ThrottledOutputStream(out, throttle));
         return out.getStatus();
     }
 
@@ -28,7 +28,9 @@ import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.features.AttributesFinder;
 import ch.cyberduck.core.features.Find;
 import ch.cyberduck.core.io.Checksum;
+import ch.cyberduck.core.io.ChecksumCache;
 import ch.cyberduck.core.io.ChecksumComputeFactory;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.shared.DefaultAttributesFinderFeature;
 import ch.cyberduck.core.shared.DefaultFindFeature;
 import ch.cyberduck.core.transfer.TransferStatus;
@@ -84,8 +86,14 @@ public class ComparisonServiceFilter implements ComparePathFilter {
                 if(Checksum.NONE != attributes.getChecksum()) {
                     // MD5/ETag Checksum is supported
                     progress.message(MessageFormat.format(LocaleFactory.localizedString("Compute MD5 hash of {0}", "Status"), file.getName()));
-                    local.attributes().setChecksum(ChecksumComputeFactory.get(attributes.getChecksum().algorithm)
-                        .compute(local.getInputStream(), new TransferStatus()));
+                    if(PreferencesFactory.get().getBoolean("checksum.cache.enable")) {
+                        // Skip reading unchanged file
+                        local.attributes().setChecksum(ChecksumCache.get(attributes.getChecksum().algorithm).compute(local));
+                    }
+                    else {
+                        local.attributes().setChecksum(ChecksumComputeFactory.get(attributes.getChecksum().algorithm)
+                            .compute(local.getInputStream(), new TransferStatus()));
+                    }
                     switch(checksum.compare(attributes, local.attributes())) {
                         case equal:
                             // Decision is available
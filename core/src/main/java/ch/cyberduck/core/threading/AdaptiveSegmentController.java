@@ -0,0 +1,180 @@
+package ch.cyberduck.core.threading;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.RetriableAccessDeniedException;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Adjusts the number of segments running concurrently from timings of completed segments. Concurrency is raised
+ * while the aggregate throughput improves and lowered when the time per byte of segments rises without improving
+ * throughput. Concurrency is halved when the server asks to slow down.
+ */
+public final class AdaptiveSegmentController {
+    private static final Logger log = Logger.getLogger(AdaptiveSegmentController.class);
+
+    /**
+     * Minimum relative improvement of throughput to raise concurrency further
+     */
+    private static final double IMPROVEMENT = 1.05d;
+    /**
+     * Relative increase of time per byte considered as congestion
+     */
+    private static final double CONGESTION = 1.5d;
+
+    private static final long MEGABYTE = 1024L * 1024L;
+
+    private final int maximum;
+    /**
+     * Length of measurement window in milliseconds
+     */
+    private final long window;
+
+    private int limit;
+
+    private long start;
+    private long bytes;
+    private long duration;
+    private int segments;
+
+    /**
+     * Throughput in bytes per millisecond of previous window
+     */
+    private double throughput;
+    /**
+     * Milliseconds per byte of segments in previous window
+     */
+    private double latency;
+    /**
+     * Smoothed throughput of a single segment in bytes per millisecond
+     */
+    private double segment;
+
+    public AdaptiveSegmentController(final int initial, final int maximum, final long window) {
+        this.maximum = Math.max(1, maximum);
+        this.limit = Math.max(1, Math.min(initial, this.maximum));
+        this.window = window;
+        this.start = System.currentTimeMillis();
+    }
+
+    /**
+     * @return Number of segments allowed to run concurrently
+     */
+    public synchronized int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @param length Number of bytes transferred with segment
+     * @param time   Milliseconds to transfer segment
+     */
+    public synchronized void success(final long length, final long time) {
+        bytes += length;
+        duration += Math.max(1L, time);
+        segments++;
+        final double current = (double) length / Math.max(1L, time);
+        segment = 0d == segment ? current : 0.8d * segment + 0.2d * current;
+        final long now = System.currentTimeMillis();
+        if(now - start >= window) {
+            this.evaluate(now);
+        }
+    }
+
+    /**
+     * @param failure Failure transferring segment
+     */
+    public synchronized void failure(final BackgroundException failure) {
+        if(failure instanceof RetriableAccessDeniedException) {
+            limit = Math.max(1, limit / 2);
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Reduce concurrency to %d after failure %s", limit, failure));
+            }
+            // Start over measuring with new limit
+            throughput = 0d;
+            latency = 0d;
+            this.reset(System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * @param length    Total length of file
+     * @param minimum   Minimum segment size
+     * @param preferred Segment size to use without measurements
+     * @param maximum   Maximum number of segments allowed
+     * @param seconds   Target time to transfer a single segment
+     * @return Segment size to keep all concurrent segments busy while limiting per request overhead
+     */
+    public synchronized long getSegmentSize(final long length, final long minimum, final long preferred, final int maximum, final int seconds) {
+        // Lower bound to stay within maximum number of segments
+        final long lower = Math.max(minimum, length / Math.max(1, maximum - 1) + 1);
+        if(0d == segment) {
+            // No measurement yet
+            return Math.max(lower, preferred);
+        }
+        long size = (long) (segment * seconds * 1000L);
+        // Split into at least as many segments as can run concurrently
+        size = Math.min(size, length / limit + 1);
+        // Round up to full megabytes
+        size = (size + MEGABYTE - 1) / MEGABYTE * MEGABYTE;
+        return Math.max(lower, size);
+    }
+
+    private void evaluate(final long now) {
+        if(0 == segments) {
+            this.reset(now);
+            return;
+        }
+        final double currentThroughput = (double) bytes / Math.max(1L, now - start);
+        final double currentLatency = (double) duration / Math.max(1L, bytes);
+        if(currentThroughput > throughput * IMPROVEMENT) {
+            if(limit < maximum) {
+                limit = Math.min(maximum, limit + Math.max(1, limit / 4));
+                if(log.isInfoEnabled()) {
+                    log.info(String.format("Raise concurrency to %d with throughput %.0f bytes/s", limit, currentThroughput * 1000));
+                }
+            }
+        }
+        else if(latency > 0d && currentLatency > latency * CONGESTION) {
+            if(limit > 1) {
+                limit--;
+                if(log.isInfoEnabled()) {
+                    log.info(String.format("Lower concurrency to %d with rising latency", limit));
+                }
+            }
+        }
+        throughput = currentThroughput;
+        latency = currentLatency;
+        this.reset(now);
+    }
+
+    private void reset(final long now) {
+        start = now;
+        bytes = 0L;
+        duration = 0L;
+        segments = 0;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("AdaptiveSegmentController{");
+        sb.append("limit=").append(limit);
+        sb.append(", maximum=").append(maximum);
+        sb.append('}');
+        return sb.toString();
+    }
+}
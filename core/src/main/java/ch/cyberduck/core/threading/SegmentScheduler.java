@@ -0,0 +1,382 @@
+package ch.cyberduck.core.threading;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.HostUrlProvider;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.transfer.AutoTransferConnectionLimiter;
+
+import org.apache.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs segments of multipart uploads to the same host on a shared set of threads. The number of segments running
+ * concurrently is limited by the connection budget for the host. Segments of different files are dispatched round
+ * robin. A file may use more than its own concurrency setting when no other file is waiting. A shared scheduler is
+ * removed and its threads are shut down when the last pool of a file is shut down and no segment is running. Pools of
+ * shared schedulers are obtained with {@link #pool(Host, int)} to not race with removal.
+ */
+public final class SegmentScheduler {
+    private static final Logger log = Logger.getLogger(SegmentScheduler.class);
+
+    private static final Map<String, SegmentScheduler> schedulers = new ConcurrentHashMap<>();
+
+    /**
+     * Target time in seconds to transfer a single segment with adaptive segment sizes
+     */
+    private static final int SEGMENT_SECONDS = 10;
+
+    /**
+     * Obtain pool of scheduler shared by all uploads to the same endpoint. The scheduler is not removed before the
+     * pool is shut down.
+     *
+     * @param host        Bookmark
+     * @param concurrency Maximum number of segments of this file running concurrently while other files are waiting
+     * @return Pool to submit segments of a single file to. Use {@link SegmentThreadPool#getScheduler()} to measure
+     * segments and compute segment sizes.
+     */
+    public static SegmentThreadPool pool(final Host host, final int concurrency) {
+        final SegmentScheduler scheduler = schedulers.compute(new HostUrlProvider().get(host), (url, current) -> {
+            final SegmentScheduler s = null == current ? create(host, url) : current;
+            synchronized(s) {
+                // Acquire while registered
+                s.pools++;
+            }
+            return s;
+        });
+        return new SegmentThreadPool(scheduler, scheduler.new SegmentExecutor(concurrency));
+    }
+
+    private static SegmentScheduler create(final Host host, final String url) {
+        // Each transfer connection allows a maximum number of concurrent HTTP connections per route
+        final int route = PreferencesFactory.get().getInteger("http.connections.route");
+        final int capacity = new AutoTransferConnectionLimiter().getLimit(host) * route;
+        if(PreferencesFactory.get().getBoolean("queue.segments.adaptive")) {
+            return new SegmentScheduler(url, capacity, route, new AdaptiveSegmentController(route, capacity,
+                PreferencesFactory.get().getLong("queue.segments.adaptive.window")));
+        }
+        return new SegmentScheduler(url, capacity, route, null);
+    }
+
+    /**
+     * Key in shared schedulers or null
+     */
+    private final String url;
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Maximum number of segments running concurrently for all files
+     */
+    private final int capacity;
+    /**
+     * Maximum number of segments running concurrently for a single file when no other file is waiting
+     */
+    private final int burst;
+    /**
+     * Files with pending segments in round robin order
+     */
+    private final Deque<SegmentExecutor> waiting = new ArrayDeque<>();
+    /**
+     * Adjusts number of concurrent segments or null for fixed capacity
+     */
+    private final AdaptiveSegmentController controller;
+
+    private int running;
+    /**
+     * Number of pools not shut down
+     */
+    private int pools;
+
+    public SegmentScheduler(final int capacity, final int burst) {
+        this(capacity, burst, null);
+    }
+
+    public SegmentScheduler(final int capacity, final int burst, final AdaptiveSegmentController controller) {
+        this(null, capacity, burst, controller);
+    }
+
+    private SegmentScheduler(final String url, final int capacity, final int burst, final AdaptiveSegmentController controller) {
+        this.url = url;
+        this.capacity = Math.max(1, capacity);
+        this.burst = burst;
+        this.controller = controller;
+        this.executor = DefaultThreadPool.createExecutor("segment", this.capacity, ThreadPool.Priority.norm,
+            new LinkedBlockingQueue<>(), new LoggingUncaughtExceptionHandler());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * @param concurrency Maximum number of segments of this file running concurrently while other files are waiting
+     * @return Pool to submit segments of a single file to. Shutting down the pool only affects segments of this file.
+     * @throws IllegalStateException Shared scheduler already removed
+     */
+    public SegmentThreadPool pool(final int concurrency) {
+        synchronized(this) {
+            if(executor.isShutdown()) {
+                throw new IllegalStateException(String.format("Scheduler for %s removed", url));
+            }
+            pools++;
+        }
+        return new SegmentThreadPool(this, new SegmentExecutor(concurrency));
+    }
+
+    /**
+     * Remove from shared schedulers and shut down threads when no file is uploading. Must not be called holding the
+     * lock of this scheduler.
+     */
+    private void evict() {
+        if(null == url) {
+            return;
+        }
+        schedulers.computeIfPresent(url, (key, current) -> {
+            if(current != this) {
+                return current;
+            }
+            synchronized(this) {
+                if(0 == pools && 0 == running && waiting.isEmpty()) {
+                    if(log.isDebugEnabled()) {
+                        log.debug(String.format("Remove idle scheduler for %s", url));
+                    }
+                    executor.shutdown();
+                    return null;
+                }
+            }
+            return current;
+        });
+    }
+
+    /**
+     * Report timing of segment to adjust concurrency when enabled
+     *
+     * @param length   Number of bytes transferred with segment
+     * @param delegate Segment
+     * @return Callable measuring time to complete segment
+     */
+    public <T> BackgroundExceptionCallable<T> measure(final long length, final BackgroundExceptionCallable<T> delegate) {
+        if(null == controller) {
+            return delegate;
+        }
+        return new BackgroundExceptionCallable<T>() {
+            @Override
+            public T call() throws BackgroundException {
+                final long start = System.currentTimeMillis();
+                try {
+                    final T result = delegate.call();
+                    controller.success(length, System.currentTimeMillis() - start);
+                    return result;
+                }
+                catch(BackgroundException e) {
+                    controller.failure(e);
+                    throw e;
+                }
+                finally {
+                    dispatch();
+                }
+            }
+        };
+    }
+
+    /**
+     * @param length    Total length of file
+     * @param minimum   Minimum segment size
+     * @param preferred Configured segment size
+     * @param maximum   Maximum number of segments allowed
+     * @return Segment size to use for file
+     */
+    public long getSegmentSize(final long length, final long minimum, final long preferred, final int maximum) {
+        if(null == controller) {
+            return Math.max(preferred, length / Math.max(1, maximum - 1));
+        }
+        return controller.getSegmentSize(length, minimum, preferred, maximum, SEGMENT_SECONDS);
+    }
+
+    private int limit() {
+        if(null == controller) {
+            return capacity;
+        }
+        return Math.min(capacity, controller.getLimit());
+    }
+
+    private synchronized void dispatch() {
+        boolean dispatched = true;
+        while(dispatched && running < this.limit()) {
+            dispatched = false;
+            for(int i = waiting.size(); i > 0 && running < this.limit(); i--) {
+                final SegmentExecutor next = waiting.poll();
+                final int limit = waiting.isEmpty() ? Math.max(next.concurrency, burst) : next.concurrency;
+                if(next.running < limit) {
+                    final Runnable task = next.pending.poll();
+                    next.running++;
+                    next.active.add(task);
+                    running++;
+                    if(log.isDebugEnabled()) {
+                        log.debug(String.format("Dispatch segment %s with %d segments running", task, running));
+                    }
+                    executor.execute(() -> {
+                        try {
+                            task.run();
+                        }
+                        finally {
+                            this.complete(next, task);
+                        }
+                    });
+                    dispatched = true;
+                }
+                if(!next.pending.isEmpty()) {
+                    waiting.offer(next);
+                }
+            }
+        }
+    }
+
+    private void complete(final SegmentExecutor file, final Runnable task) {
+        synchronized(this) {
+            file.running--;
+            file.active.remove(task);
+            running--;
+            this.notifyAll();
+            this.dispatch();
+        }
+        this.evict();
+    }
+
+    private final class SegmentExecutor extends AbstractExecutorService {
+        private final int concurrency;
+        private final Deque<Runnable> pending = new ArrayDeque<>();
+        private final Set<Runnable> active = new HashSet<>();
+
+        private int running;
+        private boolean shutdown;
+
+        public SegmentExecutor(final int concurrency) {
+            this.concurrency = Math.max(1, concurrency);
+        }
+
+        @Override
+        public void execute(final Runnable command) {
+            synchronized(SegmentScheduler.this) {
+                if(shutdown) {
+                    throw new RejectedExecutionException(String.format("Rejected segment %s after shutdown", command));
+                }
+                pending.add(command);
+                if(!waiting.contains(this)) {
+                    waiting.offer(this);
+                }
+            }
+            dispatch();
+        }
+
+        @Override
+        public void shutdown() {
+            synchronized(SegmentScheduler.this) {
+                if(shutdown) {
+                    return;
+                }
+                shutdown = true;
+                pools--;
+            }
+            evict();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            final List<Runnable> cancelled;
+            synchronized(SegmentScheduler.this) {
+                waiting.remove(this);
+                if(!shutdown) {
+                    shutdown = true;
+                    pools--;
+                }
+                cancelled = new ArrayList<>(pending);
+                pending.clear();
+                for(Runnable task : cancelled) {
+                    if(task instanceof Future) {
+                        ((Future<?>) task).cancel(false);
+                    }
+                }
+                for(Runnable task : active) {
+                    if(task instanceof Future) {
+                        ((Future<?>) task).cancel(true);
+                    }
+                }
+            }
+            evict();
+            return cancelled;
+        }
+
+        @Override
+        public boolean isShutdown() {
+            synchronized(SegmentScheduler.this) {
+                return shutdown;
+            }
+        }
+
+        @Override
+        public boolean isTerminated() {
+            synchronized(SegmentScheduler.this) {
+                return shutdown && pending.isEmpty() && 0 == running;
+            }
+        }
+
+        @Override
+        public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+            final long deadline = System.nanoTime() + unit.toNanos(timeout);
+            synchronized(SegmentScheduler.this) {
+                while(!this.isTerminated()) {
+                    final long remaining = deadline - System.nanoTime();
+                    if(remaining <= 0) {
+                        return false;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(SegmentScheduler.this, remaining);
+                }
+                return true;
+            }
+        }
+    }
+
+    public static final class SegmentThreadPool extends ExecutorServiceThreadPool {
+        private final SegmentScheduler scheduler;
+
+        private SegmentThreadPool(final SegmentScheduler scheduler, final AbstractExecutorService pool) {
+            super(pool);
+            this.scheduler = scheduler;
+        }
+
+        /**
+         * @return Scheduler running segments of this pool
+         */
+        public SegmentScheduler getScheduler() {
+            return scheduler;
+        }
+    }
+}
@@ -42,6 +42,7 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class CopyTransfer extends Transfer {
     private static final Logger log = Logger.getLogger(CopyTransfer.class);
@@ -52,6 +53,12 @@ public class CopyTransfer extends Transfer {
     private Cache<Path> cache
         = new PathCache(PreferencesFactory.get().getInteger("transfer.cache.size"));
 
+    /**
+     * Listings of directories from recursive listing not yet returned
+     */
+    private final Map<Path, AttributedList<Path>> prefetched
+        = new ConcurrentHashMap<>();
+
     /**
      * Temporary mapping for source to destination files
      */
@@ -68,7 +75,7 @@ public class CopyTransfer extends Transfer {
 
     public CopyTransfer(final Host source, final Host destination,
                         final Map<Path, Path> selected) {
-        this(source, destination, selected, new BandwidthThrottle(PreferencesFactory.get().getFloat("queue.download.bandwidth.bytes")));
+        this(source, destination, selected, new BandwidthThrottle(GlobalBandwidthThrottle.download(), PreferencesFactory.get().getFloat("queue.download.bandwidth.bytes")));
     }
 
     public CopyTransfer(final Host source, final Host destination,
@@ -187,7 +194,7 @@ public class CopyTransfer extends Transfer {
         if(log.isDebugEnabled()) {
             log.debug(String.format("List children for %s", directory));
         }
-        final AttributedList<Path> list = session.getFeature(ListService.class).list(directory, listener).filter(comparator, filter);
+        final AttributedList<Path> list = new PrefetchListService(session, prefetched).list(directory, listener).filter(comparator, filter);
         final Path copy = mapping.get(directory);
         for(Path p : list) {
             mapping.put(p, new Path(copy, p.getName(), p.getType(), p.attributes()));
@@ -266,4 +273,10 @@ public class CopyTransfer extends Transfer {
     public void normalize() {
         //
     }
+
+    @Override
+    public void stop() {
+        prefetched.clear();
+        super.stop();
+    }
 }
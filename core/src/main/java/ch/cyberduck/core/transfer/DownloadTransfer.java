@@ -54,6 +54,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class DownloadTransfer extends Transfer {
     private static final Logger log = Logger.getLogger(DownloadTransfer.class);
@@ -65,6 +66,12 @@ public class DownloadTransfer extends Transfer {
     private Cache<Path> cache
         = new PathCache(PreferencesFactory.get().getInteger("transfer.cache.size"));
 
+    /**
+     * Listings of directories from recursive listing not yet returned
+     */
+    private final Map<Path, AttributedList<Path>> prefetched
+        = new ConcurrentHashMap<>();
+
     private DownloadFilterOptions options = new DownloadFilterOptions();
 
     public DownloadTransfer(final Host host, final Path root, final Local local) {
@@ -86,7 +93,7 @@ public class DownloadTransfer extends Transfer {
     }
 
     public DownloadTransfer(final Host host, final List<TransferItem> roots, final Filter<Path> f, final Comparator<Path> comparator) {
-        super(host, roots, new BandwidthThrottle(PreferencesFactory.get().getFloat("queue.download.bandwidth.bytes")));
+        super(host, roots, new BandwidthThrottle(GlobalBandwidthThrottle.download(), PreferencesFactory.get().getFloat("queue.download.bandwidth.bytes")));
         this.filter = f;
         this.comparator = comparator;
         this.symlinkResolver = new DownloadSymlinkResolver(roots);
@@ -127,7 +134,7 @@ public class DownloadTransfer extends Transfer {
                 list = cache.get(directory);
             }
             else {
-                list = session.getFeature(ListService.class).list(directory, listener);
+                list = new PrefetchListService(session, prefetched).list(directory, listener);
                 cache.put(directory, list);
             }
             final List<TransferItem> children = new ArrayList<>();
@@ -284,6 +291,7 @@ public class DownloadTransfer extends Transfer {
     @Override
     public void stop() {
         cache.clear();
+        prefetched.clear();
         super.stop();
     }
 
@@ -0,0 +1,48 @@
+package ch.cyberduck.core.transfer;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.io.BandwidthThrottle;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+/**
+ * Bandwidth limits shared by all transfers
+ */
+public final class GlobalBandwidthThrottle {
+
+    private static final BandwidthThrottle download
+        = new BandwidthThrottle(PreferencesFactory.get().getFloat("queue.download.bandwidth.global.bytes"));
+    private static final BandwidthThrottle upload
+        = new BandwidthThrottle(PreferencesFactory.get().getFloat("queue.upload.bandwidth.global.bytes"));
+
+    private GlobalBandwidthThrottle() {
+        //
+    }
+
+    /**
+     * @return Limit for the sum of all downloads
+     */
+    public static BandwidthThrottle download() {
+        return download;
+    }
+
+    /**
+     * @return Limit for the sum of all uploads
+     */
+    public static BandwidthThrottle upload() {
+        return upload;
+    }
+}
@@ -0,0 +1,515 @@
+package ch.cyberduck.core.transfer;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Acl;
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.DeserializerFactory;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.Permission;
+import ch.cyberduck.core.Serializable;
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.features.Encryption;
+import ch.cyberduck.core.io.Checksum;
+import ch.cyberduck.core.io.HashAlgorithm;
+import ch.cyberduck.core.local.TemporaryFileServiceFactory;
+import ch.cyberduck.core.serializer.AclDictionary;
+import ch.cyberduck.core.serializer.Deserializer;
+import ch.cyberduck.core.serializer.LocalDictionary;
+import ch.cyberduck.core.serializer.PathAttributesDictionary;
+import ch.cyberduck.core.serializer.PathDictionary;
+import ch.cyberduck.core.serializer.PermissionDictionary;
+import ch.cyberduck.core.serializer.Serializer;
+import ch.cyberduck.core.serializer.TransferItemDictionary;
+import ch.cyberduck.core.serializer.impl.dd.PlistReader;
+import ch.cyberduck.core.serializer.impl.dd.PlistWriter;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.log4j.Logger;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import com.dd.plist.NSDictionary;
+
+/**
+ * Transfer status table keeping a limited number of entries in memory. When the limit is exceeded, entries of
+ * completed transfers and of prepared transfers not yet retrieved with {@link #get(Object)} are written to temporary
+ * files. Swapped entries are read back to memory when retrieved by key or when iterating the table. Iteration is
+ * weakly consistent with concurrent modifications.
+ */
+public class SwapTransferStatusMap extends AbstractMap<TransferItem, TransferStatus> {
+    private static final Logger log = Logger.getLogger(SwapTransferStatusMap.class);
+
+    private final Map<TransferItem, TransferStatus> heap = new HashMap<>();
+    /**
+     * Entries retrieved for transfer that must be kept in memory until complete
+     */
+    private final Set<TransferItem> acquired = new HashSet<>();
+    /**
+     * Swap file for key of swapped entry
+     */
+    private final Map<TransferItem, Local> index = new HashMap<>();
+    /**
+     * Swap files with number of entries not yet read back
+     */
+    private final Map<Local, Integer> files = new LinkedHashMap<>();
+    /**
+     * Maximum number of entries kept in memory before entries are swapped
+     */
+    private final int window;
+    /**
+     * Number of entries in memory to trigger the next attempt to swap
+     */
+    private int threshold;
+
+    public SwapTransferStatusMap(final int window) {
+        this.window = window;
+        this.threshold = window;
+    }
+
+    /**
+     * Retrieve status for transfer. Entry is kept in memory until it is complete.
+     */
+    @Override
+    public synchronized TransferStatus get(final Object key) {
+        final Local file = index.get(key);
+        if(file != null) {
+            this.read(file);
+        }
+        final TransferStatus status = heap.get(key);
+        if(status != null) {
+            acquired.add((TransferItem) key);
+        }
+        return status;
+    }
+
+    @Override
+    public synchronized boolean containsKey(final Object key) {
+        return heap.containsKey(key) || index.containsKey(key);
+    }
+
+    /**
+     * @return Previous status in memory or null if not found or swapped to disk
+     */
+    @Override
+    public synchronized TransferStatus put(final TransferItem key, final TransferStatus value) {
+        acquired.remove(key);
+        this.discard(key);
+        final TransferStatus previous = heap.put(key, value);
+        if(heap.size() > threshold) {
+            this.swap();
+        }
+        return previous;
+    }
+
+    @Override
+    public synchronized TransferStatus remove(final Object key) {
+        acquired.remove(key);
+        final Local file = index.get(key);
+        if(file != null) {
+            this.read(file);
+        }
+        return heap.remove(key);
+    }
+
+    @Override
+    public synchronized int size() {
+        return heap.size() + index.size();
+    }
+
+    @Override
+    public synchronized void clear() {
+        heap.clear();
+        acquired.clear();
+        index.clear();
+        for(Local file : files.keySet()) {
+            this.delete(file);
+        }
+        files.clear();
+        threshold = window;
+    }
+
+    /**
+     * Write entries not in use to disk
+     */
+    private void swap() {
+        final List<SwappedTransferStatus> batch = new ArrayList<>();
+        for(Map.Entry<TransferItem, TransferStatus> entry : heap.entrySet()) {
+            final TransferStatus status = entry.getValue();
+            if(status.isComplete() || !acquired.contains(entry.getKey()) && this.isSerializable(status)) {
+                batch.add(new SwappedTransferStatus(entry.getKey(), status));
+            }
+        }
+        if(!batch.isEmpty()) {
+            final Local file = TemporaryFileServiceFactory.get().create(new AlphanumericRandomStringService().random());
+            try {
+                file.getParent().mkdir();
+                new PlistWriter<SwappedTransferStatus>().write(batch, file);
+                for(SwappedTransferStatus entry : batch) {
+                    heap.remove(entry.item);
+                    acquired.remove(entry.item);
+                    index.put(entry.item, file);
+                }
+                files.put(file, batch.size());
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Swapped %d entries to %s", batch.size(), file));
+                }
+            }
+            catch(AccessDeniedException e) {
+                log.warn(String.format("Failure swapping entries to %s. %s", file, e));
+            }
+        }
+        // Amortize scanning when most entries are in use
+        threshold = Math.max(window, heap.size() + window / 10 + 1);
+    }
+
+    /**
+     * Drop swapped entry without reading it back
+     */
+    private void discard(final TransferItem key) {
+        final Local file = index.remove(key);
+        if(null == file) {
+            return;
+        }
+        final int remaining = files.get(file) - 1;
+        if(0 == remaining) {
+            files.remove(file);
+            this.delete(file);
+        }
+        else {
+            files.put(file, remaining);
+        }
+    }
+
+    /**
+     * Read all entries from swap file back to memory
+     */
+    private void read(final Local file) {
+        final List<SwappedTransferStatus> entries;
+        try {
+            entries = new SwappedTransferStatusReader().readCollection(file);
+        }
+        catch(AccessDeniedException e) {
+            log.error(String.format("Failure reading swapped entries from %s. %s", file, e));
+            return;
+        }
+        for(SwappedTransferStatus entry : entries) {
+            // Skip entries replaced or removed after swapping
+            if(file.equals(index.get(entry.item))) {
+                index.remove(entry.item);
+                heap.put(entry.item, entry.status);
+            }
+        }
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Read %d entries from %s", entries.size(), file));
+        }
+        files.remove(file);
+        this.delete(file);
+    }
+
+    private void delete(final Local file) {
+        try {
+            file.delete();
+            file.getParent().delete();
+        }
+        catch(AccessDeniedException | NotfoundException e) {
+            log.warn(String.format("Failure deleting swap file %s. %s", file, e));
+        }
+    }
+
+    /**
+     * @return False if status holds state of pending transfer that cannot be written to disk
+     */
+    private boolean isSerializable(final TransferStatus status) {
+        for(TransferStatus segment : status.getSegments()) {
+            if(segment.getNonces() != null || segment.getLockId() != null) {
+                return false;
+            }
+        }
+        return status.getNonces() == null && status.getLockId() == null;
+    }
+
+    /**
+     * Entries in memory followed by swapped entries read back to memory one file at a time
+     */
+    @Override
+    public Set<Map.Entry<TransferItem, TransferStatus>> entrySet() {
+        return new AbstractSet<Map.Entry<TransferItem, TransferStatus>>() {
+            @Override
+            public Iterator<Map.Entry<TransferItem, TransferStatus>> iterator() {
+                final List<Map.Entry<TransferItem, TransferStatus>> entries;
+                final List<Local> swapped;
+                synchronized(SwapTransferStatusMap.this) {
+                    entries = new ArrayList<>(heap.entrySet());
+                    swapped = new ArrayList<>(files.keySet());
+                }
+                return new SwappedEntryIterator(entries, swapped);
+            }
+
+            @Override
+            public int size() {
+                return SwapTransferStatusMap.this.size();
+            }
+        };
+    }
+
+    private final class SwappedEntryIterator implements Iterator<Map.Entry<TransferItem, TransferStatus>> {
+        private final Iterator<Local> swapped;
+        private Iterator<Map.Entry<TransferItem, TransferStatus>> delegate;
+
+        public SwappedEntryIterator(final List<Map.Entry<TransferItem, TransferStatus>> entries, final List<Local> swapped) {
+            this.delegate = entries.iterator();
+            this.swapped = swapped.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while(!delegate.hasNext()) {
+                if(!swapped.hasNext()) {
+                    return false;
+                }
+                final Local file = swapped.next();
+                final List<Map.Entry<TransferItem, TransferStatus>> entries = new ArrayList<>();
+                synchronized(SwapTransferStatusMap.this) {
+                    if(!files.containsKey(file)) {
+                        // Already read back
+                        continue;
+                    }
+                    final Set<TransferItem> keys = new HashSet<>();
+                    for(Map.Entry<TransferItem, Local> entry : index.entrySet()) {
+                        if(file.equals(entry.getValue())) {
+                            keys.add(entry.getKey());
+                        }
+                    }
+                    // Previous entries are no longer in use by caller
+                    if(heap.size() > threshold) {
+                        swap();
+                    }
+                    read(file);
+                    for(TransferItem key : keys) {
+                        final TransferStatus status = heap.get(key);
+                        if(status != null) {
+                            entries.add(new SimpleImmutableEntry<>(key, status));
+                        }
+                    }
+                }
+                delegate = entries.iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public Map.Entry<TransferItem, TransferStatus> next() {
+            if(!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return delegate.next();
+        }
+    }
+
+    private static final class SwappedTransferStatus implements Serializable {
+        private final TransferItem item;
+        private final TransferStatus status;
+
+        public SwappedTransferStatus(final TransferItem item, final TransferStatus status) {
+            this.item = item;
+            this.status = status;
+        }
+
+        @Override
+        public <T> T serialize(final Serializer dict) {
+            if(item != null) {
+                dict.setObjectForKey(item, "Item");
+            }
+            dict.setStringForKey(String.valueOf(status.getLength()), "Length");
+            dict.setStringForKey(String.valueOf(status.getOffset()), "Offset");
+            dict.setStringForKey(String.valueOf(status.isExists()), "Exists");
+            dict.setStringForKey(String.valueOf(status.isAppend()), "Append");
+            dict.setStringForKey(String.valueOf(status.isSegment()), "Segment");
+            dict.setStringForKey(String.valueOf(status.isRejected()), "Rejected");
+            dict.setStringForKey(String.valueOf(status.isHidden()), "Hidden");
+            dict.setStringForKey(String.valueOf(status.isComplete()), "Complete");
+            if(status.getRename().remote != null) {
+                dict.setObjectForKey(status.getRename().remote, "Rename Remote");
+            }
+            if(status.getRename().local != null) {
+                dict.setObjectForKey(status.getRename().local, "Rename Local");
+            }
+            if(status.getDisplayname().remote != null) {
+                dict.setObjectForKey(status.getDisplayname().remote, "Display Name Remote");
+            }
+            if(status.getDisplayname().local != null) {
+                dict.setObjectForKey(status.getDisplayname().local, "Display Name Local");
+            }
+            if(status.getChecksum() != Checksum.NONE) {
+                final Map<String, String> checksum = new HashMap<>();
+                checksum.put("Algorithm", status.getChecksum().algorithm.name());
+                checksum.put("Hash", status.getChecksum().hash);
+                dict.setMapForKey(checksum, "Checksum");
+            }
+            if(status.getMime() != null) {
+                dict.setStringForKey(status.getMime(), "Mime");
+            }
+            dict.setObjectForKey(status.getRemote(), "Remote");
+            if(status.getPermission() != Permission.EMPTY) {
+                dict.setObjectForKey(status.getPermission(), "Permission");
+            }
+            if(status.getAcl() != Acl.EMPTY) {
+                dict.setObjectForKey(status.getAcl(), "Acl");
+            }
+            dict.setStringForKey(status.getEncryption().toString(), "Encryption");
+            if(status.getStorageClass() != null) {
+                dict.setStringForKey(status.getStorageClass(), "Storage Class");
+            }
+            if(status.getTimestamp() != null) {
+                dict.setStringForKey(String.valueOf(status.getTimestamp()), "Timestamp");
+            }
+            dict.setMapForKey(status.getParameters(), "Parameters");
+            dict.setMapForKey(status.getMetadata(), "Metadata");
+            if(status.getPart() != null) {
+                dict.setStringForKey(String.valueOf(status.getPart()), "Part");
+            }
+            if(status.getUrl() != null) {
+                dict.setStringForKey(status.getUrl(), "Url");
+            }
+            if(status.getHeader() != null) {
+                dict.setStringForKey(this.encode(status.getHeader()), "Header");
+            }
+            if(status.getFilekey() != null) {
+                dict.setStringForKey(this.encode(status.getFilekey()), "File Key");
+            }
+            if(status.isSegmented()) {
+                final List<SwappedTransferStatus> segments = new ArrayList<>();
+                for(TransferStatus segment : status.getSegments()) {
+                    segments.add(new SwappedTransferStatus(null, segment));
+                }
+                dict.setListForKey(segments, "Segments");
+            }
+            return dict.getSerialized();
+        }
+
+        private String encode(final ByteBuffer buffer) {
+            final ByteBuffer duplicate = buffer.duplicate();
+            final byte[] bytes = new byte[duplicate.remaining()];
+            duplicate.get(bytes);
+            return Base64.encodeBase64String(bytes);
+        }
+    }
+
+    private static final class SwappedTransferStatusReader extends PlistReader<SwappedTransferStatus> {
+        private final DeserializerFactory deserializer = new DeserializerFactory();
+
+        @Override
+        public SwappedTransferStatus deserialize(final NSDictionary dict) {
+            final Deserializer<NSDictionary> d = deserializer.create(dict);
+            final TransferItem item = new TransferItemDictionary(deserializer).deserialize(d.objectForKey("Item"));
+            if(null == item) {
+                return null;
+            }
+            return new SwappedTransferStatus(item, this.status(d));
+        }
+
+        private TransferStatus status(final Deserializer<NSDictionary> d) {
+            final TransferStatus status = new TransferStatus()
+                .exists(d.booleanForKey("Exists"))
+                .append(d.booleanForKey("Append"))
+                .segment(d.booleanForKey("Segment"))
+                .reject(d.booleanForKey("Rejected"))
+                .hidden(d.booleanForKey("Hidden"))
+                // Set offset after append flag that resets offset
+                .withLength(Long.parseLong(d.stringForKey("Length")))
+                .withOffset(Long.parseLong(d.stringForKey("Offset")));
+            final Object renameRemoteObj = d.objectForKey("Rename Remote");
+            if(renameRemoteObj != null) {
+                status.getRename().remote = new PathDictionary(deserializer).deserialize(renameRemoteObj);
+            }
+            final Object renameLocalObj = d.objectForKey("Rename Local");
+            if(renameLocalObj != null) {
+                status.getRename().local = new LocalDictionary(deserializer).deserialize(renameLocalObj);
+            }
+            final Object displaynameRemoteObj = d.objectForKey("Display Name Remote");
+            if(displaynameRemoteObj != null) {
+                status.getDisplayname().remote = new PathDictionary(deserializer).deserialize(displaynameRemoteObj);
+            }
+            final Object displaynameLocalObj = d.objectForKey("Display Name Local");
+            if(displaynameLocalObj != null) {
+                status.getDisplayname().local = new LocalDictionary(deserializer).deserialize(displaynameLocalObj);
+            }
+            final Map<String, String> checksumObj = d.mapForKey("Checksum");
+            if(checksumObj != null) {
+                status.setChecksum(new Checksum(HashAlgorithm.valueOf(checksumObj.get("Algorithm")), checksumObj.get("Hash")));
+            }
+            status.setMime(d.stringForKey("Mime"));
+            status.setRemote(new PathAttributesDictionary(deserializer).deserialize(d.objectForKey("Remote")));
+            final Object permissionObj = d.objectForKey("Permission");
+            if(permissionObj != null) {
+                status.setPermission(new PermissionDictionary().deserialize(permissionObj));
+            }
+            final Object aclObj = d.objectForKey("Acl");
+            if(aclObj != null) {
+                status.setAcl(new AclDictionary().deserialize(aclObj));
+            }
+            status.setEncryption(Encryption.Algorithm.fromString(d.stringForKey("Encryption")));
+            status.setStorageClass(d.stringForKey("Storage Class"));
+            final String timestampObj = d.stringForKey("Timestamp");
+            if(timestampObj != null) {
+                status.setTimestamp(Long.parseLong(timestampObj));
+            }
+            final Map<String, String> parametersObj = d.mapForKey("Parameters");
+            status.setParameters(null == parametersObj ? Collections.emptyMap() : parametersObj);
+            final Map<String, String> metadataObj = d.mapForKey("Metadata");
+            status.setMetadata(null == metadataObj ? Collections.emptyMap() : metadataObj);
+            final String partObj = d.stringForKey("Part");
+            if(partObj != null) {
+                status.setPart(Integer.parseInt(partObj));
+            }
+            status.setUrl(d.stringForKey("Url"));
+            final String headerObj = d.stringForKey("Header");
+            if(headerObj != null) {
+                status.setHeader(ByteBuffer.wrap(Base64.decodeBase64(headerObj)));
+            }
+            final String filekeyObj = d.stringForKey("File Key");
+            if(filekeyObj != null) {
+                status.setFilekey(ByteBuffer.wrap(Base64.decodeBase64(filekeyObj)));
+            }
+            final List<NSDictionary> segmentsObj = d.listForKey("Segments");
+            if(segmentsObj != null) {
+                final List<TransferStatus> segments = new ArrayList<>();
+                for(NSDictionary segmentObj : segmentsObj) {
+                    segments.add(this.status(deserializer.create(segmentObj)));
+                }
+                status.withSegments(segments);
+            }
+            if(d.booleanForKey("Complete")) {
+                status.setComplete();
+            }
+            return status;
+        }
+    }
+}
@@ -307,20 +307,26 @@ public abstract class Transfer implements Serializable {
      * @param callback    Prompt
      */
     public void pre(final Session<?> source, final Session<?> destination, final Map<TransferItem, TransferStatus> files, final ConnectionCallback callback) throws BackgroundException {
-        for(TransferItem item : roots) {
-            try {
-                switch(this.getType()) {
-                    case download:
-                        final Local directory = item.local.getParent();
-                        locks.put(directory, directory.lock(true));
-                        break;
-                    case upload:
-                        locks.put(item.local, item.local.lock(true));
-                        break;
+        synchronized(locks) {
+            for(TransferItem item : roots) {
+                try {
+                    switch(this.getType()) {
+                        case download:
+                            final Local directory = item.local.getParent();
+                            if(!locks.containsKey(directory)) {
+                                locks.put(directory, directory.lock(true));
+                            }
+                            break;
+                        case upload:
+                            if(!locks.containsKey(item.local)) {
+                                locks.put(item.local, item.local.lock(true));
+                            }
+                            break;
+                    }
+                }
+                catch(LocalAccessDeniedException e) {
+                    log.warn(String.format("Failure obtaining lock for %s. %s", item.local, e));
                 }
-            }
-            catch(LocalAccessDeniedException e) {
-                log.warn(String.format("Failure obtaining lock for %s. %s", item.local, e));
             }
         }
     }
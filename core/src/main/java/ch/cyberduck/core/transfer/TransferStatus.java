@@ -550,6 +550,11 @@ public class TransferStatus implements StreamCancelation, StreamProgress {
         this.part = part;
     }
 
+    public TransferStatus withPart(final Integer part) {
+        this.part = part;
+        return this;
+    }
+
     public String getUrl() {
         return url;
     }
@@ -85,7 +85,7 @@ public class UploadTransfer extends Transfer {
     }
 
     public UploadTransfer(final Host host, final List<TransferItem> roots, final Filter<Local> f, final Comparator<Local> comparator) {
-        super(host, roots, new BandwidthThrottle(PreferencesFactory.get().getFloat("queue.upload.bandwidth.bytes")));
+        super(host, roots, new BandwidthThrottle(GlobalBandwidthThrottle.upload(), PreferencesFactory.get().getFloat("queue.upload.bandwidth.bytes")));
         this.filter = f;
         this.comparator = comparator;
     }
@@ -38,8 +38,10 @@ import ch.cyberduck.core.features.AttributesFinder;
 import ch.cyberduck.core.io.Checksum;
 import ch.cyberduck.core.io.ChecksumCompute;
 import ch.cyberduck.core.io.ChecksumComputeFactory;
+import ch.cyberduck.core.io.SegmentedFileChannel;
 import ch.cyberduck.core.local.ApplicationLauncher;
 import ch.cyberduck.core.local.ApplicationLauncherFactory;
+import ch.cyberduck.core.local.DefaultLocalDirectoryFeature;
 import ch.cyberduck.core.local.IconService;
 import ch.cyberduck.core.local.IconServiceFactory;
 import ch.cyberduck.core.local.QuarantineService;
@@ -190,7 +192,8 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
                     log.warn(String.format("Failure to determine disk space for %s", file.getParent()));
                 }
                 long threshold = preferences.getLong("queue.download.segments.threshold");
-                if(status.getLength() * 2 > space) {
+                // Segment files require twice the space for concatenation
+                if(status.getLength() * (options.inplace ? 1 : 2) > space) {
                     log.warn(String.format("Insufficient free disk space %d for segmented download of %s", space, file));
                 }
                 else if(status.getLength() > threshold) {
@@ -207,8 +210,6 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
                     final List<TransferStatus> segments = new ArrayList<>();
                     final Local segmentsFolder = LocalFactory.get(local.getParent(), String.format("%s.cyberducksegment", local.getName()));
                     for(int segmentNumber = 1; remaining > 0; segmentNumber++) {
-                        final Local segmentFile = LocalFactory.get(
-                            segmentsFolder, String.format("%d.cyberducksegment", segmentNumber));
                         // Last part can be less than 5 MB. Adjust part size.
                         long length = Math.min(segmentSize, remaining);
                         final TransferStatus segmentStatus = new TransferStatus()
@@ -216,9 +217,14 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
                             .append(true) // Read with offset
                             .withOffset(offset)
                             .withLength(length)
-                            .rename(segmentFile);
+                            .withPart(segmentNumber);
+                        if(!options.inplace) {
+                            // Download to segment file without rename of target to write at offset
+                            segmentStatus.rename(LocalFactory.get(
+                                segmentsFolder, String.format("%d.cyberducksegment", segmentNumber)));
+                        }
                         if(log.isDebugEnabled()) {
-                            log.debug(String.format("Adding status %s for segment %s", segmentStatus, segmentFile));
+                            log.debug(String.format("Adding status %s for segment %d", segmentStatus, segmentNumber));
                         }
                         segments.add(segmentStatus);
                         remaining -= length;
@@ -237,7 +243,18 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
     @Override
     public void apply(final Path file, final Local local, final TransferStatus status,
                       final ProgressListener listener) throws BackgroundException {
-        //
+        if(status.isSegmented()) {
+            final List<TransferStatus> segments = status.getSegments();
+            final TransferStatus last = segments.get(segments.size() - 1);
+            if(null == last.getRename().local) {
+                // Segments written in place
+                final Local folder = local.getParent();
+                if(!folder.exists()) {
+                    new DefaultLocalDirectoryFeature().mkdir(folder);
+                }
+                SegmentedFileChannel.allocate(local, segments.size(), last.getOffset() + last.getLength());
+            }
+        }
     }
 
     /**
@@ -260,30 +277,36 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
             if(status.isSegmented()) {
                 // Obtain ordered list of segments to reassemble
                 final List<TransferStatus> segments = status.getSegments();
-                if(log.isInfoEnabled()) {
-                    log.info(String.format("Compile %d segments to file %s", segments.size(), local));
-                }
-                if(local.exists()) {
-                    local.delete();
+                if(null == segments.get(segments.size() - 1).getRename().local) {
+                    // Segments already written in place
+                    SegmentedFileChannel.complete(local);
                 }
-                for(Iterator<TransferStatus> iterator = segments.iterator(); iterator.hasNext(); ) {
-                    final TransferStatus segmentStatus = iterator.next();
-                    // Segment
-                    final Local segmentFile = segmentStatus.getRename().local;
+                else {
                     if(log.isInfoEnabled()) {
-                        log.info(String.format("Append segment %s to %s", segmentFile, local));
+                        log.info(String.format("Compile %d segments to file %s", segments.size(), local));
                     }
-                    segmentFile.copy(local, new Local.CopyOptions().append(true));
-                    if(log.isInfoEnabled()) {
-                        log.info(String.format("Delete segment %s", segmentFile));
+                    if(local.exists()) {
+                        local.delete();
                     }
-                    segmentFile.delete();
-                    if(!iterator.hasNext()) {
-                        final Local folder = segmentFile.getParent();
+                    for(Iterator<TransferStatus> iterator = segments.iterator(); iterator.hasNext(); ) {
+                        final TransferStatus segmentStatus = iterator.next();
+                        // Segment
+                        final Local segmentFile = segmentStatus.getRename().local;
+                        if(log.isInfoEnabled()) {
+                            log.info(String.format("Append segment %s to %s", segmentFile, local));
+                        }
+                        segmentFile.copy(local, new Local.CopyOptions().append(true));
                         if(log.isInfoEnabled()) {
-                            log.info(String.format("Remove segment folder %s", folder));
+                            log.info(String.format("Delete segment %s", segmentFile));
+                        }
+                        segmentFile.delete();
+                        if(!iterator.hasNext()) {
+                            final Local folder = segmentFile.getParent();
+                            if(log.isInfoEnabled()) {
+                                log.info(String.format("Remove segment folder %s", folder));
+                            }
+                            folder.delete();
                         }
-                        folder.delete();
                     }
                 }
             }
@@ -27,6 +27,7 @@ import ch.cyberduck.core.features.Download;
 import ch.cyberduck.core.io.Checksum;
 import ch.cyberduck.core.io.ChecksumCompute;
 import ch.cyberduck.core.io.ChecksumComputeFactory;
+import ch.cyberduck.core.io.SegmentedFileChannel;
 import ch.cyberduck.core.transfer.TransferStatus;
 import ch.cyberduck.core.transfer.symlink.SymlinkResolver;
 
@@ -58,7 +59,8 @@ public class ResumeFilter extends AbstractDownloadFilter {
             if(local.exists()) {
                 // Read remote attributes
                 final PathAttributes attributes = attribute.find(file);
-                if(local.attributes().getSize() == attributes.getSize()) {
+                // Preallocated file of interrupted segmented download has final size
+                if(local.attributes().getSize() == attributes.getSize() && !SegmentedFileChannel.state(local).isFile()) {
                     if(Checksum.NONE != attributes.getChecksum()) {
                         final ChecksumCompute compute = ChecksumComputeFactory.get(attributes.getChecksum().algorithm);
                         if(compute.compute(local.getInputStream(), parent).equals(attributes.getChecksum())) {
@@ -88,9 +90,30 @@ public class ResumeFilter extends AbstractDownloadFilter {
     public TransferStatus prepare(final Path file, final Local local, final TransferStatus parent, final ProgressListener progress) throws BackgroundException {
         final TransferStatus status = super.prepare(file, local, parent, progress);
         if(status.isSegmented()) {
+            // Position after last byte written for segments in place
+            final long[] positions = SegmentedFileChannel.progress(local);
             for(TransferStatus segmentStatus : status.getSegments()) {
                 final Local segmentFile = segmentStatus.getRename().local;
-                if(segmentFile.exists()) {
+                if(null == segmentFile) {
+                    if(null == positions || positions.length != status.getSegments().size()) {
+                        continue;
+                    }
+                    final long written = Math.min(segmentStatus.getLength(),
+                        positions[segmentStatus.getPart() - 1] - segmentStatus.getOffset());
+                    if(written > 0) {
+                        if(log.isInfoEnabled()) {
+                            log.info(String.format("Resume part %s with %d bytes written", segmentStatus, written));
+                        }
+                        if(written == segmentStatus.getLength()) {
+                            segmentStatus.setComplete();
+                        }
+                        segmentStatus.setLength(segmentStatus.getLength() - written);
+                        segmentStatus.setOffset(segmentStatus.getOffset() + written);
+                        status.setLength(status.getLength() - written);
+                        status.setOffset(status.getOffset() + written);
+                    }
+                }
+                else if(segmentFile.exists()) {
                     if(log.isInfoEnabled()) {
                         log.info(String.format("Determine if part %s can be skipped", segmentStatus));
                     }
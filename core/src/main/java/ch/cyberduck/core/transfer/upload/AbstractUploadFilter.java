@@ -32,6 +32,7 @@ import ch.cyberduck.core.Session;
 import ch.cyberduck.core.UserDateFormatterFactory;
 import ch.cyberduck.core.exception.AccessDeniedException;
 import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ChecksumException;
 import ch.cyberduck.core.exception.InteroperabilityException;
 import ch.cyberduck.core.exception.LocalAccessDeniedException;
 import ch.cyberduck.core.exception.LocalNotfoundException;
@@ -48,8 +49,10 @@ import ch.cyberduck.core.features.Timestamp;
 import ch.cyberduck.core.features.UnixPermission;
 import ch.cyberduck.core.features.Write;
 import ch.cyberduck.core.io.ChecksumCompute;
+import ch.cyberduck.core.io.DefaultStreamCloser;
 import ch.cyberduck.core.preferences.Preferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.transfer.AutoTransferConnectionLimiter;
 import ch.cyberduck.core.transfer.TransferOptions;
 import ch.cyberduck.core.transfer.TransferPathFilter;
 import ch.cyberduck.core.transfer.TransferStatus;
@@ -59,7 +62,9 @@ import ch.cyberduck.ui.browser.SearchFilterFactory;
 import org.apache.log4j.Logger;
 
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.List;
 
 public abstract class AbstractUploadFilter implements TransferPathFilter {
     private static final Logger log = Logger.getLogger(AbstractUploadFilter.class);
@@ -162,6 +167,35 @@ public abstract class AbstractUploadFilter implements TransferPathFilter {
                 }
             }
             status.withMime(new MappingMimeTypeService().getMime(file.getName()));
+            // Segments are written to target file directly and not with temporary filename
+            if(options.segments && null == status.getRename().remote) {
+                final long threshold = preferences.getLong("queue.upload.segments.threshold");
+                if(status.getLength() > threshold && session.getFeature(Write.class).segmented(file)) {
+                    // Segment size to allow all connections to write concurrently
+                    final long size = Math.min(preferences.getLong("queue.upload.segments.size"), Math.max(threshold,
+                        status.getLength() / new AutoTransferConnectionLimiter().getLimit(session.getHost())));
+                    long remaining = status.getLength(), offset = 0;
+                    // Sorted list
+                    final List<TransferStatus> segments = new ArrayList<>();
+                    for(int part = 1; remaining > 0; part++) {
+                        final long length = Math.min(size, remaining);
+                        final TransferStatus segmentStatus = new TransferStatus()
+                            .segment(true) // Skip completion filter for single segment
+                            .append(true) // Write with offset
+                            .exists(true) // File is created before segments are written
+                            .withOffset(offset)
+                            .withLength(length)
+                            .withPart(part);
+                        if(log.isDebugEnabled()) {
+                            log.debug(String.format("Adding status %s for segment %d", segmentStatus, part));
+                        }
+                        segments.add(segmentStatus);
+                        remaining -= length;
+                        offset += length;
+                    }
+                    status.withSegments(segments);
+                }
+            }
         }
         if(file.isDirectory()) {
             status.setLength(0L);
@@ -290,7 +324,27 @@ public abstract class AbstractUploadFilter implements TransferPathFilter {
     @Override
     public void apply(final Path file, final Local local, final TransferStatus status,
                       final ProgressListener listener) throws BackgroundException {
-        //
+        if(status.isAppend()) {
+            return;
+        }
+        for(TransferStatus segment : status.getSegments()) {
+            if(segment.isComplete()) {
+                // Resume with existing file and segments saved
+                return;
+            }
+        }
+        if(options.segments && file.isFile()) {
+            // Discard segments saved from previous attempt for file truncated
+            this.state(file, local).delete();
+        }
+        if(status.isSegmented()) {
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Create file %s to write segments", file));
+            }
+            final Write<?> write = session.getFeature(Write.class);
+            new DefaultStreamCloser().close(write.write(file, new TransferStatus()
+                .exists(status.isExists() && null == status.getRename().remote).withLength(0L), new DisabledConnectionCallback()));
+        }
     }
 
     @Override
@@ -300,7 +354,25 @@ public abstract class AbstractUploadFilter implements TransferPathFilter {
         if(log.isDebugEnabled()) {
             log.debug(String.format("Complete %s with status %s", file.getAbsolute(), status));
         }
+        if(status.isSegment()) {
+            if(status.isComplete()) {
+                // Save progress to resume with incomplete segments
+                this.state(file, local).complete(status);
+            }
+            return;
+        }
         if(status.isComplete()) {
+            if(status.isSegmented()) {
+                final List<TransferStatus> segments = status.getSegments();
+                final TransferStatus last = segments.get(segments.size() - 1);
+                final long size = attribute.find(file).getSize();
+                if(size != last.getOffset() + last.getLength()) {
+                    throw new ChecksumException(MessageFormat.format(LocaleFactory.localizedString("Upload {0} failed", "Error"), file.getName()),
+                        MessageFormat.format("Mismatch between size {0} of uploaded data and size {1} of file on server",
+                            last.getOffset() + last.getLength(), size));
+                }
+                this.state(file, local).delete();
+            }
             if(!Permission.EMPTY.equals(status.getPermission())) {
                 final UnixPermission feature = session.getFeature(UnixPermission.class);
                 if(feature != null) {
@@ -356,4 +428,11 @@ public abstract class AbstractUploadFilter implements TransferPathFilter {
             }
         }
     }
+
+    /**
+     * @return Completed segments of upload
+     */
+    SegmentedUploadState state(final Path file, final Local local) {
+        return new SegmentedUploadState(session.getHost(), file, local);
+    }
 }
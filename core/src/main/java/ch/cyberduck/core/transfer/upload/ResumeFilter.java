@@ -33,6 +33,8 @@ import ch.cyberduck.core.transfer.symlink.SymlinkResolver;
 
 import org.apache.log4j.Logger;
 
+import java.util.Set;
+
 public class ResumeFilter extends AbstractUploadFilter {
     private static final Logger log = Logger.getLogger(ResumeFilter.class);
 
@@ -60,7 +62,8 @@ public class ResumeFilter extends AbstractUploadFilter {
                 if(parent.isExists()) {
                     if(find.find(file)) {
                         final PathAttributes attributes = attribute.find(file);
-                        if(attributes.getSize() == local.attributes().getSize()) {
+                        // Remote file may have final size with segments missing from interrupted upload
+                        if(attributes.getSize() == local.attributes().getSize() && this.state(file, local).isEmpty()) {
                             if(Checksum.NONE != attributes.getChecksum()) {
                                 final ChecksumCompute compute = ChecksumComputeFactory.get(attributes.getChecksum().algorithm);
                                 if(compute.compute(local.getInputStream(), parent).equals(attributes.getChecksum())) {
@@ -91,7 +94,22 @@ public class ResumeFilter extends AbstractUploadFilter {
     public TransferStatus prepare(final Path file, final Local local, final TransferStatus parent, final ProgressListener progress) throws BackgroundException {
         final TransferStatus status = super.prepare(file, local, parent, progress);
         if(file.isFile()) {
-            if(status.isExists()) {
+            if(status.isSegmented()) {
+                if(status.isExists()) {
+                    final Set<Integer> completed = this.state(file, local).find(status.getSegments());
+                    for(TransferStatus segment : status.getSegments()) {
+                        if(completed.contains(segment.getPart())) {
+                            if(log.isInfoEnabled()) {
+                                log.info(String.format("Skip completed segment %s of %s", segment, file));
+                            }
+                            segment.setComplete();
+                            status.setLength(status.getLength() - segment.getLength());
+                            status.setOffset(status.getOffset() + segment.getLength());
+                        }
+                    }
+                }
+            }
+            else if(status.isExists()) {
                 final Write.Append append = upload.append(file, status);
                 if(append.append && append.size < status.getLength()) {
                     // Append to existing file
@@ -0,0 +1,119 @@
+package ch.cyberduck.core.transfer.upload;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.HostUrlProvider;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalFactory;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.io.TabSeparatedFile;
+import ch.cyberduck.core.preferences.SupportDirectoryFinderFactory;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Part number, offset and length of completed segments of an upload saved in the support directory. The state is bound
+ * to the size and modification date of the local file.
+ */
+final class SegmentedUploadState {
+    private static final Logger log = Logger.getLogger(SegmentedUploadState.class);
+
+    /**
+     * Segments of the same upload complete concurrently with distinct instances
+     */
+    private static final Object lock = new Object();
+
+    private final TabSeparatedFile file;
+
+    public SegmentedUploadState(final Host host, final Path remote, final Local local) {
+        this(LocalFactory.get(SupportDirectoryFinderFactory.get().find(), "Segments"), host, remote, local);
+    }
+
+    public SegmentedUploadState(final Local directory, final Host host, final Path remote, final Local local) {
+        this.file = new TabSeparatedFile(LocalFactory.get(directory, String.format("%s.cyberducksegment", DigestUtils.sha1Hex(String.format("%s%s|%s|%d|%d",
+            new HostUrlProvider().withUsername(true).withPath(false).get(host), remote.getAbsolute(), local.getAbsolute(),
+            local.attributes().getSize(), local.attributes().getModificationDate())))));
+    }
+
+    /**
+     * @param segments Segments of upload
+     * @return Part numbers of segments saved as completed with the same offset and length
+     */
+    public Set<Integer> find(final List<TransferStatus> segments) {
+        final Set<String> completed = this.read();
+        final Set<Integer> parts = new HashSet<>();
+        for(TransferStatus segment : segments) {
+            if(completed.contains(toString(segment))) {
+                parts.add(segment.getPart());
+            }
+        }
+        return parts;
+    }
+
+    /**
+     * @return True if no segment is saved as completed
+     */
+    public boolean isEmpty() {
+        return this.read().isEmpty();
+    }
+
+    private Set<String> read() {
+        synchronized(lock) {
+            final Set<String> lines = new HashSet<>();
+            try {
+                for(String[] row : file.read(3)) {
+                    lines.add(StringUtils.join(row, '\t'));
+                }
+            }
+            catch(AccessDeniedException e) {
+                log.warn(String.format("Failure reading state %s. %s", file, e.getMessage()));
+            }
+            return lines;
+        }
+    }
+
+    /**
+     * @param segment Completed segment
+     */
+    public void complete(final TransferStatus segment) throws AccessDeniedException {
+        synchronized(lock) {
+            file.append(toRow(segment));
+        }
+    }
+
+    private static String[] toRow(final TransferStatus segment) {
+        return new String[]{String.valueOf(segment.getPart()), String.valueOf(segment.getOffset()), String.valueOf(segment.getLength())};
+    }
+
+    private static String toString(final TransferStatus segment) {
+        return StringUtils.join(toRow(segment), '\t');
+    }
+
+    public void delete() throws AccessDeniedException {
+        synchronized(lock) {
+            file.delete();
+        }
+    }
+}
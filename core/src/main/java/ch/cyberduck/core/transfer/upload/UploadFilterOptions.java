@@ -43,6 +43,10 @@ public final class UploadFilterOptions {
      * Calculate checksum for file
      */
     public boolean checksum;
+    /**
+     * Split upload into segments
+     */
+    public boolean segments;
 
     public UploadFilterOptions() {
         // Defaults
@@ -55,6 +59,7 @@ public final class UploadFilterOptions {
         encryption = preferences.getBoolean("queue.upload.file.encryption.change");
         redundancy = preferences.getBoolean("queue.upload.file.redundancy.change");
         checksum = preferences.getBoolean("queue.upload.checksum.calculate");
+        segments = preferences.getBoolean("queue.upload.segments");
     }
 
     public UploadFilterOptions(final boolean permissions, final boolean timestamp, final boolean temporary) {
@@ -104,6 +109,11 @@ public final class UploadFilterOptions {
         return this;
     }
 
+    public UploadFilterOptions withSegments(boolean enabled) {
+        segments = enabled;
+        return this;
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("UploadFilterOptions{");
@@ -115,6 +125,7 @@ public final class UploadFilterOptions {
         sb.append(", encryption=").append(encryption);
         sb.append(", redundancy=").append(redundancy);
         sb.append(", checksum=").append(checksum);
+        sb.append(", segments=").append(segments);
         sb.append('}');
         return sb.toString();
     }
@@ -16,6 +16,7 @@ package ch.cyberduck.core.vault;
  */
 
 import ch.cyberduck.core.ListService;
+import ch.cyberduck.core.RecursiveListService;
 import ch.cyberduck.core.PasswordCallback;
 import ch.cyberduck.core.PasswordStore;
 import ch.cyberduck.core.PasswordStoreFactory;
@@ -169,6 +170,9 @@ public class DefaultVaultRegistry extends CopyOnWriteArraySet<Vault> implements
         if(type == Download.class) {
             return (T) new VaultRegistryDownloadFeature(session, (Download) proxy, this);
         }
+        if(type == RecursiveListService.class) {
+            return (T) new VaultRegistryRecursiveListService(session, (RecursiveListService) proxy, this);
+        }
         if(type == Read.class) {
             return (T) new VaultRegistryReadFeature(session, (Read) proxy, this);
         }
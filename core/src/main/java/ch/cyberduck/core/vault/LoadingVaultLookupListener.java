@@ -49,6 +49,8 @@ public class LoadingVaultLookupListener implements VaultLookupListener {
             }
             try {
                 registry.add(vault.load(session, prompt, keychain));
+                // Discard features of session cached before unlocking vault
+                session.invalidate();
             }
             catch(BackgroundException e) {
                 log.warn(String.format("Failure loading vault %s. %s", vault, e));
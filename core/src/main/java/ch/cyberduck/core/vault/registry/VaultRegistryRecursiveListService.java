@@ -0,0 +1,91 @@
+package ch.cyberduck.core.vault.registry;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.RecursiveListService;
+import ch.cyberduck.core.Session;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.preferences.Preferences;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.vault.DefaultVaultRegistry;
+import ch.cyberduck.core.vault.VaultRegistry;
+import ch.cyberduck.core.vault.VaultUnlockCancelException;
+
+import org.apache.log4j.Logger;
+
+import java.util.Map;
+
+public class VaultRegistryRecursiveListService implements RecursiveListService {
+    private static final Logger log = Logger.getLogger(VaultRegistryRecursiveListService.class);
+
+    private final Preferences preferences = PreferencesFactory.get();
+
+    private final Session<?> session;
+    private final RecursiveListService proxy;
+    private final VaultRegistry registry;
+
+    private final boolean autodetect = preferences.getBoolean("cryptomator.vault.autodetect")
+        && preferences.getBoolean("cryptomator.enable");
+
+    public VaultRegistryRecursiveListService(final Session<?> session, final RecursiveListService proxy, final VaultRegistry registry) {
+        this.session = session;
+        this.proxy = proxy;
+        this.registry = registry;
+    }
+
+    @Override
+    public Map<Path, AttributedList<Path>> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        try {
+            if(registry.find(session, directory).contains(directory)) {
+                // Encrypted directory structure must be listed by directory
+                return null;
+            }
+        }
+        catch(VaultUnlockCancelException e) {
+            return null;
+        }
+        final Map<Path, AttributedList<Path>> listing = proxy.list(directory, listener);
+        if(null == listing) {
+            return null;
+        }
+        for(Map.Entry<Path, AttributedList<Path>> entry : listing.entrySet()) {
+            if(registry.contains(entry.getKey())) {
+                log.warn(String.format("Discard recursive listing of %s with vault %s", directory, entry.getKey()));
+                return null;
+            }
+            if(autodetect) {
+                for(Path file : entry.getValue()) {
+                    if(file.isFile() && DefaultVaultRegistry.DEFAULT_MASTERKEY_FILE_NAME.equals(file.getName())) {
+                        log.warn(String.format("Discard recursive listing of %s with master key %s", directory, file));
+                        return null;
+                    }
+                }
+            }
+        }
+        return listing;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("VaultRegistryRecursiveListService{");
+        sb.append("proxy=").append(proxy);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -58,6 +58,16 @@ public class VaultRegistryWriteFeature<T> implements Write<T> {
         return proxy.random();
     }
 
+    @Override
+    public boolean segmented(final Path file) {
+        try {
+            return registry.find(session, file).getFeature(session, Write.class, proxy).segmented(file);
+        }
+        catch(VaultUnlockCancelException e) {
+            return false;
+        }
+    }
+
     @Override
     public boolean timestamp() {
         return proxy.timestamp();
@@ -31,6 +31,7 @@ import ch.cyberduck.core.ProgressListener;
 import ch.cyberduck.core.Session;
 import ch.cyberduck.core.SleepPreventer;
 import ch.cyberduck.core.SleepPreventerFactory;
+import ch.cyberduck.core.SwapTransferItemCache;
 import ch.cyberduck.core.TransferItemCache;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
@@ -40,6 +41,7 @@ import ch.cyberduck.core.notification.NotificationService;
 import ch.cyberduck.core.preferences.Preferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.threading.TransferBackgroundActionState;
+import ch.cyberduck.core.transfer.SwapTransferStatusMap;
 import ch.cyberduck.core.transfer.SynchronizingTransferErrorCallback;
 import ch.cyberduck.core.transfer.Transfer;
 import ch.cyberduck.core.transfer.TransferAction;
@@ -56,10 +58,16 @@ import org.apache.commons.lang3.concurrent.ConcurrentUtils;
 import org.apache.log4j.Logger;
 
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.collect.Lists;
 
 public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
     private static final Logger log = Logger.getLogger(AbstractTransferWorker.class);
@@ -89,6 +97,10 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
     private final ProgressListener progress;
     private final StreamListener stream;
     private final Preferences preferences = PreferencesFactory.get();
+    /**
+     * Submit files for transfer as soon as accepted by filter while the rest of the tree is still being prepared
+     */
+    private final boolean pipelined = preferences.getBoolean("queue.transfer.pipeline");
 
     public AbstractTransferWorker(final Transfer transfer, final TransferOptions options,
                                   final TransferPrompt prompt, final TransferSpeedometer meter,
@@ -97,7 +109,10 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                                   final StreamListener stream,
                                   final ConnectionCallback connect,
                                   final NotificationService notification) {
-        this(transfer, options, prompt, meter, error, progress, stream, connect, notification, new TransferItemCache(Integer.MAX_VALUE));
+        this(transfer, options, prompt, meter, error, progress, stream, connect, notification,
+            PreferencesFactory.get().getBoolean("queue.transfer.swap") ?
+                new SwapTransferItemCache(PreferencesFactory.get().getInteger("queue.transfer.swap.size")) :
+                new TransferItemCache(Integer.MAX_VALUE));
     }
 
     public AbstractTransferWorker(final Transfer transfer, final TransferOptions options,
@@ -108,7 +123,10 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                                   final ConnectionCallback connect,
                                   final NotificationService notification,
                                   final Cache<TransferItem> cache) {
-        this(transfer, options, prompt, meter, error, progress, stream, connect, notification, cache, new ConcurrentHashMap<>());
+        this(transfer, options, prompt, meter, error, progress, stream, connect, notification, cache,
+            PreferencesFactory.get().getBoolean("queue.transfer.swap") ?
+                new SwapTransferStatusMap(PreferencesFactory.get().getInteger("queue.transfer.swap.size")) :
+                new ConcurrentHashMap<TransferItem, TransferStatus>());
     }
 
     public AbstractTransferWorker(final Transfer transfer, final TransferOptions options,
@@ -213,18 +231,26 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
             progress.message(MessageFormat.format(LocaleFactory.localizedString("Prepare {0} ({1})", "Status"), transfer.getName(), action.getTitle()));
             transfer.normalize();
 
-            // Calculate information about the files in advance to give progress information
-            for(TransferItem next : transfer.getRoots()) {
-                this.prepare(next.remote, next.local, new TransferStatus().exists(true), action);
+            if(pipelined) {
+                meter.reset();
+                // Files are submitted for transfer when prepared with total size refined while listing continues
+                this.prepare(transfer.getRoots(), new TransferStatus().exists(true), action);
+                this.await();
             }
-            this.await();
-            meter.reset();
-            transfer.pre(source, destination, table, connect);
-            // Transfer all files sequentially
-            for(TransferItem next : transfer.getRoots()) {
-                this.transfer(next, action);
+            else {
+                // Calculate information about the files in advance to give progress information
+                for(TransferItem next : transfer.getRoots()) {
+                    this.prepare(next.remote, next.local, new TransferStatus().exists(true), action);
+                }
+                this.await();
+                meter.reset();
+                transfer.pre(source, destination, table, connect);
+                // Transfer all files sequentially
+                for(TransferItem next : transfer.getRoots()) {
+                    this.transfer(next, action);
+                }
+                this.await();
             }
-            this.await();
             transfer.post(source, destination, table, connect);
         }
         finally {
@@ -243,12 +269,46 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
     }
 
     /**
-     * To be called before any file is actually transferred
+     * To be called before any file is actually transferred. When pipelined, the file is submitted for transfer
+     * after the status of all files of the same listing is determined and the children of a directory are only prepared after the directory
+     * itself has been transferred.
      *
      * @param file   File to transfer
      * @param action Transfer action for existing files
      */
     public Future<TransferStatus> prepare(final Path file, final Local local, final TransferStatus parent, final TransferAction action) throws BackgroundException {
+        return this.prepare(file, local, parent, action, null);
+    }
+
+    /**
+     * Prepare files in pipelined mode. Bulk features are invoked once for all files accepted by the filter
+     * before any of them is submitted for transfer.
+     *
+     * @param items  Files of a single listing or the roots of the transfer
+     * @param parent Transfer status of parent directory
+     * @param action Transfer action for existing files
+     */
+    private void prepare(final List<TransferItem> items, final TransferStatus parent, final TransferAction action) throws BackgroundException {
+        final List<TransferItem> selected = new ArrayList<>();
+        for(TransferItem item : items) {
+            if(prompt.isSelected(item)) {
+                selected.add(item);
+            }
+            else {
+                log.info(String.format("Skip unchecked file %s for transfer %s", item, this));
+            }
+        }
+        if(selected.isEmpty()) {
+            return;
+        }
+        final PrepareBatch batch = new PrepareBatch(selected.size(), action);
+        for(TransferItem item : selected) {
+            this.prepare(item.remote, item.local, parent, action, batch);
+        }
+    }
+
+    private Future<TransferStatus> prepare(final Path file, final Local local, final TransferStatus parent, final TransferAction action,
+                                           final PrepareBatch batch) throws BackgroundException {
         if(log.isDebugEnabled()) {
             log.debug(String.format("Find transfer status of %s for transfer %s", file, this));
         }
@@ -261,6 +321,25 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
 
                 @Override
                 public TransferStatus call() throws BackgroundException {
+                    if(null == batch) {
+                        return this.determine();
+                    }
+                    final TransferStatus status;
+                    try {
+                        status = this.determine();
+                    }
+                    catch(BackgroundException e) {
+                        batch.fail();
+                        throw e;
+                    }
+                    if(batch.complete(new TransferItem(file, local), status)) {
+                        // Submit for transfer without waiting for the preparation of other listings
+                        transfer(batch);
+                    }
+                    return status;
+                }
+
+                private TransferStatus determine() throws BackgroundException {
                     parent.validate();
                     final Session<?> source = borrow(Connection.source);
                     final Session<?> destination = borrow(Connection.destination);
@@ -283,7 +362,6 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                                 file.getName(), action.getTitle()));
                             // Determine transfer status
                             final TransferStatus status = filter.prepare(file, local, parent, progress);
-                            table.put(new TransferItem(file, local), status);
                             final TransferItem item = new TransferItem(
                                 status.getRename().remote != null ? status.getRename().remote : file,
                                 status.getRename().local != null ? status.getRename().local : local
@@ -294,6 +372,8 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                             transfer.addSize(status.getLength() + status.getOffset());
                             // Add skipped bytes
                             transfer.addTransferred(status.getOffset());
+                            // Status is no longer modified until retrieved for transfer
+                            table.put(new TransferItem(file, local), status);
                             // Recursive
                             if(file.isDirectory()) {
                                 final List<TransferItem> children;
@@ -301,10 +381,12 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                                 children = transfer.list(source, file, local, new WorkerListProgressListener(AbstractTransferWorker.this, progress));
                                 // Put into cache for later reference when transferring
                                 cache.put(item, new AttributedList<>(children));
-                                // Call recursively
-                                for(TransferItem f : children) {
-                                    // Change download path relative to parent local folder
-                                    prepare(f.remote, f.local, status, action);
+                                if(!pipelined) {
+                                    // Call recursively
+                                    for(TransferItem f : children) {
+                                        // Change download path relative to parent local folder
+                                        prepare(f.remote, f.local, status, action);
+                                    }
                                 }
                             }
                             if(log.isInfoEnabled()) {
@@ -316,7 +398,7 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                     catch(BackgroundException e) {
                         if(this.retry(e, progress, new TransferBackgroundActionState(parent))) {
                             // Retry immediately
-                            return call();
+                            return this.determine();
                         }
                         // Prompt to continue or abort for application errors
                         else if(error.prompt(new TransferItem(file, local), parent, e, table.size())) {
@@ -368,6 +450,16 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                 if(segment.isComplete()) {
                     continue;
                 }
+                // Renamed target of file
+                final TransferItem renamed = new TransferItem(
+                    status.getRename().remote != null ? status.getRename().remote : item.remote,
+                    status.getRename().local != null ? status.getRename().local : item.local
+                );
+                // Segments written in place use the renamed target of the file
+                final TransferItem target = new TransferItem(
+                    segment.getRename().remote != null ? segment.getRename().remote : renamed.remote,
+                    segment.getRename().local != null ? segment.getRename().local : renamed.local
+                );
                 this.submit(new RetryTransferCallable(transfer.getSource(),
                     preferences.getInteger("transfer.connection.retry"), preferences.getInteger("transfer.connection.retry.delay")) {
 
@@ -383,10 +475,7 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                             // Determine transfer filter implementation from selected overwrite action
                             final TransferPathFilter filter = transfer.filter(source, destination, action, progress);
                             // Post process of file.
-                            filter.complete(
-                                segment.getRename().remote != null ? segment.getRename().remote : item.remote,
-                                segment.getRename().local != null ? segment.getRename().local : item.local,
-                                options, segment, progress);
+                            filter.complete(target.remote, target.local, options, segment, progress);
                         }
                         finally {
                             release(source, Connection.source, null);
@@ -397,9 +486,17 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                             if(!cache.isCached(item)) {
                                 log.warn(String.format("Missing entry for %s in cache", item));
                             }
-                            for(TransferItem f : cache.get(item)) {
-                                // Recursive
-                                transfer(f, action);
+                            if(pipelined) {
+                                // Prepare children now that parent directory is transferred
+                                for(List<TransferItem> chunk : Lists.partition(cache.get(item).toList(), preferences.getInteger("queue.transfer.pipeline.batch"))) {
+                                    prepare(chunk, status, action);
+                                }
+                            }
+                            else {
+                                for(TransferItem f : cache.get(item)) {
+                                    // Recursive
+                                    transfer(f, action);
+                                }
                             }
                             cache.remove(item);
                         }
@@ -414,9 +511,7 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                         final Session<?> d = borrow(Connection.destination);
                         final BytecountStreamListener counter = new BytecountStreamListener(stream);
                         try {
-                            transfer.transfer(s, d,
-                                segment.getRename().remote != null ? segment.getRename().remote : item.remote,
-                                segment.getRename().local != null ? segment.getRename().local : item.local,
+                            transfer.transfer(s, d, target.remote, target.local,
                                 options, status, segment, connect, progress, counter);
                         }
                         catch(BackgroundException e) {
@@ -429,11 +524,30 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                                 final Session<?> destination = borrow(Connection.destination);
                                 try {
                                     final TransferPathFilter filter = transfer.filter(source, destination, TransferAction.resume, progress);
-                                    if(filter.accept(item.remote, item.local, new TransferStatus().exists(true))) {
+                                    // Resume segment with state saved for renamed target of file
+                                    final TransferItem resume = segment.isSegment() ? renamed : item;
+                                    if(filter.accept(resume.remote, resume.local, new TransferStatus().exists(true))) {
                                         if(log.isDebugEnabled()) {
                                             log.debug(String.format("Retry transfer of %s", item));
                                         }
-                                        final TransferStatus retry = filter.prepare(item.remote, item.local, new TransferStatus().exists(true), progress);
+                                        final TransferStatus retry = filter.prepare(resume.remote, resume.local, new TransferStatus().exists(true), progress);
+                                        final TransferStatus part = this.find(retry, segment);
+                                        if(part != null) {
+                                            // Resume single segment
+                                            stream.recv(part.getOffset() - segment.getOffset() - counter.getRecv());
+                                            stream.sent(part.getOffset() - segment.getOffset() - counter.getSent());
+                                            transfer.addTransferred(part.getOffset() - segment.getOffset() - counter.getSent());
+                                            if(part.isComplete()) {
+                                                segment.setComplete();
+                                                return;
+                                            }
+                                            log.info(String.format("Retry %s with segment status %s", item, part));
+                                            this.transferSegment(segment
+                                                .withLength(part.getLength())
+                                                .withOffset(part.getOffset())
+                                                .append(true));
+                                            return;
+                                        }
                                         // Add bytes retrieved but not yet counted
                                         stream.recv(retry.getOffset() - counter.getRecv());
                                         stream.sent(retry.getOffset() - counter.getSent());
@@ -471,6 +585,21 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                         }
                     }
 
+                    /**
+                     * @return Status of segment with same part number in resumed transfer status or null
+                     */
+                    private TransferStatus find(final TransferStatus retry, final TransferStatus segment) {
+                        if(!segment.isSegment() || null == segment.getPart()) {
+                            return null;
+                        }
+                        for(TransferStatus s : retry.getSegments()) {
+                            if(segment.getPart().equals(s.getPart())) {
+                                return s;
+                            }
+                        }
+                        return null;
+                    }
+
                     @Override
                     public String toString() {
                         final StringBuilder sb = new StringBuilder("RetryTransferCallable{");
@@ -535,6 +664,65 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
         return ConcurrentUtils.constantFuture(null);
     }
 
+    /**
+     * Invoke bulk features once for all prepared files of the batch and submit them for transfer
+     *
+     * @param batch Files of a single listing with transfer status determined
+     */
+    private void transfer(final PrepareBatch batch) throws BackgroundException {
+        if(batch.prepared.isEmpty()) {
+            return;
+        }
+        final Session<?> source = this.borrow(Connection.source);
+        final Session<?> destination = this.borrow(Connection.destination);
+        try {
+            transfer.pre(source, destination, batch.prepared, connect);
+        }
+        finally {
+            this.release(source, Connection.source, null);
+            this.release(destination, Connection.destination, null);
+        }
+        for(TransferItem item : batch.prepared.keySet()) {
+            this.transfer(item, batch.action);
+        }
+    }
+
+    /**
+     * Files of a listing prepared concurrently and transferred after the last one has its status determined
+     */
+    private static final class PrepareBatch {
+        private final Map<TransferItem, TransferStatus> prepared
+            = Collections.synchronizedMap(new LinkedHashMap<TransferItem, TransferStatus>());
+        private final AtomicInteger remaining;
+        private final TransferAction action;
+        private volatile boolean failed;
+
+        public PrepareBatch(final int size, final TransferAction action) {
+            this.remaining = new AtomicInteger(size);
+            this.action = action;
+        }
+
+        /**
+         * @param item   File prepared
+         * @param status Transfer status or null when skipped by filter
+         * @return True when this was the last file of the batch to be prepared
+         */
+        public boolean complete(final TransferItem item, final TransferStatus status) {
+            if(status != null) {
+                prepared.put(item, status);
+            }
+            return remaining.decrementAndGet() == 0 && !failed;
+        }
+
+        /**
+         * Preparing file failed. No file of the batch is transferred.
+         */
+        public void fail() {
+            failed = true;
+            remaining.decrementAndGet();
+        }
+    }
+
     @Override
     public String getActivity() {
         return BookmarkNameProvider.toString(transfer.getSource());
@@ -23,6 +23,7 @@ import ch.cyberduck.core.ListService;
 import ch.cyberduck.core.LocaleFactory;
 import ch.cyberduck.core.MappingMimeTypeService;
 import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PrefetchListService;
 import ch.cyberduck.core.ProgressListener;
 import ch.cyberduck.core.Session;
 import ch.cyberduck.core.exception.BackgroundException;
@@ -74,7 +75,7 @@ public class CopyWorker extends Worker<Map<Path, Path>> {
         });
         try {
             final Copy copy = session.getFeature(Copy.class).withTarget(destination);
-            final ListService list = session.getFeature(ListService.class);
+            final ListService list = new PrefetchListService(session, new HashMap<>());
             final Map<Path, Path> result = new HashMap<>();
             for(Map.Entry<Path, Path> entry : files.entrySet()) {
                 if(this.isCanceled()) {
@@ -28,22 +28,35 @@ import ch.cyberduck.core.LoginCallback;
 import ch.cyberduck.core.NullFilter;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.ProgressListener;
+import ch.cyberduck.core.Protocol;
 import ch.cyberduck.core.Session;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.features.Delete;
+import ch.cyberduck.core.preferences.Preferences;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
 import ch.cyberduck.core.transfer.TransferStatus;
 import ch.cyberduck.ui.browser.PathReloadFinder;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Logger;
 
 import java.text.MessageFormat;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 public class DeleteWorker extends Worker<List<Path>> {
 
@@ -58,6 +71,8 @@ public class DeleteWorker extends Worker<List<Path>> {
     private final ProgressListener listener;
     private final Filter<Path> filter;
 
+    private final Preferences preferences = PreferencesFactory.get();
+
     public DeleteWorker(final LoginCallback prompt, final List<Path> files, final Cache<Path> cache, final ProgressListener listener) {
         this(prompt, files, cache, new NullFilter<Path>(), listener);
     }
@@ -70,43 +85,39 @@ public class DeleteWorker extends Worker<List<Path>> {
         this.filter = filter;
     }
 
+    /**
+     * @return Deleted files and folders. Omits files in folders when more than the batch size are deleted.
+     */
     @Override
     public List<Path> run(final Session<?> session) throws BackgroundException {
         final Delete delete = session.getFeature(Delete.class);
         final ListService list = session.getFeature(ListService.class);
-        final Map<Path, TransferStatus> recursive = new LinkedHashMap<>();
-        for(Path file : files) {
-            if(this.isCanceled()) {
-                throw new ConnectionCanceledException();
-            }
-            recursive.putAll(this.compile(session.getHost(), delete, list, new WorkerListProgressListener(this, listener), file));
+        final ListProgressListener progress = new WorkerListProgressListener(this, listener);
+        final Batch batch = new Batch(delete, preferences.getInteger("browser.delete.batch.size"));
+        final int concurrency = preferences.getInteger("browser.delete.concurrency");
+        if(!delete.isRecursive() && concurrency > 1
+            && Protocol.Statefulness.stateless == session.getHost().getProtocol().getStatefulness()) {
+            // Connection can be shared by threads
+            this.compile(session.getHost(), list, progress, batch, concurrency);
         }
-        delete.delete(recursive, prompt, new Delete.Callback() {
-            @Override
-            public void delete(final Path file) {
-                listener.message(MessageFormat.format(LocaleFactory.localizedString("Deleting {0}", "Status"),
-                    file.getName()));
+        else {
+            for(Path file : files) {
+                if(this.isCanceled()) {
+                    throw new ConnectionCanceledException();
+                }
+                this.compile(session.getHost(), delete, list, progress, file, batch);
             }
-        });
-        return new ArrayList<>(recursive.keySet());
+        }
+        batch.flush();
+        return batch.getDeleted();
     }
 
-    protected Map<Path, TransferStatus> compile(final Host host, final Delete delete, final ListService list, final ListProgressListener listener, final Path file) throws BackgroundException {
-        // Compile recursive list
-        final Map<Path, TransferStatus> recursive = new LinkedHashMap<>();
+    /**
+     * Depth first with parent after children. Batches are deleted when full.
+     */
+    protected void compile(final Host host, final Delete delete, final ListService list, final ListProgressListener listener, final Path file, final Batch batch) throws BackgroundException {
         if(file.isFile() || file.isSymbolicLink()) {
-            final Path copy = new Path(file);
-            switch(host.getProtocol().getType()) {
-                case s3:
-                    if(!file.attributes().isDuplicate()) {
-                        if(!file.getType().contains(Path.Type.upload)) {
-                            // Add delete marker
-                            log.debug(String.format("Nullify version to add delete marker for %s", file));
-                            copy.attributes().setVersionId(null);
-                        }
-                    }
-            }
-            recursive.put(copy, new TransferStatus().withLockId(this.getLockId(copy)));
+            batch.add(this.toFile(host, file));
         }
         else if(file.isDirectory()) {
             if(!delete.isRecursive()) {
@@ -114,13 +125,112 @@ public class DeleteWorker extends Worker<List<Path>> {
                     if(this.isCanceled()) {
                         throw new ConnectionCanceledException();
                     }
-                    recursive.putAll(this.compile(host, delete, list, listener, child));
+                    this.compile(host, delete, list, listener, child, batch);
                 }
             }
             // Add parent after children
-            recursive.put(file, new TransferStatus().withLockId(this.getLockId(file)));
+            batch.add(file, new TransferStatus().withLockId(this.getLockId(file)));
         }
-        return recursive;
+    }
+
+    /**
+     * List folders concurrently and delete files in batches when full. Folders are added deepest first after all
+     * listings and full batches have completed.
+     */
+    protected void compile(final Host host, final ListService list, final ListProgressListener listener, final Batch batch, final int concurrency) throws BackgroundException {
+        final ThreadPool pool = ThreadPoolFactory.get("delete", concurrency);
+        final Queue<Future<Void>> pending = new ConcurrentLinkedQueue<>();
+        final Queue<Path> folders = new ConcurrentLinkedQueue<>();
+        boolean complete = false;
+        try {
+            for(Path file : files) {
+                if(file.isFile() || file.isSymbolicLink()) {
+                    batch.add(this.toFile(host, file));
+                }
+                else if(file.isDirectory()) {
+                    folders.add(file);
+                    this.submit(pool, pending, folders, host, list, listener, batch, file);
+                }
+            }
+            // Tasks submit listing of subfolders before completion
+            while(!pending.isEmpty()) {
+                try {
+                    pending.remove().get();
+                }
+                catch(InterruptedException e) {
+                    throw new ConnectionCanceledException(e);
+                }
+                catch(ExecutionException e) {
+                    if(e.getCause() instanceof BackgroundException) {
+                        throw (BackgroundException) e.getCause();
+                    }
+                    throw new DefaultExceptionMappingService().map(e.getCause());
+                }
+            }
+            complete = true;
+        }
+        finally {
+            if(complete) {
+                pool.shutdown(false);
+            }
+            else {
+                // Stop listings still running from adding files and wait for them before returning the failure
+                pool.executor().shutdown();
+                for(Future<Void> f : pending) {
+                    f.cancel(true);
+                }
+                pool.shutdown(true);
+            }
+        }
+        final List<Path> sorted = new ArrayList<>(folders);
+        sorted.sort(new Comparator<Path>() {
+            @Override
+            public int compare(final Path o1, final Path o2) {
+                return Integer.compare(StringUtils.countMatches(o2.getAbsolute(), Path.DELIMITER),
+                    StringUtils.countMatches(o1.getAbsolute(), Path.DELIMITER));
+            }
+        });
+        for(Path folder : sorted) {
+            batch.add(folder, new TransferStatus().withLockId(this.getLockId(folder)));
+        }
+    }
+
+    private void submit(final ThreadPool pool, final Queue<Future<Void>> pending, final Queue<Path> folders,
+                        final Host host, final ListService list, final ListProgressListener listener, final Batch batch,
+                        final Path directory) {
+        pending.add(pool.execute(new Callable<Void>() {
+            @Override
+            public Void call() throws BackgroundException {
+                for(Path child : list.list(directory, listener).filter(filter)) {
+                    if(isCanceled() || pool.executor().isShutdown()) {
+                        throw new ConnectionCanceledException();
+                    }
+                    if(child.isFile() || child.isSymbolicLink()) {
+                        batch.add(toFile(host, child));
+                    }
+                    else if(child.isDirectory()) {
+                        folders.add(child);
+                        submit(pool, pending, folders, host, list, listener, batch, child);
+                    }
+                }
+                return null;
+            }
+        }));
+    }
+
+    private Map.Entry<Path, TransferStatus> toFile(final Host host, final Path file) {
+        final Path copy = new Path(file);
+        switch(host.getProtocol().getType()) {
+            case s3:
+                if(!file.attributes().isDuplicate()) {
+                    if(!file.getType().contains(Path.Type.upload)) {
+                        // Add delete marker
+                        log.debug(String.format("Nullify version to add delete marker for %s", file));
+                        copy.attributes().setVersionId(null);
+                    }
+                }
+        }
+        return new AbstractMap.SimpleImmutableEntry<>(copy, new TransferStatus().withLockId(this.getLockId(copy)));
     }
 
     protected String getLockId(final Path file) {
@@ -132,6 +242,12 @@ public class DeleteWorker extends Worker<List<Path>> {
         for(Path folder : new PathReloadFinder().find(new ArrayList<>(deleted))) {
             cache.invalidate(folder);
         }
+        for(Path file : deleted) {
+            if(file.isDirectory()) {
+                // Files in deleted folders may be omitted
+                cache.invalidate(file);
+            }
+        }
     }
 
     @Override
@@ -145,6 +261,72 @@ public class DeleteWorker extends Worker<List<Path>> {
         return Collections.emptyList();
     }
 
+    /**
+     * Files and folders passed to delete feature when batch size is reached
+     */
+    protected final class Batch {
+        private final Delete delete;
+        private final int size;
+        private final List<Path> deleted = new ArrayList<>();
+
+        private Map<Path, TransferStatus> files = new LinkedHashMap<>();
+        private long count;
+
+        public Batch(final Delete delete, final int size) {
+            this.delete = delete;
+            this.size = size;
+        }
+
+        public void add(final Map.Entry<Path, TransferStatus> entry) throws BackgroundException {
+            this.add(entry.getKey(), entry.getValue());
+        }
+
+        public void add(final Path file, final TransferStatus status) throws BackgroundException {
+            final Map<Path, TransferStatus> full;
+            synchronized(this) {
+                files.put(file, status);
+                if(file.isDirectory() || count < size) {
+                    deleted.add(file);
+                }
+                count++;
+                if(files.size() < size) {
+                    return;
+                }
+                full = files;
+                files = new LinkedHashMap<>();
+            }
+            this.delete(full);
+        }
+
+        public void flush() throws BackgroundException {
+            final Map<Path, TransferStatus> remaining;
+            synchronized(this) {
+                remaining = files;
+                files = new LinkedHashMap<>();
+            }
+            if(!remaining.isEmpty()) {
+                this.delete(remaining);
+            }
+        }
+
+        private void delete(final Map<Path, TransferStatus> files) throws BackgroundException {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Delete batch of %d files", files.size()));
+            }
+            delete.delete(files, prompt, new Delete.Callback() {
+                @Override
+                public void delete(final Path file) {
+                    listener.message(MessageFormat.format(LocaleFactory.localizedString("Deleting {0}", "Status"),
+                        file.getName()));
+                }
+            });
+        }
+
+        public synchronized List<Path> getDeleted() {
+            return new ArrayList<>(deleted);
+        }
+    }
+
     @Override
     public boolean equals(final Object o) {
         if(this == o) {
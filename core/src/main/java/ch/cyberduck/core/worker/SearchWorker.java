@@ -20,19 +20,32 @@ import ch.cyberduck.core.Cache;
 import ch.cyberduck.core.Filter;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.LocaleFactory;
-import ch.cyberduck.core.NullFilter;
 import ch.cyberduck.core.Path;
+import ch.cyberduck.core.Protocol;
 import ch.cyberduck.core.Session;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.features.Search;
+import ch.cyberduck.core.pool.SessionPool;
+import ch.cyberduck.core.preferences.Preferences;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.threading.BackgroundActionState;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
 
 import org.apache.log4j.Logger;
 
 import java.text.MessageFormat;
-import java.util.HashSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 
 public class SearchWorker extends Worker<AttributedList<Path>> {
@@ -42,59 +55,159 @@ public class SearchWorker extends Worker<AttributedList<Path>> {
     private final Filter<Path> filter;
     private final Cache<Path> cache;
     private final ListProgressListener listener;
+    /**
+     * Connections to search folders concurrently or null
+     */
+    private final SessionPool pool;
+
+    private final Preferences preferences = PreferencesFactory.get();
 
     public SearchWorker(final Path directory, final Filter<Path> filter, final Cache<Path> cache, final ListProgressListener listener) {
+        this(directory, filter, cache, listener, null);
+    }
+
+    /**
+     * @param pool Connections to borrow for concurrent search or null to search with the connection of the worker
+     */
+    public SearchWorker(final Path directory, final Filter<Path> filter, final Cache<Path> cache, final ListProgressListener listener,
+                        final SessionPool pool) {
         this.directory = directory;
         this.filter = filter;
         this.cache = cache;
         this.listener = listener;
+        this.pool = pool;
     }
 
     @Override
     public AttributedList<Path> run(final Session<?> session) throws BackgroundException {
-        // Run recursively
         final Search feature = session.getFeature(Search.class);
         if(log.isDebugEnabled()) {
             log.debug(String.format("Run with feature %s", feature));
         }
-        return this.search(feature, directory);
-    }
-
-    private AttributedList<Path> search(final Search search, final Path workdir) throws BackgroundException {
         if(this.isCanceled()) {
             throw new ConnectionCanceledException();
         }
-        final AttributedList<Path> list;
-        if(cache.isCached(workdir)) {
-            list = cache.get(workdir);
-        }
-        else {
-            // Get filtered list from search
-            list = search.search(workdir, new RecursiveSearchFilter(filter), new WorkerListProgressListener(this, listener));
-        }
-        if(search.isRecursive()) {
-            return list;
+        if(feature.isRecursive()) {
+            if(cache.isCached(directory)) {
+                return cache.get(directory);
+            }
+            return feature.search(directory, new RecursiveSearchFilter(filter), new WorkerListProgressListener(this, listener));
         }
-        final Set<Path> removal = new HashSet<>();
-        for(final Path file : list) {
-            if(file.isDirectory()) {
-                if(log.isDebugEnabled()) {
-                    log.debug(String.format("Recursively search in %s", file));
+        // Run recursively
+        final Frontier frontier = new Frontier(directory, preferences.getInteger("browser.search.limit"),
+            preferences.getInteger("browser.search.depth"));
+        frontier.add(directory, 0);
+        final int concurrency = preferences.getInteger("browser.search.concurrency");
+        if(concurrency > 1 && (pool != null || Protocol.Statefulness.stateless == session.getHost().getProtocol().getStatefulness())) {
+            final ThreadPool threads = ThreadPoolFactory.get("search", concurrency);
+            try {
+                final List<Future<Void>> tasks = new ArrayList<>();
+                for(int i = 0; i < concurrency; i++) {
+                    tasks.add(threads.execute(new Callable<Void>() {
+                        @Override
+                        public Void call() throws BackgroundException {
+                            if(null == pool) {
+                                // Connection can be shared by threads
+                                search(session, frontier);
+                                return null;
+                            }
+                            final Session<?> connection = borrow();
+                            BackgroundException failure = null;
+                            try {
+                                search(connection, frontier);
+                            }
+                            catch(BackgroundException e) {
+                                failure = e;
+                                throw e;
+                            }
+                            finally {
+                                pool.release(connection, failure);
+                            }
+                            return null;
+                        }
+                    }));
                 }
-                final AttributedList<Path> children = this.search(search, file);
-                list.addAll(children);
-                if(children.isEmpty()) {
-                    removal.add(file);
+                for(Future<Void> task : tasks) {
+                    try {
+                        task.get();
+                    }
+                    catch(InterruptedException e) {
+                        throw new ConnectionCanceledException(e);
+                    }
+                    catch(ExecutionException e) {
+                        if(e.getCause() instanceof BackgroundException) {
+                            throw (BackgroundException) e.getCause();
+                        }
+                        throw new DefaultExceptionMappingService().map(e.getCause());
+                    }
                 }
             }
+            finally {
+                threads.shutdown(false);
+            }
+        }
+        else {
+            this.search(session, frontier);
         }
-        cache.put(workdir, list);
-        return list.filter(new NullFilter<Path>() {
+        return frontier.result();
+    }
+
+    private Session<?> borrow() throws BackgroundException {
+        return pool.borrow(new BackgroundActionState() {
             @Override
-            public boolean accept(final Path file) {
-                return !removal.contains(file);
+            public boolean isCanceled() {
+                return SearchWorker.this.isCanceled();
+            }
+
+            @Override
+            public boolean isRunning() {
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Search folders taken from the frontier until no folder is left
+     */
+    private void search(final Session<?> session, final Frontier frontier) throws BackgroundException {
+        final Search search = session.getFeature(Search.class);
+        try {
+            Frontier.Entry next;
+            while((next = frontier.take()) != null) {
+                try {
+                    if(this.isCanceled()) {
+                        throw new ConnectionCanceledException();
+                    }
+                    final AttributedList<Path> list;
+                    if(cache.isCached(next.directory)) {
+                        list = cache.get(next.directory);
+                    }
+                    else {
+                        // Get filtered list from search
+                        list = search.search(next.directory, new RecursiveSearchFilter(filter), new WorkerListProgressListener(this, listener));
+                        cache.put(next.directory, list);
+                    }
+                    for(Path file : list) {
+                        if(file.isDirectory()) {
+                            if(log.isDebugEnabled()) {
+                                log.debug(String.format("Recursively search in %s", file));
+                            }
+                            frontier.add(file, next.depth + 1);
+                        }
+                        else if(filter.accept(file)) {
+                            frontier.found(file);
+                        }
+                    }
+                }
+                finally {
+                    frontier.done();
+                }
             }
-        }).filter(new RecursiveSearchFilter(filter));
+        }
+        catch(BackgroundException e) {
+            frontier.cancel();
+            throw e;
+        }
     }
 
     @Override
@@ -132,6 +245,107 @@ public class SearchWorker extends Worker<AttributedList<Path>> {
         return sb.toString();
     }
 
+    /**
+     * Folders pending to search shared by all threads. Folders are taken last in first out to search depth first.
+     */
+    private static final class Frontier {
+        private final Path root;
+        private final int limit;
+        private final int depth;
+
+        private final Deque<Entry> pending = new ArrayDeque<>();
+        private final Set<Path> found = new LinkedHashSet<>();
+        /**
+         * Number of folders pending or currently searched
+         */
+        private int outstanding;
+        private boolean cancel;
+
+        public Frontier(final Path root, final int limit, final int depth) {
+            this.root = root;
+            this.limit = limit;
+            this.depth = depth;
+        }
+
+        public synchronized void add(final Path directory, final int level) {
+            if(level > depth) {
+                log.warn(String.format("Skip searching %s below maximum depth %d", directory, depth));
+                return;
+            }
+            pending.push(new Entry(directory, level));
+            outstanding++;
+            this.notifyAll();
+        }
+
+        /**
+         * @return Next folder or null when search is complete
+         */
+        public synchronized Entry take() throws ConnectionCanceledException {
+            while(pending.isEmpty() && outstanding > 0 && !cancel) {
+                try {
+                    this.wait();
+                }
+                catch(InterruptedException e) {
+                    throw new ConnectionCanceledException(e);
+                }
+            }
+            if(cancel) {
+                return null;
+            }
+            return pending.poll();
+        }
+
+        /**
+         * Folder taken has been searched
+         */
+        public synchronized void done() {
+            outstanding--;
+            this.notifyAll();
+        }
+
+        public synchronized void found(final Path file) {
+            if(found.size() >= limit) {
+                return;
+            }
+            found.add(file);
+            if(found.size() >= limit) {
+                log.warn(String.format("Stop search with %d matches", found.size()));
+                this.cancel();
+            }
+        }
+
+        public synchronized void cancel() {
+            cancel = true;
+            this.notifyAll();
+        }
+
+        /**
+         * @return Matches with all parent folders below search root
+         */
+        public synchronized AttributedList<Path> result() {
+            final Set<Path> result = new LinkedHashSet<>();
+            for(Path file : found) {
+                for(Path parent = file.getParent(); parent.isChild(root); parent = parent.getParent()) {
+                    if(!result.add(parent)) {
+                        break;
+                    }
+                }
+                result.add(file);
+            }
+            return new AttributedList<>(result);
+        }
+
+        private static final class Entry {
+            private final Path directory;
+            private final int depth;
+
+            public Entry(final Path directory, final int depth) {
+                this.directory = directory;
+                this.depth = depth;
+            }
+        }
+    }
+
     private static final class RecursiveSearchFilter implements Filter<Path> {
         private final Filter<Path> filter;
 
@@ -2,6 +2,7 @@ package ch.cyberduck.core;
 
 import org.junit.Test;
 
+import java.util.Collections;
 import java.util.EnumSet;
 
 import static org.junit.Assert.*;
@@ -71,4 +72,37 @@ public class PathCacheTest {
         assertFalse(cache.containsKey(file));
         assertEquals(0, cache.size());
     }
+
+    @Test
+    public void testLookupIndex() {
+        final PathCache cache = new PathCache(1);
+        final Path directory = new Path("/p", EnumSet.of(Path.Type.directory));
+        final Path file = new Path(directory, "name", EnumSet.of(Path.Type.file));
+        cache.put(directory, new AttributedList<Path>(Collections.singletonList(file)));
+        assertSame(file, cache.lookup(new DefaultPathPredicate(new Path("/p/name", EnumSet.of(Path.Type.file)))));
+        // Replace listing
+        final Path replacement = new Path(directory, "replacement", EnumSet.of(Path.Type.file));
+        cache.put(directory, new AttributedList<Path>(Collections.singletonList(replacement)));
+        assertNull(cache.lookup(new DefaultPathPredicate(file)));
+        assertSame(replacement, cache.lookup(new DefaultPathPredicate(replacement)));
+        cache.remove(directory);
+        assertNull(cache.lookup(new DefaultPathPredicate(replacement)));
+        cache.put(directory, new AttributedList<Path>(Collections.singletonList(file)));
+        cache.clear();
+        assertNull(cache.lookup(new DefaultPathPredicate(file)));
+    }
+
+    @Test
+    public void testLookupEvicted() {
+        final PathCache cache = new PathCache(1);
+        final Path directory = new Path("/p", EnumSet.of(Path.Type.directory));
+        final Path file = new Path(directory, "name", EnumSet.of(Path.Type.file));
+        cache.put(directory, new AttributedList<Path>(Collections.singletonList(file)));
+        final Path other = new Path("/o", EnumSet.of(Path.Type.directory));
+        final Path child = new Path(other, "name", EnumSet.of(Path.Type.file));
+        cache.put(other, new AttributedList<Path>(Collections.singletonList(child)));
+        assertFalse(cache.isCached(directory));
+        assertNull(cache.lookup(new DefaultPathPredicate(file)));
+        assertSame(child, cache.lookup(new DefaultPathPredicate(child)));
+    }
 }
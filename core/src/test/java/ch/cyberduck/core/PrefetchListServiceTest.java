@@ -0,0 +1,64 @@
+package ch.cyberduck.core;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class PrefetchListServiceTest {
+
+    @Test
+    public void testListPrefetched() throws Exception {
+        final Path root = new Path("/r", EnumSet.of(Path.Type.directory));
+        final Path directory = new Path(root, "d", EnumSet.of(Path.Type.directory));
+        final Path file = new Path(directory, "f", EnumSet.of(Path.Type.file));
+        final AtomicInteger count = new AtomicInteger();
+        final Map<Path, AttributedList<Path>> prefetched = new HashMap<>();
+        final PrefetchListService service = new PrefetchListService(new ListService() {
+            @Override
+            public AttributedList<Path> list(final Path folder, final ListProgressListener listener) {
+                fail();
+                return null;
+            }
+        }, new RecursiveListService() {
+            @Override
+            public Map<Path, AttributedList<Path>> list(final Path folder, final ListProgressListener listener) {
+                count.incrementAndGet();
+                final Map<Path, AttributedList<Path>> listing = new HashMap<>();
+                listing.put(root, new AttributedList<>(Collections.singletonList(directory)));
+                listing.put(directory, new AttributedList<>(Collections.singletonList(file)));
+                return listing;
+            }
+        }, prefetched);
+        assertEquals(Collections.singletonList(directory), service.list(root, new DisabledListProgressListener()).toList());
+        assertEquals(1, prefetched.size());
+        assertEquals(Collections.singletonList(file), service.list(directory, new DisabledListProgressListener()).toList());
+        assertTrue(prefetched.isEmpty());
+        assertEquals(1, count.get());
+    }
+
+    @Test
+    public void testListUnsupported() throws Exception {
+        final Path root = new Path("/r", EnumSet.of(Path.Type.directory));
+        final Path file = new Path(root, "f", EnumSet.of(Path.Type.file));
+        final Map<Path, AttributedList<Path>> prefetched = new HashMap<>();
+        final PrefetchListService service = new PrefetchListService(new ListService() {
+            @Override
+            public AttributedList<Path> list(final Path directory, final ListProgressListener listener) {
+                return new AttributedList<>(Collections.singletonList(file));
+            }
+        }, new RecursiveListService() {
+            @Override
+            public Map<Path, AttributedList<Path>> list(final Path directory, final ListProgressListener listener) {
+                return null;
+            }
+        }, prefetched);
+        assertEquals(Collections.singletonList(file), service.list(root, new DisabledListProgressListener()).toList());
+        assertTrue(prefetched.isEmpty());
+    }
+}
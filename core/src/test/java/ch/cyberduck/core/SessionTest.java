@@ -0,0 +1,125 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.features.Move;
+import ch.cyberduck.core.features.Read;
+import ch.cyberduck.core.features.Timestamp;
+import ch.cyberduck.core.features.UnixPermission;
+import ch.cyberduck.core.features.Versioning;
+import ch.cyberduck.core.shared.DefaultTimestampFeature;
+import ch.cyberduck.core.shared.DefaultUnixPermissionFeature;
+import ch.cyberduck.core.transfer.TransferStatus;
+import ch.cyberduck.core.vault.VaultRegistry;
+
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import static org.junit.Assert.*;
+
+public class SessionTest {
+
+    @Test
+    public void testGetFeatureCached() {
+        final NullSession session = new NullSession(new Host(new TestProtocol()));
+        final Read read = session.getFeature(Read.class);
+        assertNotNull(read);
+        assertSame(read, session.getFeature(Read.class));
+        assertNull(session.getFeature(Versioning.class));
+        assertNull(session.getFeature(Versioning.class));
+        // Not cached
+        assertNotSame(session.getFeature(Move.class), session.getFeature(Move.class));
+    }
+
+    @Test
+    public void testCachedFeaturesStateless() {
+        final NullSession session = new NullSession(new Host(new TestProtocol()));
+        for(Class<?> type : Session.CACHEABLE) {
+            final Object feature = session.getFeature(type);
+            if(null == feature || feature == session) {
+                continue;
+            }
+            for(Class<?> c = feature.getClass(); c != Object.class; c = c.getSuperclass()) {
+                for(Field field : c.getDeclaredFields()) {
+                    if(Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+                        continue;
+                    }
+                    assertTrue(String.format("Mutable field %s in cached %s", field, type),
+                        Modifier.isFinal(field.getModifiers()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFeaturesRememberingFailureNotCached() {
+        final NullSession session = new NullSession(new Host(new TestProtocol())) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T _getFeature(final Class<T> type) {
+                if(type == Timestamp.class) {
+                    return (T) new DefaultTimestampFeature() {
+                        @Override
+                        public void setTimestamp(final Path file, final TransferStatus status) {
+                            //
+                        }
+                    };
+                }
+                if(type == UnixPermission.class) {
+                    return (T) new DefaultUnixPermissionFeature() {
+                        @Override
+                        public void setUnixOwner(final Path file, final String owner) {
+                            //
+                        }
+
+                        @Override
+                        public void setUnixGroup(final Path file, final String group) {
+                            //
+                        }
+
+                        @Override
+                        public Permission getUnixPermission(final Path file) {
+                            return Permission.EMPTY;
+                        }
+
+                        @Override
+                        public void setUnixPermission(final Path file, final Permission permission) {
+                            //
+                        }
+                    };
+                }
+                return super._getFeature(type);
+            }
+        };
+        assertFalse(Session.CACHEABLE.contains(Timestamp.class));
+        assertFalse(Session.CACHEABLE.contains(UnixPermission.class));
+        assertNotSame(session.getFeature(Timestamp.class), session.getFeature(Timestamp.class));
+        assertNotSame(session.getFeature(UnixPermission.class), session.getFeature(UnixPermission.class));
+    }
+
+    @Test
+    public void testInvalidate() {
+        final NullSession session = new NullSession(new Host(new TestProtocol()));
+        final Read read = session.getFeature(Read.class);
+        session.invalidate();
+        assertNotSame(read, session.getFeature(Read.class));
+        final Read registry = session.getFeature(Read.class);
+        session.withRegistry(VaultRegistry.DISABLED);
+        assertNotSame(registry, session.getFeature(Read.class));
+    }
+}
@@ -0,0 +1,119 @@
+package ch.cyberduck.core;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.features.Encryption;
+import ch.cyberduck.core.transfer.TransferItem;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SwapTransferItemCacheTest {
+
+    @Test
+    public void testSwap() {
+        final SwapTransferItemCache cache = new SwapTransferItemCache(1);
+        final TransferItem directory1 = new TransferItem(new Path("/d1", EnumSet.of(Path.Type.directory)), new Local("/l/d1"));
+        final TransferItem directory2 = new TransferItem(new Path("/d2", EnumSet.of(Path.Type.directory)), new Local("/l/d2"));
+        final AttributedList<TransferItem> children = new AttributedList<>();
+        final Path file = new Path("/d1/f", EnumSet.of(Path.Type.file));
+        file.attributes().setSize(5L);
+        children.add(new TransferItem(file, new Local("/l/d1/f")));
+        cache.put(directory1, children);
+        cache.put(directory2, new AttributedList<>());
+        assertEquals(2L, cache.size());
+        assertTrue(cache.isCached(directory1));
+        assertTrue(cache.isCached(directory2));
+        final AttributedList<TransferItem> swapped = cache.get(directory1);
+        assertEquals(1, swapped.size());
+        assertEquals(file, swapped.get(0).remote);
+        assertEquals(5L, swapped.get(0).remote.attributes().getSize());
+        assertEquals(new Local("/l/d1/f"), swapped.get(0).local);
+        cache.remove(directory1);
+        assertFalse(cache.isCached(directory1));
+        assertTrue(cache.get(directory1).isEmpty());
+        cache.clear();
+        assertTrue(cache.isEmpty());
+    }
+    @Test
+    public void testSwapAttributes() {
+        final SwapTransferItemCache cache = new SwapTransferItemCache(1);
+        final TransferItem directory1 = new TransferItem(new Path("/d1", EnumSet.of(Path.Type.directory)), new Local("/l/d1"));
+        final AttributedList<TransferItem> children = new AttributedList<>();
+        final Path file = new Path("/d1/f", EnumSet.of(Path.Type.file));
+        file.attributes().setMetadata(Collections.singletonMap("Content-Type", "text/plain"));
+        file.attributes().setStorageClass("GLACIER");
+        file.attributes().setEncryption(new Encryption.Algorithm("aws:kms", "arn"));
+        file.attributes().setCustom(Collections.singletonMap("k", "v"));
+        file.attributes().setRegion("eu-west-1");
+        file.attributes().setOwner("o");
+        file.attributes().setGroup("g");
+        file.attributes().setCreationDate(1L);
+        children.add(new TransferItem(file, new Local("/l/d1/f")));
+        cache.put(directory1, children);
+        cache.put(new TransferItem(new Path("/d2", EnumSet.of(Path.Type.directory)), new Local("/l/d2")), new AttributedList<>());
+        final PathAttributes swapped = cache.get(directory1).get(0).remote.attributes();
+        assertEquals(Collections.singletonMap("Content-Type", "text/plain"), swapped.getMetadata());
+        assertEquals("GLACIER", swapped.getStorageClass());
+        assertEquals(new Encryption.Algorithm("aws:kms", "arn"), swapped.getEncryption());
+        assertEquals(Collections.singletonMap("k", "v"), swapped.getCustom());
+        assertEquals("eu-west-1", swapped.getRegion());
+        assertEquals("o", swapped.getOwner());
+        assertEquals("g", swapped.getGroup());
+        assertEquals(1L, swapped.getCreationDate());
+        cache.clear();
+    }
+
+    @Test
+    public void testConcurrentEviction() throws Exception {
+        final SwapTransferItemCache cache = new SwapTransferItemCache(2);
+        final int count = 200;
+        final AtomicInteger written = new AtomicInteger();
+        final AtomicBoolean missing = new AtomicBoolean();
+        final Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for(int i = 0; i < count; i++) {
+                    final AttributedList<TransferItem> children = new AttributedList<>();
+                    children.add(new TransferItem(new Path(String.format("/d%d/f", i), EnumSet.of(Path.Type.file)), new Local(String.format("/l/d%d/f", i))));
+                    cache.put(new TransferItem(new Path(String.format("/d%d", i), EnumSet.of(Path.Type.directory)), new Local(String.format("/l/d%d", i))), children);
+                    written.incrementAndGet();
+                }
+            }
+        });
+        writer.start();
+        while(writer.isAlive()) {
+            final int limit = written.get();
+            for(int i = Math.max(0, limit - 4); i < limit; i++) {
+                final TransferItem directory = new TransferItem(new Path(String.format("/d%d", i), EnumSet.of(Path.Type.directory)), new Local(String.format("/l/d%d", i)));
+                // Evicted listing must be found while written to disk
+                if(cache.get(directory).isEmpty()) {
+                    missing.set(true);
+                }
+            }
+        }
+        writer.join();
+        assertFalse(missing.get());
+        assertEquals(count, cache.size());
+        cache.clear();
+    }
+}
@@ -0,0 +1,130 @@
+package ch.cyberduck.core.cache;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.Filter;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.Path;
+
+import org.junit.Test;
+
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+public class PathIdIndexTest {
+
+    @Test
+    public void testRemoveDescendants() {
+        final PathIdIndex index = new PathIdIndex();
+        final Path folder = new Path("/a", EnumSet.of(Path.Type.directory));
+        final Path sibling = new Path("/ab", EnumSet.of(Path.Type.directory));
+        final Path child = new Path(folder, "f", EnumSet.of(Path.Type.file));
+        final Path nested = new Path(new Path(folder, "d", EnumSet.of(Path.Type.directory)), "f", EnumSet.of(Path.Type.file));
+        index.put(folder, "1");
+        index.put(sibling, "2");
+        index.put(child, "3");
+        index.put(nested, "4");
+        assertEquals("3", index.get(child));
+        index.put(folder, null);
+        assertNull(index.get(folder));
+        assertNull(index.get(child));
+        assertNull(index.get(nested));
+        assertEquals("2", index.get(sibling));
+        index.remove(new Path("/", EnumSet.of(Path.Type.directory)));
+        assertEquals(0L, index.size());
+    }
+
+    @Test
+    public void testPutListing() {
+        final PathIdIndex index = new PathIdIndex();
+        final Path folder = new Path("/a", EnumSet.of(Path.Type.directory));
+        final AttributedList<Path> list = new AttributedList<>();
+        list.add(new Path(folder, "f", EnumSet.of(Path.Type.file)));
+        list.add(new Path(folder, "d", EnumSet.of(Path.Type.directory)));
+        list.get(0).attributes().setFileId("1");
+        index.put(list, file -> file.attributes().getFileId());
+        assertEquals("1", index.get(new Path(folder, "f", EnumSet.of(Path.Type.file))));
+        assertNull(index.get(new Path(folder, "f", EnumSet.of(Path.Type.directory))));
+        assertNull(index.get(new Path(folder, "d", EnumSet.of(Path.Type.directory))));
+    }
+
+    @Test
+    public void testPersist() throws Exception {
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final PathIdIndex index = new PathIdIndex(file);
+        final Path test = new Path("/a/f", EnumSet.of(Path.Type.file));
+        index.put(test, "1");
+        index.clear();
+        assertTrue(file.exists());
+        assertEquals("1", new PathIdIndex(file).get(test));
+        assertEquals("1", index.get(test));
+        file.delete();
+    }
+
+    @Test
+    public void testInvalidatePersisted() throws Exception {
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final PathIdIndex index = new PathIdIndex(file);
+        final Path folder = new Path("/a", EnumSet.of(Path.Type.directory));
+        final Path test = new Path(folder, "f", EnumSet.of(Path.Type.file));
+        final Path other = new Path("/b/f", EnumSet.of(Path.Type.file));
+        index.put(folder, "1");
+        index.put(test, "2");
+        index.put(other, "3");
+        // Not saved in previous session
+        assertFalse(index.invalidate(test));
+        index.clear();
+        final PathIdIndex saved = new PathIdIndex(file);
+        saved.put(other, "4");
+        // Confirmed in this session
+        assertFalse(saved.invalidate(other));
+        assertTrue(saved.invalidate(test));
+        assertNull(saved.get(test));
+        assertNull(saved.get(folder));
+        assertEquals("4", saved.get(other));
+        assertFalse(saved.invalidate(test));
+        file.delete();
+    }
+
+    @Test
+    public void testSaveReplacesFile() throws Exception {
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final Path test = new Path("/a/f", EnumSet.of(Path.Type.file));
+        final PathIdIndex first = new PathIdIndex(file);
+        first.put(test, "1");
+        final PathIdIndex second = new PathIdIndex(file);
+        second.put(test, "2");
+        first.clear();
+        second.clear();
+        assertEquals("2", new PathIdIndex(file).get(test));
+        assertEquals(1, file.getParent().list(new Filter<String>() {
+            @Override
+            public boolean accept(final String name) {
+                return name.startsWith(file.getName());
+            }
+
+            @Override
+            public Pattern toPattern() {
+                return null;
+            }
+        }).size());
+        file.delete();
+    }
+}
@@ -0,0 +1,212 @@
+package ch.cyberduck.core.http;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.exception.InteroperabilityException;
+import ch.cyberduck.core.io.BandwidthThrottle;
+import ch.cyberduck.core.io.DisabledStreamListener;
+import ch.cyberduck.core.io.StreamCopier;
+import ch.cyberduck.core.io.StreamListener;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.lang3.RandomUtils;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import static org.junit.Assert.*;
+
+public class DeferredHttpResponseOutputStreamTest {
+
+    @Test
+    public void testUploadOnCallingThread() throws Exception {
+        final byte[] content = RandomUtils.nextBytes(100000);
+        final ByteArrayOutputStream received = new ByteArrayOutputStream();
+        final AtomicReference<Thread> thread = new AtomicReference<>();
+        final TransferStatus status = new TransferStatus().withLength(content.length);
+        final DeferredHttpResponseOutputStream<String> out = new DeferredHttpResponseOutputStream<>(status, new DelayedHttpEntityCallable<String>() {
+            @Override
+            public String call(final AbstractHttpEntity entity) throws BackgroundException {
+                thread.set(Thread.currentThread());
+                assertEquals(content.length, entity.getContentLength());
+                assertFalse(entity.isRepeatable());
+                try {
+                    entity.writeTo(received);
+                }
+                catch(IOException e) {
+                    throw new InteroperabilityException(e.getMessage(), e);
+                }
+                return "etag";
+            }
+
+            @Override
+            public long getContentLength() {
+                return status.getLength();
+            }
+        }, new DelayedHttpEntity() {
+            @Override
+            public long getContentLength() {
+                return status.getLength();
+            }
+        });
+        final AtomicLong sent = new AtomicLong();
+        final StreamListener listener = new DisabledStreamListener() {
+            @Override
+            public void sent(final long bytes) {
+                sent.addAndGet(bytes);
+            }
+        };
+        assertEquals("etag", out.upload(new ByteArrayInputStream(content),
+            new StreamCopier(status, status).withLimit(status.getLength()).withListener(listener),
+            new BandwidthThrottle(BandwidthThrottle.UNLIMITED)));
+        assertSame(Thread.currentThread(), thread.get());
+        assertArrayEquals(content, received.toByteArray());
+        assertEquals(content.length, sent.get());
+        assertTrue(status.isComplete());
+        assertEquals("etag", out.getStatus());
+    }
+
+    @Test
+    public void testWriteOnSharedThread() throws Exception {
+        final byte[] content = RandomUtils.nextBytes(1000);
+        final ByteArrayOutputStream received = new ByteArrayOutputStream();
+        final AtomicReference<Thread> thread = new AtomicReference<>();
+        final TransferStatus status = new TransferStatus().withLength(content.length);
+        final DeferredHttpResponseOutputStream<String> out = new DeferredHttpResponseOutputStream<>(status, new DelayedHttpEntityCallable<String>() {
+            @Override
+            public String call(final AbstractHttpEntity entity) throws BackgroundException {
+                thread.set(Thread.currentThread());
+                try {
+                    entity.writeTo(received);
+                }
+                catch(IOException e) {
+                    throw new InteroperabilityException(e.getMessage(), e);
+                }
+                return "etag";
+            }
+
+            @Override
+            public long getContentLength() {
+                return status.getLength();
+            }
+        }, new DelayedHttpEntity() {
+            @Override
+            public long getContentLength() {
+                return status.getLength();
+            }
+        });
+        // Request not sent before writing
+        assertNull(thread.get());
+        out.write(content);
+        out.close();
+        assertEquals("etag", out.getStatus());
+        assertNotSame(Thread.currentThread(), thread.get());
+        assertArrayEquals(content, received.toByteArray());
+    }
+
+    @Test(expected = ConnectionCanceledException.class)
+    public void testUploadCanceled() throws Exception {
+        final TransferStatus status = new TransferStatus().withLength(1000L);
+        final DeferredHttpResponseOutputStream<String> out = new DeferredHttpResponseOutputStream<>(status, new DelayedHttpEntityCallable<String>() {
+            @Override
+            public String call(final AbstractHttpEntity entity) throws BackgroundException {
+                try {
+                    status.setCanceled();
+                    entity.writeTo(new ByteArrayOutputStream());
+                }
+                catch(IOException e) {
+                    // Failure of request mapped by backend
+                    throw new InteroperabilityException(e.getMessage(), e);
+                }
+                return "etag";
+            }
+
+            @Override
+            public long getContentLength() {
+                return status.getLength();
+            }
+        }, new DelayedHttpEntity() {
+            @Override
+            public long getContentLength() {
+                return status.getLength();
+            }
+        });
+        final InputStream in = new ByteArrayInputStream(new byte[1000]);
+        out.upload(in, new StreamCopier(status, status), new BandwidthThrottle(BandwidthThrottle.UNLIMITED));
+    }
+
+    @Test(expected = ConnectionCanceledException.class)
+    public void testStartCanceledWhileQueued() throws Exception {
+        // Occupy all shared threads
+        final CountDownLatch busy = new CountDownLatch(1);
+        for(int i = 0; i < PreferencesFactory.get().getInteger("http.upload.pool.size.max"); i++) {
+            HttpUploadExecutor.execute(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    Uninterruptibles.awaitUninterruptibly(busy);
+                    return null;
+                }
+            });
+        }
+        final TransferStatus status = new TransferStatus().withLength(1000L);
+        final DeferredHttpResponseOutputStream<String> out = new DeferredHttpResponseOutputStream<>(status, new DelayedHttpEntityCallable<String>() {
+            @Override
+            public String call(final AbstractHttpEntity entity) {
+                fail();
+                return null;
+            }
+
+            @Override
+            public long getContentLength() {
+                return status.getLength();
+            }
+        }, new DelayedHttpEntity() {
+            @Override
+            public long getContentLength() {
+                return status.getLength();
+            }
+        });
+        final Thread cancel = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Uninterruptibles.sleepUninterruptibly(500L, TimeUnit.MILLISECONDS);
+                status.setCanceled();
+            }
+        });
+        cancel.start();
+        try {
+            out.start();
+        }
+        finally {
+            busy.countDown();
+            cancel.join();
+        }
+    }
+}
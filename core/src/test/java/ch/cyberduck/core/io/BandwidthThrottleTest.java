@@ -0,0 +1,92 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BandwidthThrottleTest {
+
+    @Test
+    public void testUnlimited() {
+        final BandwidthThrottle throttle = new BandwidthThrottle(BandwidthThrottle.UNLIMITED);
+        assertEquals(BandwidthThrottle.UNLIMITED, throttle.getRate(), 0f);
+        assertEquals(32768, throttle.request(32768));
+    }
+
+    @Test
+    public void testRequest() {
+        final BandwidthThrottle throttle = new BandwidthThrottle(1000f);
+        // Bytes allowed per tick
+        assertEquals(100, throttle.request(32768));
+        assertEquals(10, throttle.request(10));
+        throttle.setRate(-1f);
+        assertEquals(BandwidthThrottle.UNLIMITED, throttle.getRate(), 0f);
+        assertEquals(32768, throttle.request(32768));
+    }
+
+    @Test
+    public void testRate() {
+        final BandwidthThrottle throttle = new BandwidthThrottle(10000f);
+        final long start = System.nanoTime();
+        long total = 0L;
+        while(total < 5000L) {
+            total += throttle.request(32768);
+        }
+        final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        // Burst of one tick allowed
+        assertTrue(elapsed >= 350L);
+    }
+
+    @Test
+    public void testParent() {
+        final BandwidthThrottle global = new BandwidthThrottle(1000f);
+        final BandwidthThrottle transfer = new BandwidthThrottle(global, BandwidthThrottle.UNLIMITED);
+        final BandwidthThrottle connection = new BandwidthThrottle(transfer, 500f);
+        assertEquals(50, connection.request(32768));
+        assertEquals(100, transfer.request(32768));
+        global.setRate(BandwidthThrottle.UNLIMITED);
+        assertEquals(32768, transfer.request(32768));
+        assertEquals(50, connection.request(32768));
+    }
+
+    @Test
+    public void testFairShare() throws Exception {
+        final BandwidthThrottle throttle = new BandwidthThrottle(20000f);
+        final AtomicLong first = new AtomicLong();
+        final AtomicLong second = new AtomicLong();
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(500L);
+        final CountDownLatch done = new CountDownLatch(2);
+        for(AtomicLong counter : new AtomicLong[]{first, second}) {
+            new Thread(() -> {
+                while(System.nanoTime() < deadline) {
+                    counter.addAndGet(throttle.request(32768));
+                }
+                done.countDown();
+            }).start();
+        }
+        assertTrue(done.await(10L, TimeUnit.SECONDS));
+        assertTrue(Math.abs(first.get() - second.get()) <= 4000L);
+        // Sum of both streams limited by shared throttle with burst of one tick
+        assertTrue(first.get() + second.get() <= 20000L / 2 + 2000L + 4000L);
+    }
+}
@@ -0,0 +1,120 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.exception.AccessDeniedException;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.RandomUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ChecksumCacheTest {
+
+    @Test
+    public void testCompute() throws Exception {
+        final Local cache = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random()) {
+            final AtomicInteger reads = new AtomicInteger();
+
+            @Override
+            public InputStream getInputStream() throws AccessDeniedException {
+                assertEquals(1, reads.incrementAndGet());
+                return super.getInputStream();
+            }
+        };
+        try {
+            final byte[] bytes = RandomUtils.nextBytes(1000);
+            try (OutputStream out = file.getOutputStream(false)) {
+                IOUtils.write(bytes, out);
+            }
+            assertEquals(new Checksum(HashAlgorithm.sha256, DigestUtils.sha256Hex(bytes)),
+                new ChecksumCache(HashAlgorithm.sha256, cache, 16).compute(file));
+            // Read from cache file without reading file contents again
+            assertEquals(new Checksum(HashAlgorithm.sha256, DigestUtils.sha256Hex(bytes)),
+                new ChecksumCache(HashAlgorithm.sha256, cache, 16).compute(file));
+        }
+        finally {
+            file.delete();
+            cache.delete();
+        }
+    }
+
+    @Test
+    public void testChanged() throws Exception {
+        final Local cache = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        try {
+            final ChecksumCache service = new ChecksumCache(HashAlgorithm.md5, cache, 16);
+            try (OutputStream out = file.getOutputStream(false)) {
+                IOUtils.write("a", out, StandardCharsets.UTF_8);
+            }
+            assertEquals(DigestUtils.md5Hex("a"), service.compute(file).hash);
+            try (OutputStream out = file.getOutputStream(false)) {
+                IOUtils.write("ab", out, StandardCharsets.UTF_8);
+            }
+            assertEquals(DigestUtils.md5Hex("ab"), service.compute(file).hash);
+        }
+        finally {
+            file.delete();
+            cache.delete();
+        }
+    }
+
+    @Test
+    public void testFindCollision() throws Exception {
+        final Local cache = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        try {
+            final ChecksumCache service = new ChecksumCache(HashAlgorithm.crc32, cache, 4);
+            for(int i = 0; i < 4; i++) {
+                service.put(String.format("/f%d", i), 1L, 1L, new Checksum(HashAlgorithm.crc32, String.valueOf(i)));
+            }
+            for(int i = 0; i < 4; i++) {
+                assertEquals(String.valueOf(i), service.find(String.format("/f%d", i), 1L, 1L).hash);
+            }
+            assertNull(service.find("/f0", 2L, 1L));
+            assertNull(service.find("/f0", 1L, 2L));
+            assertNull(service.find("/f4", 1L, 1L));
+        }
+        finally {
+            cache.delete();
+        }
+    }
+
+    @Test
+    public void testKeyExceedingMaximumLength() throws Exception {
+        final Local cache = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        try {
+            final ChecksumCache service = new ChecksumCache(HashAlgorithm.crc32, cache, 4);
+            final String key = StringUtils.repeat("a", 2048);
+            service.put(key, 1L, 1L, new Checksum(HashAlgorithm.crc32, "a"));
+            assertNull(service.find(key, 1L, 1L));
+        }
+        finally {
+            cache.delete();
+        }
+    }
+}
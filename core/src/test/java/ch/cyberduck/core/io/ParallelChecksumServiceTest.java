@@ -0,0 +1,165 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.exception.ChecksumException;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.RandomUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+
+public class ParallelChecksumServiceTest {
+
+    @Test
+    public void testDigest() throws Exception {
+        final byte[] bytes = RandomUtils.nextBytes(100000);
+        final Local file = this.create(bytes);
+        try (FileChannel channel = new RandomAccessFile(file.getAbsolute(), "r").getChannel()) {
+            for(boolean mapped : new boolean[]{false, true}) {
+                // Region smaller than length
+                final ParallelChecksumService service = new ParallelChecksumService(new ForkJoinPool(2), 4096L, mapped);
+                assertEquals(DigestUtils.sha256Hex(bytes), Hex.encodeHexString(service.digest("SHA-256", channel, 0L, bytes.length)));
+                assertEquals(DigestUtils.md5Hex(Arrays.copyOfRange(bytes, 10, 50010)),
+                    Hex.encodeHexString(service.digest("MD5", channel, 10L, 50000L)));
+                assertEquals(0L, channel.position());
+            }
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testSegments() throws Exception {
+        final byte[] bytes = RandomUtils.nextBytes(100000);
+        final Local file = this.create(bytes);
+        try (FileChannel channel = new RandomAccessFile(file.getAbsolute(), "r").getChannel()) {
+            for(boolean mapped : new boolean[]{false, true}) {
+                final List<Checksum> segments = new ParallelChecksumService(new ForkJoinPool(4), 4096L, mapped)
+                    .segments(HashAlgorithm.sha1, channel, bytes.length, 30000L);
+                assertEquals(4, segments.size());
+                for(int i = 0; i < segments.size(); i++) {
+                    assertEquals(new Checksum(HashAlgorithm.sha1, DigestUtils.sha1Hex(Arrays.copyOfRange(bytes, i * 30000,
+                        Math.min(bytes.length, (i + 1) * 30000)))), segments.get(i));
+                }
+            }
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testEtag() throws Exception {
+        final byte[] bytes = RandomUtils.nextBytes(100000);
+        final Local file = this.create(bytes);
+        try (FileChannel channel = new RandomAccessFile(file.getAbsolute(), "r").getChannel()) {
+            final ByteArrayOutputStream concat = new ByteArrayOutputStream();
+            concat.write(DigestUtils.md5(Arrays.copyOfRange(bytes, 0, 60000)));
+            concat.write(DigestUtils.md5(Arrays.copyOfRange(bytes, 60000, 100000)));
+            assertEquals(String.format("%s-2", DigestUtils.md5Hex(concat.toByteArray())),
+                new ParallelChecksumService().etag(channel, bytes.length, 60000L).hash);
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testContentHash() throws Exception {
+        final byte[] bytes = RandomUtils.nextBytes((int) ParallelChecksumService.DROPBOX_BLOCK_SIZE + 1024);
+        final Local file = this.create(bytes);
+        try (FileChannel channel = new RandomAccessFile(file.getAbsolute(), "r").getChannel()) {
+            final ByteArrayOutputStream concat = new ByteArrayOutputStream();
+            concat.write(DigestUtils.sha256(Arrays.copyOfRange(bytes, 0, (int) ParallelChecksumService.DROPBOX_BLOCK_SIZE)));
+            concat.write(DigestUtils.sha256(Arrays.copyOfRange(bytes, (int) ParallelChecksumService.DROPBOX_BLOCK_SIZE, bytes.length)));
+            assertEquals(DigestUtils.sha256Hex(concat.toByteArray()),
+                new ParallelChecksumService().content(channel, bytes.length).hash);
+            assertEquals(DigestUtils.sha256Hex(new byte[0]), new ParallelChecksumService().content(channel, 0L).hash);
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test(expected = ChecksumException.class)
+    public void testSegmentsTruncated() throws Exception {
+        final byte[] bytes = RandomUtils.nextBytes(1000);
+        final Local file = this.create(bytes);
+        try (FileChannel channel = new RandomAccessFile(file.getAbsolute(), "r").getChannel()) {
+            new ParallelChecksumService(new ForkJoinPool(2), 4096L, false).segments(HashAlgorithm.sha1, channel, 2000L, 500L);
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testChecksumCompute() throws Exception {
+        final byte[] bytes = RandomUtils.nextBytes(2 * 1024 * 1024 + 3);
+        final Local file = this.create(bytes);
+        try {
+            assertEquals(DigestUtils.sha1Hex(bytes),
+                new SHA1ChecksumCompute().compute(file.getInputStream(), new TransferStatus()).hash);
+            assertEquals(DigestUtils.md5Hex(Arrays.copyOfRange(bytes, 1, 1024 * 1024 + 2)),
+                new MD5ChecksumCompute().compute(file.getInputStream(), new TransferStatus().withOffset(1L).withLength(1024 * 1024 + 1)).hash);
+            // Stream read with own digest implementation
+            assertEquals(DigestUtils.md5Hex(Arrays.copyOfRange(bytes, 1, 1024 * 1024 + 2)),
+                new MD5FastChecksumCompute().compute(file.getInputStream(), new TransferStatus().withOffset(1L).withLength(1024 * 1024 + 1)).hash);
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testMappedReleased() throws Exception {
+        final byte[] bytes = RandomUtils.nextBytes(100000);
+        final Local file = this.create(bytes);
+        try (RandomAccessFile random = new RandomAccessFile(file.getAbsolute(), "rw")) {
+            new ParallelChecksumService(new ForkJoinPool(2), 4096L, true).digest("SHA-1", random.getChannel(), 0L, bytes.length);
+            // Fails on Windows with live mapping
+            random.setLength(10L);
+            assertEquals(10L, random.length());
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    private Local create(final byte[] bytes) throws Exception {
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        try (OutputStream out = file.getOutputStream(false)) {
+            IOUtils.write(bytes, out);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,125 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.local.DefaultLocalDirectoryFeature;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.RandomUtils;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class SegmentedFileChannelTest {
+
+    @Test
+    public void testWriteInPlace() throws Exception {
+        final byte[] bytes = RandomUtils.nextBytes(3000);
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        try {
+            SegmentedFileChannel.allocate(file, 3, bytes.length);
+            assertEquals(bytes.length, file.attributes().getSize());
+            assertTrue(SegmentedFileChannel.state(file).exists());
+            assertArrayEquals(new long[3], SegmentedFileChannel.progress(file));
+            final OutputStream second = SegmentedFileChannel.open(file).getOutputStream(2, 1000L);
+            final OutputStream first = SegmentedFileChannel.open(file).getOutputStream(1, 0L);
+            final OutputStream third = SegmentedFileChannel.open(file).getOutputStream(3, 2000L);
+            IOUtils.write(Arrays.copyOfRange(bytes, 2000, 3000), third);
+            IOUtils.write(Arrays.copyOfRange(bytes, 0, 500), first);
+            IOUtils.write(Arrays.copyOfRange(bytes, 1000, 2000), second);
+            third.close();
+            second.close();
+            first.close();
+            assertArrayEquals(new long[]{500L, 2000L, 3000L}, SegmentedFileChannel.progress(file));
+            // Resume first segment
+            try (OutputStream out = SegmentedFileChannel.open(file).getOutputStream(1, 500L)) {
+                IOUtils.write(Arrays.copyOfRange(bytes, 500, 1000), out);
+            }
+            assertArrayEquals(new long[]{1000L, 2000L, 3000L}, SegmentedFileChannel.progress(file));
+            assertArrayEquals(bytes, IOUtils.toByteArray(file.getInputStream()));
+            SegmentedFileChannel.complete(file);
+            assertFalse(SegmentedFileChannel.state(file).exists());
+            assertNull(SegmentedFileChannel.progress(file));
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testCheckpointWrittenToState() throws Exception {
+        final byte[] bytes = RandomUtils.nextBytes(9 * 1024 * 1024);
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        try {
+            SegmentedFileChannel.allocate(file, 2, bytes.length * 2L);
+            final OutputStream first = SegmentedFileChannel.open(file).getOutputStream(1, 0L);
+            final OutputStream second = SegmentedFileChannel.open(file).getOutputStream(2, bytes.length);
+            IOUtils.write(bytes, second);
+            // Position recorded in state file while channel is still open
+            assertArrayEquals(new long[]{0L, bytes.length * 2L}, SegmentedFileChannel.progress(file));
+            second.close();
+            first.close();
+            SegmentedFileChannel.complete(file);
+            assertFalse(SegmentedFileChannel.state(file).exists());
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testAllocateWithLegacySegmentsFolder() throws Exception {
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        final Local folder = new Local(file.getParent(), String.format("%s.cyberducksegment", file.getName()));
+        try {
+            new DefaultLocalDirectoryFeature().mkdir(folder);
+            SegmentedFileChannel.allocate(file, 2, 20L);
+            assertTrue(SegmentedFileChannel.state(file).isFile());
+            assertArrayEquals(new long[2], SegmentedFileChannel.progress(file));
+            assertTrue(folder.isDirectory());
+        }
+        finally {
+            SegmentedFileChannel.complete(file);
+            file.delete();
+            folder.delete();
+        }
+    }
+
+    @Test
+    public void testAllocateKeepsProgress() throws Exception {
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        try {
+            SegmentedFileChannel.allocate(file, 2, 20L);
+            try (OutputStream out = SegmentedFileChannel.open(file).getOutputStream(2, 10L)) {
+                out.write(1);
+            }
+            SegmentedFileChannel.allocate(file, 2, 20L);
+            assertArrayEquals(new long[]{0L, 11L}, SegmentedFileChannel.progress(file));
+            // Reset for different number of segments
+            SegmentedFileChannel.allocate(file, 4, 20L);
+            assertArrayEquals(new long[4], SegmentedFileChannel.progress(file));
+        }
+        finally {
+            SegmentedFileChannel.complete(file);
+            file.delete();
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package ch.cyberduck.core.io;
 
+import ch.cyberduck.core.AlphanumericRandomStringService;
 import ch.cyberduck.core.BytecountStreamListener;
+import ch.cyberduck.core.Local;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.transfer.TransferStatus;
@@ -8,14 +10,27 @@ import ch.cyberduck.core.transfer.TransferStatus;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.input.NullInputStream;
 import org.apache.commons.io.output.NullOutputStream;
+import org.apache.commons.lang3.RandomUtils;
 import org.apache.commons.text.RandomStringGenerator;
 import org.junit.Test;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
 
@@ -185,4 +200,184 @@ public class StreamCopierTest {
         assertEquals(32768L, count.getSent());
         assertEquals(0L, status.getOffset());
     }
+
+    @Test
+    public void testTransferFileChannel() throws Exception {
+        final byte[] bytes = RandomUtils.nextBytes(39865);
+        final Local source = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        final Local target = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        try {
+            try(OutputStream out = source.getOutputStream(false)) {
+                IOUtils.write(bytes, out);
+            }
+            final TransferStatus status = new TransferStatus();
+            final BytecountStreamListener count = new BytecountStreamListener();
+            new StreamCopier(status, status).withOffset(1L).withLimit(39863L).withListener(count).transfer(
+                new ThrottledInputStream(source.getInputStream(), new BandwidthThrottle(BandwidthThrottle.UNLIMITED)),
+                new ThrottledOutputStream(new VoidStatusOutputStream(target.getOutputStream(false)), new BandwidthThrottle(BandwidthThrottle.UNLIMITED)));
+            assertEquals(39863L, count.getRecv());
+            assertEquals(39863L, count.getSent());
+            assertTrue(status.isComplete());
+            assertArrayEquals(Arrays.copyOfRange(bytes, 1, 39864), IOUtils.toByteArray(target.getInputStream()));
+        }
+        finally {
+            source.delete();
+            target.delete();
+        }
+    }
+
+    @Test
+    public void testTransferFileChannelAppend() throws Exception {
+        final byte[] bytes = RandomUtils.nextBytes(39865);
+        final Local source = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        final Local target = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        try {
+            try(OutputStream out = source.getOutputStream(false)) {
+                IOUtils.write(bytes, out);
+            }
+            try(OutputStream out = target.getOutputStream(false)) {
+                IOUtils.write(Arrays.copyOfRange(bytes, 0, 100), out);
+            }
+            final TransferStatus status = new TransferStatus();
+            final BytecountStreamListener count = new BytecountStreamListener();
+            new StreamCopier(status, status).withOffset(100L).withListener(count).transfer(source.getInputStream(), target.getOutputStream(true));
+            assertEquals(39765L, count.getRecv());
+            assertEquals(39765L, count.getSent());
+            assertTrue(status.isComplete());
+            assertArrayEquals(bytes, IOUtils.toByteArray(target.getInputStream()));
+        }
+        finally {
+            source.delete();
+            target.delete();
+        }
+    }
+
+    @Test
+    public void testTransferFileChannelNoProgress() throws Exception {
+        final byte[] bytes = RandomUtils.nextBytes(39865);
+        final Local source = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        final Local target = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        try {
+            try(OutputStream out = source.getOutputStream(false)) {
+                IOUtils.write(bytes, out);
+            }
+            final TransferStatus status = new TransferStatus();
+            final BytecountStreamListener count = new BytecountStreamListener();
+            try(FileChannel channel = FileChannel.open(Paths.get(source.getAbsolute()), StandardOpenOption.READ)) {
+                // Transfer first 1000 bytes only
+                final AtomicInteger calls = new AtomicInteger();
+                new StreamCopier(status, status).withOffset(1L).withLimit(39863L).withListener(count).transfer(
+                    new FileChannelInputStream(new NoProgressFileChannel(channel, calls)), target.getOutputStream(false));
+                assertEquals(2, calls.get());
+            }
+            assertEquals(39863L, count.getRecv());
+            assertEquals(39863L, count.getSent());
+            assertTrue(status.isComplete());
+            assertArrayEquals(Arrays.copyOfRange(bytes, 1, 39864), IOUtils.toByteArray(target.getInputStream()));
+        }
+        finally {
+            source.delete();
+            target.delete();
+        }
+    }
+
+    private static final class NoProgressFileChannel extends FileChannel {
+        private final FileChannel proxy;
+        private final AtomicInteger calls;
+
+        public NoProgressFileChannel(final FileChannel proxy, final AtomicInteger calls) {
+            this.proxy = proxy;
+            this.calls = calls;
+        }
+
+        @Override
+        public long transferTo(final long position, final long count, final WritableByteChannel target) throws IOException {
+            if(calls.incrementAndGet() > 1) {
+                return 0L;
+            }
+            return proxy.transferTo(position, Math.min(1000L, count), target);
+        }
+
+        @Override
+        public int read(final ByteBuffer dst) throws IOException {
+            return proxy.read(dst);
+        }
+
+        @Override
+        public long read(final ByteBuffer[] dsts, final int offset, final int length) throws IOException {
+            return proxy.read(dsts, offset, length);
+        }
+
+        @Override
+        public int write(final ByteBuffer src) throws IOException {
+            return proxy.write(src);
+        }
+
+        @Override
+        public long write(final ByteBuffer[] srcs, final int offset, final int length) throws IOException {
+            return proxy.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return proxy.position();
+        }
+
+        @Override
+        public FileChannel position(final long newPosition) throws IOException {
+            proxy.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return proxy.size();
+        }
+
+        @Override
+        public FileChannel truncate(final long size) throws IOException {
+            proxy.truncate(size);
+            return this;
+        }
+
+        @Override
+        public void force(final boolean metaData) throws IOException {
+            proxy.force(metaData);
+        }
+
+        @Override
+        public long transferFrom(final ReadableByteChannel src, final long position, final long count) throws IOException {
+            return proxy.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(final ByteBuffer dst, final long position) throws IOException {
+            return proxy.read(dst, position);
+        }
+
+        @Override
+        public int write(final ByteBuffer src, final long position) throws IOException {
+            return proxy.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(final MapMode mode, final long position, final long size) throws IOException {
+            return proxy.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(final long position, final long size, final boolean shared) throws IOException {
+            return proxy.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(final long position, final long size, final boolean shared) throws IOException {
+            return proxy.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            proxy.close();
+        }
+    }
 }
@@ -0,0 +1,53 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.Local;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TabSeparatedFileTest {
+
+    @Test
+    public void testWriteRead() throws Exception {
+        final Local directory = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        final Local file = new Local(directory, "f");
+        final TabSeparatedFile tsv = new TabSeparatedFile(file);
+        assertTrue(tsv.read(2).isEmpty());
+        tsv.write(Arrays.asList(new String[]{"1", "/a"}, new String[]{"2", "/b\tc"}, new String[]{"3", "/d\ne"}, new String[]{"", "/f"}));
+        assertTrue(file.exists());
+        assertEquals(1, directory.list().size());
+        final List<String[]> rows = tsv.read(2);
+        assertEquals(2, rows.size());
+        assertArrayEquals(new String[]{"1", "/a"}, rows.get(0));
+        assertArrayEquals(new String[]{"", "/f"}, rows.get(1));
+        tsv.append(new String[]{"4", "/g"});
+        tsv.append(new String[]{"5", "/h", "invalid"});
+        assertEquals(3, tsv.read(2).size());
+        tsv.write(Arrays.<String[]>asList(new String[]{"6", "/i"}));
+        assertEquals(1, tsv.read(2).size());
+        tsv.delete();
+        assertFalse(file.exists());
+        tsv.delete();
+        directory.delete();
+    }
+}
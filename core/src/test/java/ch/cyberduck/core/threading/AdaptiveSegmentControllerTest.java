@@ -0,0 +1,73 @@
+package ch.cyberduck.core.threading;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.exception.RetriableAccessDeniedException;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AdaptiveSegmentControllerTest {
+
+    @Test
+    public void testRaise() {
+        final AdaptiveSegmentController controller = new AdaptiveSegmentController(4, 10, 0L);
+        assertEquals(4, controller.getLimit());
+        controller.success(1024L * 1024L, 100L);
+        assertEquals(5, controller.getLimit());
+    }
+
+    @Test
+    public void testMaximum() {
+        final AdaptiveSegmentController controller = new AdaptiveSegmentController(20, 10, 0L);
+        assertEquals(10, controller.getLimit());
+        controller.success(1024L * 1024L, 100L);
+        assertEquals(10, controller.getLimit());
+    }
+
+    @Test
+    public void testBackoff() {
+        final AdaptiveSegmentController controller = new AdaptiveSegmentController(8, 10, 0L);
+        controller.failure(new AccessDeniedException("d"));
+        assertEquals(8, controller.getLimit());
+        controller.failure(new RetriableAccessDeniedException("SlowDown"));
+        assertEquals(4, controller.getLimit());
+        controller.failure(new RetriableAccessDeniedException("SlowDown"));
+        controller.failure(new RetriableAccessDeniedException("SlowDown"));
+        controller.failure(new RetriableAccessDeniedException("SlowDown"));
+        assertEquals(1, controller.getLimit());
+    }
+
+    @Test
+    public void testSegmentSize() {
+        final AdaptiveSegmentController controller = new AdaptiveSegmentController(10, 10, Long.MAX_VALUE);
+        final long megabyte = 1024L * 1024L;
+        // No measurement
+        assertEquals(10 * megabyte, controller.getSegmentSize(100 * megabyte, 5 * megabyte, 10 * megabyte, 10000, 10));
+        // Within maximum number of parts
+        final long terabyte = 1024L * 1024L * megabyte;
+        assertTrue(controller.getSegmentSize(terabyte, 5 * megabyte, 10 * megabyte, 10000, 10) * 9999 >= terabyte);
+        // 1MB per second for single segment
+        controller.success(megabyte, 1000L);
+        assertEquals(10 * megabyte, controller.getSegmentSize(10 * 1024L * megabyte, 5 * megabyte, 20 * megabyte, 10000, 10));
+        // Keep all concurrent segments busy
+        assertEquals(5 * megabyte, controller.getSegmentSize(20 * megabyte, 5 * megabyte, 20 * megabyte, 10000, 10));
+        assertEquals(7 * megabyte, controller.getSegmentSize(64 * megabyte, 5 * megabyte, 20 * megabyte, 10000, 10));
+    }
+}
@@ -0,0 +1,218 @@
+package ch.cyberduck.core.threading;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.TestProtocol;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SegmentSchedulerTest {
+
+    @Test
+    public void testCapacity() throws Exception {
+        final SegmentScheduler scheduler = new SegmentScheduler(3, 3);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maximum = new AtomicInteger();
+        final List<ThreadPool> pools = new ArrayList<>();
+        final List<Future<Integer>> futures = new ArrayList<>();
+        for(int i = 0; i < 4; i++) {
+            final ThreadPool pool = scheduler.pool(2);
+            pools.add(pool);
+            for(int j = 0; j < 5; j++) {
+                futures.add(pool.execute(() -> {
+                    maximum.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(10L);
+                    running.decrementAndGet();
+                    return 1;
+                }));
+            }
+        }
+        int total = 0;
+        for(Future<Integer> future : futures) {
+            total += future.get();
+        }
+        assertEquals(20, total);
+        assertTrue(maximum.get() <= 3);
+        for(ThreadPool pool : pools) {
+            pool.shutdown(true);
+        }
+    }
+
+    @Test
+    public void testAdaptiveLimit() throws Exception {
+        final SegmentScheduler scheduler = new SegmentScheduler(4, 4, new AdaptiveSegmentController(1, 4, Long.MAX_VALUE));
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maximum = new AtomicInteger();
+        final ThreadPool pool = scheduler.pool(4);
+        final List<Future<Integer>> futures = new ArrayList<>();
+        for(int i = 0; i < 5; i++) {
+            futures.add(pool.execute(() -> {
+                maximum.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(10L);
+                running.decrementAndGet();
+                return 1;
+            }));
+        }
+        for(Future<Integer> future : futures) {
+            future.get();
+        }
+        assertEquals(1, maximum.get());
+        pool.shutdown(true);
+    }
+
+    @Test
+    public void testBurstSingleFile() throws Exception {
+        final SegmentScheduler scheduler = new SegmentScheduler(4, 4);
+        final ThreadPool pool = scheduler.pool(1);
+        final CountDownLatch latch = new CountDownLatch(4);
+        final List<Future<Boolean>> futures = new ArrayList<>();
+        for(int i = 0; i < 4; i++) {
+            futures.add(pool.execute(() -> {
+                latch.countDown();
+                // Only completes when all segments run concurrently
+                return latch.await(10L, TimeUnit.SECONDS);
+            }));
+        }
+        for(Future<Boolean> future : futures) {
+            assertTrue(future.get());
+        }
+        pool.shutdown(true);
+    }
+
+    @Test
+    public void testFairness() throws Exception {
+        final SegmentScheduler scheduler = new SegmentScheduler(2, 2);
+        final CountDownLatch block = new CountDownLatch(1);
+        final List<String> order = Collections.synchronizedList(new ArrayList<>());
+        final ThreadPool large = scheduler.pool(2);
+        final List<Future<Boolean>> futures = new ArrayList<>();
+        for(int i = 0; i < 10; i++) {
+            futures.add(large.execute(() -> {
+                order.add("large");
+                return block.await(10L, TimeUnit.SECONDS);
+            }));
+        }
+        final ThreadPool small = scheduler.pool(1);
+        final Future<Boolean> other = small.execute(() -> order.add("small"));
+        block.countDown();
+        assertTrue(other.get());
+        for(Future<Boolean> future : futures) {
+            assertTrue(future.get());
+        }
+        // Segment of other file is dispatched before remaining segments of first file
+        assertTrue(order.indexOf("small") <= 3);
+        large.shutdown(true);
+        small.shutdown(true);
+    }
+
+    @Test
+    public void testShutdownNow() throws Exception {
+        final SegmentScheduler scheduler = new SegmentScheduler(1, 1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final ThreadPool pool = scheduler.pool(1);
+        final Future<Void> running = pool.execute(() -> {
+            started.countDown();
+            Thread.sleep(10000L);
+            return null;
+        });
+        final Future<Void> pending = pool.execute(() -> null);
+        started.await();
+        pool.shutdown(false);
+        assertTrue(running.isCancelled());
+        assertTrue(pending.isCancelled());
+        // Capacity is released for other files
+        assertTrue(scheduler.pool(1).execute(() -> true).get(10L, TimeUnit.SECONDS));
+        try {
+            pool.execute(() -> null);
+            fail();
+        }
+        catch(RejectedExecutionException e) {
+            //
+        }
+    }
+
+    @Test
+    public void testEvictIdle() throws Exception {
+        final Host host = new Host(new TestProtocol(), "segment.test");
+        final SegmentScheduler.SegmentThreadPool first = SegmentScheduler.pool(host, 1);
+        final SegmentScheduler scheduler = first.getScheduler();
+        final SegmentScheduler.SegmentThreadPool second = SegmentScheduler.pool(host, 1);
+        assertSame(scheduler, second.getScheduler());
+        assertTrue(first.execute(() -> true).get(10L, TimeUnit.SECONDS));
+        first.shutdown(true);
+        // Pool of other file still open
+        final SegmentScheduler.SegmentThreadPool third = SegmentScheduler.pool(host, 1);
+        assertSame(scheduler, third.getScheduler());
+        second.shutdown(true);
+        third.shutdown(true);
+        final SegmentScheduler.SegmentThreadPool other = SegmentScheduler.pool(host, 1);
+        assertNotSame(scheduler, other.getScheduler());
+        // Removed scheduler is not revived
+        try {
+            scheduler.pool(1);
+            fail();
+        }
+        catch(IllegalStateException e) {
+            //
+        }
+        assertTrue(other.execute(() -> true).get(10L, TimeUnit.SECONDS));
+        other.shutdown(true);
+    }
+
+    @Test
+    public void testSingleSchedulerWhileEvicting() throws Exception {
+        final Host host = new Host(new TestProtocol(), "segment.concurrent.test");
+        final AtomicInteger failures = new AtomicInteger();
+        final List<Thread> threads = new ArrayList<>();
+        for(int t = 0; t < 8; t++) {
+            final Thread thread = new Thread(() -> {
+                for(int i = 0; i < 500; i++) {
+                    final SegmentScheduler.SegmentThreadPool pool = SegmentScheduler.pool(host, 1);
+                    final SegmentScheduler.SegmentThreadPool concurrent = SegmentScheduler.pool(host, 1);
+                    if(pool.getScheduler() != concurrent.getScheduler()) {
+                        failures.incrementAndGet();
+                    }
+                    try {
+                        pool.execute(() -> true).get(10L, TimeUnit.SECONDS);
+                    }
+                    catch(Exception e) {
+                        failures.incrementAndGet();
+                    }
+                    pool.shutdown(true);
+                    concurrent.shutdown(true);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for(Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, failures.get());
+    }
+}
@@ -0,0 +1,167 @@
+package ch.cyberduck.core.transfer;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.Permission;
+import ch.cyberduck.core.features.Encryption;
+import ch.cyberduck.core.io.Checksum;
+import ch.cyberduck.core.io.HashAlgorithm;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class SwapTransferStatusMapTest {
+
+    @Test
+    public void testSwapCompleted() {
+        final SwapTransferStatusMap table = new SwapTransferStatusMap(2);
+        final TransferItem completed = new TransferItem(new Path("/f1", EnumSet.of(Path.Type.file)), new Local("/l/f1"));
+        table.put(completed, new TransferStatus().withLength(1L).complete());
+        final TransferItem pending = new TransferItem(new Path("/f2", EnumSet.of(Path.Type.file)), new Local("/l/f2"));
+        table.put(pending, new TransferStatus().withLength(2L));
+        assertTrue(table.containsKey(completed));
+        final TransferStatus transfer = table.get(pending);
+        final TransferItem next = new TransferItem(new Path("/f3", EnumSet.of(Path.Type.file)), new Local("/l/f3"));
+        table.put(next, new TransferStatus().withLength(3L));
+        // Completed entry swapped when exceeding window
+        assertTrue(table.containsKey(completed));
+        assertTrue(table.containsKey(pending));
+        assertSame(transfer, table.get(pending));
+        assertTrue(table.containsKey(next));
+        assertEquals(3, table.size());
+        final Map<TransferItem, TransferStatus> copy = new HashMap<>(table);
+        assertEquals(3, copy.size());
+        assertTrue(copy.get(completed).isComplete());
+        assertEquals(1L, copy.get(completed).getLength());
+        assertFalse(copy.get(pending).isComplete());
+        table.clear();
+        assertTrue(table.isEmpty());
+    }
+    @Test
+    public void testSwapPrepared() {
+        final SwapTransferStatusMap table = new SwapTransferStatusMap(1);
+        final TransferItem prepared = new TransferItem(new Path("/f1", EnumSet.of(Path.Type.file)), new Local("/l/f1"));
+        final TransferStatus status = new TransferStatus().withLength(10L).withOffset(2L).exists(true).append(true)
+            .withMime("text/plain").withTimestamp(5L)
+            .withParameters(Collections.singletonMap("p", "v"))
+            .withMetadata(Collections.singletonMap("m", "v"))
+            .withChecksum(new Checksum(HashAlgorithm.md5, "d41d8cd98f00b204e9800998ecf8427e"))
+            .withHeader(ByteBuffer.wrap(new byte[]{1, 2}));
+        status.rename(new Path("/f1-1", EnumSet.of(Path.Type.file)));
+        status.setStorageClass("STANDARD_IA");
+        status.setEncryption(new Encryption.Algorithm("aws:kms", "k"));
+        status.setPermission(new Permission(644));
+        final PathAttributes remote = new PathAttributes();
+        remote.setSize(8L);
+        remote.setMetadata(Collections.singletonMap("r", "v"));
+        status.setRemote(remote);
+        status.withSegments(Arrays.asList(
+            new TransferStatus().segment(true).withOffset(0L).withLength(5L).complete(),
+            new TransferStatus().segment(true).withOffset(5L).withLength(5L).withPart(2)));
+        table.put(prepared, status);
+        table.put(new TransferItem(new Path("/f2", EnumSet.of(Path.Type.file)), new Local("/l/f2")), new TransferStatus());
+        assertTrue(table.containsKey(prepared));
+        assertEquals(2, table.size());
+        final TransferStatus swapped = table.get(prepared);
+        assertNotSame(status, swapped);
+        assertFalse(swapped.isComplete());
+        assertEquals(10L, swapped.getLength());
+        assertEquals(2L, swapped.getOffset());
+        assertTrue(swapped.isExists());
+        assertTrue(swapped.isAppend());
+        assertEquals("text/plain", swapped.getMime());
+        assertEquals(5L, swapped.getTimestamp(), 0L);
+        assertEquals(Collections.singletonMap("p", "v"), swapped.getParameters());
+        assertEquals(Collections.singletonMap("m", "v"), swapped.getMetadata());
+        assertEquals(status.getChecksum(), swapped.getChecksum());
+        assertEquals(ByteBuffer.wrap(new byte[]{1, 2}), swapped.getHeader());
+        assertEquals(new Path("/f1-1", EnumSet.of(Path.Type.file)), swapped.getRename().remote);
+        assertEquals("STANDARD_IA", swapped.getStorageClass());
+        assertEquals(new Encryption.Algorithm("aws:kms", "k"), swapped.getEncryption());
+        assertEquals(new Permission(644), swapped.getPermission());
+        assertEquals(8L, swapped.getRemote().getSize());
+        assertEquals(Collections.singletonMap("r", "v"), swapped.getRemote().getMetadata());
+        assertEquals(2, swapped.getSegments().size());
+        assertTrue(swapped.getSegments().get(0).isComplete());
+        assertTrue(swapped.getSegments().get(0).isSegment());
+        assertFalse(swapped.getSegments().get(1).isComplete());
+        assertEquals(5L, swapped.getSegments().get(1).getOffset());
+        assertEquals(2, swapped.getSegments().get(1).getPart(), 0);
+        table.clear();
+    }
+
+    @Test
+    public void testKeepAcquired() {
+        final SwapTransferStatusMap table = new SwapTransferStatusMap(1);
+        final TransferItem acquired = new TransferItem(new Path("/f1", EnumSet.of(Path.Type.file)), new Local("/l/f1"));
+        final TransferStatus status = new TransferStatus().withLength(1L);
+        table.put(acquired, status);
+        assertSame(status, table.get(acquired));
+        for(int i = 2; i < 10; i++) {
+            table.put(new TransferItem(new Path(String.format("/f%d", i), EnumSet.of(Path.Type.file)), new Local(String.format("/l/f%d", i))), new TransferStatus());
+        }
+        // Status in use for transfer is not swapped
+        assertSame(status, table.get(acquired));
+        status.setComplete();
+        table.put(new TransferItem(new Path("/f10", EnumSet.of(Path.Type.file)), new Local("/l/f10")), new TransferStatus());
+        assertTrue(table.get(acquired).isComplete());
+        assertEquals(10, table.size());
+        table.clear();
+    }
+
+    @Test
+    public void testIterateModify() {
+        final SwapTransferStatusMap table = new SwapTransferStatusMap(2);
+        for(int i = 0; i < 10; i++) {
+            table.put(new TransferItem(new Path(String.format("/f%d", i), EnumSet.of(Path.Type.file)), new Local(String.format("/l/f%d", i))), new TransferStatus());
+        }
+        int count = 0;
+        for(Map.Entry<TransferItem, TransferStatus> entry : table.entrySet()) {
+            entry.getValue().setParameters(Collections.singletonMap("id", entry.getKey().remote.getName()));
+            count++;
+        }
+        assertEquals(10, count);
+        for(int i = 0; i < 10; i++) {
+            // Changes while iterating are kept when swapped
+            assertEquals(Collections.singletonMap("id", String.format("f%d", i)),
+                table.get(new TransferItem(new Path(String.format("/f%d", i), EnumSet.of(Path.Type.file)), new Local(String.format("/l/f%d", i)))).getParameters());
+        }
+        table.clear();
+    }
+
+    @Test
+    public void testPutReplacesSwapped() {
+        final SwapTransferStatusMap table = new SwapTransferStatusMap(1);
+        final TransferItem item = new TransferItem(new Path("/f1", EnumSet.of(Path.Type.file)), new Local("/l/f1"));
+        table.put(item, new TransferStatus().withLength(1L));
+        table.put(new TransferItem(new Path("/f2", EnumSet.of(Path.Type.file)), new Local("/l/f2")), new TransferStatus());
+        table.put(item, new TransferStatus().withLength(2L));
+        assertEquals(2, table.size());
+        assertEquals(2L, table.get(item).getLength());
+        table.clear();
+    }
+}
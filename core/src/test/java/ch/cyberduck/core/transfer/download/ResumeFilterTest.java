@@ -1,7 +1,9 @@
 package ch.cyberduck.core.transfer.download;
 
+import ch.cyberduck.core.AlphanumericRandomStringService;
 import ch.cyberduck.core.DisabledProgressListener;
 import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Local;
 import ch.cyberduck.core.LocalAttributes;
 import ch.cyberduck.core.NullLocal;
 import ch.cyberduck.core.NullSession;
@@ -9,12 +11,14 @@ import ch.cyberduck.core.NullTransferSession;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.TestProtocol;
 import ch.cyberduck.core.features.Read;
+import ch.cyberduck.core.io.SegmentedFileChannel;
 import ch.cyberduck.core.shared.DefaultDownloadFeature;
 import ch.cyberduck.core.transfer.TransferStatus;
 import ch.cyberduck.core.transfer.symlink.DisabledDownloadSymlinkResolver;
 
 import org.junit.Test;
 
+import java.io.OutputStream;
 import java.util.EnumSet;
 
 import static org.junit.Assert.*;
@@ -141,4 +145,47 @@ public class ResumeFilterTest {
         final TransferStatus status = f.prepare(p, local, new TransferStatus(), new DisabledProgressListener());
         assertFalse(status.isAppend());
     }
+
+    @Test
+    public void testPrepareSegmentsInPlace() throws Exception {
+        final NullSession session = new NullTransferSession(new Host(new TestProtocol()));
+        final DownloadFilterOptions options = new DownloadFilterOptions();
+        options.segments = true;
+        options.inplace = true;
+        final ResumeFilter f = new ResumeFilter(new DisabledDownloadSymlinkResolver(), session,
+            options, new DefaultDownloadFeature(session.getFeature(Read.class)) {
+            @Override
+            public boolean offset(final Path file) {
+                return true;
+            }
+        });
+        final Path p = new Path("a", EnumSet.of(Path.Type.file));
+        p.attributes().setSize(50L * 1024L * 1024L);
+        final Local local = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        try {
+            final TransferStatus status = f.prepare(p, local, new TransferStatus(), new DisabledProgressListener());
+            assertTrue(status.isSegmented());
+            for(TransferStatus segment : status.getSegments()) {
+                assertNull(segment.getRename().local);
+            }
+            f.apply(p, local, status, new DisabledProgressListener());
+            assertEquals(p.attributes().getSize(), local.attributes().getSize());
+            final TransferStatus second = status.getSegments().get(1);
+            try (OutputStream out = SegmentedFileChannel.open(local).getOutputStream(2, second.getOffset())) {
+                out.write(new byte[100]);
+            }
+            // Preallocated file is not complete
+            assertTrue(f.accept(p, local, new TransferStatus().exists(true)));
+            final TransferStatus resume = f.prepare(p, local, new TransferStatus().exists(true), new DisabledProgressListener());
+            assertEquals(100L, resume.getOffset());
+            assertEquals(p.attributes().getSize() - 100L, resume.getLength());
+            assertEquals(second.getOffset() + 100L, resume.getSegments().get(1).getOffset());
+            assertEquals(second.getLength() - 100L, resume.getSegments().get(1).getLength());
+            assertEquals(0L, resume.getSegments().get(0).getOffset());
+        }
+        finally {
+            SegmentedFileChannel.complete(local);
+            local.delete();
+        }
+    }
 }
@@ -1,9 +1,11 @@
 package ch.cyberduck.core.transfer.upload;
 
 import ch.cyberduck.core.Acl;
+import ch.cyberduck.core.AlphanumericRandomStringService;
 import ch.cyberduck.core.DisabledProgressListener;
 import ch.cyberduck.core.Host;
 import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Local;
 import ch.cyberduck.core.LocalAttributes;
 import ch.cyberduck.core.NullLocal;
 import ch.cyberduck.core.NullSession;
@@ -13,6 +15,7 @@ import ch.cyberduck.core.TestProtocol;
 import ch.cyberduck.core.exception.AccessDeniedException;
 import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.features.Find;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.transfer.TransferStatus;
 import ch.cyberduck.core.transfer.symlink.DisabledUploadSymlinkResolver;
 
@@ -161,4 +164,32 @@ public class OverwriteFilterTest {
         );
         f.prepare(new Path("a", EnumSet.of(Path.Type.directory)), new NullLocal(System.getProperty("java.io.tmpdir")), new TransferStatus().exists(true), new DisabledProgressListener());
     }
+
+    @Test
+    public void testApplySegmentsDiscardsState() throws Exception {
+        final long size = 25L * 1024 * 1024;
+        final NullSession session = new ResumeFilterTest.SegmentedNullSession(size);
+        final Local directory = new Local(PreferencesFactory.get().getProperty("tmp.dir"), new AlphanumericRandomStringService().random());
+        final OverwriteFilter f = new OverwriteFilter(new DisabledUploadSymlinkResolver(), session,
+            new UploadFilterOptions().withTemporary(false).withSegments(true)) {
+            @Override
+            SegmentedUploadState state(final Path file, final Local local) {
+                return new SegmentedUploadState(directory, session.getHost(), file, local);
+            }
+        };
+        final Path t = new Path("t", EnumSet.of(Path.Type.file));
+        final Local l = new ResumeFilterTest.SegmentedNullLocal(size);
+        final TransferStatus status = f.prepare(t, l, new TransferStatus().exists(true), new DisabledProgressListener());
+        assertTrue(status.isSegmented());
+        for(TransferStatus segment : status.getSegments()) {
+            assertFalse(segment.isComplete());
+        }
+        // Saved from previous attempt
+        f.state(t, l).complete(status.getSegments().get(1));
+        assertFalse(f.state(t, l).isEmpty());
+        // Truncate file
+        f.apply(t, l, status, new DisabledProgressListener());
+        assertTrue(f.state(t, l).isEmpty());
+        directory.delete();
+    }
 }
@@ -1,9 +1,11 @@
 package ch.cyberduck.core.transfer.upload;
 
+import ch.cyberduck.core.AlphanumericRandomStringService;
 import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.DisabledProgressListener;
 import ch.cyberduck.core.Host;
 import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Local;
 import ch.cyberduck.core.LocalAttributes;
 import ch.cyberduck.core.NullLocal;
 import ch.cyberduck.core.NullSession;
@@ -13,6 +15,8 @@ import ch.cyberduck.core.PathAttributes;
 import ch.cyberduck.core.TestProtocol;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.features.Find;
+import ch.cyberduck.core.features.Write;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.shared.DefaultUploadFeature;
 import ch.cyberduck.core.transfer.TransferStatus;
 import ch.cyberduck.core.transfer.symlink.DisabledUploadSymlinkResolver;
@@ -21,6 +25,7 @@ import org.junit.Test;
 
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
@@ -266,4 +271,181 @@ public class ResumeFilterTest {
         assertTrue(f.accept(t, l, new TransferStatus().exists(true)));
         assertFalse(f.prepare(t, l, new TransferStatus().exists(true), new DisabledProgressListener()).isAppend());
     }
+
+    @Test
+    public void testPrepareSegments() throws Exception {
+        final NullSession session = new NullSession(new Host(new TestProtocol())) {
+            @Override
+            public AttributedList<Path> list(final Path folder, final ListProgressListener listener) throws BackgroundException {
+                final AttributedList<Path> list = new AttributedList<>(Collections.singletonList(new Path(folder, "t", EnumSet.of(Path.Type.file))
+                    .withAttributes(new PathAttributes().withSize(25L * 1024 * 1024))));
+                listener.chunk(folder, list);
+                return list;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T _getFeature(final Class<T> type) {
+                if(type == Write.class) {
+                    return (T) new NullWriteFeature(this) {
+                        @Override
+                        public boolean segmented(final Path file) {
+                            return true;
+                        }
+                    };
+                }
+                return super._getFeature(type);
+            }
+        };
+        final Local directory = new Local(PreferencesFactory.get().getProperty("tmp.dir"), new AlphanumericRandomStringService().random());
+        final ResumeFilter f = new ResumeFilter(new DisabledUploadSymlinkResolver(), session,
+            new UploadFilterOptions().withTemporary(false).withSegments(true), new DefaultUploadFeature<>(new NullWriteFeature(session))) {
+            @Override
+            SegmentedUploadState state(final Path file, final Local local) {
+                return new SegmentedUploadState(directory, session.getHost(), file, local);
+            }
+        };
+        final long size = 25L * 1024 * 1024;
+        final Path t = new Path("t", EnumSet.of(Path.Type.file));
+        final NullLocal l = new NullLocal("t") {
+            @Override
+            public LocalAttributes attributes() {
+                return new LocalAttributes("t") {
+                    @Override
+                    public long getSize() {
+                        return size;
+                    }
+                };
+            }
+
+            @Override
+            public boolean isFile() {
+                return true;
+            }
+
+            @Override
+            public boolean exists() {
+                return true;
+            }
+        };
+        // Remote file with equal size but no completed segments
+        assertFalse(f.accept(t, l, new TransferStatus().exists(true)));
+        f.state(t, l).complete(f.prepare(t, l, new TransferStatus().exists(true), new DisabledProgressListener()).getSegments().get(1));
+        assertTrue(f.accept(t, l, new TransferStatus().exists(true)));
+        final TransferStatus status = f.prepare(t, l, new TransferStatus().exists(true), new DisabledProgressListener());
+        assertTrue(status.isSegmented());
+        assertNull(status.getRename().remote);
+        final List<TransferStatus> segments = status.getSegments();
+        assertFalse(segments.get(0).isComplete());
+        assertTrue(segments.get(1).isComplete());
+        assertEquals(size, segments.get(segments.size() - 1).getOffset() + segments.get(segments.size() - 1).getLength());
+        assertEquals(size - segments.get(1).getLength(), status.getLength());
+        for(TransferStatus segment : segments) {
+            assertTrue(segment.isAppend());
+        }
+        // Resume with existing file
+        f.apply(t, l, status, new DisabledProgressListener());
+        assertFalse(f.state(t, l).isEmpty());
+        f.state(t, l).delete();
+        assertTrue(f.state(t, l).isEmpty());
+        directory.delete();
+    }
+
+    @Test
+    public void testPrepareSegmentsChangedSize() throws Exception {
+        final NullSession session = new SegmentedNullSession(25L * 1024 * 1024);
+        final Local directory = new Local(PreferencesFactory.get().getProperty("tmp.dir"), new AlphanumericRandomStringService().random());
+        final ResumeFilter f = new ResumeFilter(new DisabledUploadSymlinkResolver(), session,
+            new UploadFilterOptions().withTemporary(false).withSegments(true), new DefaultUploadFeature<>(new NullWriteFeature(session))) {
+            @Override
+            SegmentedUploadState state(final Path file, final Local local) {
+                return new SegmentedUploadState(directory, session.getHost(), file, local);
+            }
+        };
+        final Path t = new Path("t", EnumSet.of(Path.Type.file));
+        final NullLocal l = new SegmentedNullLocal(25L * 1024 * 1024);
+        // Saved from previous attempt with different segment size
+        f.state(t, l).complete(new TransferStatus().withPart(2).withOffset(1024L).withLength(1024L));
+        final TransferStatus status = f.prepare(t, l, new TransferStatus().exists(true), new DisabledProgressListener());
+        assertTrue(status.isSegmented());
+        for(TransferStatus segment : status.getSegments()) {
+            assertFalse(segment.isComplete());
+        }
+        assertEquals(0L, status.getOffset());
+        f.state(t, l).delete();
+        directory.delete();
+    }
+
+    @Test
+    public void testPrepareSegmentsTemporary() throws Exception {
+        final NullSession session = new SegmentedNullSession(25L * 1024 * 1024);
+        final ResumeFilter f = new ResumeFilter(new DisabledUploadSymlinkResolver(), session,
+            new UploadFilterOptions().withTemporary(true).withSegments(true), new DefaultUploadFeature<>(new NullWriteFeature(session)));
+        final Path t = new Path("t", EnumSet.of(Path.Type.file));
+        final TransferStatus status = f.prepare(t, new SegmentedNullLocal(25L * 1024 * 1024), new TransferStatus().exists(true), new DisabledProgressListener());
+        // Upload to temporary file without segments
+        assertFalse(status.isSegmented());
+        assertNotNull(status.getRename().remote);
+        assertEquals(t, status.getDisplayname().remote);
+    }
+
+    static final class SegmentedNullSession extends NullSession {
+        private final long size;
+
+        public SegmentedNullSession(final long size) {
+            super(new Host(new TestProtocol()));
+            this.size = size;
+        }
+
+        @Override
+        public AttributedList<Path> list(final Path folder, final ListProgressListener listener) throws BackgroundException {
+            final AttributedList<Path> list = new AttributedList<>(Collections.singletonList(new Path(folder, "t", EnumSet.of(Path.Type.file))
+                .withAttributes(new PathAttributes().withSize(size))));
+            listener.chunk(folder, list);
+            return list;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T _getFeature(final Class<T> type) {
+            if(type == Write.class) {
+                return (T) new NullWriteFeature(this) {
+                    @Override
+                    public boolean segmented(final Path file) {
+                        return true;
+                    }
+                };
+            }
+            return super._getFeature(type);
+        }
+    }
+
+    static final class SegmentedNullLocal extends NullLocal {
+        private final long size;
+
+        public SegmentedNullLocal(final long size) {
+            super("t");
+            this.size = size;
+        }
+
+        @Override
+        public LocalAttributes attributes() {
+            return new LocalAttributes("t") {
+                @Override
+                public long getSize() {
+                    return size;
+                }
+            };
+        }
+
+        @Override
+        public boolean isFile() {
+            return true;
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+    }
 }
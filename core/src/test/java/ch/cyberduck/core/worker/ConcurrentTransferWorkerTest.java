@@ -22,6 +22,7 @@ import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.notification.DisabledNotificationService;
 import ch.cyberduck.core.pool.DefaultSessionPool;
 import ch.cyberduck.core.pool.SessionPool;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.ssl.DefaultX509KeyManager;
 import ch.cyberduck.core.ssl.DisabledX509TrustManager;
 import ch.cyberduck.core.transfer.DisabledTransferErrorCallback;
@@ -41,10 +42,13 @@ import ch.cyberduck.core.vault.DefaultVaultRegistry;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.CyclicBarrier;
@@ -209,6 +213,108 @@ public class ConcurrentTransferWorkerTest {
         worker.cleanup(true);
     }
 
+    @Test
+    public void testPipelined() throws Exception {
+        final int files = 20;
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final Set<Path> transferred = ConcurrentHashMap.newKeySet();
+        final List<Integer> bulk = Collections.synchronizedList(new ArrayList<Integer>());
+        final List<TransferItem> children = new ArrayList<TransferItem>();
+        for(int i = 1; i <= files; i++) {
+            children.add(new TransferItem(new Path(directory, "t" + i, EnumSet.of(Path.Type.file)), new NullLocal("/d/t" + i)));
+        }
+        final Host host = new Host(new TestProtocol(), "test.cyberduck.ch");
+        final Transfer t = new DownloadTransfer(host, directory, new NullLocal("/d")) {
+
+            @Override
+            public List<TransferItem> list(final Session<?> session, final Path folder, final Local local, final ListProgressListener listener) {
+                assertEquals(directory, folder);
+                return children;
+            }
+
+            @Override
+            public void pre(final Session<?> source, final Session<?> destination, final Map<TransferItem, TransferStatus> files, final ConnectionCallback callback) {
+                for(TransferItem item : files.keySet()) {
+                    // Invoked before any file of the listing is transferred
+                    assertFalse(transferred.contains(item.remote));
+                }
+                bulk.add(files.size());
+            }
+
+            @Override
+            public void transfer(final Session<?> source, final Session<?> destination, final Path file, final Local local,
+                                 final TransferOptions options, final TransferStatus overall, final TransferStatus segment,
+                                 final ConnectionCallback connectionCallback,
+                                 final ProgressListener listener, final StreamListener streamListener) {
+                transferred.add(file);
+            }
+
+            @Override
+            public AbstractDownloadFilter filter(final Session<?> source, final Session<?> destination, final TransferAction action, final ProgressListener listener) {
+                return new AbstractDownloadFilter(new DisabledDownloadSymlinkResolver(), source, null) {
+                    @Override
+                    public boolean accept(final Path file, final Local local, final TransferStatus parent) {
+                        return true;
+                    }
+
+                    @Override
+                    public TransferStatus prepare(final Path file, final Local local, final TransferStatus parent, final ProgressListener progress) {
+                        if(!file.equals(directory)) {
+                            // Parent directory transferred before children are prepared
+                            assertTrue(transferred.contains(directory));
+                        }
+                        return new TransferStatus().withLength(1L);
+                    }
+
+                    @Override
+                    public void apply(final Path file, final Local local, final TransferStatus status, final ProgressListener listener) {
+                        //
+                    }
+
+                    @Override
+                    public void complete(final Path file, final Local local, final TransferOptions options, final TransferStatus status, final ProgressListener listener) {
+                        assertTrue(transferred.contains(file));
+                    }
+                };
+            }
+        };
+        final LoginConnectionService connection = new TestLoginConnectionService();
+        final DefaultSessionPool pool = new DefaultSessionPool(connection, new DisabledX509TrustManager(), new DefaultX509KeyManager(),
+            new DefaultVaultRegistry(new DisabledPasswordCallback()),
+            new DisabledTranscriptListener(), host);
+        PreferencesFactory.get().setProperty("queue.transfer.pipeline", true);
+        PreferencesFactory.get().setProperty("queue.transfer.pipeline.batch", 7);
+        try {
+            final ConcurrentTransferWorker worker = new ConcurrentTransferWorker(
+                pool, SessionPool.DISCONNECTED, t, new TransferOptions(), new TransferSpeedometer(t), new DisabledTransferPrompt() {
+                @Override
+                public TransferAction prompt(final TransferItem file) {
+                    return TransferAction.overwrite;
+                }
+            }, new DisabledTransferErrorCallback(),
+                new DisabledLoginCallback(), new DisabledProgressListener(), new DisabledStreamListener(), new DisabledNotificationService()
+            );
+            pool.withMaxTotal(3);
+            final Session<?> session = worker.borrow(ConcurrentTransferWorker.Connection.source);
+            assertTrue(worker.run(session));
+            worker.release(session, ConcurrentTransferWorker.Connection.source, null);
+            assertTrue(transferred.contains(directory));
+            for(TransferItem child : children) {
+                assertTrue(transferred.contains(child.remote));
+            }
+            assertEquals(files + 1L, t.getSize().longValue());
+            // Once for root and for each chunk of the listing
+            assertEquals(4, bulk.size());
+            assertTrue(bulk.contains(1));
+            assertEquals(files + 1, bulk.stream().mapToInt(Integer::intValue).sum());
+            worker.cleanup(true);
+        }
+        finally {
+            PreferencesFactory.get().setProperty("queue.transfer.pipeline", false);
+            PreferencesFactory.get().setProperty("queue.transfer.pipeline.batch", 100);
+        }
+    }
+
     @Test
     public void testBorrowTimeoutNoSessionAvailable() throws Exception {
         final Host host = new Host(new TestProtocol(), "localhost", new Credentials("u", "p"));
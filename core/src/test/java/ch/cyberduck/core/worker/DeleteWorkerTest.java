@@ -10,9 +10,13 @@ import ch.cyberduck.core.NullSession;
 import ch.cyberduck.core.PasswordCallback;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathCache;
+import ch.cyberduck.core.Protocol;
 import ch.cyberduck.core.Session;
 import ch.cyberduck.core.TestProtocol;
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.features.Delete;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.transfer.TransferStatus;
 
 import org.junit.Test;
@@ -21,9 +25,20 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.util.concurrent.Uninterruptibles;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class DeleteWorkerTest {
@@ -109,4 +124,155 @@ public class DeleteWorkerTest {
             PathCache.empty(), new DisabledProgressListener());
         worker.run(session);
     }
+
+    @Test
+    public void testBatchConcurrent() throws Exception {
+        this.testBatch(new TestProtocol());
+    }
+
+    @Test
+    public void testBatchSequential() throws Exception {
+        this.testBatch(new TestProtocol() {
+            @Override
+            public Statefulness getStatefulness() {
+                return Statefulness.stateful;
+            }
+        });
+    }
+
+    @Test
+    public void testListingFailureConcurrent() throws Exception {
+        final Path root = new Path("/t", EnumSet.of(Path.Type.directory));
+        final Path failing = new Path(root, "d0", EnumSet.of(Path.Type.directory));
+        final Path slow = new Path(root, "d1", EnumSet.of(Path.Type.directory));
+        final List<Path> files = new ArrayList<>();
+        for(int j = 0; j < 20; j++) {
+            files.add(new Path(slow, String.format("f%d", j), EnumSet.of(Path.Type.file)));
+        }
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch failed = new CountDownLatch(1);
+        final AtomicBoolean listed = new AtomicBoolean();
+        final AtomicInteger batches = new AtomicInteger();
+        final Session session = new NullSession(new Host(new TestProtocol())) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T _getFeature(final Class<T> type) {
+                if(type == Delete.class) {
+                    return (T) new Delete() {
+                        @Override
+                        public void delete(final Map<Path, TransferStatus> files, final PasswordCallback prompt, final Callback callback) {
+                            batches.incrementAndGet();
+                        }
+
+                        @Override
+                        public boolean isRecursive() {
+                            return false;
+                        }
+                    };
+                }
+                return super._getFeature(type);
+            }
+
+            @Override
+            public AttributedList<Path> list(final Path file, final ListProgressListener listener) throws BackgroundException {
+                if(file.equals(root)) {
+                    return new AttributedList<>(Arrays.asList(failing, slow));
+                }
+                if(file.equals(failing)) {
+                    Uninterruptibles.awaitUninterruptibly(started);
+                    failed.countDown();
+                    throw new AccessDeniedException(file.getAbsolute());
+                }
+                started.countDown();
+                // Listing still running when other listing fails
+                Uninterruptibles.awaitUninterruptibly(failed);
+                Uninterruptibles.sleepUninterruptibly(500L, TimeUnit.MILLISECONDS);
+                listed.set(true);
+                return new AttributedList<>(files);
+            }
+        };
+        PreferencesFactory.get().setProperty("browser.delete.batch.size", 7);
+        try {
+            final DeleteWorker worker = new DeleteWorker(new DisabledLoginCallback(),
+                Collections.singletonList(root), PathCache.empty(), new DisabledProgressListener());
+            try {
+                worker.run(session);
+                fail();
+            }
+            catch(AccessDeniedException e) {
+                // Running listing awaited before failure is returned
+                assertTrue(listed.get());
+            }
+            Uninterruptibles.sleepUninterruptibly(500L, TimeUnit.MILLISECONDS);
+            assertEquals(0, batches.get());
+        }
+        finally {
+            PreferencesFactory.get().deleteProperty("browser.delete.batch.size");
+        }
+    }
+
+    private void testBatch(final Protocol protocol) throws Exception {
+        final Path root = new Path("/t", EnumSet.of(Path.Type.directory));
+        final Map<Path, AttributedList<Path>> tree = new HashMap<>();
+        final List<Path> children = new ArrayList<>();
+        for(int i = 0; i < 5; i++) {
+            final Path directory = new Path(root, String.format("d%d", i), EnumSet.of(Path.Type.directory));
+            final List<Path> files = new ArrayList<>();
+            for(int j = 0; j < 20; j++) {
+                files.add(new Path(directory, String.format("f%d", j), EnumSet.of(Path.Type.file)));
+            }
+            tree.put(directory, new AttributedList<>(files));
+            children.add(directory);
+        }
+        tree.put(root, new AttributedList<>(children));
+        final Set<Path> deleted = ConcurrentHashMap.newKeySet();
+        final AtomicInteger batches = new AtomicInteger();
+        final Session session = new NullSession(new Host(protocol)) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T _getFeature(final Class<T> type) {
+                if(type == Delete.class) {
+                    return (T) new Delete() {
+                        @Override
+                        public void delete(final Map<Path, TransferStatus> files, final PasswordCallback prompt, final Callback callback) {
+                            assertTrue(files.size() <= 7);
+                            batches.incrementAndGet();
+                            for(Path file : files.keySet()) {
+                                if(file.isDirectory()) {
+                                    for(Path child : tree.get(file)) {
+                                        assertTrue(deleted.contains(child));
+                                    }
+                                }
+                                assertTrue(deleted.add(file));
+                            }
+                        }
+
+                        @Override
+                        public boolean isRecursive() {
+                            return false;
+                        }
+                    };
+                }
+                return super._getFeature(type);
+            }
+
+            @Override
+            public AttributedList<Path> list(final Path file, final ListProgressListener listener) {
+                return tree.get(file);
+            }
+        };
+        PreferencesFactory.get().setProperty("browser.delete.batch.size", 7);
+        try {
+            final DeleteWorker worker = new DeleteWorker(new DisabledLoginCallback(),
+                Collections.singletonList(root), PathCache.empty(), new DisabledProgressListener());
+            final List<Path> result = worker.run(session);
+            assertEquals(106, deleted.size());
+            assertEquals(16, batches.get());
+            assertTrue(result.contains(root));
+            assertTrue(result.containsAll(children));
+        }
+        finally {
+            PreferencesFactory.get().deleteProperty("browser.delete.batch.size");
+        }
+    }
 }
@@ -18,17 +18,20 @@ package ch.cyberduck.core.worker;
 import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.DisabledListProgressListener;
 import ch.cyberduck.core.Host;
+import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.NullFilter;
 import ch.cyberduck.core.NullSession;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathCache;
 import ch.cyberduck.core.TestProtocol;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.ui.browser.SearchFilter;
 
 import org.junit.Test;
 
 import java.util.EnumSet;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -102,4 +105,39 @@ public class SearchWorkerTest {
         assertTrue(cache.get(new Path("/folder", EnumSet.of(Path.Type.directory))).contains(
             new Path(new Path("/folder", EnumSet.of(Path.Type.directory)), "/t2.gif", EnumSet.of(Path.Type.file))));
     }
+
+    @Test
+    public void testRunConcurrentWithLimit() throws Exception {
+        final Path root = new Path("/", EnumSet.of(Path.Type.directory));
+        final NullSession session = new NullSession(new Host(new TestProtocol())) {
+            @Override
+            public AttributedList<Path> list(final Path file, final ListProgressListener listener) {
+                final AttributedList<Path> list = new AttributedList<>();
+                if(file.getAbsolute().length() < 8) {
+                    for(int i = 0; i < 3; i++) {
+                        list.add(new Path(file, String.format("d%d", i), EnumSet.of(Path.Type.directory)));
+                    }
+                }
+                list.add(new Path(file, "f.png", EnumSet.of(Path.Type.file)));
+                list.add(new Path(file, "f.gif", EnumSet.of(Path.Type.file)));
+                return list;
+            }
+        };
+        final AttributedList<Path> all = new SearchWorker(root, new SearchFilter(".png"), PathCache.empty(),
+            new DisabledListProgressListener()).run(session);
+        // Matches in 1 + 3 + 9 + 27 folders with 39 parent folders
+        assertEquals(79, all.size());
+        assertTrue(all.contains(new Path("/d0/d1/d2/f.png", EnumSet.of(Path.Type.file))));
+        assertTrue(all.contains(new Path("/d0/d1/d2", EnumSet.of(Path.Type.directory))));
+        assertFalse(all.contains(new Path("/d0/d1/d2/f.gif", EnumSet.of(Path.Type.file))));
+        PreferencesFactory.get().setProperty("browser.search.limit", 5);
+        try {
+            final AttributedList<Path> limited = new SearchWorker(root, new SearchFilter(".png"), PathCache.empty(),
+                new DisabledListProgressListener()).run(session);
+            assertEquals(5, limited.toList().stream().filter(Path::isFile).count());
+        }
+        finally {
+            PreferencesFactory.get().deleteProperty("browser.search.limit");
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package ch.cyberduck.core.worker;
 
+import ch.cyberduck.core.AlphanumericRandomStringService;
 import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.ConnectionCallback;
 import ch.cyberduck.core.DisabledLoginCallback;
@@ -7,8 +8,11 @@ import ch.cyberduck.core.DisabledProgressListener;
 import ch.cyberduck.core.Host;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalAttributes;
 import ch.cyberduck.core.NullLocal;
 import ch.cyberduck.core.NullSession;
+import ch.cyberduck.core.NullTransferSession;
+import ch.cyberduck.core.NullWriteFeature;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathAttributes;
 import ch.cyberduck.core.ProgressListener;
@@ -17,8 +21,13 @@ import ch.cyberduck.core.TestProtocol;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.features.AttributesFinder;
+import ch.cyberduck.core.features.Find;
+import ch.cyberduck.core.features.Write;
 import ch.cyberduck.core.io.DisabledStreamListener;
+import ch.cyberduck.core.io.SegmentedFileChannel;
+import ch.cyberduck.core.io.StatusOutputStream;
 import ch.cyberduck.core.io.StreamListener;
+import ch.cyberduck.core.local.DefaultLocalTouchFeature;
 import ch.cyberduck.core.notification.DisabledNotificationService;
 import ch.cyberduck.core.transfer.DisabledTransferErrorCallback;
 import ch.cyberduck.core.transfer.DisabledTransferPrompt;
@@ -31,11 +40,19 @@ import ch.cyberduck.core.transfer.TransferSpeedometer;
 import ch.cyberduck.core.transfer.TransferStatus;
 import ch.cyberduck.core.transfer.UploadTransfer;
 import ch.cyberduck.core.transfer.download.AbstractDownloadFilter;
+import ch.cyberduck.core.transfer.download.DownloadFilterOptions;
+import ch.cyberduck.core.transfer.download.RenameFilter;
+import ch.cyberduck.core.transfer.symlink.DisabledDownloadSymlinkResolver;
+import ch.cyberduck.core.transfer.symlink.DisabledUploadSymlinkResolver;
+import ch.cyberduck.core.transfer.upload.AbstractUploadFilter;
+import ch.cyberduck.core.transfer.upload.UploadFilterOptions;
 
 import org.junit.Test;
 
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.Future;
 
 import static org.junit.Assert.*;
@@ -252,6 +269,155 @@ public class SingleTransferWorkerTest {
         assertTrue(worker.getCache().isEmpty());
     }
 
+    @Test
+    public void testDownloadSegmentsInPlaceRename() throws Exception {
+        final Path file = new Path("/t", EnumSet.of(Path.Type.file));
+        file.attributes().setSize(50L * 1024L * 1024L);
+        final Local local = new Local(System.getProperty("java.io.tmpdir"), new AlphanumericRandomStringService().random());
+        new DefaultLocalTouchFeature().touch(local);
+        final Set<Local> targets = new HashSet<>();
+        final Transfer t = new DownloadTransfer(new Host(new TestProtocol()), file, local) {
+            @Override
+            public void transfer(final Session<?> source, final Session<?> destination, final Path file, Local local,
+                                 final TransferOptions options, final TransferStatus overall, final TransferStatus segment,
+                                 final ConnectionCallback connectionCallback,
+                                 final ProgressListener listener, final StreamListener streamListener) {
+                assertTrue(segment.isSegment());
+                targets.add(local);
+                segment.setComplete();
+            }
+
+            @Override
+            public AbstractDownloadFilter filter(final Session<?> source, final Session<?> destination, final TransferAction action, final ProgressListener listener) {
+                final DownloadFilterOptions options = new DownloadFilterOptions();
+                options.segments = true;
+                options.inplace = true;
+                options.icon = false;
+                options.quarantine = false;
+                options.wherefrom = false;
+                options.open = false;
+                return new RenameFilter(new DisabledDownloadSymlinkResolver(), source, options).withAttributes(new AttributesFinder() {
+                    @Override
+                    public PathAttributes find(final Path file, final ListProgressListener listener) {
+                        return file.attributes();
+                    }
+                });
+            }
+        };
+        final NullSession session = new NullTransferSession(new Host(new TestProtocol()));
+        final SingleTransferWorker worker = new SingleTransferWorker(session, session, t, new TransferOptions(), new TransferSpeedometer(t), new DisabledTransferPrompt() {
+            @Override
+            public TransferAction prompt(final TransferItem file) {
+                return TransferAction.rename;
+            }
+        }, new DisabledTransferErrorCallback(),
+            new DisabledProgressListener(), new DisabledStreamListener(), new DisabledLoginCallback(), new DisabledNotificationService());
+        try {
+            worker.run(session);
+            // All segments written to renamed file allocated
+            assertEquals(1, targets.size());
+            final Local renamed = targets.iterator().next();
+            assertNotEquals(local, renamed);
+            assertEquals(0L, local.attributes().getSize());
+            assertEquals(file.attributes().getSize(), renamed.attributes().getSize());
+            assertFalse(SegmentedFileChannel.state(renamed).exists());
+            renamed.delete();
+        }
+        finally {
+            local.delete();
+        }
+    }
+
+    @Test
+    public void testUploadSegmentsRename() throws Exception {
+        final Path directory = new Path("/t", EnumSet.of(Path.Type.directory));
+        final Path file = new Path(directory, "f", EnumSet.of(Path.Type.file));
+        final Path renamed = new Path(directory, "f-1", EnumSet.of(Path.Type.file));
+        final long size = 25L * 1024L * 1024L;
+        final NullLocal local = new NullLocal("f") {
+            @Override
+            public LocalAttributes attributes() {
+                return new LocalAttributes("f") {
+                    @Override
+                    public long getSize() {
+                        return size;
+                    }
+                };
+            }
+
+            @Override
+            public boolean isFile() {
+                return true;
+            }
+
+            @Override
+            public boolean exists() {
+                return true;
+            }
+        };
+        final Set<Path> written = new HashSet<>();
+        final NullSession session = new NullTransferSession(new Host(new TestProtocol())) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T _getFeature(final Class<T> type) {
+                if(type == Write.class) {
+                    return (T) new NullWriteFeature(this) {
+                        @Override
+                        public StatusOutputStream<Void> write(final Path file, final TransferStatus status, final ConnectionCallback callback) {
+                            written.add(file);
+                            return super.write(file, status, callback);
+                        }
+
+                        @Override
+                        public boolean segmented(final Path file) {
+                            return true;
+                        }
+                    };
+                }
+                return super._getFeature(type);
+            }
+        };
+        final Set<Path> targets = new HashSet<>();
+        final Transfer t = new UploadTransfer(session.getHost(), file, local) {
+            @Override
+            public void transfer(final Session<?> source, final Session<?> destination, final Path file, Local local,
+                                 final TransferOptions options, final TransferStatus overall, final TransferStatus segment,
+                                 final ConnectionCallback connectionCallback,
+                                 final ProgressListener listener, final StreamListener streamListener) {
+                assertTrue(segment.isSegment());
+                targets.add(file);
+                segment.setComplete();
+            }
+
+            @Override
+            public AbstractUploadFilter filter(final Session<?> source, final Session<?> destination, final TransferAction action, final ProgressListener listener) {
+                return new ch.cyberduck.core.transfer.upload.RenameFilter(new DisabledUploadSymlinkResolver(), source,
+                    new UploadFilterOptions().withTemporary(false).withSegments(true)).withFinder(new Find() {
+                    @Override
+                    public boolean find(final Path f, final ListProgressListener listener) {
+                        return f.equals(file) || f.equals(directory);
+                    }
+                }).withAttributes(new AttributesFinder() {
+                    @Override
+                    public PathAttributes find(final Path file, final ListProgressListener listener) {
+                        return new PathAttributes().withSize(size);
+                    }
+                });
+            }
+        };
+        final SingleTransferWorker worker = new SingleTransferWorker(session, session, t, new TransferOptions(), new TransferSpeedometer(t), new DisabledTransferPrompt() {
+            @Override
+            public TransferAction prompt(final TransferItem file) {
+                return TransferAction.rename;
+            }
+        }, new DisabledTransferErrorCallback(),
+            new DisabledProgressListener(), new DisabledStreamListener(), new DisabledLoginCallback(), new DisabledNotificationService());
+        worker.run(session);
+        // File kept and all segments written to renamed file created
+        assertEquals(Collections.singleton(renamed), targets);
+        assertEquals(Collections.singleton(renamed), written);
+    }
+
     @Test(expected = NotfoundException.class)
     public void testUploadFileNotFound() throws Exception {
         // #7791
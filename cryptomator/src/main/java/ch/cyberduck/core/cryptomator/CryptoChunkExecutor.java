@@ -0,0 +1,37 @@
+package ch.cyberduck.core.cryptomator;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Worker pool shared by all vault streams to encrypt and decrypt file content chunks in parallel
+ */
+final class CryptoChunkExecutor {
+
+    private static final ForkJoinPool pool = new ForkJoinPool(
+        Math.max(1, PreferencesFactory.get().getInteger("cryptomator.chunk.threads")));
+
+    private CryptoChunkExecutor() {
+        //
+    }
+
+    public static ForkJoinPool get() {
+        return pool;
+    }
+}
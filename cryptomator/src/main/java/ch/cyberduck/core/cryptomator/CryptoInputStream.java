@@ -15,6 +15,8 @@ package ch.cyberduck.core.cryptomator;
  * GNU General Public License for more details.
  */
 
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.input.ProxyInputStream;
 import org.cryptomator.cryptolib.api.CryptoException;
@@ -23,8 +25,19 @@ import org.cryptomator.cryptolib.api.FileHeader;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+/**
+ * Reads ahead up to a configured number of chunks to decrypt on a shared worker pool. Decrypted chunks are returned
+ * in order of chunk index.
+ */
 public class CryptoInputStream extends ProxyInputStream {
 
     private final InputStream proxy;
@@ -39,13 +52,40 @@ public class CryptoInputStream extends ProxyInputStream {
     private long chunkIndexOffset;
     private final int chunkSize;
 
+    private final ExecutorService executor;
+    /**
+     * Maximum number of chunks read ahead
+     */
+    private final int concurrency;
+    /**
+     * Decrypted chunks pending in order of chunk index
+     */
+    private final Deque<Future<ByteBuffer>> pending = new ArrayDeque<>();
+    /**
+     * Ciphertext buffers of pending chunks
+     */
+    private final Deque<ByteBuffer> buffers = new ArrayDeque<>();
+    /**
+     * Ciphertext buffers available for reuse
+     */
+    private final Deque<ByteBuffer> pool = new ArrayDeque<>();
+    private boolean eof;
+
     public CryptoInputStream(final InputStream proxy, final FileContentCryptor cryptor, final FileHeader header, final long chunkIndexOffset) {
+        this(proxy, cryptor, header, chunkIndexOffset, CryptoChunkExecutor.get(),
+            PreferencesFactory.get().getInteger("cryptomator.chunk.concurrency"));
+    }
+
+    public CryptoInputStream(final InputStream proxy, final FileContentCryptor cryptor, final FileHeader header, final long chunkIndexOffset,
+                             final ExecutorService executor, final int concurrency) {
         super(proxy);
         this.proxy = proxy;
         this.cryptor = cryptor;
         this.header = header;
         this.chunkSize = cryptor.ciphertextChunkSize();
         this.chunkIndexOffset = chunkIndexOffset;
+        this.executor = executor;
+        this.concurrency = concurrency;
     }
 
     @Override
@@ -79,20 +119,79 @@ public class CryptoInputStream extends ProxyInputStream {
         return IOUtils.skip(this, len);
     }
 
+    @Override
+    public void close() throws IOException {
+        try {
+            this.cancel();
+        }
+        finally {
+            super.close();
+        }
+    }
+
     private int readNextChunk() throws IOException {
-        final ByteBuffer ciphertextBuf = ByteBuffer.allocate(chunkSize);
-        final int read = IOUtils.read(proxy, ciphertextBuf.array());
-        if(read == 0) {
+        if(concurrency <= 1) {
+            final ByteBuffer ciphertextBuf = ByteBuffer.allocate(chunkSize);
+            final int read = IOUtils.read(proxy, ciphertextBuf.array());
+            if(read == 0) {
+                return IOUtils.EOF;
+            }
+            ciphertextBuf.position(read);
+            ciphertextBuf.flip();
+            try {
+                buffer = cryptor.decryptChunk(ciphertextBuf, chunkIndexOffset++, header, true);
+            }
+            catch(CryptoException e) {
+                throw new IOException(e.getMessage(), new CryptoAuthenticationException(e.getMessage(), e));
+            }
+            return read;
+        }
+        while(!eof && pending.size() < concurrency) {
+            final ByteBuffer ciphertextBuf = pool.isEmpty() ? ByteBuffer.allocate(chunkSize) : pool.pop();
+            final int read = IOUtils.read(proxy, ciphertextBuf.array());
+            if(read == 0) {
+                pool.push(ciphertextBuf);
+                eof = true;
+                break;
+            }
+            ciphertextBuf.clear();
+            ciphertextBuf.position(read);
+            ciphertextBuf.flip();
+            final long index = chunkIndexOffset++;
+            buffers.add(ciphertextBuf);
+            pending.add(executor.submit(new Callable<ByteBuffer>() {
+                @Override
+                public ByteBuffer call() throws CryptoException {
+                    return cryptor.decryptChunk(ciphertextBuf, index, header, true);
+                }
+            }));
+        }
+        if(pending.isEmpty()) {
             return IOUtils.EOF;
         }
-        ciphertextBuf.position(read);
-        ciphertextBuf.flip();
         try {
-            buffer = cryptor.decryptChunk(ciphertextBuf, chunkIndexOffset++, header, true);
+            buffer = pending.remove().get();
         }
-        catch(CryptoException e) {
-            throw new IOException(e.getMessage(), new CryptoAuthenticationException(e.getMessage(), e));
+        catch(InterruptedException e) {
+            this.cancel();
+            throw new InterruptedIOException(e.getMessage());
         }
-        return read;
+        catch(ExecutionException e) {
+            this.cancel();
+            if(e.getCause() instanceof CryptoException) {
+                throw new IOException(e.getCause().getMessage(), new CryptoAuthenticationException(e.getCause().getMessage(), e.getCause()));
+            }
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        }
+        pool.push(buffers.remove());
+        return buffer.remaining();
+    }
+
+    private void cancel() {
+        for(Future<ByteBuffer> f : pending) {
+            f.cancel(false);
+        }
+        pending.clear();
+        buffers.clear();
     }
 }
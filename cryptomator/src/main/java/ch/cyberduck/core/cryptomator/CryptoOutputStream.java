@@ -18,6 +18,7 @@ package ch.cyberduck.core.cryptomator;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.io.MemorySegementingOutputStream;
 import ch.cyberduck.core.io.StatusOutputStream;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.random.NonceGenerator;
 
 import org.apache.commons.io.output.ProxyOutputStream;
@@ -26,9 +27,16 @@ import org.cryptomator.cryptolib.api.FileContentCryptor;
 import org.cryptomator.cryptolib.api.FileHeader;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 public class CryptoOutputStream<Reply> extends StatusOutputStream<Reply> {
 
@@ -41,6 +49,18 @@ public class CryptoOutputStream<Reply> extends StatusOutputStream<Reply> {
         this.proxy = proxy;
     }
 
+    /**
+     * @param executor    Pool to encrypt chunks
+     * @param concurrency Maximum number of chunks in flight. Encrypt on writing thread when 1
+     */
+    public CryptoOutputStream(final StatusOutputStream<Reply> proxy, final FileContentCryptor cryptor, final FileHeader header,
+                              final NonceGenerator nonces, final long chunkIndexOffset,
+                              final ExecutorService executor, final int concurrency) {
+        super(new MemorySegementingOutputStream(new EncryptingOutputStream(proxy, cryptor, header, nonces, chunkIndexOffset, executor, concurrency),
+            cryptor.cleartextChunkSize()));
+        this.proxy = proxy;
+    }
+
     @Override
     public void write(final int b) throws IOException {
         throw new IOException(new UnsupportedOperationException());
@@ -56,6 +76,10 @@ public class CryptoOutputStream<Reply> extends StatusOutputStream<Reply> {
         write(b, 0, b.length);
     }
 
+    /**
+     * Encrypts chunks on a shared worker pool with up to a configured number of chunks in flight. Chunk index and
+     * nonce are assigned in order on the writing thread and encrypted chunks are written to the proxy in order.
+     */
     private static final class EncryptingOutputStream extends ProxyOutputStream {
         private final FileContentCryptor cryptor;
         private final FileHeader header;
@@ -63,14 +87,41 @@ public class CryptoOutputStream<Reply> extends StatusOutputStream<Reply> {
         private final NonceGenerator nonces;
         private long chunkIndexOffset;
 
+        private final ExecutorService executor;
+        /**
+         * Maximum number of chunks in flight
+         */
+        private final int concurrency;
+        /**
+         * Encrypted chunks pending in order of chunk index
+         */
+        private final Deque<Future<ByteBuffer>> pending = new ArrayDeque<>();
+        /**
+         * Cleartext buffers of pending chunks
+         */
+        private final Deque<ByteBuffer> buffers = new ArrayDeque<>();
+        /**
+         * Cleartext buffers available for reuse
+         */
+        private final Deque<ByteBuffer> pool = new ArrayDeque<>();
+
         public EncryptingOutputStream(final OutputStream proxy, final FileContentCryptor cryptor, final FileHeader header,
                                       final NonceGenerator nonces, final long chunkIndexOffset) {
+            this(proxy, cryptor, header, nonces, chunkIndexOffset, CryptoChunkExecutor.get(),
+                PreferencesFactory.get().getInteger("cryptomator.chunk.concurrency"));
+        }
+
+        public EncryptingOutputStream(final OutputStream proxy, final FileContentCryptor cryptor, final FileHeader header,
+                                      final NonceGenerator nonces, final long chunkIndexOffset,
+                                      final ExecutorService executor, final int concurrency) {
             super(proxy);
             this.cryptor = cryptor;
             this.header = header;
             this.chunksize = cryptor.cleartextChunkSize();
             this.nonces = nonces;
             this.chunkIndexOffset = chunkIndexOffset;
+            this.executor = executor;
+            this.concurrency = concurrency;
         }
 
         @Override
@@ -81,17 +132,93 @@ public class CryptoOutputStream<Reply> extends StatusOutputStream<Reply> {
         @Override
         public void write(final byte[] b, final int off, final int len) throws IOException {
             try {
-                for(int chunkOffset = off; chunkOffset < len; chunkOffset += chunksize) {
-                    int chunkLen = Math.min(chunksize, len - chunkOffset);
-                    final ByteBuffer encryptedChunk = cryptor.encryptChunk(
-                        ByteBuffer.wrap(Arrays.copyOfRange(b, chunkOffset, chunkOffset + chunkLen)),
-                        chunkIndexOffset++, header, nonces.next());
-                    super.write(encryptedChunk.array());
+                for(int chunkOffset = off; chunkOffset < off + len; chunkOffset += chunksize) {
+                    int chunkLen = Math.min(chunksize, off + len - chunkOffset);
+                    if(concurrency <= 1) {
+                        final ByteBuffer encryptedChunk = cryptor.encryptChunk(
+                            ByteBuffer.wrap(Arrays.copyOfRange(b, chunkOffset, chunkOffset + chunkLen)),
+                            chunkIndexOffset++, header, nonces.next());
+                        super.write(encryptedChunk.array());
+                        continue;
+                    }
+                    while(pending.size() >= concurrency) {
+                        this.next();
+                    }
+                    final ByteBuffer cleartext = pool.isEmpty() ? ByteBuffer.allocate(chunksize) : pool.pop();
+                    cleartext.clear();
+                    cleartext.put(b, chunkOffset, chunkLen);
+                    cleartext.flip();
+                    final long index = chunkIndexOffset++;
+                    final byte[] nonce = nonces.next();
+                    buffers.add(cleartext);
+                    pending.add(executor.submit(new Callable<ByteBuffer>() {
+                        @Override
+                        public ByteBuffer call() throws CryptoException {
+                            return cryptor.encryptChunk(cleartext, index, header, nonce);
+                        }
+                    }));
                 }
             }
             catch(CryptoException e) {
                 throw new IOException(e.getMessage(), new CryptoAuthenticationException(e.getMessage(), e));
             }
         }
+
+        /**
+         * Wait for next chunk in order and write to proxy
+         */
+        private void next() throws IOException {
+            final ByteBuffer encryptedChunk;
+            try {
+                encryptedChunk = pending.remove().get();
+            }
+            catch(InterruptedException e) {
+                this.cancel();
+                throw new InterruptedIOException(e.getMessage());
+            }
+            catch(ExecutionException e) {
+                this.cancel();
+                if(e.getCause() instanceof CryptoException) {
+                    throw new IOException(e.getCause().getMessage(), new CryptoAuthenticationException(e.getCause().getMessage(), e.getCause()));
+                }
+                throw new IOException(e.getCause().getMessage(), e.getCause());
+            }
+            pool.push(buffers.remove());
+            super.write(encryptedChunk.array());
+        }
+
+        /**
+         * Write all pending chunks to proxy
+         */
+        private void drain() throws IOException {
+            while(!pending.isEmpty()) {
+                this.next();
+            }
+        }
+
+        private void cancel() {
+            for(Future<ByteBuffer> f : pending) {
+                f.cancel(false);
+            }
+            pending.clear();
+            buffers.clear();
+        }
+
+        @Override
+        public void flush() throws IOException {
+            this.drain();
+            super.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                this.drain();
+            }
+            finally {
+                this.cancel();
+                super.close();
+            }
+        }
     }
 }
@@ -253,12 +253,13 @@ public class CryptoVault implements Vault {
             if(log.isInfoEnabled()) {
                 log.info(String.format("Close vault with cryptor %s", cryptor));
             }
-            if(cryptor != null) {
-                cryptor.destroy();
-            }
+            // Directory IDs are encrypted with the cryptor when persisted
             if(directoryProvider != null) {
                 directoryProvider.destroy();
             }
+            if(cryptor != null) {
+                cryptor.destroy();
+            }
             if(filenameProvider != null) {
                 filenameProvider.destroy();
             }
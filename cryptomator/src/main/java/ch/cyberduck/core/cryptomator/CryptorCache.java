@@ -16,6 +16,7 @@ package ch.cyberduck.core.cryptomator;
  */
 
 import ch.cyberduck.core.cache.LRUCache;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 
 import org.cryptomator.cryptolib.api.AuthenticationFailedException;
 import org.cryptomator.cryptolib.api.FileNameCryptor;
@@ -24,47 +25,62 @@ import java.util.Arrays;
 import java.util.Objects;
 
 import com.google.common.io.BaseEncoding;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
+/**
+ * Thread safe cache of directory ID hashes and encrypted and decrypted filenames
+ */
 public class CryptorCache {
 
     public static final BaseEncoding BASE32 = BaseEncoding.base32();
 
-    private final LRUCache<String, String> directoryIdCache = LRUCache.build(250);
-    private final LRUCache<CacheKey, String> decryptCache = LRUCache.build(5000);
-    private final LRUCache<CacheKey, String> encryptCache = LRUCache.build(5000);
+    private final LRUCache<String, String> directoryIdCache;
+    private final LRUCache<CacheKey, String> decryptCache;
+    private final LRUCache<CacheKey, String> encryptCache;
 
     private final FileNameCryptor impl;
 
     public CryptorCache(final FileNameCryptor impl) {
+        this(impl, PreferencesFactory.get().getLong("cryptomator.cache.hash.size"),
+            PreferencesFactory.get().getLong("cryptomator.cache.filename.size"));
+    }
+
+    public CryptorCache(final FileNameCryptor impl, final long directoryIds, final long filenames) {
         this.impl = impl;
+        this.directoryIdCache = LRUCache.usingLoader(impl::hashDirectoryId, directoryIds);
+        this.decryptCache = LRUCache.usingLoader(this::decrypt, filenames);
+        this.encryptCache = LRUCache.usingLoader(this::encrypt, filenames);
     }
 
     public String hashDirectoryId(final String cleartextDirectoryId) {
-        if(!directoryIdCache.contains(cleartextDirectoryId)) {
-            directoryIdCache.put(cleartextDirectoryId, impl.hashDirectoryId(cleartextDirectoryId));
-        }
         return directoryIdCache.get(cleartextDirectoryId);
     }
 
     public String encryptFilename(final BaseEncoding encoding, final String cleartextName, final byte[] associatedData) {
-        final CacheKey key = new CacheKey(encoding, cleartextName, associatedData);
-        if(encryptCache.contains(key)) {
-            return encryptCache.get(key);
-        }
-        final String ciphertextName = impl.encryptFilename(encoding, cleartextName, associatedData);
-        encryptCache.put(key, ciphertextName);
-        decryptCache.put(new CacheKey(encoding, ciphertextName, associatedData), cleartextName);
-        return ciphertextName;
+        return encryptCache.get(new CacheKey(encoding, cleartextName, associatedData));
     }
 
     public String decryptFilename(final BaseEncoding encoding, final String ciphertextName, final byte[] associatedData) throws AuthenticationFailedException {
-        final CacheKey key = new CacheKey(encoding, ciphertextName, associatedData);
-        if(decryptCache.contains(key)) {
-            return decryptCache.get(key);
+        try {
+            return decryptCache.get(new CacheKey(encoding, ciphertextName, associatedData));
         }
-        final String cleartextName = impl.decryptFilename(encoding, ciphertextName, associatedData);
-        decryptCache.put(key, cleartextName);
-        encryptCache.put(new CacheKey(encoding, cleartextName, associatedData), ciphertextName);
+        catch(UncheckedExecutionException e) {
+            if(e.getCause() instanceof AuthenticationFailedException) {
+                throw (AuthenticationFailedException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private String encrypt(final CacheKey key) {
+        final String ciphertextName = impl.encryptFilename(key.encoding, key.value, key.data);
+        decryptCache.put(new CacheKey(key.encoding, ciphertextName, key.data), key.value);
+        return ciphertextName;
+    }
+
+    private String decrypt(final CacheKey key) {
+        final String cleartextName = impl.decryptFilename(key.encoding, key.value, key.data);
+        encryptCache.put(new CacheKey(key.encoding, cleartextName, key.data), key.value);
         return cleartextName;
     }
 
@@ -0,0 +1,134 @@
+package ch.cyberduck.core.cryptomator.impl;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalFactory;
+import ch.cyberduck.core.cryptomator.CryptoInputStream;
+import ch.cyberduck.core.cryptomator.CryptoOutputStream;
+import ch.cyberduck.core.cryptomator.CryptoVault;
+import ch.cyberduck.core.cryptomator.random.RandomNonceGenerator;
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.io.StatusOutputStream;
+import ch.cyberduck.core.io.TabSeparatedFile;
+import ch.cyberduck.core.preferences.SupportDirectoryFinderFactory;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+import org.cryptomator.cryptolib.api.CryptoException;
+import org.cryptomator.cryptolib.api.FileHeader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Directory IDs of a vault saved in the support directory. The file is encrypted with the vault content cryptor and
+ * named by the hash of the root directory ID, which is unique per vault.
+ */
+final class CryptoDirectoryIdStore {
+    private static final Logger log = Logger.getLogger(CryptoDirectoryIdStore.class);
+
+    private final TabSeparatedFile file;
+
+    public CryptoDirectoryIdStore(final CryptoVault vault) {
+        this(LocalFactory.get(SupportDirectoryFinderFactory.get().find(), "Vaults"), vault);
+    }
+
+    public CryptoDirectoryIdStore(final Local directory, final CryptoVault vault) {
+        this.file = new TabSeparatedFile(LocalFactory.get(directory, String.format("%s.cyberduckvault",
+            DigestUtils.sha1Hex(vault.getFileNameCryptor().hashDirectoryId(StringUtils.EMPTY))))) {
+            @Override
+            protected InputStream decode(final InputStream in) throws IOException {
+                final ByteBuffer headerBuffer = ByteBuffer.allocate(vault.getFileHeaderCryptor().headerSize());
+                IOUtils.readFully(in, headerBuffer.array());
+                try {
+                    final FileHeader header = vault.getFileHeaderCryptor().decryptHeader(headerBuffer);
+                    return new CryptoInputStream(in, vault.getFileContentCryptor(), header, 0);
+                }
+                catch(CryptoException e) {
+                    throw new IOException(e.getMessage(), e);
+                }
+            }
+
+            @Override
+            protected OutputStream encode(final OutputStream out) throws IOException {
+                final FileHeader header = vault.getFileHeaderCryptor().create();
+                out.write(vault.getFileHeaderCryptor().encryptHeader(header).array());
+                return new CryptoOutputStream<>(new StatusOutputStream<Void>(out) {
+                    @Override
+                    public Void getStatus() {
+                        return null;
+                    }
+                }, vault.getFileContentCryptor(), header, new RandomNonceGenerator(), 0);
+            }
+        };
+    }
+
+    /**
+     * @return Directory ID by absolute path of clear text folder
+     */
+    public Map<String, String> load() {
+        final Map<String, String> ids = new HashMap<>();
+        try {
+            for(String[] entry : file.read(2)) {
+                ids.put(entry[1], entry[0]);
+            }
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Loaded %d directory IDs from %s", ids.size(), file));
+            }
+        }
+        catch(AccessDeniedException | CryptoException e) {
+            log.warn(String.format("Failure reading directory IDs from %s. %s", file, e.getMessage()));
+        }
+        return ids;
+    }
+
+    /**
+     * @param ids Directory ID by absolute path of clear text folder
+     */
+    public void save(final Map<String, String> ids) {
+        final List<String[]> rows = new ArrayList<>();
+        for(Map.Entry<String, String> entry : ids.entrySet()) {
+            rows.add(new String[]{entry.getValue(), entry.getKey()});
+        }
+        try {
+            file.write(rows);
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Saved %d directory IDs to %s", ids.size(), file));
+            }
+        }
+        catch(AccessDeniedException | CryptoException e) {
+            log.warn(String.format("Failure writing directory IDs to %s. %s", file, e.getMessage()));
+        }
+    }
+
+    public void delete() {
+        try {
+            file.delete();
+        }
+        catch(AccessDeniedException e) {
+            log.warn(String.format("Failure deleting %s. %s", file, e.getMessage()));
+        }
+    }
+}
@@ -15,7 +15,6 @@ package ch.cyberduck.core.cryptomator.impl;
  * GNU General Public License for more details.
  */
 
-import ch.cyberduck.core.CacheReference;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathAttributes;
 import ch.cyberduck.core.RandomStringService;
@@ -30,12 +29,27 @@ import ch.cyberduck.core.cryptomator.CryptorCache;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.unicode.NFCNormalizer;
+import ch.cyberduck.core.unicode.UnicodeNormalizer;
+import ch.cyberduck.core.worker.DefaultExceptionMappingService;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Logger;
 
 import java.nio.charset.StandardCharsets;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
 
 public class CryptoDirectoryV6Provider implements CryptoDirectory {
     private static final Logger log = Logger.getLogger(CryptoDirectoryV6Provider.class);
@@ -50,13 +64,46 @@ public class CryptoDirectoryV6Provider implements CryptoDirectory {
     private final RandomStringService random
         = new UUIDRandomStringService();
 
-    private final LRUCache<CacheReference<Path>, String> cache = LRUCache.build(
-        PreferencesFactory.get().getInteger("cryptomator.cache.size"));
+    private static final UnicodeNormalizer normalizer = new NFCNormalizer();
+
+    /**
+     * Keys of cache sorted to find descendants of folder
+     */
+    private final NavigableSet<String> keys = new ConcurrentSkipListSet<>();
+
+    /**
+     * Directory ID by absolute path of clear text folder
+     */
+    private final LRUCache<String, String> cache = LRUCache.build(new RemovalListener<String, String>() {
+        @Override
+        public void onRemoval(final RemovalNotification<String, String> notification) {
+            if(notification.wasEvicted()) {
+                keys.remove(notification.getKey());
+            }
+        }
+    }, PreferencesFactory.get().getInteger("cryptomator.cache.size"));
+
+    /**
+     * Persistent directory IDs or null
+     */
+    private final CryptoDirectoryIdStore store;
+    private final AtomicBoolean restored = new AtomicBoolean();
+
+    /**
+     * Directory IDs saved in previous session not yet verified
+     */
+    private final NavigableMap<String, String> persisted = new ConcurrentSkipListMap<>();
 
     public CryptoDirectoryV6Provider(final Path vault, final CryptoVault cryptomator) {
+        this(vault, cryptomator, PreferencesFactory.get().getBoolean("cryptomator.cache.persistent") ?
+            new CryptoDirectoryIdStore(cryptomator) : null);
+    }
+
+    CryptoDirectoryV6Provider(final Path vault, final CryptoVault cryptomator, final CryptoDirectoryIdStore store) {
         this.home = vault;
         this.dataRoot = new Path(vault, DATA_DIR_NAME, vault.getType());
         this.cryptomator = cryptomator;
+        this.store = store;
     }
 
     @Override
@@ -75,56 +122,124 @@ public class CryptoDirectoryV6Provider implements CryptoDirectory {
             throw new NotfoundException(directory.getAbsolute());
         }
         if(new SimplePathPredicate(directory).test(home) || directory.isChild(home)) {
-            final PathAttributes attributes = new PathAttributes(directory.attributes());
-            // The root of the vault is a different target directory and file ids always correspond to the metadata file
-            attributes.withVersionId(null);
-            attributes.withFileId(null);
             // Remember random directory id for use in vault
-            final String id = this.toDirectoryId(session, directory, directoryId);
-            if(log.isDebugEnabled()) {
-                log.debug(String.format("Use directory ID '%s' for folder %s", id, directory));
-            }
-            attributes.setDirectoryId(id);
-            attributes.setDecrypted(directory);
-            final String directoryIdHash = cryptomator.getFileNameCryptor().hashDirectoryId(id);
-            // Intermediate directory
-            final Path intermediate = new Path(dataRoot, directoryIdHash.substring(0, 2), dataRoot.getType());
-            // Add encrypted type
-            final EnumSet<Path.Type> type = EnumSet.copyOf(directory.getType());
-            type.add(Path.Type.encrypted);
-            type.remove(Path.Type.decrypted);
-            return new Path(intermediate, directoryIdHash.substring(2), type, attributes);
+            return this.toEncrypted(directory, this.toDirectoryId(session, directory, directoryId));
         }
         throw new NotfoundException(directory.getAbsolute());
     }
 
+    /**
+     * @param id Directory ID of folder
+     * @return Data directory of folder
+     */
+    private Path toEncrypted(final Path directory, final String id) {
+        final PathAttributes attributes = new PathAttributes(directory.attributes());
+        // The root of the vault is a different target directory and file ids always correspond to the metadata file
+        attributes.withVersionId(null);
+        attributes.withFileId(null);
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Use directory ID '%s' for folder %s", id, directory));
+        }
+        attributes.setDirectoryId(id);
+        attributes.setDecrypted(directory);
+        final String directoryIdHash = cryptomator.getFileNameCryptor().hashDirectoryId(id);
+        // Intermediate directory
+        final Path intermediate = new Path(dataRoot, directoryIdHash.substring(0, 2), dataRoot.getType());
+        // Add encrypted type
+        final EnumSet<Path.Type> type = EnumSet.copyOf(directory.getType());
+        type.add(Path.Type.encrypted);
+        type.remove(Path.Type.decrypted);
+        return new Path(intermediate, directoryIdHash.substring(2), type, attributes);
+    }
+
     private String toDirectoryId(final Session<?> session, final Path directory, final String directoryId) throws BackgroundException {
         if(new SimplePathPredicate(home).test(directory)) {
             return ROOT_DIR_ID;
         }
         if(StringUtils.isBlank(directoryId)) {
-            if(cache.contains(new SimplePathPredicate(directory))) {
-                return cache.get(new SimplePathPredicate(directory));
+            this.restore();
+            final String key = this.key(directory);
+            try {
+                // Load once for concurrent lookups of the same folder
+                final String id = cache.get(key, new Callable<String>() {
+                    @Override
+                    public String call() throws BackgroundException {
+                        return load(session, directory);
+                    }
+                });
+                keys.add(key);
+                return id;
+            }
+            catch(ExecutionException e) {
+                if(e.getCause() instanceof BackgroundException) {
+                    throw (BackgroundException) e.getCause();
+                }
+                throw new DefaultExceptionMappingService().map(e.getCause());
             }
-            final String id = this.load(session, directory);
-            cache.put(new SimplePathPredicate(directory), id);
-            return id;
         }
-        cache.put(new SimplePathPredicate(directory), directoryId);
+        final String key = this.key(directory);
+        cache.put(key, directoryId);
+        keys.add(key);
         return directoryId;
     }
 
+    private String key(final Path directory) {
+        return normalizer.normalize(directory.getAbsolute()).toString();
+    }
+
+    /**
+     * Read persisted directory IDs once
+     */
+    private void restore() {
+        if(null == store) {
+            return;
+        }
+        if(restored.compareAndSet(false, true)) {
+            persisted.putAll(store.load());
+        }
+    }
+
+    /**
+     * @return Directory ID of folder saved in previous session or null if not saved or already known
+     */
+    private String saved(final Path directory) {
+        if(StringUtils.isNotBlank(directory.attributes().getDirectoryId())) {
+            return null;
+        }
+        if(new SimplePathPredicate(home).test(directory)) {
+            return null;
+        }
+        final String key = this.key(directory);
+        if(cache.contains(key)) {
+            return null;
+        }
+        return persisted.get(key);
+    }
+
     protected String load(final Session<?> session, final Path directory) throws BackgroundException {
+        final String saved = this.saved(directory.getParent());
+        if(null != saved) {
+            // Saved directory ID of parent is valid when metadata file of folder is found in its data directory
+            try {
+                final String id = this.read(session, directory, this.toEncrypted(directory.getParent(), saved));
+                // Only cache when verified and use for all siblings
+                final String key = this.key(directory.getParent());
+                cache.put(key, saved);
+                keys.add(key);
+                persisted.remove(key);
+                persisted.remove(this.key(directory));
+                return id;
+            }
+            catch(NotfoundException e) {
+                log.warn(String.format("Discard saved directory ID %s for folder %s", saved, directory.getParent()));
+                this.delete(directory.getParent());
+            }
+        }
         final Path parent = this.toEncrypted(session, directory.getParent().attributes().getDirectoryId(), directory.getParent());
-        final String cleartextName = directory.getName();
-        final String ciphertextName = this.toEncrypted(session, parent.attributes().getDirectoryId(), cleartextName, EnumSet.of(Path.Type.directory));
-        // Read directory id from file
         try {
-            if(log.isDebugEnabled()) {
-                log.debug(String.format("Read directory ID for folder %s from %s", directory, ciphertextName));
-            }
-            final Path metadataFile = new Path(parent, ciphertextName, EnumSet.of(Path.Type.file, Path.Type.encrypted));
-            return new ContentReader(session).read(metadataFile);
+            final String id = this.read(session, directory, parent);
+            persisted.remove(this.key(directory));
+            return id;
         }
         catch(NotfoundException e) {
             log.warn(String.format("Missing directory ID for folder %s", directory));
@@ -132,12 +247,49 @@ public class CryptoDirectoryV6Provider implements CryptoDirectory {
         }
     }
 
+    /**
+     * Read directory ID from metadata file of folder
+     *
+     * @param directory Clear text folder
+     * @param parent    Encrypted data directory of parent folder
+     */
+    protected String read(final Session<?> session, final Path directory, final Path parent) throws BackgroundException {
+        final String ciphertextName = this.toEncrypted(session, parent.attributes().getDirectoryId(), directory.getName(), EnumSet.of(Path.Type.directory));
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Read directory ID for folder %s from %s", directory, ciphertextName));
+        }
+        final Path metadataFile = new Path(parent, ciphertextName, EnumSet.of(Path.Type.file, Path.Type.encrypted));
+        return new ContentReader(session).read(metadataFile);
+    }
+
+    /**
+     * Remove folder and all its descendants from cache
+     */
     public void delete(final Path directory) {
-        cache.remove(new SimplePathPredicate(directory));
+        final String key = this.key(directory);
+        cache.remove(key);
+        keys.remove(key);
+        persisted.remove(key);
+        // Descendants sort between delimiter and next character
+        final String from = key + Path.DELIMITER;
+        final String to = key + (char) (Path.DELIMITER + 1);
+        for(String k : keys.subSet(from, to)) {
+            cache.remove(k);
+            keys.remove(k);
+        }
+        persisted.subMap(from, to).clear();
     }
 
     @Override
     public void destroy() {
+        if(null != store) {
+            this.restore();
+            final Map<String, String> ids = new HashMap<>(persisted);
+            ids.putAll(cache.asMap());
+            store.save(ids);
+        }
         cache.clear();
+        keys.clear();
+        persisted.clear();
     }
 }
@@ -16,13 +16,10 @@ package ch.cyberduck.core.cryptomator.impl;
  */
 
 import ch.cyberduck.core.Path;
-import ch.cyberduck.core.RandomStringService;
 import ch.cyberduck.core.Session;
-import ch.cyberduck.core.UUIDRandomStringService;
 import ch.cyberduck.core.cryptomator.ContentReader;
 import ch.cyberduck.core.cryptomator.CryptoVault;
 import ch.cyberduck.core.exception.BackgroundException;
-import ch.cyberduck.core.exception.NotfoundException;
 
 import org.apache.log4j.Logger;
 
@@ -40,9 +37,6 @@ public class CryptoDirectoryV7Provider extends CryptoDirectoryV6Provider {
 
     private final CryptoVault cryptomator;
 
-    private final RandomStringService random
-        = new UUIDRandomStringService();
-
     public CryptoDirectoryV7Provider(final Path vault, final CryptoVault cryptomator) {
         super(vault, cryptomator);
         this.cryptomator = cryptomator;
@@ -58,22 +52,14 @@ public class CryptoDirectoryV7Provider extends CryptoDirectoryV6Provider {
         return cryptomator.getFilenameProvider().deflate(session, ciphertextName);
     }
 
-    protected String load(final Session<?> session, final Path directory) throws BackgroundException {
-        final Path parent = this.toEncrypted(session, directory.getParent().attributes().getDirectoryId(), directory.getParent());
-        final String cleartextName = directory.getName();
-        final String ciphertextName = this.toEncrypted(session, parent.attributes().getDirectoryId(), cleartextName, EnumSet.of(Path.Type.directory));
+    @Override
+    protected String read(final Session<?> session, final Path directory, final Path parent) throws BackgroundException {
+        final String ciphertextName = this.toEncrypted(session, parent.attributes().getDirectoryId(), directory.getName(), EnumSet.of(Path.Type.directory));
         final Path metadataParent = new Path(parent, ciphertextName, EnumSet.of(Path.Type.directory));
-        // Read directory id from file
-        try {
-            if(log.isDebugEnabled()) {
-                log.debug(String.format("Read directory ID for folder %s from %s", directory, ciphertextName));
-            }
-            final Path metadataFile = new Path(metadataParent, CryptoDirectoryV7Provider.DIRECTORY_METADATAFILE, EnumSet.of(Path.Type.file, Path.Type.encrypted));
-            return new ContentReader(session).read(metadataFile);
-        }
-        catch(NotfoundException e) {
-            log.warn(String.format("Missing directory ID for folder %s", directory));
-            return random.random();
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Read directory ID for folder %s from %s", directory, ciphertextName));
         }
+        final Path metadataFile = new Path(metadataParent, CryptoDirectoryV7Provider.DIRECTORY_METADATAFILE, EnumSet.of(Path.Type.file, Path.Type.encrypted));
+        return new ContentReader(session).read(metadataFile);
     }
 }
@@ -24,6 +24,7 @@ import ch.cyberduck.core.cryptomator.random.RandomNonceGenerator;
 import ch.cyberduck.core.features.Directory;
 import ch.cyberduck.core.features.Write;
 import ch.cyberduck.core.io.StatusOutputStream;
+import ch.cyberduck.core.random.NonceGenerator;
 import ch.cyberduck.core.transfer.TransferStatus;
 import ch.cyberduck.core.vault.VaultCredentials;
 
@@ -36,6 +37,9 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.nio.ByteBuffer;
 import java.util.EnumSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.Assert.*;
 
@@ -144,4 +148,108 @@ public class CryptoOutputStreamTest {
 
         assertArrayEquals(cleartext, read);
     }
+
+    @Test
+    public void testWriteMultipleChunks() throws Exception {
+        final CryptoVault vault = this.getVault();
+        final ByteArrayOutputStream cipherText = new ByteArrayOutputStream();
+        final FileHeader header = vault.getFileHeaderCryptor().create();
+        final CryptoOutputStream<?> stream = new CryptoOutputStream<>(new StatusOutputStream<Void>(cipherText) {
+            @Override
+            public Void getStatus() {
+                return null;
+            }
+        }, vault.getFileContentCryptor(), header, new RandomNonceGenerator(), 0);
+
+        final byte[] cleartext = RandomUtils.nextBytes(vault.getFileContentCryptor().cleartextChunkSize() * 20 + 1);
+        for(int offset = 0; offset < cleartext.length; offset += 10000) {
+            stream.write(cleartext, offset, Math.min(10000, cleartext.length - offset));
+        }
+        stream.close();
+
+        for(int concurrency : new int[]{1, 4}) {
+            final byte[] read = new byte[cleartext.length];
+            final CryptoInputStream cryptoInputStream = new CryptoInputStream(new ByteArrayInputStream(cipherText.toByteArray()),
+                vault.getFileContentCryptor(), header, 0, ForkJoinPool.commonPool(), concurrency);
+            IOUtils.readFully(cryptoInputStream, read);
+            cryptoInputStream.close();
+            assertArrayEquals(cleartext, read);
+        }
+    }
+
+    @Test
+    public void testEncryptConcurrentIdenticalToSerial() throws Exception {
+        final CryptoVault vault = this.getVault();
+        final FileHeader header = vault.getFileHeaderCryptor().create();
+        final byte[] cleartext = RandomUtils.nextBytes(vault.getFileContentCryptor().cleartextChunkSize() * 20 + 1);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final byte[] serial = this.encrypt(vault, header, cleartext, executor, 1);
+            for(int concurrency : new int[]{2, 8}) {
+                assertArrayEquals(serial, this.encrypt(vault, header, cleartext, executor, concurrency));
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testDecryptConcurrentIdenticalToSerial() throws Exception {
+        final CryptoVault vault = this.getVault();
+        final FileHeader header = vault.getFileHeaderCryptor().create();
+        final byte[] cleartext = RandomUtils.nextBytes(vault.getFileContentCryptor().cleartextChunkSize() * 20 + 1);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final byte[] ciphertext = this.encrypt(vault, header, cleartext, executor, 1);
+            final byte[] serial = this.decrypt(vault, header, ciphertext, executor, 1);
+            assertArrayEquals(cleartext, serial);
+            for(int concurrency : new int[]{2, 8}) {
+                assertArrayEquals(serial, this.decrypt(vault, header, ciphertext, executor, concurrency));
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    private byte[] encrypt(final CryptoVault vault, final FileHeader header, final byte[] cleartext,
+                           final ExecutorService executor, final int concurrency) throws Exception {
+        final ByteArrayOutputStream ciphertext = new ByteArrayOutputStream();
+        // Nonce sequence independent of concurrency to compare ciphertext
+        final NonceGenerator nonces = new NonceGenerator() {
+            private long counter;
+
+            @Override
+            public byte[] next() {
+                return ByteBuffer.allocate(16).putLong(8, counter++).array();
+            }
+        };
+        final CryptoOutputStream<?> stream = new CryptoOutputStream<>(new StatusOutputStream<Void>(ciphertext) {
+            @Override
+            public Void getStatus() {
+                return null;
+            }
+        }, vault.getFileContentCryptor(), header, nonces, 0, executor, concurrency);
+        for(int offset = 0; offset < cleartext.length; offset += 10000) {
+            stream.write(cleartext, offset, Math.min(10000, cleartext.length - offset));
+        }
+        stream.close();
+        return ciphertext.toByteArray();
+    }
+
+    private byte[] decrypt(final CryptoVault vault, final FileHeader header, final byte[] ciphertext,
+                           final ExecutorService executor, final int concurrency) throws Exception {
+        final ByteArrayOutputStream cleartext = new ByteArrayOutputStream();
+        final CryptoInputStream stream = new CryptoInputStream(new ByteArrayInputStream(ciphertext),
+            vault.getFileContentCryptor(), header, 0, executor, concurrency);
+        // Read with buffer not aligned to chunk size
+        final byte[] buffer = new byte[7777];
+        int read;
+        while((read = stream.read(buffer)) != -1) {
+            cleartext.write(buffer, 0, read);
+        }
+        stream.close();
+        return cleartext.toByteArray();
+    }
 }
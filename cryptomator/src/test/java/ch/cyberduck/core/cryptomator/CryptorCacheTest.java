@@ -19,6 +19,12 @@ import org.apache.commons.lang3.RandomStringUtils;
 import org.cryptomator.cryptolib.api.FileNameCryptor;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import com.google.common.io.BaseEncoding;
 
 import static org.junit.Assert.assertEquals;
@@ -38,6 +44,23 @@ public class CryptorCacheTest {
         verifyNoMoreInteractions(mock);
     }
 
+    @Test
+    public void TestHashDirectoryIdConcurrent() throws Exception {
+        final FileNameCryptor mock = mock(FileNameCryptor.class);
+        final CryptorCache cryptor = new CryptorCache(mock);
+        when(mock.hashDirectoryId(anyString())).thenReturn("hashed");
+        final ExecutorService pool = Executors.newFixedThreadPool(8);
+        final List<Future<String>> results = new ArrayList<>();
+        for(int i = 0; i < 100; i++) {
+            results.add(pool.submit(() -> cryptor.hashDirectoryId("id")));
+        }
+        for(Future<String> result : results) {
+            assertEquals("hashed", result.get());
+        }
+        pool.shutdown();
+        verify(mock, times(1)).hashDirectoryId(anyString());
+    }
+
     @Test
     public void TestEncryptFilename() {
         final FileNameCryptor mock = mock(FileNameCryptor.class);
@@ -0,0 +1,83 @@
+package ch.cyberduck.core.cryptomator.impl;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.DisabledPasswordStore;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalFactory;
+import ch.cyberduck.core.NullSession;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.TestProtocol;
+import ch.cyberduck.core.cryptomator.CryptoVault;
+import ch.cyberduck.core.features.Directory;
+import ch.cyberduck.core.features.Write;
+import ch.cyberduck.core.transfer.TransferStatus;
+import ch.cyberduck.core.vault.VaultCredentials;
+
+import org.junit.Test;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class CryptoDirectoryIdStoreTest {
+
+    @Test
+    public void testSaveLoad() throws Exception {
+        final Path home = new Path("/vault", EnumSet.of(Path.Type.directory));
+        final NullSession session = new NullSession(new Host(new TestProtocol())) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T _getFeature(final Class<T> type) {
+                if(type == Directory.class) {
+                    return (T) new Directory() {
+                        @Override
+                        public Path mkdir(final Path folder, final String region, final TransferStatus status) {
+                            return folder;
+                        }
+
+                        @Override
+                        public Directory withWriter(final Write writer) {
+                            return this;
+                        }
+                    };
+                }
+                return super._getFeature(type);
+            }
+        };
+        final CryptoVault vault = new CryptoVault(home);
+        vault.create(session, null, new VaultCredentials("test"), new DisabledPasswordStore());
+        final Local directory = LocalFactory.get(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final CryptoDirectoryIdStore store = new CryptoDirectoryIdStore(directory, vault);
+        assertTrue(store.load().isEmpty());
+        final Map<String, String> ids = new HashMap<>();
+        for(int i = 0; i < 1000; i++) {
+            ids.put(String.format("/vault/d%d/ü", i), UUID.randomUUID().toString());
+        }
+        ids.put("/vault/invalid\nname", UUID.randomUUID().toString());
+        store.save(ids);
+        ids.remove("/vault/invalid\nname");
+        assertEquals(ids, store.load());
+        assertEquals(ids, new CryptoDirectoryIdStore(directory, vault).load());
+        store.delete();
+        assertTrue(store.load().isEmpty());
+        directory.delete();
+    }
+}
@@ -20,6 +20,8 @@ import ch.cyberduck.core.Credentials;
 import ch.cyberduck.core.DisabledPasswordCallback;
 import ch.cyberduck.core.DisabledPasswordStore;
 import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalFactory;
 import ch.cyberduck.core.LoginOptions;
 import ch.cyberduck.core.NullSession;
 import ch.cyberduck.core.Path;
@@ -27,7 +29,9 @@ import ch.cyberduck.core.TestProtocol;
 import ch.cyberduck.core.cryptomator.CryptoDirectory;
 import ch.cyberduck.core.cryptomator.CryptoVault;
 import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.features.Directory;
 import ch.cyberduck.core.features.Read;
+import ch.cyberduck.core.features.Write;
 import ch.cyberduck.core.transfer.TransferStatus;
 import ch.cyberduck.core.vault.VaultCredentials;
 
@@ -36,9 +40,15 @@ import org.junit.Test;
 
 import java.io.InputStream;
 import java.nio.charset.Charset;
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 
 public class CryptoDirectoryV6ProviderTest {
@@ -104,4 +114,149 @@ public class CryptoDirectoryV6ProviderTest {
         assertNotNull(provider.toEncrypted(session, null, f));
         assertEquals(provider.toEncrypted(session, null, f), provider.toEncrypted(session, null, f));
     }
+
+    @Test
+    public void testCacheVerifiedSavedDirectoryId() throws Exception {
+        final Path home = new Path("/vault", EnumSet.of(Path.Type.directory));
+        final Map<String, String> ids = new HashMap<>();
+        final AtomicInteger reads = new AtomicInteger();
+        final CryptoVault vault = new CryptoVault(home);
+        final NullSession session = new NullSession(new Host(new TestProtocol())) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T _getFeature(final Class<T> type) {
+                if(type == Directory.class) {
+                    return (T) new Directory() {
+                        @Override
+                        public Path mkdir(final Path folder, final String region, final TransferStatus status) {
+                            return folder;
+                        }
+
+                        @Override
+                        public Directory withWriter(final Write writer) {
+                            return this;
+                        }
+                    };
+                }
+                if(type == Read.class) {
+                    return (T) new Read() {
+                        @Override
+                        public InputStream read(final Path file, final TransferStatus status, final ConnectionCallback callback) throws NotfoundException {
+                            reads.incrementAndGet();
+                            // Metadata file of folder is found in data directory of its parent
+                            for(Map.Entry<String, String> entry : ids.entrySet()) {
+                                if(file.getParent().getAbsolute().contains(vault.getFileNameCryptor().hashDirectoryId(entry.getKey()).substring(2))) {
+                                    return IOUtils.toInputStream(entry.getValue(), Charset.defaultCharset());
+                                }
+                            }
+                            throw new NotfoundException(file.getAbsolute());
+                        }
+
+                        @Override
+                        public boolean offset(final Path file) {
+                            return false;
+                        }
+                    };
+                }
+                return super._getFeature(type);
+            }
+        };
+        vault.create(session, null, new VaultCredentials("test"), new DisabledPasswordStore());
+        final Local directory = LocalFactory.get(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final CryptoDirectoryIdStore store = new CryptoDirectoryIdStore(directory, vault);
+        store.save(Collections.singletonMap("/vault/a", "A"));
+        ids.put("A", "X");
+        final CryptoDirectoryV6Provider provider = new CryptoDirectoryV6Provider(home, vault, store);
+        final Path a = new Path("/vault/a", EnumSet.of(Path.Type.directory));
+        assertEquals("X", provider.toEncrypted(session, null, new Path(a, "x", EnumSet.of(Path.Type.directory))).attributes().getDirectoryId());
+        assertEquals(1, reads.get());
+        // Saved ID of parent verified with first child is used for siblings
+        assertEquals("X", provider.toEncrypted(session, null, new Path(a, "y", EnumSet.of(Path.Type.directory))).attributes().getDirectoryId());
+        assertEquals(2, reads.get());
+        assertEquals("A", provider.toEncrypted(session, null, a).attributes().getDirectoryId());
+        assertEquals(2, reads.get());
+        provider.destroy();
+        assertEquals("A", store.load().get("/vault/a"));
+        store.delete();
+        directory.delete();
+    }
+
+    @Test
+    public void testDiscardStaleSavedDirectoryId() throws Exception {
+        final Path home = new Path("/vault", EnumSet.of(Path.Type.directory));
+        final Map<String, String> ids = new HashMap<>();
+        final AtomicInteger reads = new AtomicInteger();
+        final CryptoVault vault = new CryptoVault(home);
+        final NullSession session = new NullSession(new Host(new TestProtocol())) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T _getFeature(final Class<T> type) {
+                if(type == Directory.class) {
+                    return (T) new Directory() {
+                        @Override
+                        public Path mkdir(final Path folder, final String region, final TransferStatus status) {
+                            return folder;
+                        }
+
+                        @Override
+                        public Directory withWriter(final Write writer) {
+                            return this;
+                        }
+                    };
+                }
+                if(type == Read.class) {
+                    return (T) new Read() {
+                        @Override
+                        public InputStream read(final Path file, final TransferStatus status, final ConnectionCallback callback) throws NotfoundException {
+                            reads.incrementAndGet();
+                            // Metadata file of folder is found in data directory of its parent
+                            for(Map.Entry<String, String> entry : ids.entrySet()) {
+                                if(file.getParent().getAbsolute().contains(vault.getFileNameCryptor().hashDirectoryId(entry.getKey()).substring(2))) {
+                                    return IOUtils.toInputStream(entry.getValue(), Charset.defaultCharset());
+                                }
+                            }
+                            throw new NotfoundException(file.getAbsolute());
+                        }
+
+                        @Override
+                        public boolean offset(final Path file) {
+                            return false;
+                        }
+                    };
+                }
+                return super._getFeature(type);
+            }
+        };
+        vault.create(session, null, new VaultCredentials("test"), new DisabledPasswordStore());
+        final Local directory = LocalFactory.get(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final CryptoDirectoryIdStore store = new CryptoDirectoryIdStore(directory, vault);
+        final Map<String, String> saved = new HashMap<>();
+        saved.put("/vault/a", "A");
+        saved.put("/vault/a/b", "B");
+        saved.put("/vault/a/b/c", "C");
+        store.save(saved);
+        // Folder /vault/a/b deleted and created again by other client
+        ids.put("A", "B2");
+        ids.put("B2", "C2");
+        final CryptoDirectoryV6Provider provider = new CryptoDirectoryV6Provider(home, vault, store);
+        final Path c = new Path("/vault/a/b/c", EnumSet.of(Path.Type.directory));
+        assertEquals("C2", provider.toEncrypted(session, null, c).attributes().getDirectoryId());
+        // Failed read with saved ID of /vault/a/b
+        assertEquals(3, reads.get());
+        assertEquals("B2", provider.toEncrypted(session, null, c.getParent()).attributes().getDirectoryId());
+        assertEquals(3, reads.get());
+        final Path d = new Path(c, "d", EnumSet.of(Path.Type.directory));
+        ids.put("C2", "D");
+        assertEquals("D", provider.toEncrypted(session, null, d).attributes().getDirectoryId());
+        assertEquals(4, reads.get());
+        provider.delete(c.getParent());
+        provider.destroy();
+        final Map<String, String> remaining = store.load();
+        assertEquals("A", remaining.get("/vault/a"));
+        assertFalse(remaining.containsKey("/vault/a/b"));
+        assertFalse(remaining.containsKey("/vault/a/b/c"));
+        assertFalse(remaining.containsKey("/vault/a/b/c/d"));
+        store.delete();
+        directory.delete();
+    }
 }
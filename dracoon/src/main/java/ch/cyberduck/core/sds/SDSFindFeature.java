@@ -38,6 +38,10 @@ public class SDSFindFeature implements Find {
             return true;
         }
         catch(NotfoundException e) {
+            if(nodeid.invalidate(file)) {
+                // Saved identifier of file or parent may be stale
+                return this.find(file, listener);
+            }
             return false;
         }
     }
@@ -95,6 +95,7 @@ public class SDSListService implements ListService {
         catch(ApiException e) {
             throw new SDSExceptionMappingService().map("Listing directory {0} failed", e, directory);
         }
+        nodeid.cache(children);
         return children;
     }
 
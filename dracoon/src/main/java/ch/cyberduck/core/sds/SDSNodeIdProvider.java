@@ -15,13 +15,13 @@ package ch.cyberduck.core.sds;
  * GNU General Public License for more details.
  */
 
+import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.DefaultIOExceptionMappingService;
 import ch.cyberduck.core.DefaultPathContainerService;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.Path;
-import ch.cyberduck.core.SimplePathPredicate;
 import ch.cyberduck.core.URIEncoder;
-import ch.cyberduck.core.cache.LRUCache;
+import ch.cyberduck.core.cache.PathIdIndex;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.features.VersionIdProvider;
@@ -41,6 +41,7 @@ import org.apache.log4j.Logger;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.function.Function;
 
 import com.dracoon.sdk.crypto.Crypto;
 import com.dracoon.sdk.crypto.model.PlainFileKey;
@@ -53,10 +54,11 @@ public class SDSNodeIdProvider implements VersionIdProvider {
     private static final String ROOT_NODE_ID = "0";
 
     private final SDSSession session;
-    private final LRUCache<SimplePathPredicate, String> cache = LRUCache.build(PreferencesFactory.get().getLong("fileid.cache.size"));
+    private final PathIdIndex cache;
 
     public SDSNodeIdProvider(final SDSSession session) {
         this.session = session;
+        this.cache = new PathIdIndex(session.getHost());
     }
 
     @Override
@@ -71,8 +73,8 @@ public class SDSNodeIdProvider implements VersionIdProvider {
     }
 
     protected String getNodeId(final Path file, final ListProgressListener listener, final int chunksize) throws BackgroundException {
-        if(cache.contains(new SimplePathPredicate(file))) {
-            final String cached = cache.get(new SimplePathPredicate(file));
+        final String cached = cache.get(file);
+        if(null != cached) {
             if(log.isDebugEnabled()) {
                 log.debug(String.format("Return cached node %s for file %s", cached, file));
             }
@@ -122,16 +124,42 @@ public class SDSNodeIdProvider implements VersionIdProvider {
             log.debug(String.format("Cache %s for file %s", id, file));
         }
         if(null == id) {
-            cache.remove(new SimplePathPredicate(file));
+            // Remove any descendants of moved or deleted folder
+            cache.remove(file);
             file.attributes().setVersionId(null);
         }
         else {
-            cache.put(new SimplePathPredicate(file), id);
+            cache.put(file, id);
             file.attributes().setVersionId(id);
         }
         return id;
     }
 
+    /**
+     * Add identifiers of files in directory listing
+     */
+    public void cache(final AttributedList<Path> list) {
+        cache.put(list, new Function<Path, String>() {
+            @Override
+            public String apply(final Path file) {
+                if(file.attributes().isDuplicate()) {
+                    // Ignore trashed files and previous versions
+                    return null;
+                }
+                return file.attributes().getVersionId();
+            }
+        });
+    }
+
+    /**
+     * Remove identifiers of file and its parents saved in a previous session
+     *
+     * @return True if lookup should be retried
+     */
+    public boolean invalidate(final Path file) {
+        return cache.invalidate(file);
+    }
+
     @Override
     public void clear() {
         cache.clear();
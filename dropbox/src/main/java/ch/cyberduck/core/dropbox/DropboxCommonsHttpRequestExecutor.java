@@ -17,7 +17,7 @@ package ch.cyberduck.core.dropbox;
 
 import ch.cyberduck.core.http.DelayedHttpEntity;
 import ch.cyberduck.core.http.HttpMethodReleaseInputStream;
-import ch.cyberduck.core.threading.DefaultThreadPool;
+import ch.cyberduck.core.http.HttpUploadExecutor;
 
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.CloseableHttpResponse;
@@ -111,8 +111,7 @@ public class DropboxCommonsHttpRequestExecutor extends HttpRequestor implements
             }
         };
         request.setEntity(entity);
-        final DefaultThreadPool executor = new DefaultThreadPool(String.format("http-%s", url), 1);
-        final Future<CloseableHttpResponse> future = executor.execute(new Callable<CloseableHttpResponse>() {
+        final Future<CloseableHttpResponse> future = HttpUploadExecutor.execute(new Callable<CloseableHttpResponse>() {
             @Override
             public CloseableHttpResponse call() throws Exception {
                 try {
@@ -159,9 +158,6 @@ public class DropboxCommonsHttpRequestExecutor extends HttpRequestor implements
                 catch(ExecutionException e) {
                     throw new IOException(e.getCause());
                 }
-                finally {
-                    executor.shutdown(false);
-                }
                 final Map<String, List<String>> responseHeaders = new HashMap<String, List<String>>();
                 for(org.apache.http.Header header : response.getAllHeaders()) {
                     // Ignore multiple headers with the same name
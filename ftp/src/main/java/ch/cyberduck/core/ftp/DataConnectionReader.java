@@ -0,0 +1,27 @@
+package ch.cyberduck.core.ftp;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.exception.BackgroundException;
+
+import java.util.Iterator;
+
+public interface DataConnectionReader<T> {
+    /**
+     * @param lines Lines read from the data connection as they arrive
+     */
+    T read(Iterator<String> lines) throws BackgroundException;
+}
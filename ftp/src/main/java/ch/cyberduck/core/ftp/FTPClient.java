@@ -20,6 +20,7 @@ package ch.cyberduck.core.ftp;
  */
 
 import ch.cyberduck.core.Protocol;
+import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.preferences.Preferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 
@@ -41,15 +42,18 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.net.Socket;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 public class FTPClient extends FTPSClient {
@@ -203,6 +207,73 @@ public class FTPClient extends FTPSClient {
         return results;
     }
 
+    /**
+     * Parse lines of the listing with the reader while they are received on the data connection
+     *
+     * @param reader Consumes the lines of the data connection
+     */
+    public <T> T list(final FTPCmd command, final String pathname, final DataConnectionReader<T> reader) throws IOException, BackgroundException {
+        this.pret(command, pathname);
+
+        final Socket socket = _openDataConnection_(command, pathname);
+
+        final BufferedReader in = new BufferedReader(
+            new InputStreamReader(socket.getInputStream(), getControlEncoding()));
+        final T result;
+        try {
+            result = reader.read(new Iterator<String>() {
+                private String next;
+                private boolean eof;
+
+                @Override
+                public boolean hasNext() {
+                    if(null == next && !eof) {
+                        try {
+                            next = in.readLine();
+                        }
+                        catch(IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        if(null == next) {
+                            eof = true;
+                        }
+                        else {
+                            _commandSupport_.fireReplyReceived(-1, next);
+                        }
+                    }
+                    return null != next;
+                }
+
+                @Override
+                public String next() {
+                    if(!this.hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    final String line = next;
+                    next = null;
+                    return line;
+                }
+            });
+        }
+        catch(UncheckedIOException e) {
+            socket.close();
+            throw e.getCause();
+        }
+        catch(BackgroundException e) {
+            socket.close();
+            // Read pending reply for aborted or rejected listing
+            this.completePendingCommand();
+            throw e;
+        }
+        in.close();
+        socket.close();
+
+        if(!this.completePendingCommand()) {
+            throw new FTPException(this.getReplyCode(), this.getReplyString());
+        }
+        return result;
+    }
+
     /**
      * Query the server for a supported feature, and returns its values (if any). Caches the parsed response to avoid
      * resending the command repeatedly.
@@ -18,10 +18,20 @@ package ch.cyberduck.core.ftp.list;
 import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.Path;
+import ch.cyberduck.core.exception.BackgroundException;
 
+import java.util.Iterator;
 import java.util.List;
 
 public interface FTPDataResponseReader {
 
-    AttributedList<Path> read(Path parent, List<String> replies, ListProgressListener listener) throws FTPInvalidListException;
+    AttributedList<Path> read(Path parent, List<String> replies, ListProgressListener listener) throws BackgroundException;
+
+    /**
+     * Parse lines as they are read from the data connection
+     *
+     * @param replies  Lines not yet received
+     * @param listener Notified with chunks of parsed files
+     */
+    AttributedList<Path> read(Path parent, Iterator<String> replies, ListProgressListener listener) throws BackgroundException;
 }
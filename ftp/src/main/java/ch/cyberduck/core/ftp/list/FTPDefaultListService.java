@@ -23,6 +23,7 @@ import ch.cyberduck.core.Path;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.ftp.DataConnectionAction;
 import ch.cyberduck.core.ftp.DataConnectionActionExecutor;
+import ch.cyberduck.core.ftp.DataConnectionReader;
 import ch.cyberduck.core.ftp.FTPClient;
 import ch.cyberduck.core.ftp.FTPException;
 import ch.cyberduck.core.ftp.FTPExceptionMappingService;
@@ -30,7 +31,7 @@ import ch.cyberduck.core.ftp.FTPSession;
 import ch.cyberduck.core.ftp.parser.CompositeFileEntryParser;
 
 import java.io.IOException;
-import java.util.List;
+import java.util.Iterator;
 
 public class FTPDefaultListService implements ListService {
 
@@ -56,18 +57,22 @@ public class FTPDefaultListService implements ListService {
                 // data connection in type ASCII or type EBCDIC.
                 throw new FTPException(session.getClient().getReplyCode(), session.getClient().getReplyString());
             }
-            final List<String> list = new DataConnectionActionExecutor(session).data(new DataConnectionAction<List<String>>() {
+            return new DataConnectionActionExecutor(session).data(new DataConnectionAction<AttributedList<Path>>() {
                 @Override
-                public List<String> execute() throws BackgroundException {
+                public AttributedList<Path> execute() throws BackgroundException {
                     try {
-                        return session.getClient().list(command.getCommand(), command.getArg());
+                        return session.getClient().list(command.getCommand(), command.getArg(), new DataConnectionReader<AttributedList<Path>>() {
+                            @Override
+                            public AttributedList<Path> read(final Iterator<String> lines) throws BackgroundException {
+                                return reader.read(directory, lines, listener);
+                            }
+                        });
                     }
                     catch(IOException e) {
                         throw new FTPExceptionMappingService().map(e);
                     }
                 }
             }, listener);
-            return reader.read(directory, list, listener);
         }
         catch(IOException e) {
             throw new FTPExceptionMappingService().map("Listing directory {0} failed", e, directory);
@@ -21,41 +21,72 @@ import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathNormalizer;
 import ch.cyberduck.core.Permission;
+import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.ftp.parser.FTPExtendedFile;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.net.ftp.FTPFile;
 import org.apache.commons.net.ftp.FTPFileEntryParser;
 import org.apache.log4j.Logger;
 
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.EnumSet;
+import java.util.Iterator;
 import java.util.List;
 
+import com.google.common.collect.Iterators;
+
 public class FTPListResponseReader implements FTPDataResponseReader {
     private static final Logger log = Logger.getLogger(FTPListResponseReader.class);
 
     private final FTPFileEntryParser parser;
     private final boolean lenient;
+    private final int chunksize;
 
     public FTPListResponseReader(final FTPFileEntryParser parser) {
         this(parser, false);
     }
 
     public FTPListResponseReader(final FTPFileEntryParser parser, final boolean lenient) {
+        this(parser, lenient, PreferencesFactory.get().getInteger("ftp.listing.chunksize"));
+    }
+
+    public FTPListResponseReader(final FTPFileEntryParser parser, final boolean lenient, final int chunksize) {
         this.parser = parser;
         this.lenient = lenient;
+        this.chunksize = chunksize;
     }
 
     @Override
-    public AttributedList<Path> read(final Path directory, final List<String> replies, final ListProgressListener listener) throws FTPInvalidListException {
-        final AttributedList<Path> children = new AttributedList<Path>();
-        // At least one entry successfully parsed
-        boolean success = false;
+    public AttributedList<Path> read(final Path directory, final List<String> replies, final ListProgressListener listener) throws BackgroundException {
         // Call hook for those implementors which need to perform some action upon the list after it has been created
         // from the server stream, but before any clients see the list
         parser.preParse(replies);
-        for(String line : replies) {
+        return this.parse(directory, replies.iterator(), listener);
+    }
+
+    @Override
+    public AttributedList<Path> read(final Path directory, final Iterator<String> replies, final ListProgressListener listener) throws BackgroundException {
+        // Call hook with the first line only as the remaining lines are not yet received. Allows parsers to
+        // detect the format from a header line or remove a summary line.
+        final List<String> header = new ArrayList<String>();
+        if(replies.hasNext()) {
+            header.add(replies.next());
+        }
+        parser.preParse(header);
+        return this.parse(directory, Iterators.concat(header.iterator(), replies), listener);
+    }
+
+    private AttributedList<Path> parse(final Path directory, final Iterator<String> replies, final ListProgressListener listener) throws BackgroundException {
+        final AttributedList<Path> children = new AttributedList<Path>();
+        // At least one entry successfully parsed
+        boolean success = false;
+        // Parsed files not yet added to list
+        final List<Path> files = new ArrayList<Path>();
+        while(replies.hasNext()) {
+            final String line = replies.next();
             final FTPFile f = parser.parseFTPEntry(line);
             if(null == f) {
                 continue;
@@ -158,8 +189,14 @@ public class FTPListResponseReader implements FTPDataResponseReader {
             if(timestamp != null) {
                 parsed.attributes().setModificationDate(timestamp.getTimeInMillis());
             }
-            children.add(parsed);
+            files.add(parsed);
+            if(files.size() == chunksize) {
+                children.addAll(files);
+                files.clear();
+                listener.chunk(directory, children);
+            }
         }
+        children.addAll(files);
         if(!success) {
             throw new FTPInvalidListException(children);
         }
@@ -23,33 +23,50 @@ import ch.cyberduck.core.Permission;
 import ch.cyberduck.core.date.InvalidDateException;
 import ch.cyberduck.core.date.MDTMMillisecondsDateFormatter;
 import ch.cyberduck.core.date.MDTMSecondsDateFormatter;
+import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class FTPMlsdListResponseReader implements FTPDataResponseReader {
     private static final Logger log = Logger.getLogger(FTPMlsdListResponseReader.class);
 
+    private final int chunksize;
+
     public FTPMlsdListResponseReader() {
-        //
+        this(PreferencesFactory.get().getInteger("ftp.listing.chunksize"));
+    }
+
+    public FTPMlsdListResponseReader(final int chunksize) {
+        this.chunksize = chunksize;
+    }
+
+    @Override
+    public AttributedList<Path> read(final Path directory, final List<String> replies, final ListProgressListener listener) throws BackgroundException {
+        return this.read(directory, replies.iterator(), listener);
     }
 
     @Override
-    public AttributedList<Path> read(final Path directory, final List<String> replies, final ListProgressListener listener) throws FTPInvalidListException {
+    public AttributedList<Path> read(final Path directory, final Iterator<String> replies, final ListProgressListener listener) throws BackgroundException {
         final AttributedList<Path> children = new AttributedList<Path>();
         // At least one entry successfully parsed
         boolean success = false;
-        for(String line : replies) {
+        // Parsed files not yet added to list
+        final List<Path> files = new ArrayList<Path>();
+        final boolean perm = PreferencesFactory.get().getBoolean("ftp.parser.mlsd.perm.enable");
+        while(replies.hasNext()) {
+            final String line = replies.next();
             final Map<String, Map<String, String>> file = this.parseFacts(line);
             if(null == file) {
                 log.error(String.format("Error parsing line %s", line));
@@ -71,14 +88,15 @@ public class FTPMlsdListResponseReader implements FTPDataResponseReader {
                     log.error(String.format("No type fact in line %s", line));
                     continue;
                 }
+                final String kind = facts.get("type").toLowerCase(Locale.ROOT);
                 final Path parsed;
-                if("dir".equals(facts.get("type").toLowerCase(Locale.ROOT))) {
+                if("dir".equals(kind)) {
                     parsed = new Path(directory, PathNormalizer.name(f.getKey()), EnumSet.of(Path.Type.directory));
                 }
-                else if("file".equals(facts.get("type").toLowerCase(Locale.ROOT))) {
+                else if("file".equals(kind)) {
                     parsed = new Path(directory, PathNormalizer.name(f.getKey()), EnumSet.of(Path.Type.file));
                 }
-                else if(facts.get("type").toLowerCase(Locale.ROOT).matches("os\\.unix=slink:.*")) {
+                else if(kind.startsWith("os.unix=slink:")) {
                     parsed = new Path(directory, PathNormalizer.name(f.getKey()), EnumSet.of(Path.Type.file, Path.Type.symboliclink));
                     // Parse symbolic link target in Type=OS.unix=slink:/foobar;Perm=;Unique=keVO1+4G4; foobar
                     final String[] type = facts.get("type").split(":");
@@ -133,7 +151,7 @@ public class FTPMlsdListResponseReader implements FTPDataResponseReader {
                     parsed.attributes().setPermission(new Permission(facts.get("unix.mode")));
                 }
                 else if(facts.containsKey("perm")) {
-                    if(PreferencesFactory.get().getBoolean("ftp.parser.mlsd.perm.enable")) {
+                    if(perm) {
                         Permission.Action user = Permission.Action.none;
                         final String flags = facts.get("perm");
                         if(StringUtils.contains(flags, 'r') || StringUtils.contains(flags, 'l')) {
@@ -163,9 +181,15 @@ public class FTPMlsdListResponseReader implements FTPDataResponseReader {
                     // Time values are always represented in UTC
                     parsed.attributes().setCreationDate(this.parseTimestamp(facts.get("create")));
                 }
-                children.add(parsed);
+                files.add(parsed);
+                if(files.size() == chunksize) {
+                    children.addAll(files);
+                    files.clear();
+                    listener.chunk(directory, children);
+                }
             }
         }
+        children.addAll(files);
         if(!success) {
             throw new FTPInvalidListException(children);
         }
@@ -182,6 +206,10 @@ public class FTPMlsdListResponseReader implements FTPDataResponseReader {
         if(null == timestamp) {
             return -1;
         }
+        final long millis = this.parseSeconds(timestamp);
+        if(millis != -1) {
+            return millis;
+        }
         try {
             final Date parsed = new MDTMSecondsDateFormatter().parse(timestamp);
             return parsed.getTime();
@@ -200,6 +228,58 @@ public class FTPMlsdListResponseReader implements FTPDataResponseReader {
         return -1;
     }
 
+    /**
+     * Parse YYYYMMDDHHMMSS in UTC without formatter for the common case of a valid date. Any fraction of a
+     * second is ignored like with the seconds format.
+     *
+     * @return Milliseconds or -1 if timestamp must be parsed with date format
+     */
+    private long parseSeconds(final String timestamp) {
+        if(timestamp.length() < 14) {
+            return -1;
+        }
+        if(timestamp.length() > 14 && Character.isDigit(timestamp.charAt(14))) {
+            return -1;
+        }
+        final int year = this.digits(timestamp, 0, 4);
+        final int month = this.digits(timestamp, 4, 2);
+        final int day = this.digits(timestamp, 6, 2);
+        final int hour = this.digits(timestamp, 8, 2);
+        final int minute = this.digits(timestamp, 10, 2);
+        final int second = this.digits(timestamp, 12, 2);
+        // Leave calendar transition and lenient handling of out of range fields to date format
+        if(year < 1583 || month < 1 || month > 12 || day < 1 || hour > 23 || minute > 59 || second > 59) {
+            return -1;
+        }
+        final boolean leap = year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+        if(day > (month == 2 ? (leap ? 29 : 28) : (month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31))) {
+            return -1;
+        }
+        // Days since epoch in proleptic Gregorian calendar
+        final int y = month <= 2 ? year - 1 : year;
+        final int era = y / 400;
+        final int yoe = y - era * 400;
+        final int doy = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        final int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        final long days = era * 146097L + doe - 719468L;
+        return ((days * 24L + hour) * 60L + minute) * 60000L + second * 1000L;
+    }
+
+    /**
+     * @return Value of decimal digits or -1 if any character is not an ASCII digit
+     */
+    private int digits(final String value, final int offset, final int length) {
+        int result = 0;
+        for(int i = offset; i < offset + length; i++) {
+            final char c = value.charAt(i);
+            if(c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + c - '0';
+        }
+        return result;
+    }
+
     /**
      * The "facts" for a file in a reply to a MLSx command consist of
      * information about that file.  The facts are a series of keyword=value
@@ -232,28 +312,58 @@ public class FTPMlsdListResponseReader implements FTPDataResponseReader {
      * @return Parsed keys and values
      */
     protected Map<String, Map<String, String>> parseFacts(final String line) {
-        final Pattern p = Pattern.compile("\\s?(\\S+\\=\\S+;)*\\s(.*)");
-        final Matcher result = p.matcher(line);
-        final Map<String, Map<String, String>> file = new HashMap<String, Map<String, String>>();
-        if(result.matches()) {
-            final String filename = result.group(2);
-            final Map<String, String> facts = new HashMap<String, String>();
-            for(String fact : result.group(1).split(";")) {
-                String key = StringUtils.substringBefore(fact, "=");
-                if(StringUtils.isBlank(key)) {
-                    continue;
-                }
-                String value = StringUtils.substringAfter(fact, "=");
-                if(StringUtils.isBlank(value)) {
-                    continue;
-                }
-                facts.put(key.toLowerCase(Locale.ROOT), value);
+        // Optional leading whitespace
+        final int start = !line.isEmpty() && this.isWhitespace(line.charAt(0)) ? 1 : 0;
+        // Facts up to first whitespace
+        int end = start;
+        while(end < line.length() && !this.isWhitespace(line.charAt(end))) {
+            end++;
+        }
+        if(end == line.length() || !this.isFacts(line, start, end)) {
+            log.warn(String.format("No match for %s", line));
+            return null;
+        }
+        // Filename after single whitespace
+        for(int i = end + 1; i < line.length(); i++) {
+            if(this.isLineTerminator(line.charAt(i))) {
+                log.warn(String.format("No match for %s", line));
+                return null;
+            }
+        }
+        final String filename = line.substring(end + 1);
+        final Map<String, String> facts = new HashMap<String, String>();
+        for(int i = start; i < end; ) {
+            final int next = line.indexOf(';', i);
+            final int separator = line.indexOf('=', i);
+            if(separator > i && separator < next - 1) {
+                facts.put(line.substring(i, separator).toLowerCase(Locale.ROOT), line.substring(separator + 1, next));
             }
-            file.put(filename, facts);
-            return file;
+            i = next + 1;
         }
-        log.warn(String.format("No match for %s", line));
-        return null;
+        return Collections.singletonMap(filename, facts);
     }
 
+    /**
+     * @return True if range is a series of keyword=value pairs each followed by semicolon
+     */
+    private boolean isFacts(final String line, final int start, final int end) {
+        if(end - start < 4 || line.charAt(end - 1) != ';') {
+            return false;
+        }
+        // Require non empty keyword and value for at least one pair
+        for(int i = start + 1; i < end - 2; i++) {
+            if(line.charAt(i) == '=') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isWhitespace(final char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+    private boolean isLineTerminator(final char c) {
+        return c == '\n' || c == '\r' || c == 0x85 || c == 0x2028 || c == 0x2029;
+    }
 }
@@ -24,16 +24,14 @@ import org.apache.commons.net.ftp.FTPFile;
 import org.apache.commons.net.ftp.FTPFileEntryParserImpl;
 
 import java.util.Calendar;
-import java.util.HashMap;
-import java.util.Map;
 
+/**
+ * Scans facts in place without splitting the line
+ */
 public class EPLFFTPEntryParser extends FTPFileEntryParserImpl {
 
     @Override
     public FTPFile parseFTPEntry(String entry) {
-        FTPFile file = new FTPFile();
-        file.setRawListing(entry);
-
         if(!entry.startsWith("+")) {
             return null;
         }
@@ -43,147 +41,132 @@ public class EPLFFTPEntryParser extends FTPFileEntryParserImpl {
         }
         // parse name.
         int startName = indexOfTab + 1;
-        String name = entry.substring(startName);
-        if(name.endsWith("\r\n")) {
-            int i = name.lastIndexOf("\r\n");
-            name = name.substring(0, i);
+        int endName = entry.length();
+        if(entry.endsWith("\r\n")) {
+            endName -= 2;
         }
-        if(StringUtils.isBlank(name) || name.equals(".") || name.equals("..")) {
+        if(StringUtils.isBlank(entry.subSequence(startName, endName))) {
+            return null;
+        }
+        final int length = endName - startName;
+        if(length <= 2 && entry.charAt(startName) == '.' && (length == 1 || entry.charAt(startName + 1) == '.')) {
             return null;
         }
-        file.setName(name);
-
         // parse facts.
-        int i;
-        int endFacts = startName - 2; // first char of name -> tab -> end of last fact.
-        EPLFEntryParserContext factContext = new EPLFEntryParserContext(file);
-        for(i = 1; i < endFacts; i++) {
+        boolean retrieve = false;
+        boolean cwd = false;
+        String permission = null;
+        Long size = null;
+        Long modified = null;
+        for(int i = 1; i < indexOfTab - 1; i++) {
             int factEnd = entry.indexOf(',', i);
-            String fact = entry.substring(i, factEnd);
-            factContext.handleFact(fact);
+            if(factEnd == -1) {
+                factEnd = indexOfTab;
+            }
+            if(factEnd > i) {
+                switch(entry.charAt(i)) {
+                    case 'r':
+                        // readable file
+                        retrieve = true;
+                        break;
+                    case '/':
+                        // readable directory
+                        cwd = true;
+                        break;
+                    case 'u':
+                        // specified permissions
+                        if(factEnd > i + 1 && entry.charAt(i + 1) == 'p') {
+                            permission = entry.substring(i + 2, factEnd);
+                        }
+                        break;
+                    case 's':
+                        // size fact
+                        final Long s = this.parseNumber(entry, i + 1, factEnd);
+                        if(s != null) {
+                            size = s;
+                        }
+                        break;
+                    case 'm':
+                        // modification time fact
+                        final Long m = this.parseNumber(entry, i + 1, factEnd);
+                        if(m != null) {
+                            modified = m;
+                        }
+                        break;
+                }
+            }
             i = factEnd;
         }
-        factContext.conclude();
-
-        if(!factContext.hasMayBeRetreivedFact() && !factContext.hasMayCWDToFact()) {
+        if(!retrieve && !cwd) {
             return null;
         }
-        return file;
-    }
-
-    private static class EPLFEntryParserContext {
-        private final Map<String, String> facts;
-        private FTPFile file;
-
-        public EPLFEntryParserContext(FTPFile f) {
-            super();
-            this.facts = new HashMap<String, String>();
-            this.file = f;
+        final FTPFile file = new FTPFile();
+        file.setRawListing(entry);
+        file.setName(entry.substring(startName, endName));
+        if(size != null) {
+            file.setSize(size);
         }
-
-        protected boolean hasSpecifiedPermissionsFact() {
-            return hasFact("up");
+        if(modified != null) {
+            final Calendar calendar = Calendar.getInstance();
+            calendar.setTimeInMillis(modified * 1000);
+            file.setTimestamp(calendar);
         }
-
-        protected boolean hasMayBeRetreivedFact() {
-            return hasFact("r");
+        if(cwd) {
+            file.setType(FTPFile.DIRECTORY_TYPE);
         }
-
-        protected boolean hasMayCWDToFact() {
-            return hasFact("/");
+        else {
+            file.setType(FTPFile.FILE_TYPE);
         }
-
-        private boolean hasFact(String factId) {
-            return facts.containsKey(factId);
+        if(permission != null) {
+            this.setSpecifiedPermission(file, permission);
         }
+        return file;
+    }
 
-        protected void handleFact(String fact) {
-            if(fact.length() == 0) {
-                return;
-            }
-
-            // readable file
-            if(fact.charAt(0) == 'r') {
-                facts.put("r", StringUtils.EMPTY);
-                return;
-            }
-
-            // readable directory
-            if(fact.charAt(0) == '/') {
-                facts.put("/", StringUtils.EMPTY);
-                return;
+    /**
+     * @return Null if not a number
+     */
+    private Long parseNumber(final String entry, final int start, final int end) {
+        if(start == end || end - start > 18) {
+            try {
+                return Long.parseLong(entry.substring(start, end));
             }
-
-            // specified permissions
-            if(fact.startsWith("up")) {
-                facts.put("up", fact.substring(2));
-                return;
+            catch(NumberFormatException e) {
+                return null;
             }
-
-            // size fact
-            if(fact.charAt(0) == 's') {
-                String sizeString = fact.substring(1);
-                facts.put("s", sizeString);
+        }
+        long value = 0L;
+        for(int i = start; i < end; i++) {
+            final char c = entry.charAt(i);
+            if(c < '0' || c > '9') {
                 try {
-                    file.setSize(Long.parseLong(sizeString));
+                    return Long.parseLong(entry.substring(start, end));
                 }
                 catch(NumberFormatException e) {
-                    // intentionally do nothing
-                }
-                return;
-            }
-
-            // modification time fact
-            if(fact.charAt(0) == 'm') {
-                String timeString = fact.substring(1);
-                facts.put("m", timeString);
-                long secsSince1970;
-                try {
-                    secsSince1970 = Long.parseLong(timeString);
-                    Calendar calendar = Calendar.getInstance();
-                    calendar.setTimeInMillis(secsSince1970 * 1000);
-                    file.setTimestamp(calendar);
-                }
-                catch(NumberFormatException ignored) {
+                    return null;
                 }
             }
+            value = value * 10 + c - '0';
         }
+        return value;
+    }
 
-        protected void conclude() {
-            if(hasMayCWDToFact()) {
-                file.setType(FTPFile.DIRECTORY_TYPE);
-            }
-            else if(hasMayBeRetreivedFact()) {
-                file.setType(FTPFile.FILE_TYPE);
-            }
-            if(hasSpecifiedPermissionsFact()) {
-                createAndSetSpecifiedPermission();
-            }
-        }
-
-        private void createAndSetSpecifiedPermission() {
-            Permission newPermission = this.createSpecifiedPermission();
-            if(newPermission != null) {
-                file.setPermission(FTPFile.USER_ACCESS, FTPFile.READ_PERMISSION, newPermission.getUser().implies(Permission.Action.read));
-                file.setPermission(FTPFile.USER_ACCESS, FTPFile.WRITE_PERMISSION, newPermission.getUser().implies(Permission.Action.write));
-                file.setPermission(FTPFile.USER_ACCESS, FTPFile.EXECUTE_PERMISSION, newPermission.getUser().implies(Permission.Action.execute));
-                file.setPermission(FTPFile.GROUP_ACCESS, FTPFile.READ_PERMISSION, newPermission.getUser().implies(Permission.Action.read));
-                file.setPermission(FTPFile.GROUP_ACCESS, FTPFile.WRITE_PERMISSION, newPermission.getUser().implies(Permission.Action.write));
-                file.setPermission(FTPFile.GROUP_ACCESS, FTPFile.EXECUTE_PERMISSION, newPermission.getUser().implies(Permission.Action.execute));
-                file.setPermission(FTPFile.WORLD_ACCESS, FTPFile.READ_PERMISSION, newPermission.getUser().implies(Permission.Action.read));
-                file.setPermission(FTPFile.WORLD_ACCESS, FTPFile.WRITE_PERMISSION, newPermission.getUser().implies(Permission.Action.write));
-                file.setPermission(FTPFile.WORLD_ACCESS, FTPFile.EXECUTE_PERMISSION, newPermission.getUser().implies(Permission.Action.execute));
-            }
+    private void setSpecifiedPermission(final FTPFile file, final String fact) {
+        final Permission newPermission;
+        try {
+            newPermission = new Permission(Integer.valueOf(fact, 8));
         }
-
-        private Permission createSpecifiedPermission() {
-            try {
-                int perm = Integer.valueOf(facts.get("up"), 8);
-                return new Permission(perm);
-            }
-            catch(NumberFormatException ignored) {
-            }
-            return null;
+        catch(NumberFormatException ignored) {
+            return;
         }
+        file.setPermission(FTPFile.USER_ACCESS, FTPFile.READ_PERMISSION, newPermission.getUser().implies(Permission.Action.read));
+        file.setPermission(FTPFile.USER_ACCESS, FTPFile.WRITE_PERMISSION, newPermission.getUser().implies(Permission.Action.write));
+        file.setPermission(FTPFile.USER_ACCESS, FTPFile.EXECUTE_PERMISSION, newPermission.getUser().implies(Permission.Action.execute));
+        file.setPermission(FTPFile.GROUP_ACCESS, FTPFile.READ_PERMISSION, newPermission.getUser().implies(Permission.Action.read));
+        file.setPermission(FTPFile.GROUP_ACCESS, FTPFile.WRITE_PERMISSION, newPermission.getUser().implies(Permission.Action.write));
+        file.setPermission(FTPFile.GROUP_ACCESS, FTPFile.EXECUTE_PERMISSION, newPermission.getUser().implies(Permission.Action.execute));
+        file.setPermission(FTPFile.WORLD_ACCESS, FTPFile.READ_PERMISSION, newPermission.getUser().implies(Permission.Action.read));
+        file.setPermission(FTPFile.WORLD_ACCESS, FTPFile.WRITE_PERMISSION, newPermission.getUser().implies(Permission.Action.write));
+        file.setPermission(FTPFile.WORLD_ACCESS, FTPFile.EXECUTE_PERMISSION, newPermission.getUser().implies(Permission.Action.execute));
     }
 }
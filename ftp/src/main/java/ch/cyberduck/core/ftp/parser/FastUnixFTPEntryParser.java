@@ -0,0 +1,406 @@
+package ch.cyberduck.core.ftp.parser;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.apache.commons.net.ftp.Configurable;
+import org.apache.commons.net.ftp.FTPClientConfig;
+import org.apache.commons.net.ftp.FTPFile;
+import org.apache.commons.net.ftp.FTPFileEntryParser;
+import org.apache.commons.net.ftp.FTPFileEntryParserImpl;
+
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Scanner for the common <code>ls -l</code> format with a three letter English month and either a year or time.
+ * Lines in any other format are passed to the regular expression based parser given.
+ * <p>
+ * Results are the same as of {@link LaxUnixFTPEntryParser} with the default configuration. Not thread safe.
+ */
+public class FastUnixFTPEntryParser extends FTPFileEntryParserImpl implements Configurable {
+
+    private static final String[] MONTHS = {
+        "jan", "feb", "mar", "apr", "may", "jun", "jul", "aug", "sep", "oct", "nov", "dec"
+    };
+
+    private final FTPFileEntryParser fallback;
+
+    /**
+     * Server time zone
+     */
+    private final TimeZone zone;
+
+    /**
+     * Scanner disabled for custom configuration
+     */
+    private boolean enabled = true;
+
+    /**
+     * Current time used to determine year of recent timestamps
+     */
+    private final Calendar now;
+
+    /**
+     * @param zone     Server time zone
+     * @param fallback Parser for lines not matching the common format
+     */
+    public FastUnixFTPEntryParser(final TimeZone zone, final FTPFileEntryParser fallback) {
+        this.zone = zone;
+        this.fallback = fallback;
+        this.now = Calendar.getInstance(zone);
+    }
+
+    @Override
+    public FTPFile parseFTPEntry(final String entry) {
+        if(enabled) {
+            final FTPFile parsed = this.scan(entry);
+            if(parsed != null) {
+                return parsed;
+            }
+        }
+        return fallback.parseFTPEntry(entry);
+    }
+
+    @Override
+    public List<String> preParse(final List<String> original) {
+        return fallback.preParse(original);
+    }
+
+    @Override
+    public void configure(final FTPClientConfig config) {
+        if(fallback instanceof Configurable) {
+            ((Configurable) fallback).configure(config);
+        }
+        // Timestamp formats may differ from default
+        enabled = null == config;
+    }
+
+    /**
+     * @return Null if the line is not in the common format
+     */
+    private FTPFile scan(final String entry) {
+        final int length = entry.length();
+        // Type and permissions
+        if(length < 10) {
+            return null;
+        }
+        final int type;
+        switch(entry.charAt(0)) {
+            case 'd':
+                type = FTPFile.DIRECTORY_TYPE;
+                break;
+            case 'l':
+                type = FTPFile.SYMBOLIC_LINK_TYPE;
+                break;
+            case 'b':
+            case 'c':
+            case 'f':
+            case '-':
+                type = FTPFile.FILE_TYPE;
+                break;
+            case 'm':
+            case 'p':
+            case 'S':
+            case 's':
+                type = FTPFile.UNKNOWN_TYPE;
+                break;
+            default:
+                return null;
+        }
+        for(int access = 0; access < 3; access++) {
+            final int offset = 1 + access * 3;
+            final char r = entry.charAt(offset);
+            final char w = entry.charAt(offset + 1);
+            final char x = entry.charAt(offset + 2);
+            if(r != 'r' && r != '-') {
+                return null;
+            }
+            if(w != 'w' && w != '-') {
+                return null;
+            }
+            if("xsStTL-".indexOf(x) == -1) {
+                return null;
+            }
+        }
+        int i = 10;
+        if(i < length && entry.charAt(i) == '+') {
+            i++;
+        }
+        // Hard link count
+        int start = skip(entry, i);
+        if(start == i) {
+            return null;
+        }
+        i = digits(entry, start);
+        if(i == start) {
+            return null;
+        }
+        // User
+        start = skip(entry, i);
+        if(start == i) {
+            return null;
+        }
+        i = token(entry, start);
+        final int userStart = start;
+        final int userEnd = i;
+        // Group
+        start = skip(entry, i);
+        if(start == i) {
+            return null;
+        }
+        i = token(entry, start);
+        final int groupStart = start;
+        final int groupEnd = i;
+        // Size
+        start = skip(entry, i);
+        if(start == i) {
+            return null;
+        }
+        i = digits(entry, start);
+        if(i == start || i - start > 18 || i == length || !isWhitespace(entry.charAt(i))) {
+            return null;
+        }
+        long size = 0L;
+        for(int k = start; k < i; k++) {
+            size = size * 10 + entry.charAt(k) - '0';
+        }
+        // Month
+        start = skip(entry, i);
+        i = token(entry, start);
+        if(i - start != 3) {
+            return null;
+        }
+        int month = -1;
+        for(int m = 0; m < MONTHS.length; m++) {
+            if(entry.regionMatches(true, start, MONTHS[m], 0, 3)) {
+                month = m;
+                break;
+            }
+        }
+        if(month == -1) {
+            return null;
+        }
+        // Day separated by spaces only
+        start = i;
+        while(i < length && entry.charAt(i) == ' ') {
+            i++;
+        }
+        if(i == start) {
+            return null;
+        }
+        start = i;
+        i = digits(entry, start);
+        if(i == start || i - start > 2 || i == length || !isWhitespace(entry.charAt(i))) {
+            return null;
+        }
+        final int day = number(entry, start, i);
+        // Year or time
+        start = skip(entry, i);
+        i = digits(entry, start);
+        final int year;
+        final int hour;
+        final int minute;
+        final boolean recent;
+        if(i - start == 4 && i < length && isWhitespace(entry.charAt(i))) {
+            year = number(entry, start, i);
+            hour = 0;
+            minute = 0;
+            recent = false;
+            // Year followed by one or two whitespace characters
+            i++;
+            if(i < length && isWhitespace(entry.charAt(i))) {
+                i++;
+            }
+        }
+        else if((i - start == 1 || i - start == 2) && i + 3 < length && entry.charAt(i) == ':'
+            && isDigit(entry.charAt(i + 1)) && isDigit(entry.charAt(i + 2)) && isWhitespace(entry.charAt(i + 3))) {
+            hour = number(entry, start, i);
+            minute = number(entry, i + 1, i + 3);
+            year = -1;
+            recent = true;
+            i += 4;
+        }
+        else {
+            return null;
+        }
+        if(year == 0 || hour > 23 || minute > 59) {
+            return null;
+        }
+        // Name and link target
+        if(i == length) {
+            return null;
+        }
+        boolean visible = false;
+        for(int k = i; k < length; k++) {
+            final char c = entry.charAt(k);
+            if(c == '\n' || c == '\r' || c == 0x85 || c == 0x2028 || c == 0x2029) {
+                // Line terminator not matched by name pattern
+                return null;
+            }
+            if(!isWhitespace(c)) {
+                visible = true;
+            }
+        }
+        if(!visible) {
+            return null;
+        }
+        final Calendar timestamp = this.toTimestamp(recent, year, month, day, hour, minute);
+        if(null == timestamp) {
+            return null;
+        }
+        final FTPExtendedFile file = new FTPExtendedFile();
+        file.setTimestamp(timestamp);
+        file.setType(type);
+        file.setUser(entry.substring(userStart, userEnd));
+        file.setGroup(entry.substring(groupStart, groupEnd));
+        for(int access = 0; access < 3; access++) {
+            final int offset = 1 + access * 3;
+            file.setPermission(access, FTPFile.READ_PERMISSION, entry.charAt(offset) != '-');
+            file.setPermission(access, FTPFile.WRITE_PERMISSION, entry.charAt(offset + 1) != '-');
+            final char x = entry.charAt(offset + 2);
+            if(x == '-') {
+                file.setPermission(access, FTPFile.EXECUTE_PERMISSION, false);
+            }
+            else {
+                file.setPermission(access, FTPFile.EXECUTE_PERMISSION, Character.isLowerCase(x));
+                switch(access) {
+                    case 0:
+                        file.setSetuid(x == 's' || x == 'S');
+                        break;
+                    case 1:
+                        file.setSetgid(x == 's' || x == 'S');
+                        break;
+                    case 2:
+                        file.setSticky(x == 't' || x == 'T');
+                        break;
+                }
+            }
+        }
+        file.setSize(size);
+        final String name = entry.substring(i);
+        if(type == FTPFile.SYMBOLIC_LINK_TYPE) {
+            final int end = name.indexOf(" -> ");
+            if(end == -1) {
+                file.setName(name);
+            }
+            else {
+                file.setName(name.substring(0, end));
+                file.setLink(name.substring(end + 4));
+            }
+        }
+        else {
+            file.setName(name);
+        }
+        return file;
+    }
+
+    /**
+     * Timestamp in server time zone. Recent timestamps without year are in the past or at most one day in the
+     * future.
+     *
+     * @return Null for invalid date
+     */
+    private Calendar toTimestamp(final boolean recent, final int year, final int month, final int day, final int hour, final int minute) {
+        int y = year;
+        if(recent) {
+            now.setTimeInMillis(System.currentTimeMillis());
+            now.add(Calendar.DAY_OF_MONTH, 1);
+            y = now.get(Calendar.YEAR);
+        }
+        if(day < 1 || day > days(y, month)) {
+            return null;
+        }
+        final Calendar timestamp = Calendar.getInstance(zone);
+        timestamp.clear();
+        timestamp.set(y, month, day, hour, minute, 0);
+        if(recent) {
+            if(timestamp.after(now)) {
+                // Must have been last year instead
+                timestamp.add(Calendar.YEAR, -1);
+            }
+        }
+        return timestamp;
+    }
+
+    private static int days(final int year, final int month) {
+        switch(month) {
+            case Calendar.FEBRUARY:
+                return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0 ? 29 : 28;
+            case Calendar.APRIL:
+            case Calendar.JUNE:
+            case Calendar.SEPTEMBER:
+            case Calendar.NOVEMBER:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * @return Index of first non whitespace character
+     */
+    private static int skip(final String entry, int i) {
+        while(i < entry.length() && isWhitespace(entry.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * @return Index of first whitespace character
+     */
+    private static int token(final String entry, int i) {
+        while(i < entry.length() && !isWhitespace(entry.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * @return Index of first non digit character
+     */
+    private static int digits(final String entry, int i) {
+        while(i < entry.length() && isDigit(entry.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int number(final String entry, final int start, final int end) {
+        int value = 0;
+        for(int i = start; i < end; i++) {
+            value = value * 10 + entry.charAt(i) - '0';
+        }
+        return value;
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * @return True for characters matched by <code>\s</code>
+     */
+    private static boolean isWhitespace(final char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    @Override
+    public String toString() {
+        return String.format("FastUnixFTPEntryParser{fallback=%s}", fallback);
+    }
+}
@@ -28,6 +28,7 @@ import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
@@ -243,4 +244,26 @@ public class FTPListResponseReaderTest {
         assertNull(list.get(2).getSymlinkTarget());
         assertFalse(list.get(2).isSymbolicLink());
     }
+
+    @Test
+    public void testReadChunks() throws Exception {
+        final List<String> lines = Arrays.asList(
+            "total 3",
+            "-rw-r--r--   1 root     root          106 Nov 15 22:20 a",
+            "-rw-r--r--   1 root     root          106 Nov 15 22:20 b",
+            "drwxr-xr-x   2 root     root         4096 Nov 15 22:20 c"
+        );
+        final List<Integer> chunks = new ArrayList<>();
+        final AttributedList<Path> list = new FTPListResponseReader(new FTPParserSelector().getParser("UNIX"), false, 2)
+            .read(new Path("/", EnumSet.of(Path.Type.directory)), lines.iterator(), new DisabledListProgressListener() {
+                @Override
+                public void chunk(final Path folder, final AttributedList<Path> list) {
+                    chunks.add(list.size());
+                }
+            });
+        assertEquals(3, list.size());
+        assertEquals(Collections.singletonList(2), chunks);
+        assertEquals("/a", list.get(0).getAbsolute());
+        assertTrue(list.get(2).isDirectory());
+    }
 }
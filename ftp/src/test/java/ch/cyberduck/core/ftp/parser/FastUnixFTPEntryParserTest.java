@@ -0,0 +1,88 @@
+package ch.cyberduck.core.ftp.parser;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.apache.commons.net.ftp.FTPFile;
+import org.apache.commons.net.ftp.FTPFileEntryParser;
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+public class FastUnixFTPEntryParserTest {
+
+    private final TimeZone zone = TimeZone.getTimeZone("UTC");
+
+    @Test
+    public void testParseSameAsRegularExpression() {
+        final FTPFileEntryParser lax = new LaxUnixFTPEntryParser();
+        final FTPFileEntryParser parser = new FastUnixFTPEntryParser(zone, new LaxUnixFTPEntryParser());
+        final String[] lines = new String[]{
+            "-rw-r--r--    1 3642     3643          106 Nov 15 2009 index.html",
+            "drwxr-sr-x   3 1000     1000         4096 Jan  1  2020 folder with spaces",
+            "lrwxrwxrwx   1 root     root            1 Jun 21  2011 public_html -> .",
+            "-rwsr-xr-T   1 user     group  12345678901 Feb 29  2016 setuid",
+            "-rw-r--r--+  1 user     group           0 DEC 31  1999 acl",
+            "crw-rw-rw-   1 root     root            0 Mar  3  2003 tty"
+        };
+        for(String line : lines) {
+            final FTPFile expected = lax.parseFTPEntry(line);
+            final FTPFile parsed = parser.parseFTPEntry(line);
+            assertNotNull(line, parsed);
+            assertEquals(line, expected.getName(), parsed.getName());
+            assertEquals(line, expected.getType(), parsed.getType());
+            assertEquals(line, expected.getSize(), parsed.getSize());
+            assertEquals(line, expected.getUser(), parsed.getUser());
+            assertEquals(line, expected.getGroup(), parsed.getGroup());
+            assertEquals(line, expected.getLink(), parsed.getLink());
+            assertEquals(line, expected.getHardLinkCount(), parsed.getHardLinkCount());
+            assertEquals(line, expected.getTimestamp().getTimeInMillis(), parsed.getTimestamp().getTimeInMillis());
+            for(int access = FTPFile.USER_ACCESS; access <= FTPFile.WORLD_ACCESS; access++) {
+                for(int permission = FTPFile.READ_PERMISSION; permission <= FTPFile.EXECUTE_PERMISSION; permission++) {
+                    assertEquals(line, expected.hasPermission(access, permission), parsed.hasPermission(access, permission));
+                }
+            }
+            assertEquals(line, ((FTPExtendedFile) expected).isSetuid(), ((FTPExtendedFile) parsed).isSetuid());
+            assertEquals(line, ((FTPExtendedFile) expected).isSticky(), ((FTPExtendedFile) parsed).isSticky());
+        }
+    }
+
+    @Test
+    public void testParseRecentDate() {
+        final FTPFile parsed = new FastUnixFTPEntryParser(zone, new LaxUnixFTPEntryParser())
+            .parseFTPEntry("-rw-r--r--   1 user     group         106 Nov 15 22:20 index.html");
+        assertNotNull(parsed);
+        assertEquals(Calendar.NOVEMBER, parsed.getTimestamp().get(Calendar.MONTH));
+        assertEquals(15, parsed.getTimestamp().get(Calendar.DAY_OF_MONTH));
+        assertEquals(22, parsed.getTimestamp().get(Calendar.HOUR_OF_DAY));
+        assertEquals(20, parsed.getTimestamp().get(Calendar.MINUTE));
+        // Year is chosen for date not in the future
+        assertTrue(parsed.getTimestamp().getTimeInMillis() < System.currentTimeMillis() + 24 * 60 * 60 * 1000L);
+    }
+
+    @Test
+    public void testFallback() {
+        final FTPFileEntryParser parser = new FastUnixFTPEntryParser(zone, new LaxUnixFTPEntryParser());
+        // Numeric date only matched by regular expression
+        final FTPFile parsed = parser.parseFTPEntry("-rw-r--r--   1 user     group  1024 2009-11-15 22:20 index.html");
+        assertNotNull(parsed);
+        assertEquals("index.html", parsed.getName());
+        assertEquals(1024, parsed.getSize());
+        assertNull(parser.parseFTPEntry("total 12"));
+    }
+}
@@ -20,26 +20,27 @@ import ch.cyberduck.core.DisabledListProgressListener;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.SimplePathPredicate;
-import ch.cyberduck.core.cache.LRUCache;
+import ch.cyberduck.core.cache.PathIdIndex;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.features.FileIdProvider;
-import ch.cyberduck.core.preferences.PreferencesFactory;
 
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Logger;
 
 import java.util.Comparator;
+import java.util.function.Function;
 
 public class DriveFileIdProvider implements FileIdProvider {
     private static final Logger log = Logger.getLogger(DriveFileIdProvider.class);
 
     private final DriveSession session;
-    private final LRUCache<SimplePathPredicate, String> cache = LRUCache.build(PreferencesFactory.get().getLong("fileid.cache.size"));
+    private final PathIdIndex cache;
 
     public DriveFileIdProvider(final DriveSession session) {
         this.session = session;
+        this.cache = new PathIdIndex(session.getHost());
     }
 
     @Override
@@ -53,8 +54,8 @@ public class DriveFileIdProvider implements FileIdProvider {
             || file.equals(DriveHomeFinderService.SHARED_DRIVES_NAME)) {
             return DriveHomeFinderService.ROOT_FOLDER_ID;
         }
-        if(cache.contains(new SimplePathPredicate(file))) {
-            final String cached = cache.get(new SimplePathPredicate(file));
+        final String cached = cache.get(file);
+        if(null != cached) {
             if(log.isDebugEnabled()) {
                 log.debug(String.format("Return cached fileid %s for file %s", cached, file));
             }
@@ -89,16 +90,42 @@ public class DriveFileIdProvider implements FileIdProvider {
             log.debug(String.format("Cache %s for file %s", id, file));
         }
         if(null == id) {
-            cache.remove(new SimplePathPredicate(file));
+            // Remove any descendants of moved or deleted folder
+            cache.remove(file);
             file.attributes().setFileId(null);
         }
         else {
-            cache.put(new SimplePathPredicate(file), id);
+            cache.put(file, id);
             file.attributes().setFileId(id);
         }
         return id;
     }
 
+    /**
+     * Add identifiers of files in directory listing
+     */
+    public void cache(final AttributedList<Path> list) {
+        cache.put(list, new Function<Path, String>() {
+            @Override
+            public String apply(final Path file) {
+                if(file.attributes().isDuplicate()) {
+                    // Ignore trashed files and previous versions
+                    return null;
+                }
+                return file.attributes().getFileId();
+            }
+        });
+    }
+
+    /**
+     * Remove identifiers of file and its parents saved in a previous session
+     *
+     * @return True if lookup should be retried
+     */
+    public boolean invalidate(final Path file) {
+        return cache.invalidate(file);
+    }
+
     @Override
     public void clear() {
         cache.clear();
@@ -17,7 +17,7 @@ package ch.cyberduck.core.onedrive;
 
 import ch.cyberduck.core.http.DelayedHttpEntity;
 import ch.cyberduck.core.http.HttpMethodReleaseInputStream;
-import ch.cyberduck.core.threading.DefaultThreadPool;
+import ch.cyberduck.core.http.HttpUploadExecutor;
 
 import org.apache.commons.io.input.NullInputStream;
 import org.apache.http.Header;
@@ -97,8 +97,7 @@ public abstract class GraphCommonsHttpRequestExecutor implements RequestExecutor
             }
         };
         request.setEntity(entity);
-        final DefaultThreadPool executor = new DefaultThreadPool(String.format("http-%s", url), 1);
-        final Future<CloseableHttpResponse> future = executor.execute(new Callable<CloseableHttpResponse>() {
+        final Future<CloseableHttpResponse> future = HttpUploadExecutor.execute(new Callable<CloseableHttpResponse>() {
             @Override
             public CloseableHttpResponse call() throws Exception {
                 try {
@@ -122,9 +121,6 @@ public abstract class GraphCommonsHttpRequestExecutor implements RequestExecutor
                 catch(ExecutionException e) {
                     throw new IOException(e.getCause());
                 }
-                finally {
-                    executor.shutdown(false);
-                }
                 return new CommonsHttpResponse(response);
             }
 
@@ -15,6 +15,7 @@ package ch.cyberduck.core.onedrive;
  * GNU General Public License for more details.
  */
 
+import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.onedrive.features.GraphAttributesFinderFeature;
@@ -41,4 +42,9 @@ public class GraphItemListService extends AbstractItemListService {
         final DriveItem folder = session.getItem(directory);
         return Files.getFiles(folder, PreferencesFactory.get().getInteger("onedrive.listing.chunksize"));
     }
+
+    @Override
+    protected void postList(final AttributedList<Path> list) {
+        session.fileid.cache(list);
+    }
 }
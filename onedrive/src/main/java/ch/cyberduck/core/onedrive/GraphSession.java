@@ -210,7 +210,7 @@ public abstract class GraphSession extends HttpSession<OneDriveAPI> {
             return (T) new GraphCopyFeature(this, fileid);
         }
         if(type == Find.class) {
-            return (T) new GraphFindFeature(this);
+            return (T) new GraphFindFeature(this, fileid);
         }
         if(type == Search.class) {
             return (T) new GraphSearchFeature(this, fileid);
@@ -20,24 +20,26 @@ import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.ListService;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.SimplePathPredicate;
-import ch.cyberduck.core.cache.LRUCache;
+import ch.cyberduck.core.cache.PathIdIndex;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.features.FileIdProvider;
 import ch.cyberduck.core.onedrive.GraphSession;
-import ch.cyberduck.core.preferences.PreferencesFactory;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Logger;
 
+import java.util.function.Function;
+
 public class GraphFileIdProvider implements FileIdProvider {
     private static final Logger log = Logger.getLogger(GraphFileIdProvider.class);
 
     private final GraphSession session;
-    private final LRUCache<SimplePathPredicate, String> cache = LRUCache.build(PreferencesFactory.get().getLong("fileid.cache.size"));
+    private final PathIdIndex cache;
 
     public GraphFileIdProvider(final GraphSession session) {
         this.session = session;
+        this.cache = new PathIdIndex(session.getHost());
     }
 
     @Override
@@ -45,8 +47,8 @@ public class GraphFileIdProvider implements FileIdProvider {
         if(StringUtils.isNotBlank(file.attributes().getFileId())) {
             return file.attributes().getFileId();
         }
-        if(cache.contains(new SimplePathPredicate(file))) {
-            final String cached = cache.get(new SimplePathPredicate(file));
+        final String cached = cache.get(file);
+        if(null != cached) {
             if(log.isDebugEnabled()) {
                 log.debug(String.format("Return cached fileid %s for file %s", cached, file));
             }
@@ -65,16 +67,42 @@ public class GraphFileIdProvider implements FileIdProvider {
             log.debug(String.format("Cache %s for file %s", id, file));
         }
         if(null == id) {
-            cache.remove(new SimplePathPredicate(file));
+            // Remove any descendants of moved or deleted folder
+            cache.remove(file);
             file.attributes().setFileId(null);
         }
         else {
-            cache.put(new SimplePathPredicate(file), id);
+            cache.put(file, id);
             file.attributes().setFileId(id);
         }
         return id;
     }
 
+    /**
+     * Add identifiers of files in directory listing
+     */
+    public void cache(final AttributedList<Path> list) {
+        cache.put(list, new Function<Path, String>() {
+            @Override
+            public String apply(final Path file) {
+                if(file.attributes().isDuplicate()) {
+                    // Ignore trashed files and previous versions
+                    return null;
+                }
+                return file.attributes().getFileId();
+            }
+        });
+    }
+
+    /**
+     * Remove identifiers of file and its parents saved in a previous session
+     *
+     * @return True if lookup should be retried
+     */
+    public boolean invalidate(final Path file) {
+        return cache.invalidate(file);
+    }
+
     @Override
     public void clear() {
         cache.clear();
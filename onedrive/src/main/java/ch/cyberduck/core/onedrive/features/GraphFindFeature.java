@@ -20,15 +20,22 @@ import ch.cyberduck.core.Path;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.InteroperabilityException;
 import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.features.FileIdProvider;
 import ch.cyberduck.core.features.Find;
 import ch.cyberduck.core.onedrive.GraphSession;
 
 public class GraphFindFeature implements Find {
 
     private final GraphSession session;
+    private final GraphFileIdProvider fileid;
 
     public GraphFindFeature(final GraphSession session) {
+        this(session, (GraphFileIdProvider) session._getFeature(FileIdProvider.class));
+    }
+
+    public GraphFindFeature(final GraphSession session, final GraphFileIdProvider fileid) {
         this.session = session;
+        this.fileid = fileid;
     }
 
     @Override
@@ -37,7 +44,14 @@ public class GraphFindFeature implements Find {
             new GraphAttributesFinderFeature(session).find(file, listener);
             return true;
         }
-        catch(NotfoundException | InteroperabilityException e) {
+        catch(NotfoundException e) {
+            if(fileid.invalidate(file)) {
+                // Saved identifier of file or parent may be stale
+                return this.find(file, listener);
+            }
+            return false;
+        }
+        catch(InteroperabilityException e) {
             return false;
         }
     }
@@ -36,8 +36,7 @@ import ch.cyberduck.core.io.BandwidthThrottle;
 import ch.cyberduck.core.io.HashAlgorithm;
 import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.threading.BackgroundExceptionCallable;
-import ch.cyberduck.core.threading.ThreadPool;
-import ch.cyberduck.core.threading.ThreadPoolFactory;
+import ch.cyberduck.core.threading.SegmentScheduler;
 import ch.cyberduck.core.transfer.SegmentRetryCallable;
 import ch.cyberduck.core.transfer.TransferStatus;
 import ch.cyberduck.core.worker.DefaultExceptionMappingService;
@@ -96,7 +95,7 @@ public class SwiftLargeObjectUploadFeature extends HttpUploadFeature<StorageObje
                                 final StreamListener listener,
                                 final TransferStatus status,
                                 final ConnectionCallback callback) throws BackgroundException {
-        final ThreadPool pool = ThreadPoolFactory.get("multipart", concurrency);
+        final SegmentScheduler.SegmentThreadPool pool = SegmentScheduler.pool(session.getHost(), concurrency);
         final List<Path> existingSegments = new ArrayList<>();
         if(status.isAppend()) {
             // Get a lexicographically ordered list of the existing file segments
@@ -195,11 +194,11 @@ public class SwiftLargeObjectUploadFeature extends HttpUploadFeature<StorageObje
         }
     }
 
-    private Future<StorageObject> submit(final ThreadPool pool, final Path segment, final Local local,
+    private Future<StorageObject> submit(final SegmentScheduler.SegmentThreadPool pool, final Path segment, final Local local,
                                          final BandwidthThrottle throttle, final StreamListener listener,
                                          final TransferStatus overall, final Long offset, final Long length, final ConnectionCallback callback) {
         final BytecountStreamListener counter = new BytecountStreamListener(listener);
-        return pool.execute(new SegmentRetryCallable<>(session.getHost(), new BackgroundExceptionCallable<StorageObject>() {
+        return pool.execute(new SegmentRetryCallable<>(session.getHost(), pool.getScheduler().measure(length, new BackgroundExceptionCallable<StorageObject>() {
             @Override
             public StorageObject call() throws BackgroundException {
                 overall.validate();
@@ -213,7 +212,7 @@ public class SwiftLargeObjectUploadFeature extends HttpUploadFeature<StorageObje
                 return SwiftLargeObjectUploadFeature.super.upload(
                     segment, local, throttle, counter, status, overall, status, callback);
             }
-        }, overall, counter));
+        }), overall, counter));
     }
 
     @Override
@@ -1768,11 +1768,18 @@ public class BrowserController extends WindowController implements NSToolbar.Del
                                 @Override
                                 public void callback(int returncode) {
                                     if(returncode == DEFAULT_OPTION) {
+                                        // Connections for concurrent search
+                                        final SessionPool connections = pool.getHost().getProtocol().getStatefulness() == Protocol.Statefulness.stateful ?
+                                            SessionPoolFactory.create(BrowserController.this, pool.getHost()) : pool;
                                         // Delay render until path is cached in the background
                                         background(new WorkerBackgroundAction<>(BrowserController.this, pool,
-                                            new SearchWorker(workdir, filenameFilter, cache, listener) {
+                                            new SearchWorker(workdir, filenameFilter, cache, listener, connections) {
                                                 @Override
                                                 public void cleanup(final AttributedList<Path> list) {
+                                                    if(connections != pool) {
+                                                        // Disconnect pool created for search only
+                                                        connections.shutdown();
+                                                    }
                                                     super.cleanup(list);
                                                     // Set filter with search result
                                                     setFilter(new RecursiveSearchFilter(list));
@@ -35,6 +35,7 @@ import org.apache.log4j.Logger;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class S3BulkTransferAccelerationFeature implements Bulk<Void> {
     private static final Logger log = Logger.getLogger(S3BulkTransferAccelerationFeature.class);
@@ -45,15 +46,27 @@ public class S3BulkTransferAccelerationFeature implements Bulk<Void> {
     private final S3Session session;
     private final TransferAcceleration accelerationService;
     private final PathContainerService containerService;
+    /**
+     * Buckets with transfer acceleration already determined
+     */
+    private final Set<Path> configured;
 
     public S3BulkTransferAccelerationFeature(final S3Session session) {
         this(session, session.getFeature(TransferAcceleration.class));
     }
 
     public S3BulkTransferAccelerationFeature(final S3Session session, final TransferAcceleration accelerationService) {
+        this(session, accelerationService, ConcurrentHashMap.newKeySet());
+    }
+
+    /**
+     * @param configured Buckets with transfer acceleration already determined shared for all files of the transfer
+     */
+    public S3BulkTransferAccelerationFeature(final S3Session session, final TransferAcceleration accelerationService, final Set<Path> configured) {
         this.session = session;
         this.accelerationService = accelerationService;
         this.containerService = session.getFeature(PathContainerService.class);
+        this.configured = configured;
     }
 
     @Override
@@ -79,6 +92,10 @@ public class S3BulkTransferAccelerationFeature implements Bulk<Void> {
         }
         for(Path bucket : buckets) {
             if(enabled) {
+                if(!configured.add(bucket)) {
+                    // Already determined for previous files in pipelined transfer
+                    continue;
+                }
                 try {
                     if(this.accelerate(bucket, callback)) {
                         if(log.isInfoEnabled()) {
@@ -97,6 +114,7 @@ public class S3BulkTransferAccelerationFeature implements Bulk<Void> {
             }
             else {
                 accelerationService.configure(false, bucket);
+                configured.remove(bucket);
             }
         }
     }
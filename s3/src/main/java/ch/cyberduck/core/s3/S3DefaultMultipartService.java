@@ -44,6 +44,10 @@ public class S3DefaultMultipartService implements S3MultipartService {
      * The maximum allowed parts in a multipart upload.
      */
     public static final int MAXIMUM_UPLOAD_PARTS = 10000;
+    /**
+     * The maximum size of a part in a multipart upload.
+     */
+    public static final long MAXIMUM_PART_SIZE = 5L * 1024L * 1024L * 1024L;
 
     private static final Logger log = Logger.getLogger(S3DefaultMultipartService.class);
 
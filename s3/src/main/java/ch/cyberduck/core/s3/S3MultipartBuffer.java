@@ -0,0 +1,95 @@
+package ch.cyberduck.core.s3;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.DefaultIOExceptionMappingService;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.io.StreamCopier;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Reads parts of multipart uploads into memory. The total size of buffers held by all uploads is limited.
+ */
+final class S3MultipartBuffer {
+    private static final Logger log = Logger.getLogger(S3MultipartBuffer.class);
+
+    /**
+     * Remaining number of bytes
+     */
+    private final Semaphore budget;
+
+    /**
+     * @param total Maximum number of bytes in buffers not yet released
+     */
+    public S3MultipartBuffer(final long total) {
+        this.budget = new Semaphore((int) Math.min(Integer.MAX_VALUE, Math.max(0L, total)));
+    }
+
+    /**
+     * @param local  File
+     * @param offset Offset of part
+     * @param length Length of part
+     * @return Contents of file in range or null when exceeding the remaining budget. Must be released after use.
+     */
+    public byte[] read(final Local local, final long offset, final long length) throws BackgroundException {
+        if(length > Integer.MAX_VALUE || !budget.tryAcquire((int) length)) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Skip buffering %d bytes with %d bytes available", length, budget.availablePermits()));
+            }
+            return null;
+        }
+        InputStream in = null;
+        boolean success = false;
+        try {
+            final byte[] buffer = new byte[(int) length];
+            in = local.getInputStream();
+            in = StreamCopier.skip(in, offset);
+            IOUtils.readFully(in, buffer);
+            success = true;
+            return buffer;
+        }
+        catch(IOException e) {
+            throw new DefaultIOExceptionMappingService().map(e);
+        }
+        finally {
+            IOUtils.closeQuietly(in);
+            if(!success) {
+                budget.release((int) length);
+            }
+        }
+    }
+
+    /**
+     * @param buffer Buffer returned from read
+     */
+    public void release(final byte[] buffer) {
+        budget.release(buffer.length);
+    }
+
+    /**
+     * @return Number of bytes available for buffers
+     */
+    public int available() {
+        return budget.availablePermits();
+    }
+}
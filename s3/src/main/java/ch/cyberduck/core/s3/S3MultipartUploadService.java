@@ -37,8 +37,8 @@ import ch.cyberduck.core.io.HashAlgorithm;
 import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.threading.BackgroundExceptionCallable;
+import ch.cyberduck.core.threading.SegmentScheduler;
 import ch.cyberduck.core.threading.ThreadPool;
-import ch.cyberduck.core.threading.ThreadPoolFactory;
 import ch.cyberduck.core.transfer.SegmentRetryCallable;
 import ch.cyberduck.core.transfer.TransferStatus;
 
@@ -51,9 +51,11 @@ import org.jets3t.service.model.MultipartUpload;
 import org.jets3t.service.model.S3Object;
 import org.jets3t.service.model.StorageObject;
 
+import java.io.ByteArrayInputStream;
 import java.security.MessageDigest;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -64,6 +66,14 @@ import java.util.concurrent.Future;
 public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, MessageDigest> {
     private static final Logger log = Logger.getLogger(S3MultipartUploadService.class);
 
+    private static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+
+    /**
+     * Buffers of parts shared by all uploads
+     */
+    private static final S3MultipartBuffer buffers
+        = new S3MultipartBuffer(PreferencesFactory.get().getLong("s3.upload.multipart.buffer.total"));
+
     private final S3Session session;
     private final PathContainerService containerService;
     private final S3DefaultMultipartService multipartService;
@@ -74,6 +84,22 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
      */
     private final Long partsize;
     private final Integer concurrency;
+    /**
+     * Minimum part size allowed when adjusting part size
+     */
+    private final Long minimum
+        = PreferencesFactory.get().getLong("s3.upload.multipart.partsize.minimum");
+
+    /**
+     * Maximum part length to read into memory to compute SHA-256 checksum for signature and upload in a single pass
+     */
+    private final Long threshold
+        = PreferencesFactory.get().getLong("s3.upload.multipart.buffer.threshold");
+    /**
+     * Skip computing SHA-256 checksum of part payload for signature over secure connections
+     */
+    private final boolean unsigned
+        = PreferencesFactory.get().getBoolean("s3.upload.multipart.payload.unsigned");
 
     public S3MultipartUploadService(final S3Session session, final Write<StorageObject> writer) {
         this(session, writer, PreferencesFactory.get().getLong("s3.upload.multipart.size"),
@@ -93,7 +119,8 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
     @Override
     public StorageObject upload(final Path file, final Local local, final BandwidthThrottle throttle, final StreamListener listener,
                                 final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
-        final ThreadPool pool = ThreadPoolFactory.get("multipart", concurrency);
+        final SegmentScheduler.SegmentThreadPool pool = SegmentScheduler.pool(session.getHost(), concurrency);
+        final SegmentScheduler scheduler = pool.getScheduler();
         try {
             MultipartUpload multipart = null;
             try {
@@ -130,34 +157,37 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
             // Full size of file
             final long size = status.getLength() + status.getOffset();
             final List<Future<MultipartPart>> parts = new ArrayList<>();
-            long remaining = status.getLength();
+            // Part boundaries must not change when resuming upload
+            final Long existing = partsize(completed);
+            final long partsize = null != existing ? existing : file.getType().contains(Path.Type.encrypted) ?
+                // Part size must be a multiple of the chunk size of Cryptomator vaults
+                Math.max(size / (S3DefaultMultipartService.MAXIMUM_UPLOAD_PARTS - 1), this.partsize) :
+                Math.min(S3DefaultMultipartService.MAXIMUM_PART_SIZE,
+                    scheduler.getSegmentSize(size, minimum, this.partsize, S3DefaultMultipartService.MAXIMUM_UPLOAD_PARTS));
+            // Completed parts with the same boundaries
+            final List<MultipartPart> skipped = new ArrayList<>();
             long offset = 0;
-            for(int partNumber = 1; remaining > 0; partNumber++) {
-                boolean skip = false;
-                if(status.isAppend()) {
+            for(int partNumber = 1; offset < size; partNumber++) {
+                // Last part can be less than 5 MB. Adjust part size.
+                final long length = Math.min(partsize, size - offset);
+                final MultipartPart part = find(completed, partNumber);
+                if(null != part && part.getSize() == length) {
                     if(log.isInfoEnabled()) {
-                        log.info(String.format("Determine if part number %d can be skipped", partNumber));
-                    }
-                    for(MultipartPart c : completed) {
-                        if(c.getPartNumber().equals(partNumber)) {
-                            if(log.isInfoEnabled()) {
-                                log.info(String.format("Skip completed part number %d", partNumber));
-                            }
-                            skip = true;
-                            offset += c.getSize();
-                            break;
-                        }
+                        log.info(String.format("Skip completed part number %d", partNumber));
                     }
+                    skipped.add(part);
                 }
-                if(!skip) {
-                    // Last part can be less than 5 MB. Adjust part size.
-                    final long length = Math.min(Math.max((size / (S3DefaultMultipartService.MAXIMUM_UPLOAD_PARTS - 1)), partsize), remaining);
+                else {
+                    if(null != part) {
+                        log.warn(String.format("Upload again part %s with size not matching %d", part, length));
+                    }
                     // Submit to queue
-                    parts.add(this.submit(pool, file, local, throttle, listener, status, multipart, partNumber, offset, length, callback));
-                    remaining -= length;
-                    offset += length;
+                    parts.add(this.submit(scheduler, pool, file, local, throttle, listener, status, multipart, partNumber, offset, length, callback));
                 }
+                offset += length;
             }
+            completed.clear();
+            completed.addAll(skipped);
             for(Future<MultipartPart> future : parts) {
                 try {
                     completed.add(future.get());
@@ -224,7 +254,44 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
         }
     }
 
-    private Future<MultipartPart> submit(final ThreadPool pool, final Path file, final Local local,
+    /**
+     * @param completed Parts of existing upload
+     * @return Size of all parts but the last in existing upload or null if unknown
+     */
+    static Long partsize(final List<MultipartPart> completed) {
+        MultipartPart first = null;
+        MultipartPart last = null;
+        for(MultipartPart part : completed) {
+            if(null == first || part.getPartNumber() < first.getPartNumber()) {
+                first = part;
+            }
+            if(null == last || part.getPartNumber() > last.getPartNumber()) {
+                last = part;
+            }
+        }
+        if(null == first) {
+            return null;
+        }
+        // Lowest part is not the last part of the file if followed by other parts or if it is the first part
+        if(first != last || first.getPartNumber() == 1) {
+            if(first.getSize() > 0 && first.getSize() <= S3DefaultMultipartService.MAXIMUM_PART_SIZE) {
+                return first.getSize();
+            }
+        }
+        log.warn(String.format("Unknown part size for completed parts %s", completed));
+        return null;
+    }
+
+    private static MultipartPart find(final List<MultipartPart> completed, final int partNumber) {
+        for(MultipartPart c : completed) {
+            if(c.getPartNumber().equals(partNumber)) {
+                return c;
+            }
+        }
+        return null;
+    }
+
+    private Future<MultipartPart> submit(final SegmentScheduler scheduler, final ThreadPool pool, final Path file, final Local local,
                                          final BandwidthThrottle throttle, final StreamListener listener,
                                          final TransferStatus overall, final MultipartUpload multipart,
                                          final int partNumber, final long offset, final long length, final ConnectionCallback callback) {
@@ -232,7 +299,7 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
             log.info(String.format("Submit part %d of %s to queue with offset %d and length %d", partNumber, file, offset, length));
         }
         final BytecountStreamListener counter = new BytecountStreamListener(listener);
-        return pool.execute(new SegmentRetryCallable<>(session.getHost(), new BackgroundExceptionCallable<MultipartPart>() {
+        return pool.execute(new SegmentRetryCallable<>(session.getHost(), scheduler.measure(length, new BackgroundExceptionCallable<MultipartPart>() {
             @Override
             public MultipartPart call() throws BackgroundException {
                 overall.validate();
@@ -246,14 +313,44 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
                 status.setPart(partNumber);
                 status.setHeader(overall.getHeader());
                 status.setNonces(overall.getNonces());
+                final StorageObject part;
                 switch(session.getSignatureVersion()) {
                     case AWS4HMACSHA256:
-                        status.setChecksum(writer.checksum(file, status).compute(local.getInputStream(), status));
+                        if(unsigned && session.getHost().getProtocol().isSecure()) {
+                            // Payload integrity is protected by TLS and verified with part ETag
+                            status.setMetadata(Collections.singletonMap("x-amz-content-sha256", UNSIGNED_PAYLOAD));
+                            status.setSegment(true);
+                            part = S3MultipartUploadService.super.upload(
+                                file, local, throttle, counter, status, overall, status, callback);
+                        }
+                        else {
+                            // Read part once into memory to compute checksum and upload from buffer if available
+                            final byte[] buffer = length <= threshold && !file.getType().contains(Path.Type.encrypted)
+                                ? buffers.read(local, offset, length) : null;
+                            if(null == buffer) {
+                                status.setChecksum(writer.checksum(file, status).compute(local.getInputStream(), status));
+                                status.setSegment(true);
+                                part = S3MultipartUploadService.super.upload(
+                                    file, local, throttle, counter, status, overall, status, callback);
+                            }
+                            else {
+                                try {
+                                    status.setChecksum(writer.checksum(file, status).compute(new ByteArrayInputStream(buffer), new TransferStatus().withLength(length)));
+                                    status.setSegment(true);
+                                    part = S3MultipartUploadService.super.upload(
+                                        file, new ByteArrayInputStream(buffer), 0L, throttle, counter, status, overall, status, callback);
+                                }
+                                finally {
+                                    buffers.release(buffer);
+                                }
+                            }
+                        }
                         break;
+                    default:
+                        status.setSegment(true);
+                        part = S3MultipartUploadService.super.upload(
+                            file, local, throttle, counter, status, overall, status, callback);
                 }
-                status.setSegment(true);
-                final StorageObject part = S3MultipartUploadService.super.upload(
-                    file, local, throttle, counter, status, overall, status, callback);
                 if(log.isInfoEnabled()) {
                     log.info(String.format("Received response %s for part number %d", part, partNumber));
                 }
@@ -264,7 +361,7 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
                     part.getContentLength());
 
             }
-        }, overall, counter));
+        }), overall, counter));
     }
 
     @Override
@@ -22,7 +22,6 @@ import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.ListService;
 import ch.cyberduck.core.Path;
-import ch.cyberduck.core.PathAttributes;
 import ch.cyberduck.core.PathContainerService;
 import ch.cyberduck.core.PathNormalizer;
 import ch.cyberduck.core.URIEncoder;
@@ -35,10 +34,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Logger;
 import org.jets3t.service.ServiceException;
 import org.jets3t.service.StorageObjectsChunk;
-import org.jets3t.service.model.StorageObject;
 
 import java.util.Arrays;
-import java.util.EnumSet;
 
 public class S3ObjectListService extends S3AbstractListService implements ListService {
     private static final Logger log = Logger.getLogger(S3ObjectListService.class);
@@ -79,6 +76,7 @@ public class S3ObjectListService extends S3AbstractListService implements ListSe
             // Null if listing is complete
             String priorLastKey = null;
             boolean hasDirectoryPlaceholder = containerService.isContainer(directory);
+            final S3ObjectsChunkParser parser = new S3ObjectsChunkParser(bucket, directory, delimiter, attributes);
             do {
                 // Read directory listing in chunks. List results are always returned
                 // in lexicographic (alphabetical) order.
@@ -86,52 +84,8 @@ public class S3ObjectListService extends S3AbstractListService implements ListSe
                     bucket.isRoot() ? StringUtils.EMPTY : PathNormalizer.name(URIEncoder.encode(bucket.getName())), prefix, delimiter,
                     chunksize, priorLastKey, false);
 
-                final StorageObject[] objects = chunk.getObjects();
-                for(StorageObject object : objects) {
-                    final String key = PathNormalizer.normalize(URIEncoder.decode(object.getKey()));
-                    if(String.valueOf(Path.DELIMITER).equals(key)) {
-                        log.warn(String.format("Skipping prefix %s", key));
-                        continue;
-                    }
-                    if(new Path(bucket, key, EnumSet.of(Path.Type.directory)).equals(directory)) {
-                        // Placeholder object, skip
-                        hasDirectoryPlaceholder = true;
-                        continue;
-                    }
-                    final EnumSet<Path.Type> types = object.getKey().endsWith(String.valueOf(Path.DELIMITER))
-                        ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file);
-                    final Path file;
-                    final PathAttributes attr = attributes.toAttributes(object);
-                    // Copy bucket location
-                    attr.setRegion(bucket.attributes().getRegion());
-                    if(null == delimiter) {
-                        file = new Path(String.format("%s%s", bucket.getAbsolute(), key), types, attr);
-                    }
-                    else {
-                        file = new Path(directory.isDirectory() ? directory : directory.getParent(), PathNormalizer.name(key), types, attr);
-                    }
-                    children.add(file);
-                }
-                final String[] prefixes = chunk.getCommonPrefixes();
-                for(String common : prefixes) {
-                    if(String.valueOf(Path.DELIMITER).equals(common)) {
-                        log.warn(String.format("Skipping prefix %s", common));
-                        continue;
-                    }
-                    final String key = PathNormalizer.normalize(URIEncoder.decode(common));
-                    if(new Path(bucket, key, EnumSet.of(Path.Type.directory)).equals(directory)) {
-                        continue;
-                    }
-                    final Path file;
-                    final PathAttributes attributes = new PathAttributes();
-                    if(null == delimiter) {
-                        file = new Path(String.format("%s%s", bucket.getAbsolute(), key), EnumSet.of(Path.Type.directory, Path.Type.placeholder), attributes);
-                    }
-                    else {
-                        file = new Path(directory.isDirectory() ? directory : directory.getParent(), PathNormalizer.name(key), EnumSet.of(Path.Type.directory, Path.Type.placeholder), attributes);
-                    }
-                    attributes.setRegion(bucket.attributes().getRegion());
-                    children.add(file);
+                if(parser.parse(chunk, children)) {
+                    hasDirectoryPlaceholder = true;
                 }
                 priorLastKey = null != chunk.getPriorLastKey() ? URIEncoder.decode(chunk.getPriorLastKey()) : null;
                 listener.chunk(directory, children);
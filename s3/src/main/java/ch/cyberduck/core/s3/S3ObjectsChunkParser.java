@@ -0,0 +1,161 @@
+package ch.cyberduck.core.s3;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.PathNormalizer;
+import ch.cyberduck.core.URIEncoder;
+import ch.cyberduck.core.unicode.NFCNormalizer;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+import org.jets3t.service.StorageObjectsChunk;
+import org.jets3t.service.model.StorageObject;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Convert chunks of an object listing to paths. Keys are decoded and normalized once and compared as strings with the
+ * key of the listed directory without creating intermediate path instances.
+ */
+public class S3ObjectsChunkParser {
+    private static final Logger log = Logger.getLogger(S3ObjectsChunkParser.class);
+
+    private final S3AttributesFinderFeature attributes;
+    private final String delimiter;
+    private final String region;
+    /**
+     * Parent of children when listing with delimiter
+     */
+    private final Path directory;
+    /**
+     * Absolute path of container prepended to keys
+     */
+    private final String container;
+    /**
+     * Normalized key of directory to skip placeholder object or null if the directory cannot match any key
+     */
+    private final String reference;
+    /**
+     * Parent directories of keys when listing without delimiter
+     */
+    private final Map<String, Path> parents = new HashMap<>();
+
+    /**
+     * @param bucket     Container
+     * @param directory  Listed directory
+     * @param delimiter  Delimiter or null for recursive listing
+     * @param attributes Converter for object metadata
+     */
+    public S3ObjectsChunkParser(final Path bucket, final Path directory, final String delimiter, final S3AttributesFinderFeature attributes) {
+        this.attributes = attributes;
+        this.delimiter = delimiter;
+        this.region = bucket.attributes().getRegion();
+        this.directory = directory.isDirectory() ? directory : directory.getParent();
+        this.container = bucket.isRoot() ? StringUtils.EMPTY : bucket.getAbsolute();
+        final String absolute = new NFCNormalizer().normalize(directory.getAbsolute()).toString();
+        if(directory.isDirectory() && !directory.isSymbolicLink() && absolute.startsWith(container)) {
+            this.reference = absolute.substring(container.length());
+        }
+        else {
+            this.reference = null;
+        }
+    }
+
+    /**
+     * Add objects and common prefixes of chunk to children
+     *
+     * @param chunk    Listing response
+     * @param children Files and directory placeholders found in chunk are added
+     * @return True if the placeholder object for the listed directory is contained in the chunk
+     */
+    public boolean parse(final StorageObjectsChunk chunk, final AttributedList<Path> children) {
+        // Add all files of chunk at once to avoid copying the list for every key
+        final List<Path> files = new ArrayList<>(chunk.getObjects().length + chunk.getCommonPrefixes().length);
+        boolean hasDirectoryPlaceholder = false;
+        for(StorageObject object : chunk.getObjects()) {
+            final String key = PathNormalizer.normalize(URIEncoder.decode(object.getKey()));
+            if(String.valueOf(Path.DELIMITER).equals(key)) {
+                log.warn(String.format("Skipping prefix %s", key));
+                continue;
+            }
+            if(key.equals(reference)) {
+                // Placeholder object, skip
+                hasDirectoryPlaceholder = true;
+                continue;
+            }
+            final EnumSet<Path.Type> types = object.getKey().endsWith(String.valueOf(Path.DELIMITER))
+                ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file);
+            final PathAttributes attr = attributes.toAttributes(object);
+            // Copy bucket location
+            attr.setRegion(region);
+            files.add(this.toPath(key, types, attr));
+        }
+        // Attributes shared by all common prefixes of chunk
+        final PathAttributes template = new PathAttributes();
+        template.setRegion(region);
+        for(String common : chunk.getCommonPrefixes()) {
+            if(String.valueOf(Path.DELIMITER).equals(common)) {
+                log.warn(String.format("Skipping prefix %s", common));
+                continue;
+            }
+            final String key = PathNormalizer.normalize(URIEncoder.decode(common));
+            if(key.equals(reference)) {
+                continue;
+            }
+            files.add(this.toPath(key, EnumSet.of(Path.Type.directory, Path.Type.placeholder), new PathAttributes(template)));
+        }
+        children.addAll(files);
+        return hasDirectoryPlaceholder;
+    }
+
+    /**
+     * @param key Normalized key with leading delimiter
+     */
+    private Path toPath(final String key, final EnumSet<Path.Type> types, final PathAttributes attr) {
+        final int index = key.lastIndexOf(Path.DELIMITER);
+        if(null == delimiter) {
+            return new Path(this.parent(index == 0 ? container : container + key.substring(0, index)), key.substring(index + 1), types, attr);
+        }
+        return new Path(directory, key.substring(index + 1), types, attr);
+    }
+
+    /**
+     * @param absolute Absolute path of directory
+     * @return Directory shared by all keys with the same parent
+     */
+    private Path parent(final String absolute) {
+        Path parent = parents.get(absolute);
+        if(null == parent) {
+            final int index = absolute.lastIndexOf(Path.DELIMITER);
+            if(index < 0) {
+                parent = new Path(String.valueOf(Path.DELIMITER), EnumSet.of(Path.Type.volume, Path.Type.directory));
+            }
+            else {
+                parent = new Path(this.parent(absolute.substring(0, index)), absolute.substring(index + 1), EnumSet.of(Path.Type.directory));
+            }
+            parent.attributes().setRegion(region);
+            parents.put(absolute, parent);
+        }
+        return parent;
+    }
+}
@@ -0,0 +1,156 @@
+package ch.cyberduck.core.s3;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.PathContainerService;
+import ch.cyberduck.core.PathNormalizer;
+import ch.cyberduck.core.RecursiveListService;
+import ch.cyberduck.core.URIEncoder;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.features.Versioning;
+import ch.cyberduck.core.preferences.Preferences;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+import org.jets3t.service.ServiceException;
+import org.jets3t.service.StorageObjectsChunk;
+import org.jets3t.service.model.StorageObject;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * List all keys with prefix of directory without delimiter. Directories are derived from the keys found.
+ */
+public class S3RecursiveListService implements RecursiveListService {
+    private static final Logger log = Logger.getLogger(S3RecursiveListService.class);
+
+    private final Preferences preferences
+        = PreferencesFactory.get();
+
+    private final S3Session session;
+    private final PathContainerService containerService;
+    private final S3AttributesFinderFeature attributes;
+    private final S3ObjectListService objects;
+
+    public S3RecursiveListService(final S3Session session) {
+        this.session = session;
+        this.containerService = session.getFeature(PathContainerService.class);
+        this.attributes = new S3AttributesFinderFeature(session);
+        this.objects = new S3ObjectListService(session);
+    }
+
+    @Override
+    public Map<Path, AttributedList<Path>> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        return this.list(directory, listener, preferences.getInteger("s3.listing.chunksize"));
+    }
+
+    protected Map<Path, AttributedList<Path>> list(final Path directory, final ListProgressListener listener, final int chunksize) throws BackgroundException {
+        if(directory.isRoot()) {
+            // Bucket listing
+            return null;
+        }
+        final Path bucket = containerService.getContainer(directory);
+        final Versioning versioning = session.getFeature(Versioning.class);
+        if(null != versioning && versioning.getConfiguration(bucket).isEnabled()) {
+            // Previous versions are listed by directory
+            return null;
+        }
+        try {
+            final String prefix = objects.createPrefix(directory);
+            final String root = PathNormalizer.normalize(containerService.isContainer(directory) ? String.valueOf(Path.DELIMITER) : containerService.getKey(directory));
+            final Map<Path, AttributedList<Path>> listing = new HashMap<>();
+            // Directories found by normalized key
+            final Map<String, Path> directories = new HashMap<>();
+            directories.put(root, directory);
+            listing.put(directory, new AttributedList<>());
+            // Null if listing is complete
+            String priorLastKey = null;
+            do {
+                // Keys are returned in lexicographic order with directory placeholders preceding their contents
+                final StorageObjectsChunk chunk = session.getClient().listObjectsChunked(
+                    PathNormalizer.name(URIEncoder.encode(bucket.getName())), prefix, null,
+                    chunksize, priorLastKey, false);
+                for(StorageObject object : chunk.getObjects()) {
+                    final String key = PathNormalizer.normalize(URIEncoder.decode(object.getKey()));
+                    if(key.equals(root)) {
+                        // Placeholder object for directory
+                        continue;
+                    }
+                    if(!StringUtils.startsWith(key, String.valueOf(Path.DELIMITER).equals(root) ? root : root + Path.DELIMITER)) {
+                        log.warn(String.format("Skipping key %s not in %s", key, directory));
+                        continue;
+                    }
+                    final PathAttributes attr = attributes.toAttributes(object);
+                    // Copy bucket location
+                    attr.setRegion(bucket.attributes().getRegion());
+                    final Path parent = this.directory(directories, listing, PathNormalizer.parent(key, Path.DELIMITER));
+                    if(object.getKey().endsWith(String.valueOf(Path.DELIMITER))) {
+                        if(directories.containsKey(key)) {
+                            continue;
+                        }
+                        final Path file = new Path(parent, PathNormalizer.name(key), EnumSet.of(Path.Type.directory), attr);
+                        directories.put(key, file);
+                        listing.put(file, new AttributedList<>());
+                        listing.get(parent).add(file);
+                    }
+                    else {
+                        listing.get(parent).add(new Path(parent, PathNormalizer.name(key), EnumSet.of(Path.Type.file), attr));
+                    }
+                }
+                priorLastKey = null != chunk.getPriorLastKey() ? URIEncoder.decode(chunk.getPriorLastKey()) : null;
+                listener.chunk(directory, listing.get(directory));
+            }
+            while(priorLastKey != null);
+            if(listing.size() == 1 && listing.get(directory).isEmpty()) {
+                // Leave handling of missing directory to listing by directory
+                return null;
+            }
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Found %d directories in %s", listing.size(), directory));
+            }
+            return listing;
+        }
+        catch(ServiceException e) {
+            throw new S3ExceptionMappingService().map("Listing directory {0} failed", e, directory);
+        }
+    }
+
+    /**
+     * @param key Normalized key of directory
+     * @return Directory previously found or new placeholder added to listing of its parent
+     */
+    private Path directory(final Map<String, Path> directories, final Map<Path, AttributedList<Path>> listing, final String key) {
+        final Path found = directories.get(key);
+        if(found != null) {
+            return found;
+        }
+        final Path parent = this.directory(directories, listing, PathNormalizer.parent(key, Path.DELIMITER));
+        final PathAttributes attributes = new PathAttributes();
+        attributes.setRegion(parent.attributes().getRegion());
+        final Path directory = new Path(parent, PathNormalizer.name(key), EnumSet.of(Path.Type.directory, Path.Type.placeholder), attributes);
+        directories.put(key, directory);
+        listing.put(directory, new AttributedList<>());
+        listing.get(parent).add(directory);
+        return directory;
+    }
+}
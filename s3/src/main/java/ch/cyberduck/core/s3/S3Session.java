@@ -28,6 +28,7 @@ import ch.cyberduck.core.ListService;
 import ch.cyberduck.core.LoginCallback;
 import ch.cyberduck.core.PasswordCallback;
 import ch.cyberduck.core.Path;
+import ch.cyberduck.core.RecursiveListService;
 import ch.cyberduck.core.Scheme;
 import ch.cyberduck.core.UrlProvider;
 import ch.cyberduck.core.auth.AWSSessionCredentialsRetriever;
@@ -71,6 +72,8 @@ import org.jets3t.service.security.AWSSessionCredentials;
 
 import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class S3Session extends HttpSession<RequestEntityRestStorageService> {
     private static final Logger log = Logger.getLogger(S3Session.class);
@@ -83,6 +86,11 @@ public class S3Session extends HttpSession<RequestEntityRestStorageService> {
 
     private Map<Path, Distribution> distributions = Collections.emptyMap();
 
+    /**
+     * Buckets with transfer acceleration already determined for this connection
+     */
+    private final Set<Path> accelerated = ConcurrentHashMap.newKeySet();
+
     private S3Protocol.AuthenticationHeaderSignatureVersion authenticationHeaderSignatureVersion
         = S3Protocol.AuthenticationHeaderSignatureVersion.getDefault(host.getProtocol());
 
@@ -220,6 +228,12 @@ public class S3Session extends HttpSession<RequestEntityRestStorageService> {
         if(type == ListService.class) {
             return (T) new S3ListService(this);
         }
+        if(type == RecursiveListService.class) {
+            if(preferences.getBoolean("s3.listing.recursive")) {
+                return (T) new S3RecursiveListService(this);
+            }
+            return null;
+        }
         if(type == Read.class) {
             return (T) new S3ReadFeature(this);
         }
@@ -315,7 +329,7 @@ public class S3Session extends HttpSession<RequestEntityRestStorageService> {
         if(type == Bulk.class) {
             // Only for AWS. Disable transfer acceleration for AWS GovCloud
             if(host.getHostname().endsWith(preferences.getProperty("s3.hostname.default"))) {
-                return (T) new S3BulkTransferAccelerationFeature(this, new S3TransferAccelerationService(this));
+                return (T) new S3BulkTransferAccelerationFeature(this, new S3TransferAccelerationService(this), accelerated);
             }
             return (T) new DisabledBulkFeature();
         }
@@ -140,10 +140,13 @@ public class S3VersioningFeature implements Versioning {
             }
             catch(AccessDeniedException l) {
                 log.warn(String.format("Missing permission to read versioning configuration for %s %s", container, e.getMessage()));
+                // Do not repeat request for every directory listed
+                cache.put(container, VersioningConfiguration.empty());
                 return VersioningConfiguration.empty();
             }
             catch(InteroperabilityException i) {
                 log.warn(String.format("Not supported to read versioning configuration for %s %s", container, e.getMessage()));
+                cache.put(container, VersioningConfiguration.empty());
                 return VersioningConfiguration.empty();
             }
         }
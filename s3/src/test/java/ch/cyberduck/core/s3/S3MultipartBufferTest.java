@@ -0,0 +1,108 @@
+package ch.cyberduck.core.s3;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.io.SHA256ChecksumCompute;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.RandomUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class S3MultipartBufferTest {
+
+    @Test
+    public void testReadChecksum() throws Exception {
+        final Local local = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final byte[] content = RandomUtils.nextBytes(1000);
+        final OutputStream out = local.getOutputStream(false);
+        IOUtils.write(content, out);
+        out.close();
+        final S3MultipartBuffer buffers = new S3MultipartBuffer(500L);
+        final byte[] buffer = buffers.read(local, 100L, 400L);
+        assertNotNull(buffer);
+        assertArrayEquals(Arrays.copyOfRange(content, 100, 500), buffer);
+        assertEquals(new SHA256ChecksumCompute().compute(local.getInputStream(), new TransferStatus().withOffset(100L).withLength(400L)),
+            new SHA256ChecksumCompute().compute(new ByteArrayInputStream(buffer), new TransferStatus().withLength(400L)));
+        assertEquals(100, buffers.available());
+        buffers.release(buffer);
+        assertEquals(500, buffers.available());
+        local.delete();
+    }
+
+    @Test
+    public void testLimit() throws Exception {
+        final Local local = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final OutputStream out = local.getOutputStream(false);
+        IOUtils.write(RandomUtils.nextBytes(1000), out);
+        out.close();
+        final S3MultipartBuffer buffers = new S3MultipartBuffer(500L);
+        assertNull(buffers.read(local, 0L, 600L));
+        final byte[] first = buffers.read(local, 0L, 300L);
+        assertNotNull(first);
+        assertNull(buffers.read(local, 300L, 300L));
+        final byte[] second = buffers.read(local, 300L, 200L);
+        assertNotNull(second);
+        assertEquals(0, buffers.available());
+        buffers.release(first);
+        assertNotNull(buffers.read(local, 500L, 300L));
+        assertEquals(0, buffers.available());
+        local.delete();
+    }
+
+    @Test
+    public void testReleaseOnFailure() throws Exception {
+        final Local local = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final S3MultipartBuffer buffers = new S3MultipartBuffer(500L);
+        // Missing file
+        try {
+            buffers.read(local, 0L, 100L);
+            fail();
+        }
+        catch(BackgroundException e) {
+            assertEquals(500, buffers.available());
+        }
+        final OutputStream out = local.getOutputStream(false);
+        IOUtils.write(RandomUtils.nextBytes(100), out);
+        out.close();
+        // Offset after end of file
+        try {
+            buffers.read(local, 200L, 100L);
+            fail();
+        }
+        catch(BackgroundException e) {
+            assertEquals(500, buffers.available());
+        }
+        // Length after end of file
+        try {
+            buffers.read(local, 50L, 100L);
+            fail();
+        }
+        catch(BackgroundException e) {
+            assertEquals(500, buffers.available());
+        }
+        local.delete();
+    }
+}
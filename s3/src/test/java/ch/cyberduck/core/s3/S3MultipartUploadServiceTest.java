@@ -13,6 +13,7 @@ import ch.cyberduck.core.features.Delete;
 import ch.cyberduck.core.io.BandwidthThrottle;
 import ch.cyberduck.core.io.DisabledStreamListener;
 import ch.cyberduck.core.kms.KMSEncryptionFeature;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.transfer.TransferStatus;
 import ch.cyberduck.test.IntegrationTest;
 
@@ -153,6 +154,32 @@ public class S3MultipartUploadServiceTest extends AbstractS3Test {
         local.delete();
     }
 
+    @Test
+    public void testMultiplePartsUnsignedPayload() throws Exception {
+        PreferencesFactory.get().setProperty("s3.upload.multipart.payload.unsigned", true);
+        try {
+            final S3MultipartUploadService m = new S3MultipartUploadService(session, new S3WriteFeature(session), 5242880L, 5);
+            final Path container = new Path("test-eu-central-1-cyberduck", EnumSet.of(Path.Type.directory, Path.Type.volume));
+            final Path test = new Path(container, UUID.randomUUID().toString(), EnumSet.of(Path.Type.file));
+            final Local local = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+            final int length = 5242881;
+            final byte[] content = RandomUtils.nextBytes(length);
+            IOUtils.write(content, local.getOutputStream(false));
+            final TransferStatus status = new TransferStatus();
+            status.setLength(content.length);
+            final BytecountStreamListener count = new BytecountStreamListener();
+            m.upload(test, local, new BandwidthThrottle(BandwidthThrottle.UNLIMITED), count, status, null);
+            assertEquals(content.length, count.getSent());
+            assertTrue(status.isComplete());
+            assertEquals(content.length, new S3AttributesFinderFeature(session).find(test).getSize());
+            new S3DefaultDeleteFeature(session).delete(Collections.singletonList(test), new DisabledLoginCallback(), new Delete.DisabledCallback());
+            local.delete();
+        }
+        finally {
+            PreferencesFactory.get().deleteProperty("s3.upload.multipart.payload.unsigned");
+        }
+    }
+
     @Test
     public void testAppendSecondPart() throws Exception {
         final Path container = new Path("test-us-east-1-cyberduck", EnumSet.of(Path.Type.directory, Path.Type.volume));
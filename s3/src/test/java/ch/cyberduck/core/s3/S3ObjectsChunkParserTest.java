@@ -0,0 +1,77 @@
+package ch.cyberduck.core.s3;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Path;
+
+import org.jets3t.service.StorageObjectsChunk;
+import org.jets3t.service.model.S3Object;
+import org.jets3t.service.model.StorageObject;
+import org.junit.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.Assert.*;
+
+public class S3ObjectsChunkParserTest {
+
+    @Test
+    public void testParseDelimiter() {
+        final S3Session session = new S3Session(new Host(new S3Protocol()));
+        final Path bucket = new Path("/b", EnumSet.of(Path.Type.directory, Path.Type.volume));
+        bucket.attributes().setRegion("eu-west-1");
+        final Path directory = new Path(bucket, "d", EnumSet.of(Path.Type.directory));
+        final S3ObjectsChunkParser parser = new S3ObjectsChunkParser(bucket, directory, String.valueOf(Path.DELIMITER), new S3AttributesFinderFeature(session));
+        final AttributedList<Path> children = new AttributedList<>();
+        final S3Object file = new S3Object("d/f%20n");
+        file.setContentLength(3L);
+        assertTrue(parser.parse(new StorageObjectsChunk("d/", "/", new StorageObject[]{new S3Object("d/"), file}, new String[]{"d/p/"}, null), children));
+        assertEquals(2, children.size());
+        final Path f = children.get(0);
+        assertEquals(new Path("/b/d/f n", EnumSet.of(Path.Type.file)), f);
+        assertSame(directory, f.getParent());
+        assertEquals(3L, f.attributes().getSize());
+        assertEquals("eu-west-1", f.attributes().getRegion());
+        final Path p = children.get(1);
+        assertEquals(new Path("/b/d/p", EnumSet.of(Path.Type.directory)), p);
+        assertTrue(p.getType().contains(Path.Type.placeholder));
+        assertEquals("eu-west-1", p.attributes().getRegion());
+        assertFalse(parser.parse(new StorageObjectsChunk("d/", "/", new StorageObject[]{new S3Object("d/g")}, new String[]{"d/"}, null), children));
+        assertEquals(3, children.size());
+    }
+
+    @Test
+    public void testParseRecursive() {
+        final S3Session session = new S3Session(new Host(new S3Protocol()));
+        final Path bucket = new Path("/b", EnumSet.of(Path.Type.directory, Path.Type.volume));
+        final S3ObjectsChunkParser parser = new S3ObjectsChunkParser(bucket, bucket, null, new S3AttributesFinderFeature(session));
+        final AttributedList<Path> children = new AttributedList<>();
+        assertFalse(parser.parse(new StorageObjectsChunk(null, null, new StorageObject[]{
+            new S3Object("f"), new S3Object("d/"), new S3Object("d/f1"), new S3Object("d/e/f2"), new S3Object("d/e/f3")}, new String[0], null), children));
+        assertEquals(5, children.size());
+        assertEquals(new Path("/b/f", EnumSet.of(Path.Type.file)), children.get(0));
+        assertEquals(bucket, children.get(0).getParent());
+        assertEquals(new Path("/b/d", EnumSet.of(Path.Type.directory)), children.get(1));
+        assertEquals(new Path("/b/d/f1", EnumSet.of(Path.Type.file)), children.get(2));
+        assertEquals(new Path("/b/d", EnumSet.of(Path.Type.directory)), children.get(2).getParent());
+        assertEquals(new Path("/b/d/e/f2", EnumSet.of(Path.Type.file)), children.get(3));
+        assertEquals(new Path("/b/d/e", EnumSet.of(Path.Type.directory)), children.get(3).getParent());
+        assertSame(children.get(3).getParent(), children.get(4).getParent());
+        assertTrue(children.get(3).getParent().getParent().getParent().getParent().isRoot());
+    }
+}
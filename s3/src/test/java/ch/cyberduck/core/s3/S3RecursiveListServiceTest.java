@@ -0,0 +1,64 @@
+package ch.cyberduck.core.s3;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.DisabledListProgressListener;
+import ch.cyberduck.core.DisabledLoginCallback;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.SimplePathPredicate;
+import ch.cyberduck.core.features.Delete;
+import ch.cyberduck.core.transfer.TransferStatus;
+import ch.cyberduck.test.IntegrationTest;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+@Category(IntegrationTest.class)
+public class S3RecursiveListServiceTest extends AbstractS3Test {
+
+    @Test
+    public void testListImplicitDirectory() throws Exception {
+        final Path bucket = new Path("test-us-east-1-cyberduck", EnumSet.of(Path.Type.directory, Path.Type.volume));
+        final Path directory = new S3DirectoryFeature(session, new S3WriteFeature(session)).mkdir(
+            new Path(bucket, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.directory)), null, new TransferStatus());
+        // No placeholder object for intermediate directory
+        final Path subdir = new Path(directory, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.directory));
+        final Path file = new S3TouchFeature(session).touch(new Path(subdir, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.file)), new TransferStatus());
+        final Map<Path, AttributedList<Path>> listing = new S3RecursiveListService(session).list(directory, new DisabledListProgressListener(), 1);
+        assertNotNull(listing);
+        assertEquals(2, listing.size());
+        assertTrue(listing.containsKey(directory));
+        assertTrue(listing.containsKey(subdir));
+        assertNotNull(listing.get(directory).find(new SimplePathPredicate(subdir)));
+        assertEquals(1, listing.get(subdir).size());
+        assertNotNull(listing.get(subdir).find(new SimplePathPredicate(file)));
+        new S3DefaultDeleteFeature(session).delete(Arrays.asList(file, directory), new DisabledLoginCallback(), new Delete.DisabledCallback());
+    }
+
+    @Test
+    public void testListNotfound() throws Exception {
+        final Path bucket = new Path("test-us-east-1-cyberduck", EnumSet.of(Path.Type.directory, Path.Type.volume));
+        assertNull(new S3RecursiveListService(session).list(new Path(bucket, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.directory)), new DisabledListProgressListener()));
+    }
+}
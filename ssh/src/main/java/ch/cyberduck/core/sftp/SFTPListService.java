@@ -23,21 +23,36 @@ import ch.cyberduck.core.ListService;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathAttributes;
 import ch.cyberduck.core.PathNormalizer;
+import ch.cyberduck.core.collections.Partition;
 import ch.cyberduck.core.exception.AccessDeniedException;
 import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.exception.InteroperabilityException;
 import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 
 import org.apache.log4j.Logger;
 
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
+import net.schmizz.concurrent.Promise;
 import net.schmizz.sshj.sftp.FileAttributes;
 import net.schmizz.sshj.sftp.FileMode;
+import net.schmizz.sshj.sftp.PacketType;
 import net.schmizz.sshj.sftp.RemoteDirectory;
 import net.schmizz.sshj.sftp.RemoteResourceFilter;
 import net.schmizz.sshj.sftp.RemoteResourceInfo;
+import net.schmizz.sshj.sftp.Response;
+import net.schmizz.sshj.sftp.SFTPEngine;
 import net.schmizz.sshj.sftp.SFTPException;
 
 public class SFTPListService implements ListService {
@@ -55,31 +70,49 @@ public class SFTPListService implements ListService {
     public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
         try {
             final AttributedList<Path> children = new AttributedList<Path>();
+            final List<Path> links = new ArrayList<>();
             final RemoteDirectory handle = session.sftp().openDir(directory.getAbsolute());
-            for(RemoteResourceInfo f : handle.scan(new RemoteResourceFilter() {
-                @Override
-                public boolean accept(RemoteResourceInfo remoteResourceInfo) {
-                    return true;
-                }
-            })) {
-                final PathAttributes attr = attributes.toAttributes(f.getAttributes());
-                final EnumSet<Path.Type> type = EnumSet.noneOf(Path.Type.class);
-                if(f.getAttributes().getType().equals(FileMode.Type.DIRECTORY)) {
-                    type.add(Path.Type.directory);
-                }
-                if(f.getAttributes().getType().equals(FileMode.Type.REGULAR)) {
-                    type.add(Path.Type.file);
-                }
-                if(f.getAttributes().getType().equals(FileMode.Type.SYMLINK)) {
-                    type.add(Path.Type.symboliclink);
-                }
-                final Path file = new Path(directory, f.getName(), type, attr);
-                if(this.post(file)) {
-                    children.add(file);
-                    listener.chunk(directory, children);
-                }
+            try {
+                // Filter is called for every entry of a batch read from the server
+                handle.scan(new RemoteResourceFilter() {
+                    @Override
+                    public boolean accept(RemoteResourceInfo f) {
+                        final PathAttributes attr = attributes.toAttributes(f.getAttributes());
+                        final EnumSet<Path.Type> type = EnumSet.noneOf(Path.Type.class);
+                        if(f.getAttributes().getType().equals(FileMode.Type.DIRECTORY)) {
+                            type.add(Path.Type.directory);
+                        }
+                        if(f.getAttributes().getType().equals(FileMode.Type.REGULAR)) {
+                            type.add(Path.Type.file);
+                        }
+                        if(f.getAttributes().getType().equals(FileMode.Type.SYMLINK)) {
+                            type.add(Path.Type.symboliclink);
+                        }
+                        final Path file = new Path(directory, f.getName(), type, attr);
+                        if(file.isSymbolicLink()) {
+                            // Resolve when listing is complete
+                            links.add(file);
+                        }
+                        else {
+                            children.add(file);
+                            try {
+                                listener.chunk(directory, children);
+                            }
+                            catch(ConnectionCanceledException e) {
+                                throw new ListCanceledFailure(e);
+                            }
+                        }
+                        return false;
+                    }
+                });
+            }
+            catch(ListCanceledFailure e) {
+                throw e.getCause();
+            }
+            finally {
+                handle.close();
             }
-            handle.close();
+            this.post(directory, links, children, listener);
             return children;
         }
         catch(IOException e) {
@@ -87,57 +120,122 @@ public class SFTPListService implements ListService {
         }
     }
 
-    protected boolean post(final Path file) throws BackgroundException {
-        if(file.isSymbolicLink()) {
-            final Path target;
-            Path.Type type;
-            PathAttributes attr;
+    /**
+     * Resolve targets of symbolic links with multiple outstanding requests. Links are added to the listing when the
+     * requests for their partition are completed. Symbolic links that cannot be read are omitted.
+     *
+     * @param directory Parent directory
+     * @param links     Symbolic links in directory
+     * @param children  Listing to add symbolic links to
+     * @param listener  Notified for every partition of symbolic links resolved
+     */
+    protected void post(final Path directory, final List<Path> links, final AttributedList<Path> children,
+                        final ListProgressListener listener) throws BackgroundException {
+        for(List<Path> partition : new Partition<>(links, PreferencesFactory.get().getInteger("sftp.listing.symlink.maxunconfirmed"))) {
+            final Set<Path> failed = new HashSet<>();
             try {
-                final String link = session.sftp().readLink(file.getAbsolute());
-                if(link.startsWith(String.valueOf(Path.DELIMITER))) {
-                    target = new Path(PathNormalizer.normalize(link), EnumSet.of(Path.Type.file));
+                final SFTPEngine sftp = session.sftp();
+                final Charset charset = sftp.getSubsystem().getRemoteCharset();
+                // Send all requests before reading the first response
+                final Map<Path, Promise<Response, SFTPException>> readlink = new LinkedHashMap<>();
+                for(Path file : partition) {
+                    readlink.put(file, sftp.request(sftp.newRequest(PacketType.READLINK).putString(file.getAbsolute(), charset)));
                 }
-                else {
-                    target = new Path(PathNormalizer.normalize(String.format("%s/%s", file.getParent().getAbsolute(), link)), EnumSet.of(Path.Type.file));
-                }
-                try {
-                    final FileAttributes stat = session.sftp().stat(target.getAbsolute());
-                    if(stat.getType().equals(FileMode.Type.DIRECTORY)) {
-                        type = Path.Type.directory;
+                final Map<Path, Path> targets = new LinkedHashMap<>();
+                for(Map.Entry<Path, Promise<Response, SFTPException>> entry : readlink.entrySet()) {
+                    final Path file = entry.getKey();
+                    try {
+                        final String link = this.toName(entry.getValue().retrieve(sftp.getTimeoutMs(), TimeUnit.MILLISECONDS), charset);
+                        if(link.startsWith(String.valueOf(Path.DELIMITER))) {
+                            targets.put(file, new Path(PathNormalizer.normalize(link), EnumSet.of(Path.Type.file)));
+                        }
+                        else {
+                            targets.put(file, new Path(PathNormalizer.normalize(String.format("%s/%s", file.getParent().getAbsolute(), link)), EnumSet.of(Path.Type.file)));
+                        }
                     }
-                    else {
-                        type = Path.Type.file;
+                    catch(IOException e) {
+                        log.warn(String.format("Failure to read symbolic link of %s. %s", file, e.getMessage()));
+                        failed.add(file);
                     }
-                    attr = attributes.toAttributes(stat);
                 }
-                catch(SFTPException e) {
-                    final BackgroundException reason = new SFTPExceptionMappingService().map(e);
-                    if(reason instanceof NotfoundException) {
-                        log.warn(String.format("Cannot find symbolic link target of %s. %s", file, reason.toString()));
-                    }
-                    else if(reason instanceof AccessDeniedException) {
-                        log.warn(String.format("Cannot find symbolic link target of %s. %s", file, reason.toString()));
+                final Map<Path, Promise<Response, SFTPException>> stat = new LinkedHashMap<>();
+                for(Map.Entry<Path, Path> entry : targets.entrySet()) {
+                    stat.put(entry.getKey(), sftp.request(sftp.newRequest(PacketType.STAT).putString(entry.getValue().getAbsolute(), charset)));
+                }
+                for(Map.Entry<Path, Promise<Response, SFTPException>> entry : stat.entrySet()) {
+                    final Path file = entry.getKey();
+                    final Path target = targets.get(file);
+                    Path.Type type;
+                    PathAttributes attr;
+                    try {
+                        final FileAttributes attributes = entry.getValue().retrieve(sftp.getTimeoutMs(), TimeUnit.MILLISECONDS)
+                            .ensurePacketTypeIs(PacketType.ATTRS).readFileAttributes();
+                        if(attributes.getType().equals(FileMode.Type.DIRECTORY)) {
+                            type = Path.Type.directory;
+                        }
+                        else {
+                            type = Path.Type.file;
+                        }
+                        attr = this.attributes.toAttributes(attributes);
                     }
-                    else if(reason instanceof InteroperabilityException) {
-                        log.warn(String.format("Cannot find symbolic link target of %s. %s", file, reason.toString()));
+                    catch(SFTPException e) {
+                        final BackgroundException reason = new SFTPExceptionMappingService().map(e);
+                        if(reason instanceof NotfoundException) {
+                            log.warn(String.format("Cannot find symbolic link target of %s. %s", file, reason.toString()));
+                        }
+                        else if(reason instanceof AccessDeniedException) {
+                            log.warn(String.format("Cannot find symbolic link target of %s. %s", file, reason.toString()));
+                        }
+                        else if(reason instanceof InteroperabilityException) {
+                            log.warn(String.format("Cannot find symbolic link target of %s. %s", file, reason.toString()));
+                        }
+                        else {
+                            log.warn(String.format("Unknown failure reading symbolic link target of %s. %s", file, reason.toString()));
+                            throw reason;
+                        }
+                        type = Path.Type.file;
+                        attr = PathAttributes.EMPTY;
                     }
-                    else {
-                        log.warn(String.format("Unknown failure reading symbolic link target of %s. %s", file, reason.toString()));
-                        throw reason;
+                    catch(IOException e) {
+                        log.warn(String.format("Failure to read symbolic link of %s. %s", file, e.getMessage()));
+                        failed.add(file);
+                        continue;
                     }
-                    type = Path.Type.file;
-                    attr = PathAttributes.EMPTY;
+                    file.setType(EnumSet.of(Path.Type.symboliclink, type));
+                    target.setType(EnumSet.of(type));
+                    target.setAttributes(attr);
+                    file.setSymlinkTarget(target);
                 }
-                file.setType(EnumSet.of(Path.Type.symboliclink, type));
-                target.setType(EnumSet.of(type));
-                target.setAttributes(attr);
-                file.setSymlinkTarget(target);
             }
             catch(IOException e) {
-                log.warn(String.format("Failure to read symbolic link of %s. %s", file, e.getMessage()));
-                return false;
+                log.warn(String.format("Failure to read symbolic links %s. %s", partition, e.getMessage()));
+                failed.addAll(partition);
             }
+            for(Path file : partition) {
+                if(!failed.contains(file)) {
+                    children.add(file);
+                }
+            }
+            listener.chunk(directory, children);
+        }
+    }
+
+    private String toName(final Response response, final Charset charset) throws IOException {
+        response.ensurePacketTypeIs(PacketType.NAME);
+        if(response.readUInt32AsInt() == 1) {
+            return response.readString(charset);
+        }
+        throw new SFTPException(String.format("Unexpected data in %s packet", response.getType()));
+    }
+
+    private static final class ListCanceledFailure extends RuntimeException {
+        public ListCanceledFailure(final ConnectionCanceledException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized ConnectionCanceledException getCause() {
+            return (ConnectionCanceledException) super.getCause();
         }
-        return true;
     }
 }
@@ -124,4 +124,9 @@ public class SFTPWriteFeature extends AppendWriteFeature<Void> {
     public boolean random() {
         return true;
     }
+
+    @Override
+    public boolean segmented(final Path file) {
+        return preferences.getBoolean("sftp.upload.segments");
+    }
 }
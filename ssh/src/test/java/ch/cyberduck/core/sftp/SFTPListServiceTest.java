@@ -26,15 +26,18 @@ import ch.cyberduck.core.Path;
 import ch.cyberduck.core.Permission;
 import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.features.Delete;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.transfer.TransferStatus;
 import ch.cyberduck.test.IntegrationTest;
 
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.Assert.assertEquals;
@@ -82,6 +85,56 @@ public class SFTPListServiceTest extends AbstractSFTPTest {
         new SFTPDeleteFeature(session).delete(Collections.<Path>singletonList(file), new DisabledLoginCallback(), new Delete.DisabledCallback());
     }
 
+    @Test
+    public void testListSymlinksChunked() throws Exception {
+        final Path home = new SFTPHomeDirectoryService(session).find();
+        final Path directory = new SFTPDirectoryFeature(session).mkdir(new Path(home, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.directory)), null, new TransferStatus());
+        final Path file = new Path(directory, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.file));
+        new SFTPTouchFeature(session).touch(file, new TransferStatus());
+        final Path folder = new SFTPDirectoryFeature(session).mkdir(new Path(directory, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.directory)), null, new TransferStatus());
+        final List<Path> links = new ArrayList<>();
+        for(int i = 0; i < 5; i++) {
+            final Path link = new Path(directory, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.file, AbstractPath.Type.symboliclink));
+            new SFTPSymlinkFeature(session).symlink(link, file.getName());
+            links.add(link);
+        }
+        PreferencesFactory.get().setProperty("sftp.listing.symlink.maxunconfirmed", 2);
+        try {
+            final List<Integer> chunks = new ArrayList<>();
+            final AttributedList<Path> list = new SFTPListService(session).list(directory, new DisabledListProgressListener() {
+                @Override
+                public void chunk(final Path parent, final AttributedList<Path> list) {
+                    int symlinks = 0;
+                    for(Path f : list) {
+                        if(f.isSymbolicLink()) {
+                            // Only resolved links are added to listing
+                            assertEquals(file, f.getSymlinkTarget());
+                            symlinks++;
+                        }
+                    }
+                    if(symlinks > 0) {
+                        // Ordinary entries are chunked before symbolic links
+                        assertTrue(list.contains(file));
+                        assertTrue(list.contains(folder));
+                    }
+                    chunks.add(symlinks);
+                }
+            });
+            assertEquals(7, list.size());
+            for(Path link : links) {
+                assertTrue(list.contains(link));
+                assertEquals(file, list.get(link).getSymlinkTarget());
+            }
+            // Chunk for every ordinary entry and every partition of symbolic links
+            assertEquals(Arrays.asList(0, 0, 2, 4, 5), chunks);
+        }
+        finally {
+            PreferencesFactory.get().deleteProperty("sftp.listing.symlink.maxunconfirmed");
+            links.addAll(Arrays.asList(file, folder, directory));
+            new SFTPDeleteFeature(session).delete(links, new DisabledLoginCallback(), new Delete.DisabledCallback());
+        }
+    }
+
     @Test(expected = NotfoundException.class)
     public void testListNotfound() throws Exception {
         final Path f = new Path(UUID.randomUUID().toString(), EnumSet.of(Path.Type.directory));
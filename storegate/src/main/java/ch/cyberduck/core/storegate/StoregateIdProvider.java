@@ -15,17 +15,16 @@ package ch.cyberduck.core.storegate;
  * GNU General Public License for more details.
  */
 
+import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.DefaultPathContainerService;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathContainerService;
 import ch.cyberduck.core.PathRelativizer;
-import ch.cyberduck.core.SimplePathPredicate;
 import ch.cyberduck.core.URIEncoder;
-import ch.cyberduck.core.cache.LRUCache;
+import ch.cyberduck.core.cache.PathIdIndex;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.features.FileIdProvider;
-import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.storegate.io.swagger.client.ApiException;
 import ch.cyberduck.core.storegate.io.swagger.client.api.FilesApi;
 import ch.cyberduck.core.storegate.io.swagger.client.model.RootFolder;
@@ -33,14 +32,17 @@ import ch.cyberduck.core.storegate.io.swagger.client.model.RootFolder;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Logger;
 
+import java.util.function.Function;
+
 public class StoregateIdProvider implements FileIdProvider {
     private static final Logger log = Logger.getLogger(StoregateIdProvider.class);
 
     private final StoregateSession session;
-    private final LRUCache<SimplePathPredicate, String> cache = LRUCache.build(PreferencesFactory.get().getLong("fileid.cache.size"));
+    private final PathIdIndex cache;
 
     public StoregateIdProvider(final StoregateSession session) {
         this.session = session;
+        this.cache = new PathIdIndex(session.getHost());
     }
 
     @Override
@@ -49,8 +51,8 @@ public class StoregateIdProvider implements FileIdProvider {
             if(StringUtils.isNotBlank(file.attributes().getFileId())) {
                 return file.attributes().getFileId();
             }
-            if(cache.contains(new SimplePathPredicate(file))) {
-                final String cached = cache.get(new SimplePathPredicate(file));
+            final String cached = cache.get(file);
+            if(null != cached) {
                 if(log.isDebugEnabled()) {
                     log.debug(String.format("Return cached fileid %s for file %s", cached, file));
                 }
@@ -70,16 +72,42 @@ public class StoregateIdProvider implements FileIdProvider {
             log.debug(String.format("Cache %s for file %s", id, file));
         }
         if(null == id) {
-            cache.remove(new SimplePathPredicate(file));
+            // Remove any descendants of moved or deleted folder
+            cache.remove(file);
             file.attributes().setFileId(null);
         }
         else {
-            cache.put(new SimplePathPredicate(file), id);
+            cache.put(file, id);
             file.attributes().setFileId(id);
         }
         return id;
     }
 
+    /**
+     * Add identifiers of files in directory listing
+     */
+    public void cache(final AttributedList<Path> list) {
+        cache.put(list, new Function<Path, String>() {
+            @Override
+            public String apply(final Path file) {
+                if(file.attributes().isDuplicate()) {
+                    // Ignore trashed files and previous versions
+                    return null;
+                }
+                return file.attributes().getFileId();
+            }
+        });
+    }
+
+    /**
+     * Remove identifiers of file and its parents saved in a previous session
+     *
+     * @return True if lookup should be retried
+     */
+    public boolean invalidate(final Path file) {
+        return cache.invalidate(file);
+    }
+
     @Override
     public void clear() {
         cache.clear();
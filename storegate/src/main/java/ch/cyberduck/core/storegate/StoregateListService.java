@@ -90,6 +90,7 @@ public class StoregateListService implements ListService {
                     pageIndex++;
                 }
                 while(children.size() < files.getTotalRowCount());
+                fileid.cache(children);
                 return children;
             }
             catch(ApiException e) {
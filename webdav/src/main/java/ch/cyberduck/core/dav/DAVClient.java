@@ -18,6 +18,7 @@ package ch.cyberduck.core.dav;
  * feedback@cyberduck.ch
  */
 
+import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.http.HttpMethodReleaseInputStream;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 
@@ -32,19 +33,24 @@ import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.log4j.Logger;
 
+import javax.xml.namespace.QName;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import com.github.sardine.DavResource;
 import com.github.sardine.impl.SardineImpl;
 import com.github.sardine.impl.handler.MultiStatusResponseHandler;
 import com.github.sardine.impl.handler.VoidResponseHandler;
 import com.github.sardine.impl.methods.HttpPropFind;
+import com.github.sardine.model.Allprop;
 import com.github.sardine.model.Multistatus;
+import com.github.sardine.model.ObjectFactory;
+import com.github.sardine.model.Prop;
 import com.github.sardine.model.Propfind;
 import com.github.sardine.model.Response;
 import com.github.sardine.util.SardineUtil;
@@ -100,6 +106,64 @@ public class DAVClient extends SardineImpl {
         return resources;
     }
 
+    /**
+     * Notify callback for every resource in PROPFIND response while parsing
+     *
+     * @param url      Resource
+     * @param depth    Depth header or -1 for infinity
+     * @param props    Custom properties to request in addition to default properties
+     * @param callback Notified for every resource when parsed
+     */
+    public void list(final String url, final int depth, final Set<QName> props, final SaxPropFindResponseHandler.ResponseCallback callback) throws IOException {
+        final Prop prop = new Prop();
+        final ObjectFactory factory = new ObjectFactory();
+        prop.setGetcontentlength(factory.createGetcontentlength());
+        prop.setGetlastmodified(factory.createGetlastmodified());
+        prop.setCreationdate(factory.createCreationdate());
+        prop.setDisplayname(factory.createDisplayname());
+        prop.setGetcontenttype(factory.createGetcontenttype());
+        prop.setResourcetype(factory.createResourcetype());
+        prop.setGetetag(factory.createGetetag());
+        for(QName name : props) {
+            prop.getAny().add(SardineUtil.createElement(name));
+        }
+        final Propfind body = new Propfind();
+        body.setProp(prop);
+        this.propfind(url, depth, body, callback);
+    }
+
+    /**
+     * Notify callback for every resource in PROPFIND response with all properties while parsing
+     *
+     * @param url      Resource
+     * @param depth    Depth header or -1 for infinity
+     * @param callback Notified for every resource when parsed
+     */
+    public void list(final String url, final int depth, final SaxPropFindResponseHandler.ResponseCallback callback) throws IOException {
+        final Propfind body = new Propfind();
+        body.setAllprop(new Allprop());
+        this.propfind(url, depth, body, callback);
+    }
+
+    protected void propfind(final String url, final int depth, final Propfind body, final SaxPropFindResponseHandler.ResponseCallback callback) throws IOException {
+        HttpPropFind entity = new HttpPropFind(url);
+        entity.setDepth(depth < 0 ? "infinity" : Integer.toString(depth));
+        entity.setEntity(new StringEntity(SardineUtil.toXml(body), StandardCharsets.UTF_8));
+        if(PreferencesFactory.get().getBoolean("webdav.list.handler.sax")) {
+            this.execute(entity, new SaxPropFindResponseHandler(callback));
+        }
+        else {
+            for(Response response : this.execute(entity, new MultiStatusResponseHandler()).getResponse()) {
+                try {
+                    callback.response(response);
+                }
+                catch(BackgroundException e) {
+                    throw new IOException(e.getMessage(), e);
+                }
+            }
+        }
+    }
+
     @Override
     public ContentLengthStatusInputStream get(final String url, final List<Header> headers) throws IOException {
         HttpGet get = new HttpGet(url);
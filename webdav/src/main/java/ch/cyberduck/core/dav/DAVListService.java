@@ -31,13 +31,14 @@ import ch.cyberduck.core.http.HttpExceptionMappingService;
 import org.apache.log4j.Logger;
 
 import java.io.IOException;
+import java.net.URISyntaxException;
 import java.util.EnumSet;
-import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import com.github.sardine.DavResource;
 import com.github.sardine.impl.SardineException;
+import com.github.sardine.model.Response;
 
 public class DAVListService implements ListService {
     private static final Logger log = Logger.getLogger(DAVListService.class);
@@ -58,38 +59,57 @@ public class DAVListService implements ListService {
     public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
         try {
             final AttributedList<Path> children = new AttributedList<Path>();
-            for(final DavResource resource : this.list(directory)) {
-                // Try to parse as RFC 2396
-                final String href = PathNormalizer.normalize(resource.getHref().getPath(), true);
-                if(href.equals(directory.getAbsolute())) {
-                    log.warn(String.format("Ignore resource %s", href));
-                    // Do not include self
-                    if(resource.isDirectory()) {
-                        continue;
+            this.list(directory, 1, new SaxPropFindResponseHandler.ResponseCallback() {
+                @Override
+                public void response(final Response response) throws BackgroundException {
+                    final DavResource resource;
+                    try {
+                        resource = new DavResource(response);
                     }
-                    throw new NotfoundException(directory.getAbsolute());
+                    catch(URISyntaxException e) {
+                        log.warn(String.format("Ignore resource with invalid URI %s", response.getHref().get(0)));
+                        return;
+                    }
+                    // Try to parse as RFC 2396
+                    final String href = PathNormalizer.normalize(resource.getHref().getPath(), true);
+                    if(href.equals(directory.getAbsolute())) {
+                        log.warn(String.format("Ignore resource %s", href));
+                        // Do not include self
+                        if(resource.isDirectory()) {
+                            return;
+                        }
+                        throw new NotfoundException(directory.getAbsolute());
+                    }
+                    final PathAttributes attr = attributes.toAttributes(resource);
+                    final Path file = new Path(directory, PathNormalizer.name(href),
+                        resource.isDirectory() ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file), attr);
+                    children.add(file);
+                    listener.chunk(directory, children);
                 }
-                final PathAttributes attr = attributes.toAttributes(resource);
-                final Path file = new Path(directory, PathNormalizer.name(href),
-                    resource.isDirectory() ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file), attr);
-                children.add(file);
-                listener.chunk(directory, children);
-            }
+            });
             return children;
         }
         catch(SardineException e) {
             throw new DAVExceptionMappingService().map("Listing directory {0} failed", e, directory);
         }
         catch(IOException e) {
+            if(e.getCause() instanceof BackgroundException) {
+                throw (BackgroundException) e.getCause();
+            }
             throw new HttpExceptionMappingService().map(e, directory);
         }
     }
 
-    protected List<DavResource> list(final Path directory) throws IOException {
-        return session.getClient().list(new DAVPathEncoder().encode(directory), 1,
+    /**
+     * @param directory Directory
+     * @param depth     Depth header or -1 for infinity
+     * @param callback  Notified for every resource when parsed
+     */
+    protected void list(final Path directory, final int depth, final SaxPropFindResponseHandler.ResponseCallback callback) throws IOException {
+        session.getClient().list(new DAVPathEncoder().encode(directory), depth,
             Stream.of(
                 DAVTimestampFeature.LAST_MODIFIED_CUSTOM_NAMESPACE,
                 DAVTimestampFeature.LAST_MODIFIED_SERVER_CUSTOM_NAMESPACE).
-                collect(Collectors.toSet()));
+                collect(Collectors.toSet()), callback);
     }
 }
@@ -0,0 +1,152 @@
+package ch.cyberduck.core.dav;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.PathNormalizer;
+import ch.cyberduck.core.RecursiveListService;
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.InteroperabilityException;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.http.HttpExceptionMappingService;
+
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.github.sardine.DavResource;
+import com.github.sardine.impl.SardineException;
+import com.github.sardine.model.Response;
+
+/**
+ * Recursive listing with PROPFIND request with Depth header set to infinity. Many servers do not allow infinite depth
+ * in which case listing falls back to requests for every directory.
+ */
+public class DAVRecursiveListService implements RecursiveListService {
+    private static final Logger log = Logger.getLogger(DAVRecursiveListService.class);
+
+    private final DAVListService proxy;
+    private final DAVAttributesFinderFeature attributes;
+
+    public DAVRecursiveListService(final DAVSession session) {
+        this(new DAVListService(session), new DAVAttributesFinderFeature(session));
+    }
+
+    public DAVRecursiveListService(final DAVListService proxy, final DAVAttributesFinderFeature attributes) {
+        this.proxy = proxy;
+        this.attributes = attributes;
+    }
+
+    @Override
+    public Map<Path, AttributedList<Path>> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        final Map<Path, AttributedList<Path>> listing = new HashMap<>();
+        // Directories found by absolute path
+        final Map<String, Path> directories = new HashMap<>();
+        directories.put(directory.getAbsolute(), directory);
+        listing.put(directory, new AttributedList<>());
+        try {
+            proxy.list(directory, -1, new SaxPropFindResponseHandler.ResponseCallback() {
+                @Override
+                public void response(final Response response) throws BackgroundException {
+                    final DavResource resource;
+                    try {
+                        resource = new DavResource(response);
+                    }
+                    catch(URISyntaxException e) {
+                        log.warn(String.format("Ignore resource with invalid URI %s", response.getHref().get(0)));
+                        return;
+                    }
+                    final String href = PathNormalizer.normalize(resource.getHref().getPath(), true);
+                    if(href.equals(directory.getAbsolute())) {
+                        // Do not include self
+                        if(resource.isDirectory()) {
+                            return;
+                        }
+                        throw new NotfoundException(directory.getAbsolute());
+                    }
+                    if(!href.startsWith(directory.isRoot() ? directory.getAbsolute() : directory.getAbsolute() + Path.DELIMITER)) {
+                        log.warn(String.format("Ignore resource %s not in %s", href, directory));
+                        return;
+                    }
+                    final PathAttributes attr = attributes.toAttributes(resource);
+                    final Path parent = DAVRecursiveListService.this.directory(directories, listing, PathNormalizer.parent(href, Path.DELIMITER));
+                    if(resource.isDirectory()) {
+                        final Path found = directories.get(href);
+                        if(found != null) {
+                            // Previously added as parent of another resource
+                            found.setAttributes(attr);
+                            return;
+                        }
+                        final Path file = new Path(parent, PathNormalizer.name(href), EnumSet.of(Path.Type.directory), attr);
+                        directories.put(href, file);
+                        listing.put(file, new AttributedList<>());
+                        listing.get(parent).add(file);
+                    }
+                    else {
+                        listing.get(parent).add(new Path(parent, PathNormalizer.name(href), EnumSet.of(Path.Type.file), attr));
+                    }
+                    if(parent == directory) {
+                        listener.chunk(directory, listing.get(directory));
+                    }
+                }
+            });
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Found %d directories in %s", listing.size(), directory));
+            }
+            return listing;
+        }
+        catch(SardineException e) {
+            final BackgroundException failure = new DAVExceptionMappingService().map("Listing directory {0} failed", e, directory);
+            if(failure instanceof AccessDeniedException || failure instanceof InteroperabilityException) {
+                // Depth infinity not supported by server
+                log.warn(String.format("Failure %s listing %s with infinite depth", failure, directory));
+                return null;
+            }
+            throw failure;
+        }
+        catch(IOException e) {
+            if(e.getCause() instanceof BackgroundException) {
+                throw (BackgroundException) e.getCause();
+            }
+            throw new HttpExceptionMappingService().map(e, directory);
+        }
+    }
+
+    /**
+     * @param absolute Normalized path of directory
+     * @return Directory previously found or new directory added to listing of its parent
+     */
+    private Path directory(final Map<String, Path> directories, final Map<Path, AttributedList<Path>> listing, final String absolute) {
+        final Path found = directories.get(absolute);
+        if(found != null) {
+            return found;
+        }
+        final Path parent = this.directory(directories, listing, PathNormalizer.parent(absolute, Path.DELIMITER));
+        final Path directory = new Path(parent, PathNormalizer.name(absolute), EnumSet.of(Path.Type.directory));
+        directories.put(absolute, directory);
+        listing.put(directory, new AttributedList<>());
+        listing.get(parent).add(directory);
+        return directory;
+    }
+}
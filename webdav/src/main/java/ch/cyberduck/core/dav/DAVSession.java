@@ -30,6 +30,7 @@ import ch.cyberduck.core.LocaleFactory;
 import ch.cyberduck.core.LoginCallback;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.ProtocolFactory;
+import ch.cyberduck.core.RecursiveListService;
 import ch.cyberduck.core.Scheme;
 import ch.cyberduck.core.dav.microsoft.MicrosoftIISDAVAttributesFinderFeature;
 import ch.cyberduck.core.dav.microsoft.MicrosoftIISDAVFindFeature;
@@ -318,6 +319,12 @@ public class DAVSession extends HttpSession<DAVClient> {
         if(type == ListService.class) {
             return (T) list;
         }
+        if(type == RecursiveListService.class) {
+            if(preferences.getBoolean("webdav.listing.infinity")) {
+                return (T) new DAVRecursiveListService((DAVListService) list, (DAVAttributesFinderFeature) attributes);
+            }
+            return null;
+        }
         if(type == Directory.class) {
             return (T) new DAVDirectoryFeature(this);
         }
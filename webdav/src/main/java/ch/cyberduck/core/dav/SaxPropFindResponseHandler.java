@@ -15,6 +15,8 @@ package ch.cyberduck.core.dav;
  * GNU General Public License for more details.
  */
 
+import ch.cyberduck.core.exception.BackgroundException;
+
 import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Logger;
 import org.w3c.dom.Element;
@@ -40,6 +42,22 @@ import com.github.sardine.util.SardineUtil;
 public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
     private static final Logger log = Logger.getLogger(SaxPropFindResponseHandler.class);
 
+    /**
+     * Notified for every response element parsed. Null to collect all responses in multistatus.
+     */
+    private final ResponseCallback callback;
+
+    public SaxPropFindResponseHandler() {
+        this(null);
+    }
+
+    /**
+     * @param callback Notified for every response when parsed instead of adding it to the multistatus returned
+     */
+    public SaxPropFindResponseHandler(final ResponseCallback callback) {
+        this.callback = callback;
+    }
+
     @Override
     protected Multistatus getMultistatus(final InputStream stream) throws IOException {
         final SAXParserFactory spf = SAXParserFactory.newInstance();
@@ -47,19 +65,35 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
         try {
             final SAXParser saxParser = spf.newSAXParser();
             final XMLReader xmlReader = saxParser.getXMLReader();
-            final SaxHandler handler = new SaxHandler();
+            final SaxHandler handler = new SaxHandler(callback);
             xmlReader.setContentHandler(handler);
             xmlReader.setErrorHandler(new LoggingErrorHandler());
             xmlReader.parse(new InputSource(stream));
             return handler.getMultistatus();
         }
-        catch(IOException | SAXException | ParserConfigurationException e) {
+        catch(SAXException e) {
+            if(e.getException() instanceof BackgroundException) {
+                // Failure from callback
+                throw new IOException(e.getException().getMessage(), e.getException());
+            }
             throw new IOException("Not a valid DAV response", e);
         }
+        catch(IOException | ParserConfigurationException e) {
+            throw new IOException("Not a valid DAV response", e);
+        }
+    }
+
+    public interface ResponseCallback {
+        /**
+         * @param response Response for single resource
+         */
+        void response(Response response) throws BackgroundException;
     }
 
     private static final class SaxHandler extends DefaultHandler {
 
+        private final ResponseCallback callback;
+
         private Multistatus multistatus;
         private Response response;
         private Propstat propstat;
@@ -72,6 +106,10 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
         private final StringBuilder text = new StringBuilder();
         private final Element root = SardineUtil.createElement(SardineUtil.createQNameWithCustomNamespace("root"));
 
+        public SaxHandler(final ResponseCallback callback) {
+            this.callback = callback;
+        }
+
         @Override
         public void startElement(final String uri, final String localName, final String qName, final Attributes attributes) {
             switch(localName) {
@@ -80,7 +118,7 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
                     break;
                 case "response":
                     response = new Response();
-                    if(multistatus != null) {
+                    if(multistatus != null && callback == null) {
                         multistatus.getResponse().add(response);
                     }
                     break;
@@ -134,8 +172,21 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
         }
 
         @Override
-        public void endElement(final String uri, final String localName, final String qName) {
+        public void endElement(final String uri, final String localName, final String qName) throws SAXException {
+            if("response".equals(localName)) {
+                if(response != null && callback != null) {
+                    try {
+                        callback.response(response);
+                    }
+                    catch(BackgroundException e) {
+                        throw new SAXException(e);
+                    }
+                }
+            }
             if(StringUtils.isBlank(text.toString())) {
+                if("response".equals(localName)) {
+                    response = null;
+                }
                 return;
             }
             if(response != null) {
@@ -0,0 +1,74 @@
+package ch.cyberduck.core.dav;
+
+/*
+ * Copyright (c) 2002-2021 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.exception.ListCanceledException;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.sardine.model.Multistatus;
+import com.github.sardine.model.Response;
+
+import static org.junit.Assert.*;
+
+public class SaxPropFindResponseHandlerTest {
+
+    private static final String MULTISTATUS = "<?xml version=\"1.0\" encoding=\"utf-8\"?>" +
+        "<D:multistatus xmlns:D=\"DAV:\">" +
+        "<D:response><D:href>/d/</D:href><D:propstat><D:prop><D:resourcetype><D:collection/></D:resourcetype></D:prop>" +
+        "<D:status>HTTP/1.1 200 OK</D:status></D:propstat></D:response>" +
+        "<D:response><D:href>/d/f</D:href><D:propstat><D:prop><D:getcontentlength>3</D:getcontentlength><D:resourcetype/></D:prop>" +
+        "<D:status>HTTP/1.1 200 OK</D:status></D:propstat></D:response>" +
+        "</D:multistatus>";
+
+    @Test
+    public void testMultistatus() throws Exception {
+        final Multistatus multistatus = new SaxPropFindResponseHandler().getMultistatus(IOUtils.toInputStream(MULTISTATUS, StandardCharsets.UTF_8));
+        assertEquals(2, multistatus.getResponse().size());
+    }
+
+    @Test
+    public void testCallback() throws Exception {
+        final List<Response> responses = new ArrayList<>();
+        final Multistatus multistatus = new SaxPropFindResponseHandler(responses::add).getMultistatus(IOUtils.toInputStream(MULTISTATUS, StandardCharsets.UTF_8));
+        assertTrue(multistatus.getResponse().isEmpty());
+        assertEquals(2, responses.size());
+        assertEquals("/d/", responses.get(0).getHref().get(0));
+        assertNotNull(responses.get(0).getPropstat().get(0).getProp().getResourcetype().getCollection());
+        assertEquals("/d/f", responses.get(1).getHref().get(0));
+        assertEquals("3", responses.get(1).getPropstat().get(0).getProp().getGetcontentlength().getContent().get(0));
+    }
+
+    @Test
+    public void testCallbackFailure() throws Exception {
+        try {
+            new SaxPropFindResponseHandler(response -> {
+                throw new ListCanceledException(AttributedList.emptyList());
+            }).getMultistatus(IOUtils.toInputStream(MULTISTATUS, StandardCharsets.UTF_8));
+            fail();
+        }
+        catch(IOException e) {
+            assertTrue(e.getCause() instanceof ListCanceledException);
+        }
+    }
+}